@@ -0,0 +1,77 @@
+package qub;
+
+/**
+ * Functions that create the IntellijModule and IntellijWorkspace documents that the benchmarks
+ * run against.
+ */
+interface IntellijBenchmarkDocuments
+{
+    /**
+     * Create a module with the provided number of source folders and module libraries.
+     * @param size The number of source folders and module libraries to add.
+     * @return The new module.
+     */
+    static IntellijModule createModule(int size)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(size, 0, "size");
+
+        final IntellijModule result = IntellijModule.create()
+            .setOutputUrl("file://$MODULE_DIR$/outputs")
+            .setExcludeOutput(true)
+            .setInheritedJdk(true)
+            .setSourceFolderForTests(true);
+        for (int i = 0; i < size; ++i)
+        {
+            result.addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources" + i));
+        }
+        for (int i = 0; i < size; ++i)
+        {
+            result.addModuleLibrary(IntellijBenchmarkDocuments.createModuleLibrary(i));
+        }
+        return result;
+    }
+
+    /**
+     * Create a module library whose urls are unique to the provided index.
+     * @param index The index of the module library.
+     * @return The new module library.
+     */
+    static IntellijModuleLibrary createModuleLibrary(int index)
+    {
+        return IntellijModuleLibrary.create()
+            .addClassesUrl("jar://C:/qub/publisher/project" + index + "/versions/1/project" + index + ".jar!/")
+            .addSourcesUrl("jar://C:/qub/publisher/project" + index + "/versions/1/project" + index + ".sources.jar!/");
+    }
+
+    /**
+     * Create a workspace with the provided number of run configurations.
+     * @param size The number of run configurations to add.
+     * @return The new workspace.
+     */
+    static IntellijWorkspace createWorkspace(int size)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(size, 0, "size");
+
+        final IntellijWorkspace result = IntellijWorkspace.create();
+        for (int i = 0; i < size; ++i)
+        {
+            result.addRunConfiguration(IntellijBenchmarkDocuments.createRunConfiguration(i));
+        }
+        return result;
+    }
+
+    /**
+     * Create a run configuration whose name and main class are unique to the provided index.
+     * @param index The index of the run configuration.
+     * @return The new run configuration.
+     */
+    static IntellijWorkspaceRunConfiguration createRunConfiguration(int index)
+    {
+        return IntellijWorkspaceRunConfiguration.create()
+            .setName("Test" + index)
+            .setModuleName("project")
+            .setMainClassFullName("qub.Test" + index)
+            .setProgramParameters("--pattern=qub.Test" + index)
+            .setVmParameters("-classpath C:/qub/publisher/project/versions/1/project.jar");
+    }
+}
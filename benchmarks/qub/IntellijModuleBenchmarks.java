@@ -0,0 +1,95 @@
+package qub;
+
+/**
+ * JMH benchmarks for parsing, querying, changing, and writing IntellijModules.
+ */
+@org.openjdk.jmh.annotations.BenchmarkMode(org.openjdk.jmh.annotations.Mode.Throughput)
+@org.openjdk.jmh.annotations.OutputTimeUnit(java.util.concurrent.TimeUnit.SECONDS)
+@org.openjdk.jmh.annotations.Warmup(iterations = 3, time = 2)
+@org.openjdk.jmh.annotations.Measurement(iterations = 5, time = 2)
+@org.openjdk.jmh.annotations.Fork(1)
+@org.openjdk.jmh.annotations.State(org.openjdk.jmh.annotations.Scope.Thread)
+public class IntellijModuleBenchmarks
+{
+    /**
+     * The number of source folders and module libraries in the benchmarked module.
+     */
+    @org.openjdk.jmh.annotations.Param({ "10", "1000", "100000" })
+    public int size;
+
+    private String moduleText;
+    private IntellijModule module;
+
+    /**
+     * A module that the changing benchmarks change. Each changing benchmark undoes its own
+     * change, so the module stays the same size for the whole iteration and only needs to be
+     * parsed again once per iteration instead of once per invocation.
+     */
+    @org.openjdk.jmh.annotations.State(org.openjdk.jmh.annotations.Scope.Thread)
+    public static class ChangedModule
+    {
+        private IntellijModule module;
+        private IntellijModuleLibrary addedModuleLibrary;
+        private IntellijModuleLibrary removedModuleLibrary;
+        private boolean inheritedJdk;
+
+        @org.openjdk.jmh.annotations.Setup(org.openjdk.jmh.annotations.Level.Iteration)
+        public void setupIteration(IntellijModuleBenchmarks benchmarks)
+        {
+            this.module = IntellijModule.parse(benchmarks.moduleText).await();
+            this.addedModuleLibrary = IntellijBenchmarkDocuments.createModuleLibrary(benchmarks.size);
+            this.removedModuleLibrary = IntellijBenchmarkDocuments.createModuleLibrary(benchmarks.size / 2);
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setupTrial()
+    {
+        this.moduleText = IntellijBenchmarkDocuments.createModule(this.size).toString(XMLFormat.pretty);
+        this.module = IntellijModule.parse(this.moduleText).await();
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public IntellijModule parse()
+    {
+        return IntellijModule.parse(this.moduleText).await();
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public void getModuleLibraries(org.openjdk.jmh.infra.Blackhole blackhole)
+    {
+        for (final IntellijModuleLibrary moduleLibrary : this.module.getModuleLibraries())
+        {
+            blackhole.consume(moduleLibrary);
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public Void addAndRemoveModuleLibrary(ChangedModule changedModule)
+    {
+        return changedModule.module
+            .addModuleLibrary(changedModule.addedModuleLibrary)
+            .removeModuleLibrary(changedModule.addedModuleLibrary)
+            .await();
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public IntellijModule removeAndAddModuleLibrary(ChangedModule changedModule)
+    {
+        changedModule.module.removeModuleLibrary(changedModule.removedModuleLibrary).await();
+        return changedModule.module.addModuleLibrary(changedModule.removedModuleLibrary);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public IntellijModule setInheritedJdk(ChangedModule changedModule)
+    {
+        changedModule.inheritedJdk = !changedModule.inheritedJdk;
+        return changedModule.module.setInheritedJdk(changedModule.inheritedJdk);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public String toStringPretty()
+    {
+        return this.module.toString(XMLFormat.pretty);
+    }
+}
@@ -0,0 +1,106 @@
+package qub;
+
+/**
+ * JMH benchmarks for parsing, querying, changing, and writing IntellijWorkspaces.
+ */
+@org.openjdk.jmh.annotations.BenchmarkMode(org.openjdk.jmh.annotations.Mode.Throughput)
+@org.openjdk.jmh.annotations.OutputTimeUnit(java.util.concurrent.TimeUnit.SECONDS)
+@org.openjdk.jmh.annotations.Warmup(iterations = 3, time = 2)
+@org.openjdk.jmh.annotations.Measurement(iterations = 5, time = 2)
+@org.openjdk.jmh.annotations.Fork(1)
+@org.openjdk.jmh.annotations.State(org.openjdk.jmh.annotations.Scope.Thread)
+public class IntellijWorkspaceBenchmarks
+{
+    /**
+     * An OutputStream that discards everything that is written to it.
+     */
+    private static final java.io.OutputStream nullOutputStream = new java.io.OutputStream()
+    {
+        @Override
+        public void write(int b)
+        {
+        }
+
+        @Override
+        public void write(byte[] bytes, int startIndex, int length)
+        {
+        }
+    };
+
+    /**
+     * The number of run configurations in the benchmarked workspace.
+     */
+    @org.openjdk.jmh.annotations.Param({ "10", "1000", "100000" })
+    public int size;
+
+    private String workspaceText;
+    private IntellijWorkspace workspace;
+
+    /**
+     * A workspace that the changing benchmarks change. Each changing benchmark undoes its own
+     * change, so the workspace stays the same size for the whole iteration and only needs to be
+     * parsed again once per iteration instead of once per invocation.
+     */
+    @org.openjdk.jmh.annotations.State(org.openjdk.jmh.annotations.Scope.Thread)
+    public static class ChangedWorkspace
+    {
+        private IntellijWorkspace workspace;
+        private IntellijWorkspaceRunConfiguration addedRunConfiguration;
+
+        @org.openjdk.jmh.annotations.Setup(org.openjdk.jmh.annotations.Level.Iteration)
+        public void setupIteration(IntellijWorkspaceBenchmarks benchmarks)
+        {
+            this.workspace = IntellijWorkspace.parse(benchmarks.workspaceText).await();
+            this.addedRunConfiguration = IntellijBenchmarkDocuments.createRunConfiguration(benchmarks.size);
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setupTrial()
+    {
+        this.workspaceText = IntellijBenchmarkDocuments.createWorkspace(this.size).toString(XMLFormat.pretty);
+        this.workspace = IntellijWorkspace.parse(this.workspaceText).await();
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public IntellijWorkspace parse()
+    {
+        return IntellijWorkspace.parse(this.workspaceText).await();
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public IntellijWorkspace parseRunManagerOnly()
+    {
+        return IntellijWorkspace.parse(this.workspaceText, Iterable.create()).await();
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public void getRunConfigurations(org.openjdk.jmh.infra.Blackhole blackhole)
+    {
+        for (final IntellijWorkspaceRunConfiguration runConfiguration : this.workspace.getRunConfigurations())
+        {
+            blackhole.consume(runConfiguration);
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public Void addAndRemoveRunConfiguration(ChangedWorkspace changedWorkspace)
+    {
+        return changedWorkspace.workspace
+            .addRunConfiguration(changedWorkspace.addedRunConfiguration)
+            .removeRunConfiguration(changedWorkspace.addedRunConfiguration)
+            .await();
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public String toStringPretty()
+    {
+        return this.workspace.toString(XMLFormat.pretty);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public Void writeToPretty()
+    {
+        return this.workspace.writeTo(IntellijWorkspaceBenchmarks.nullOutputStream, XMLFormat.pretty).await();
+    }
+}
@@ -0,0 +1,531 @@
+package qub;
+
+/**
+ * A cache of parsed .iml and workspace.xml documents that is stored on disk in a compact binary
+ * format. The cached copy of a file is written to a cache folder next to the file, and it is
+ * only used while the file's size and last modified time still match what they were when the
+ * cached copy was written. A file whose size or last modified time changes while it is being
+ * parsed isn't cached, but a change that keeps both the same, such as a same-sized write within
+ * the file system's timestamp resolution, can't be detected. Reading the binary format skips
+ * all of the work of tokenizing XML, so loading a cached document is much faster than parsing
+ * the original file.
+ *
+ * The binary format is:
+ * <pre>
+ * magic            4 bytes, "IJBC"
+ * formatVersion    1 byte
+ * stringCount      varint
+ * strings          stringCount x (byteCount varint, UTF-8 bytes)
+ * sourceModified   varint string reference
+ * sourceByteCount  varint
+ * declaration      1 byte (0 or 1), then version, encoding, and standalone string references
+ * root             element
+ * checksum         4 bytes, the CRC32 of every byte before it
+ *
+ * element          name string reference, split byte (0 or 1), attributeCount varint,
+ *                  attributeCount x (name and value string references),
+ *                  childCount varint, childCount x child
+ * child            1 byte (0 for an element, 1 for text), then the element or the text's string
+ *                  reference
+ * </pre>
+ * A string reference is a varint that is 0 for null, or the string's index in the string table
+ * plus 1.
+ */
+public class IntellijBinaryCache
+{
+    private static final byte[] magic = new byte[] { 'I', 'J', 'B', 'C' };
+    private static final int formatVersion = 1;
+    private static final int elementChildType = 0;
+    private static final int textChildType = 1;
+    private static final int checksumByteCount = 4;
+    private static final String defaultCacheFolderName = ".intellij-cache";
+    private static final String cacheFileExtension = ".bin";
+
+    private final String cacheFolderName;
+
+    private IntellijBinaryCache(String cacheFolderName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(cacheFolderName, "cacheFolderName");
+
+        this.cacheFolderName = cacheFolderName;
+    }
+
+    /**
+     * Create a new IntellijBinaryCache that stores its cached documents in a folder named
+     * ".intellij-cache" next to each parsed file.
+     * @return The new IntellijBinaryCache.
+     */
+    public static IntellijBinaryCache create()
+    {
+        return IntellijBinaryCache.create(IntellijBinaryCache.defaultCacheFolderName);
+    }
+
+    /**
+     * Create a new IntellijBinaryCache that stores its cached documents in a folder with the
+     * provided name next to each parsed file.
+     * @param cacheFolderName The name of the cache folder.
+     * @return The new IntellijBinaryCache.
+     */
+    public static IntellijBinaryCache create(String cacheFolderName)
+    {
+        return new IntellijBinaryCache(cacheFolderName);
+    }
+
+    /**
+     * Get the module in the provided .iml file, reading it from the cache if the cached copy is
+     * still current and parsing the file (and updating the cached copy) if it isn't.
+     * @param file The .iml file to parse.
+     * @return The module in the provided file.
+     */
+    public Result<IntellijModule> parseModule(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return this.parseDocument(file)
+            .then((XMLDocument document) -> IntellijModule.create(document));
+    }
+
+    /**
+     * Get the workspace in the provided workspace.xml file, reading it from the cache if the
+     * cached copy is still current and parsing the file (and updating the cached copy) if it
+     * isn't.
+     * @param file The workspace.xml file to parse.
+     * @return The workspace in the provided file.
+     */
+    public Result<IntellijWorkspace> parseWorkspace(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return this.parseDocument(file)
+            .then((XMLDocument document) -> IntellijWorkspace.create(document));
+    }
+
+    /**
+     * Get the file that the cached copy of the provided file is stored in.
+     * @param file The file that is cached.
+     * @return The file that the cached copy is stored in.
+     */
+    public Result<File> getCacheFile(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return Result.create(() ->
+        {
+            return file.getParentFolder().await()
+                .getFolder(this.cacheFolderName).await()
+                .getFile(file.getName() + IntellijBinaryCache.cacheFileExtension).await();
+        });
+    }
+
+    private Result<XMLDocument> parseDocument(File file)
+    {
+        return Result.create(() ->
+        {
+            final String sourceModified = file.getLastModified().await().toString();
+            final long sourceByteCount = file.getContentsByteCount().await();
+            final File cacheFile = this.getCacheFile(file).await();
+
+            XMLDocument result = null;
+            final byte[] cacheBytes = cacheFile.getContentsAsBytes()
+                .catchError(FileNotFoundException.class)
+                .await();
+            if (cacheBytes != null)
+            {
+                result = IntellijBinaryCache.read(cacheBytes, sourceModified, sourceByteCount)
+                    .catchError(ParseException.class)
+                    .await();
+            }
+
+            if (result == null)
+            {
+                result = XML.parse(file).await();
+
+                // If the file changed while it was being parsed, then the parsed document may not
+                // match the stamp that was read before parsing, so it isn't cached.
+                final boolean sourceChanged =
+                    !sourceModified.equals(file.getLastModified().await().toString()) ||
+                    sourceByteCount != file.getContentsByteCount().await();
+                final byte[] bytes = sourceChanged
+                    ? null
+                    : IntellijBinaryCache.write(result, sourceModified, sourceByteCount);
+                if (bytes != null)
+                {
+                    // A cache file that can't be written shouldn't stop the file from being parsed.
+                    cacheFile.setContentsAsBytes(bytes)
+                        .catchError()
+                        .await();
+                }
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Write the provided document in the binary format.
+     * @param document The document to write.
+     * @param sourceModified The last modified time of the file that the document was parsed from.
+     * @param sourceByteCount The size of the file that the document was parsed from.
+     * @return The bytes of the binary format, or null if the document contains children that the
+     * binary format can't represent.
+     */
+    static byte[] write(XMLDocument document, String sourceModified, long sourceByteCount)
+    {
+        PreCondition.assertNotNull(document, "document");
+        PreCondition.assertNotNull(document.getRoot(), "document.getRoot()");
+        PreCondition.assertGreaterThanOrEqualTo(sourceByteCount, 0, "sourceByteCount");
+
+        final StringTable strings = new StringTable();
+        final java.io.ByteArrayOutputStream body = new java.io.ByteArrayOutputStream();
+        IntellijBinaryCache.writeStringReference(body, strings.add(sourceModified));
+        IntellijBinaryCache.writeVarint(body, sourceByteCount);
+
+        final XMLDeclaration declaration = document.getDeclaration();
+        if (declaration == null)
+        {
+            body.write(0);
+        }
+        else
+        {
+            body.write(1);
+            IntellijBinaryCache.writeStringReference(body, strings.add(declaration.getVersion()));
+            IntellijBinaryCache.writeStringReference(body, strings.add(declaration.getEncoding()));
+            IntellijBinaryCache.writeStringReference(body, strings.add(declaration.getStandalone()));
+        }
+
+        byte[] result = null;
+        if (IntellijBinaryCache.writeElement(body, strings, document.getRoot()))
+        {
+            final java.io.ByteArrayOutputStream output = new java.io.ByteArrayOutputStream(body.size() + strings.getByteCount() + IntellijBinaryCache.magic.length + 1 + IntellijBinaryCache.checksumByteCount);
+            output.write(IntellijBinaryCache.magic, 0, IntellijBinaryCache.magic.length);
+            output.write(IntellijBinaryCache.formatVersion);
+            IntellijBinaryCache.writeVarint(output, strings.values.size());
+            for (final byte[] value : strings.encodedValues)
+            {
+                IntellijBinaryCache.writeVarint(output, value.length);
+                output.write(value, 0, value.length);
+            }
+            final byte[] bodyBytes = body.toByteArray();
+            output.write(bodyBytes, 0, bodyBytes.length);
+
+            final java.util.zip.CRC32 checksum = new java.util.zip.CRC32();
+            checksum.update(output.toByteArray());
+            final long checksumValue = checksum.getValue();
+            for (int i = IntellijBinaryCache.checksumByteCount - 1; i >= 0; --i)
+            {
+                output.write((int)(checksumValue >>> (i * 8)) & 0xFF);
+            }
+            result = output.toByteArray();
+        }
+        return result;
+    }
+
+    /**
+     * Read a document from the provided bytes of the binary format.
+     * @param bytes The bytes to read.
+     * @param sourceModified The last modified time that the source file must have, or null to
+     *                       accept any.
+     * @param sourceByteCount The size that the source file must have, or -1 to accept any.
+     * @return The document, or a ParseException if the bytes are not valid or don't match the
+     * provided source file values.
+     */
+    static Result<XMLDocument> read(byte[] bytes, String sourceModified, long sourceByteCount)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        return Result.create(() ->
+        {
+            final int bodyLength = bytes.length - IntellijBinaryCache.checksumByteCount;
+            if (bodyLength < IntellijBinaryCache.magic.length + 1)
+            {
+                throw new ParseException("The binary cache is too short.");
+            }
+            for (int i = 0; i < IntellijBinaryCache.magic.length; ++i)
+            {
+                if (bytes[i] != IntellijBinaryCache.magic[i])
+                {
+                    throw new ParseException("The binary cache doesn't start with the expected magic bytes.");
+                }
+            }
+            if (bytes[IntellijBinaryCache.magic.length] != IntellijBinaryCache.formatVersion)
+            {
+                throw new ParseException("Expected binary cache format version " + IntellijBinaryCache.formatVersion + ", but found " + bytes[IntellijBinaryCache.magic.length] + " instead.");
+            }
+
+            final java.util.zip.CRC32 checksum = new java.util.zip.CRC32();
+            checksum.update(bytes, 0, bodyLength);
+            long expectedChecksum = 0;
+            for (int i = 0; i < IntellijBinaryCache.checksumByteCount; ++i)
+            {
+                expectedChecksum = (expectedChecksum << 8) | (bytes[bodyLength + i] & 0xFF);
+            }
+            if (checksum.getValue() != expectedChecksum)
+            {
+                throw new ParseException("The binary cache's checksum doesn't match its contents.");
+            }
+
+            final Reader reader = new Reader(bytes, IntellijBinaryCache.magic.length + 1, bodyLength);
+            final int stringCount = reader.readVarintInt();
+            final String[] strings = new String[stringCount];
+            for (int i = 0; i < stringCount; ++i)
+            {
+                final int byteCount = reader.readVarintInt();
+                strings[i] = new String(bytes, reader.take(byteCount), byteCount, java.nio.charset.StandardCharsets.UTF_8);
+            }
+            reader.strings = strings;
+
+            final String cachedSourceModified = reader.readString();
+            final long cachedSourceByteCount = reader.readVarint();
+            if ((sourceModified != null && !sourceModified.equals(cachedSourceModified)) ||
+                (sourceByteCount >= 0 && sourceByteCount != cachedSourceByteCount))
+            {
+                throw new ParseException("The binary cache is out of date.");
+            }
+
+            final XMLDocument result = XMLDocument.create();
+            if (reader.readByte() != 0)
+            {
+                final XMLDeclaration declaration = XMLDeclaration.create();
+                final String version = reader.readString();
+                if (version != null)
+                {
+                    declaration.setVersion(version);
+                }
+                final String encoding = reader.readString();
+                if (encoding != null)
+                {
+                    declaration.setEncoding(encoding);
+                }
+                final String standalone = reader.readString();
+                if (standalone != null)
+                {
+                    declaration.setStandalone(standalone);
+                }
+                result.setDeclaration(declaration);
+            }
+            result.setRoot(reader.readElement());
+
+            if (reader.index != bodyLength)
+            {
+                throw new ParseException("The binary cache has unexpected bytes after its root element.");
+            }
+
+            return result;
+        });
+    }
+
+    private static boolean writeElement(java.io.ByteArrayOutputStream output, StringTable strings, XMLElement element)
+    {
+        IntellijBinaryCache.writeStringReference(output, strings.add(element.getName()));
+        output.write(element.isSplit() ? 1 : 0);
+
+        final List<XMLAttribute> attributes = List.create(element.getAttributes());
+        IntellijBinaryCache.writeVarint(output, attributes.getCount());
+        for (final XMLAttribute attribute : attributes)
+        {
+            IntellijBinaryCache.writeStringReference(output, strings.add(attribute.getName()));
+            IntellijBinaryCache.writeStringReference(output, strings.add(attribute.getValue()));
+        }
+
+        final List<XMLElementChild> children = List.create(element.getChildren());
+        IntellijBinaryCache.writeVarint(output, children.getCount());
+        boolean result = true;
+        for (final XMLElementChild child : children)
+        {
+            if (child instanceof XMLElement)
+            {
+                output.write(IntellijBinaryCache.elementChildType);
+                result = IntellijBinaryCache.writeElement(output, strings, (XMLElement)child);
+            }
+            else if (child instanceof XMLText)
+            {
+                output.write(IntellijBinaryCache.textChildType);
+                IntellijBinaryCache.writeStringReference(output, strings.add(((XMLText)child).getText()));
+            }
+            else
+            {
+                result = false;
+            }
+
+            if (!result)
+            {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static void writeStringReference(java.io.ByteArrayOutputStream output, int stringIndex)
+    {
+        IntellijBinaryCache.writeVarint(output, stringIndex + 1L);
+    }
+
+    private static void writeVarint(java.io.ByteArrayOutputStream output, long value)
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            output.write((int)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.write((int)value);
+    }
+
+    /**
+     * The table of distinct strings in a document, in the order that they were first added.
+     */
+    private static class StringTable
+    {
+        private final java.util.HashMap<String,Integer> indexes = new java.util.HashMap<>();
+        private final java.util.ArrayList<String> values = new java.util.ArrayList<>();
+        private final java.util.ArrayList<byte[]> encodedValues = new java.util.ArrayList<>();
+        private int byteCount;
+
+        /**
+         * Add the provided string to this table if it isn't already in it.
+         * @param value The string to add.
+         * @return The index of the string in this table, or -1 if the string is null.
+         */
+        private int add(String value)
+        {
+            int result = -1;
+            if (value != null)
+            {
+                final Integer existingIndex = this.indexes.get(value);
+                if (existingIndex != null)
+                {
+                    result = existingIndex;
+                }
+                else
+                {
+                    result = this.values.size();
+                    this.indexes.put(value, result);
+                    this.values.add(value);
+                    final byte[] encodedValue = value.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    this.encodedValues.add(encodedValue);
+                    // Each string is preceded by its length, which takes up at most 5 bytes.
+                    this.byteCount += encodedValue.length + 5;
+                }
+            }
+            return result;
+        }
+
+        private int getByteCount()
+        {
+            return this.byteCount;
+        }
+    }
+
+    /**
+     * Reads the values of the binary format from a byte array.
+     */
+    private static class Reader
+    {
+        private final byte[] bytes;
+        private final int endIndex;
+        private int index;
+        private String[] strings;
+
+        private Reader(byte[] bytes, int startIndex, int endIndex)
+        {
+            this.bytes = bytes;
+            this.index = startIndex;
+            this.endIndex = endIndex;
+        }
+
+        private int take(int byteCount)
+        {
+            if (byteCount < 0 || this.endIndex - this.index < byteCount)
+            {
+                throw new ParseException("Unexpected end of binary cache.");
+            }
+            final int result = this.index;
+            this.index += byteCount;
+            return result;
+        }
+
+        private int readByte()
+        {
+            return this.bytes[this.take(1)] & 0xFF;
+        }
+
+        private long readVarint()
+        {
+            long result = 0;
+            int shift = 0;
+            int b;
+            do
+            {
+                if (shift > 63)
+                {
+                    throw new ParseException("A varint in the binary cache is too long.");
+                }
+                b = this.readByte();
+                result |= (long)(b & 0x7F) << shift;
+                shift += 7;
+            }
+            while ((b & 0x80) != 0);
+            return result;
+        }
+
+        private int readVarintInt()
+        {
+            final long result = this.readVarint();
+            if (result > Integer.MAX_VALUE)
+            {
+                throw new ParseException("A count in the binary cache is too large.");
+            }
+            return (int)result;
+        }
+
+        private String readString()
+        {
+            final long reference = this.readVarint();
+            if (reference > this.strings.length)
+            {
+                throw new ParseException("A string reference in the binary cache is out of range.");
+            }
+            return reference == 0 ? null : this.strings[(int)(reference - 1)];
+        }
+
+        private String readNonNullString()
+        {
+            final String result = this.readString();
+            if (result == null)
+            {
+                throw new ParseException("Expected a string in the binary cache, but found null.");
+            }
+            return result;
+        }
+
+        private XMLElement readElement()
+        {
+            final XMLElement result = XMLElement.create(this.readNonNullString(), this.readByte() != 0);
+
+            final int attributeCount = this.readVarintInt();
+            for (int i = 0; i < attributeCount; ++i)
+            {
+                result.setAttribute(this.readNonNullString(), this.readNonNullString());
+            }
+
+            final int childCount = this.readVarintInt();
+            for (int i = 0; i < childCount; ++i)
+            {
+                final int childType = this.readByte();
+                if (childType == IntellijBinaryCache.elementChildType)
+                {
+                    result.addChild(this.readElement());
+                }
+                else if (childType == IntellijBinaryCache.textChildType)
+                {
+                    result.addChild(XMLText.create(this.readNonNullString()));
+                }
+                else
+                {
+                    throw new ParseException("Unknown child type " + childType + " in the binary cache.");
+                }
+            }
+
+            return result;
+        }
+    }
+}
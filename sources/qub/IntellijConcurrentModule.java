@@ -0,0 +1,129 @@
+package qub;
+
+/**
+ * A wrapper around an IntellijModule that lets many threads add module libraries at the same
+ * time. Added module libraries are staged until flush() is called, at which point they are added
+ * to the module. Because a module's libraries are its classpath, each library is added by a
+ * producer that is identified by a caller-supplied index (such as the index of a worker). The
+ * flushed libraries are grouped by producer index in increasing order, and each producer's
+ * libraries keep the order that the producer added them in, so the resulting classpath doesn't
+ * depend on which thread got there first as long as each producer index is only used by one
+ * thread at a time. Reads go through an immutable snapshot of the module that is replaced after every
+ * flush, so they never wait on a lock.
+ */
+public class IntellijConcurrentModule
+{
+    private final IntellijModule module;
+    private final IntellijConcurrentStaging<IntellijModuleLibrary> stagedModuleLibraries;
+    private volatile IntellijModuleSnapshot snapshot;
+
+    private IntellijConcurrentModule(IntellijModule module)
+    {
+        PreCondition.assertNotNull(module, "module");
+
+        this.module = module;
+        this.stagedModuleLibraries = IntellijConcurrentStaging.create();
+        this.snapshot = module.snapshot();
+    }
+
+    /**
+     * Create a new IntellijConcurrentModule that wraps the provided module. The provided module
+     * shouldn't be used directly while it is wrapped.
+     * @param module The module to wrap.
+     * @return The new IntellijConcurrentModule.
+     */
+    public static IntellijConcurrentModule create(IntellijModule module)
+    {
+        return new IntellijConcurrentModule(module);
+    }
+
+    /**
+     * Stage the provided module library to be added to the module by the next flush() as
+     * producer 0. This is meant for a single thread; threads that add libraries at the same time
+     * should each use addModuleLibrary(int,IntellijModuleLibrary) with their own producer index.
+     * @param moduleLibrary The module library to add.
+     * @return This object for method chaining.
+     */
+    public IntellijConcurrentModule addModuleLibrary(IntellijModuleLibrary moduleLibrary)
+    {
+        return this.addModuleLibrary(0, moduleLibrary);
+    }
+
+    /**
+     * Stage the provided module library to be added to the module by the next flush(). This can
+     * be called from any thread.
+     * @param producerIndex The index of the producer that is adding the library. The libraries
+     *                      from lower producer indexes come first in the module.
+     * @param moduleLibrary The module library to add.
+     * @return This object for method chaining.
+     */
+    public IntellijConcurrentModule addModuleLibrary(int producerIndex, IntellijModuleLibrary moduleLibrary)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(producerIndex, 0, "producerIndex");
+        PreCondition.assertNotNull(moduleLibrary, "moduleLibrary");
+
+        this.stagedModuleLibraries.add(producerIndex, moduleLibrary);
+
+        return this;
+    }
+
+    /**
+     * Add the staged module libraries to the module and publish a new snapshot.
+     * @return The number of module libraries that were added.
+     */
+    public synchronized int flush()
+    {
+        final java.util.ArrayList<IntellijModuleLibrary> moduleLibraries = this.stagedModuleLibraries.drain();
+        for (final IntellijModuleLibrary moduleLibrary : moduleLibraries)
+        {
+            this.module.addModuleLibrary(moduleLibrary);
+        }
+        if (!moduleLibraries.isEmpty())
+        {
+            this.snapshot = this.module.snapshot();
+        }
+        return moduleLibraries.size();
+    }
+
+    /**
+     * Get the snapshot of the module from the most recent flush(). This never blocks.
+     * @return The snapshot of the module from the most recent flush().
+     */
+    public IntellijModuleSnapshot snapshot()
+    {
+        return this.snapshot;
+    }
+
+    /**
+     * Flush the staged module libraries and then save the module to the provided file if the
+     * file's contents are different from the module's contents.
+     * @param file The file to save the module to.
+     * @return Whether the file was written.
+     */
+    public synchronized Result<Boolean> saveIfChanged(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        this.flush();
+        return this.module.saveIfChanged(file);
+    }
+
+    /**
+     * Flush the staged module libraries and get the text of the module in the provided format.
+     * @param format The format to write the module with.
+     * @return The text of the module.
+     */
+    public synchronized String toString(XMLFormat format)
+    {
+        PreCondition.assertNotNull(format, "format");
+
+        this.flush();
+        return this.module.toString(format);
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.toString(XMLFormat.consise);
+    }
+}
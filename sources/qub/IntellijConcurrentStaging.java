@@ -0,0 +1,136 @@
+package qub;
+
+/**
+ * A collection of values that many threads can add to at the same time. Each value is added by a
+ * producer, which is identified by a caller-supplied index, and each producer's values go into
+ * that producer's own buffer, so threads only contend with each other when they share a
+ * producer index. The staged values are taken out all at once, sorted into a deterministic
+ * order, by drain(). The order only depends on the values, their producer indexes, and the order
+ * that each producer added its values in, so it doesn't change from run to run as long as each
+ * producer index is only used by one thread at a time.
+ * @param <T> The type of values that are staged.
+ */
+class IntellijConcurrentStaging<T>
+{
+    /**
+     * A staged value, along with the sort key that was computed for it when it was added, the
+     * index of the producer that added it, and its position within that producer's values.
+     * @param <T> The type of the staged value.
+     */
+    private static final class Entry<T>
+    {
+        private final T value;
+        private final String key;
+        private final int producerIndex;
+        private final long sequence;
+
+        private Entry(T value, String key, int producerIndex, long sequence)
+        {
+            this.value = value;
+            this.key = key;
+            this.producerIndex = producerIndex;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * The values that were added by one producer, in the order that they were added.
+     * @param <T> The type of the staged values.
+     */
+    private static final class Buffer<T>
+    {
+        private final java.util.ArrayList<Entry<T>> entries;
+        private long nextSequence;
+
+        private Buffer()
+        {
+            this.entries = new java.util.ArrayList<>();
+        }
+    }
+
+    private static final java.util.Comparator<Entry<?>> entryOrder =
+        java.util.Comparator.comparing((Entry<?> entry) -> entry.key, java.util.Comparator.nullsFirst(java.util.Comparator.<String>naturalOrder()))
+            .thenComparingInt((Entry<?> entry) -> entry.producerIndex)
+            .thenComparingLong((Entry<?> entry) -> entry.sequence);
+
+    private final java.util.concurrent.ConcurrentHashMap<Integer,Buffer<T>> buffers;
+    private final Func1<T,String> getKey;
+
+    private IntellijConcurrentStaging(Func1<T,String> getKey)
+    {
+        this.buffers = new java.util.concurrent.ConcurrentHashMap<>();
+        this.getKey = getKey;
+    }
+
+    /**
+     * Create a new IntellijConcurrentStaging. Drained values are grouped by their producer
+     * indexes in increasing order, and each producer's values are in the order that the producer
+     * added them.
+     * @param <T> The type of values that are staged.
+     * @return The new IntellijConcurrentStaging.
+     */
+    static <T> IntellijConcurrentStaging<T> create()
+    {
+        return new IntellijConcurrentStaging<>(null);
+    }
+
+    /**
+     * Create a new IntellijConcurrentStaging. Drained values are sorted by their keys, and values
+     * with the same key are ordered by their producer indexes and then by the order that each
+     * producer added them.
+     * @param getKey The function that gets the sort key of a value. It is called once for each
+     *               value, on the thread that adds the value.
+     * @param <T> The type of values that are staged.
+     * @return The new IntellijConcurrentStaging.
+     */
+    static <T> IntellijConcurrentStaging<T> create(Func1<T,String> getKey)
+    {
+        PreCondition.assertNotNull(getKey, "getKey");
+
+        return new IntellijConcurrentStaging<>(getKey);
+    }
+
+    /**
+     * Stage the provided value for the provided producer.
+     * @param producerIndex The index of the producer that is adding the value.
+     * @param value The value to stage.
+     */
+    void add(int producerIndex, T value)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(producerIndex, 0, "producerIndex");
+        PreCondition.assertNotNull(value, "value");
+
+        final String key = this.getKey == null ? null : this.getKey.run(value);
+        final Buffer<T> buffer = this.buffers.computeIfAbsent(producerIndex, (Integer index) -> new Buffer<>());
+        synchronized (buffer)
+        {
+            buffer.entries.add(new Entry<>(value, key, producerIndex, buffer.nextSequence++));
+        }
+    }
+
+    /**
+     * Remove all of the staged values and return them in this staging's order.
+     * @return The staged values.
+     */
+    java.util.ArrayList<T> drain()
+    {
+        final java.util.ArrayList<Entry<T>> entries = new java.util.ArrayList<>();
+        for (final Buffer<T> buffer : this.buffers.values())
+        {
+            synchronized (buffer)
+            {
+                entries.addAll(buffer.entries);
+                buffer.entries.clear();
+                buffer.nextSequence = 0;
+            }
+        }
+        entries.sort(IntellijConcurrentStaging.entryOrder);
+
+        final java.util.ArrayList<T> result = new java.util.ArrayList<>(entries.size());
+        for (final Entry<T> entry : entries)
+        {
+            result.add(entry.value);
+        }
+        return result;
+    }
+}
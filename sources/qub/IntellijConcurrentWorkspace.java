@@ -0,0 +1,167 @@
+package qub;
+
+/**
+ * A wrapper around an IntellijWorkspace that lets many threads add run configurations at the same
+ * time. Added run configurations are staged until flush() is called, at which point they are
+ * added to the workspace sorted by their names, so the resulting document doesn't depend on which
+ * thread added which run configuration first. Run configurations with the same name are ordered
+ * by the caller-supplied index of the producer that added them, and then by the order that the
+ * producer added them in. Reads go through an immutable snapshot of the run
+ * configuration names that is replaced after every flush, so they never wait on a lock.
+ */
+public class IntellijConcurrentWorkspace
+{
+    private final IntellijWorkspace workspace;
+    private final IntellijConcurrentStaging<IntellijWorkspaceRunConfiguration> stagedRunConfigurations;
+    private volatile Snapshot snapshot;
+
+    /**
+     * The run configuration names that were in the workspace after a flush. A new Snapshot is
+     * published as a whole, so readers never see the names from two different flushes.
+     */
+    private static final class Snapshot
+    {
+        private final String[] runConfigurationNames;
+        private final java.util.HashSet<String> runConfigurationNameSet;
+
+        private Snapshot(String[] runConfigurationNames)
+        {
+            this.runConfigurationNames = runConfigurationNames;
+            this.runConfigurationNameSet = new java.util.HashSet<>(java.util.Arrays.asList(runConfigurationNames));
+        }
+    }
+
+    private IntellijConcurrentWorkspace(IntellijWorkspace workspace)
+    {
+        PreCondition.assertNotNull(workspace, "workspace");
+
+        this.workspace = workspace;
+        this.stagedRunConfigurations = IntellijConcurrentStaging.create(IntellijWorkspaceRunConfiguration::getName);
+        this.publishSnapshot();
+    }
+
+    /**
+     * Create a new IntellijConcurrentWorkspace that wraps the provided workspace. The provided
+     * workspace shouldn't be used directly while it is wrapped.
+     * @param workspace The workspace to wrap.
+     * @return The new IntellijConcurrentWorkspace.
+     */
+    public static IntellijConcurrentWorkspace create(IntellijWorkspace workspace)
+    {
+        return new IntellijConcurrentWorkspace(workspace);
+    }
+
+    private void publishSnapshot()
+    {
+        final java.util.ArrayList<String> names = new java.util.ArrayList<>();
+        for (final IntellijWorkspaceRunConfiguration runConfiguration : this.workspace.getRunConfigurations())
+        {
+            names.add(runConfiguration.getName());
+        }
+        this.snapshot = new Snapshot(names.toArray(new String[0]));
+    }
+
+    /**
+     * Stage the provided run configuration to be added to the workspace by the next flush() as
+     * producer 0. This can be called from any thread.
+     * @param runConfiguration The run configuration to add.
+     * @return This object for method chaining.
+     */
+    public IntellijConcurrentWorkspace addRunConfiguration(IntellijWorkspaceRunConfiguration runConfiguration)
+    {
+        return this.addRunConfiguration(0, runConfiguration);
+    }
+
+    /**
+     * Stage the provided run configuration to be added to the workspace by the next flush().
+     * This can be called from any thread.
+     * @param producerIndex The index of the producer that is adding the run configuration. It
+     *                      orders run configurations that have the same name.
+     * @param runConfiguration The run configuration to add.
+     * @return This object for method chaining.
+     */
+    public IntellijConcurrentWorkspace addRunConfiguration(int producerIndex, IntellijWorkspaceRunConfiguration runConfiguration)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(producerIndex, 0, "producerIndex");
+        PreCondition.assertNotNull(runConfiguration, "runConfiguration");
+
+        this.stagedRunConfigurations.add(producerIndex, runConfiguration);
+
+        return this;
+    }
+
+    /**
+     * Add the staged run configurations to the workspace and publish a new snapshot.
+     * @return The number of run configurations that were added.
+     */
+    public synchronized int flush()
+    {
+        final java.util.ArrayList<IntellijWorkspaceRunConfiguration> runConfigurations = this.stagedRunConfigurations.drain();
+        for (final IntellijWorkspaceRunConfiguration runConfiguration : runConfigurations)
+        {
+            this.workspace.addRunConfiguration(runConfiguration);
+        }
+        if (!runConfigurations.isEmpty())
+        {
+            this.publishSnapshot();
+        }
+        return runConfigurations.size();
+    }
+
+    /**
+     * Get the names of the run configurations in the workspace as of the most recent flush(), in
+     * document order. This never blocks.
+     * @return The names of the run configurations in the workspace.
+     */
+    public Iterable<String> getRunConfigurationNames()
+    {
+        return Iterable.create(this.snapshot.runConfigurationNames.clone());
+    }
+
+    /**
+     * Get whether the workspace had a run configuration with the provided name as of the most
+     * recent flush(). This never blocks.
+     * @param name The name of the run configuration.
+     * @return Whether the workspace has a run configuration with the provided name.
+     */
+    public boolean containsRunConfiguration(String name)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+
+        return this.snapshot.runConfigurationNameSet.contains(name);
+    }
+
+    /**
+     * Flush the staged run configurations and then save the workspace to the provided file if
+     * the file's contents are different from the workspace's contents.
+     * @param file The file to save the workspace to.
+     * @return Whether the file was written.
+     */
+    public synchronized Result<Boolean> saveIfChanged(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        this.flush();
+        return this.workspace.saveIfChanged(file);
+    }
+
+    /**
+     * Flush the staged run configurations and get the text of the workspace in the provided
+     * format.
+     * @param format The format to write the workspace with.
+     * @return The text of the workspace.
+     */
+    public synchronized String toString(XMLFormat format)
+    {
+        PreCondition.assertNotNull(format, "format");
+
+        this.flush();
+        return this.workspace.toString(format);
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.toString(XMLFormat.consise);
+    }
+}
@@ -0,0 +1,311 @@
+package qub;
+
+/**
+ * Functions for writing Intellij documents to files.
+ */
+interface IntellijFiles
+{
+    String digestAlgorithm = "SHA-256";
+    String temporaryFileSuffix = ".tmp";
+    int readBufferLength = 8192;
+
+    /**
+     * Write the provided document to the provided file if the file doesn't already contain the
+     * document's contents. The document is written to a uniquely named temporary file next to the
+     * provided file and then moved over the provided file. The move is only as atomic as the file
+     * system's relocate operation, so readers may briefly see no file or a partially replaced one
+     * on file systems that can't replace a file in one step.
+     * @param document The document to save.
+     * @param format The format to write the document with.
+     * @param file The file to save the document to.
+     * @return Whether the file was written.
+     */
+    static Result<Boolean> saveIfChanged(XMLDocument document, XMLFormat format, File file)
+    {
+        PreCondition.assertNotNull(document, "document");
+        PreCondition.assertNotNull(format, "format");
+        PreCondition.assertNotNull(file, "file");
+
+        return IntellijXMLWriter.supports(format)
+            ? IntellijFiles.saveIfChanged((Appendable output) -> IntellijXMLWriter.write(document, format, (XMLElement element) -> null, output), file)
+            : IntellijFiles.saveIfChanged(document.toString(format), file);
+    }
+
+    /**
+     * Write the provided text to the provided file if the file doesn't already contain the text.
+     * The text is written to a temporary file next to the provided file and then moved over the
+     * provided file so that readers never see a partially written file.
+     * @param text The text to save.
+     * @param file The file to save the text to.
+     * @return Whether the file was written.
+     */
+    static Result<Boolean> saveIfChanged(String text, File file)
+    {
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertNotNull(file, "file");
+
+        return IntellijFiles.saveIfChanged((Appendable output) ->
+        {
+            try
+            {
+                output.append(text);
+            }
+            catch (java.io.IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+        }, file);
+    }
+
+    /**
+     * Write the text that the provided action appends to the provided file if the file doesn't
+     * already contain that text. The text is never built as one String. It is encoded as UTF-8 and
+     * streamed into a digest that is compared with the digest of the file's contents, and only if
+     * the digests are different is the action run again to stream the text into a temporary file
+     * next to the provided file. Each save uses its own uniquely named temporary file, so
+     * concurrent saves of the same file never write into each other's temporary file. The
+     * temporary file is then moved over the provided file, or deleted if it couldn't be written or
+     * moved. The move is only as atomic as the file system's relocate operation, so readers are
+     * only guaranteed to never see a partially written file on file systems that replace a file in
+     * one step.
+     * @param writeContents The action that appends the text to save. It may be run twice, so it
+     *                      must append the same text each time.
+     * @param file The file to save the text to.
+     * @return Whether the file was written.
+     */
+    static Result<Boolean> saveIfChanged(Action1<Appendable> writeContents, File file)
+    {
+        PreCondition.assertNotNull(writeContents, "writeContents");
+        PreCondition.assertNotNull(file, "file");
+
+        return Result.create(() ->
+        {
+            final java.security.MessageDigest digest = IntellijFiles.createDigest();
+            IntellijFiles.write(writeContents, digest::update);
+            final byte[] contentsDigest = digest.digest();
+
+            final byte[] existingDigest = IntellijFiles.getDigest(file).await();
+            final boolean result = !java.security.MessageDigest.isEqual(contentsDigest, existingDigest);
+            if (result)
+            {
+                final File temporaryFile = file.getParentFolder().await()
+                    .getFile(IntellijFiles.getTemporaryFileName(file)).await();
+                try
+                {
+                    final ByteWriteStream stream = temporaryFile.getContentsByteWriteStream().await();
+                    try
+                    {
+                        IntellijFiles.write(writeContents, (java.nio.ByteBuffer bytes) -> IntellijFiles.writeBytes(bytes, stream));
+                    }
+                    finally
+                    {
+                        stream.dispose().await();
+                    }
+                    temporaryFile.relocateTo(file).await();
+                }
+                catch (Throwable error)
+                {
+                    temporaryFile.delete().catchError().await();
+                    throw error;
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Get a name for a temporary file next to the provided file that no other save will use.
+     * @param file The file that the temporary file will be moved over.
+     * @return The name of the temporary file.
+     */
+    static String getTemporaryFileName(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return file.getName() + "." + java.util.UUID.randomUUID() + IntellijFiles.temporaryFileSuffix;
+    }
+
+    /**
+     * Encode the text that the provided action appends as UTF-8 and pass the encoded bytes to the
+     * provided consumer one buffer at a time. Each buffer must be fully consumed before the
+     * consumer returns.
+     * @param writeContents The action that appends the text.
+     * @param writeBytes The consumer of the encoded bytes.
+     */
+    static void write(Action1<Appendable> writeContents, Action1<java.nio.ByteBuffer> writeBytes)
+    {
+        PreCondition.assertNotNull(writeContents, "writeContents");
+        PreCondition.assertNotNull(writeBytes, "writeBytes");
+
+        final java.nio.channels.WritableByteChannel channel = new java.nio.channels.WritableByteChannel()
+        {
+            @Override
+            public int write(java.nio.ByteBuffer bytes)
+            {
+                final int result = bytes.remaining();
+                writeBytes.run(bytes);
+                return result;
+            }
+
+            @Override
+            public boolean isOpen()
+            {
+                return true;
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+
+        try
+        {
+            IntellijUtf8ChannelWriter.write(channel, writeContents);
+        }
+        catch (java.io.IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Write the remaining bytes in the provided buffer to the provided stream.
+     * @param bytes The bytes to write.
+     * @param stream The stream to write the bytes to.
+     */
+    static void writeBytes(java.nio.ByteBuffer bytes, ByteWriteStream stream)
+    {
+        final int length = bytes.remaining();
+        final byte[] array;
+        final int startIndex;
+        if (bytes.hasArray())
+        {
+            array = bytes.array();
+            startIndex = bytes.arrayOffset() + bytes.position();
+        }
+        else
+        {
+            array = new byte[length];
+            bytes.duplicate().get(array);
+            startIndex = 0;
+        }
+
+        int bytesWritten = 0;
+        while (bytesWritten < length)
+        {
+            bytesWritten += stream.writeBytes(array, startIndex + bytesWritten, length - bytesWritten).await();
+        }
+        bytes.position(bytes.limit());
+    }
+
+    /**
+     * Get the digest of the provided file's contents. The contents are read in chunks so that the
+     * whole file never needs to be in memory at once.
+     * @param file The file to get the digest of.
+     * @return The digest of the file's contents, or null if the file doesn't exist.
+     */
+    static Result<byte[]> getDigest(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return Result.create(() ->
+        {
+            byte[] result = null;
+            final ByteReadStream contents = file.getContentsReadStream()
+                .catchError(FileNotFoundException.class)
+                .await();
+            if (contents != null)
+            {
+                try
+                {
+                    final java.security.MessageDigest digest = IntellijFiles.createDigest();
+                    final byte[] buffer = new byte[IntellijFiles.readBufferLength];
+                    Integer bytesRead = contents.readBytes(buffer, 0, buffer.length)
+                        .catchError(EndOfStreamException.class)
+                        .await();
+                    while (bytesRead != null && bytesRead > 0)
+                    {
+                        digest.update(buffer, 0, bytesRead);
+                        bytesRead = contents.readBytes(buffer, 0, buffer.length)
+                            .catchError(EndOfStreamException.class)
+                            .await();
+                    }
+                    result = digest.digest();
+                }
+                finally
+                {
+                    contents.dispose().await();
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Read the contents of the file at the provided path into a heap buffer. Unlike map(), the
+     * file isn't held open or mapped after this returns, so other processes can replace or delete
+     * the file right away, even on Windows.
+     * @param path The path to the file to read.
+     * @return The contents of the file.
+     */
+    static Result<java.nio.ByteBuffer> read(java.nio.file.Path path)
+    {
+        PreCondition.assertNotNull(path, "path");
+
+        return Result.create(() ->
+        {
+            try
+            {
+                return java.nio.ByteBuffer.wrap(java.nio.file.Files.readAllBytes(path));
+            }
+            catch (java.nio.file.NoSuchFileException e)
+            {
+                throw new FileNotFoundException(path.toString());
+            }
+            catch (java.io.IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Map the contents of the file at the provided path into memory. On Windows a mapped file
+     * can't be truncated, replaced, or deleted until the returned buffer is garbage collected.
+     * @param path The path to the file to map.
+     * @return The read-only mapped contents of the file.
+     */
+    static Result<java.nio.ByteBuffer> map(java.nio.file.Path path)
+    {
+        PreCondition.assertNotNull(path, "path");
+
+        return Result.create(() ->
+        {
+            try (final java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(path, java.nio.file.StandardOpenOption.READ))
+            {
+                return channel.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            catch (java.nio.file.NoSuchFileException e)
+            {
+                throw new FileNotFoundException(path.toString());
+            }
+            catch (java.io.IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    static java.security.MessageDigest createDigest()
+    {
+        try
+        {
+            return java.security.MessageDigest.getInstance(IntellijFiles.digestAlgorithm);
+        }
+        catch (java.security.NoSuchAlgorithmException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}
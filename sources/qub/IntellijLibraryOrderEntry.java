@@ -0,0 +1,74 @@
+package qub;
+
+/**
+ * An orderEntry element in a module that references a library by name instead of embedding the
+ * library's roots. The referenced library is usually a project library in the
+ * .idea/libraries folder.
+ */
+public class IntellijLibraryOrderEntry extends XMLElementWrapperBase
+{
+    private static final String typeAttributeName = "type";
+    public static final String typeAttributeValue = "library";
+    private static final String nameAttributeName = "name";
+    private static final String levelAttributeName = "level";
+    public static final String projectLevel = "project";
+
+    private IntellijLibraryOrderEntry(XMLElement xml)
+    {
+        super(xml);
+
+        PreCondition.assertNotNull(xml, "xml");
+        PreCondition.assertEqual(IntellijModule.orderEntryElementName, xml.getName(), "xml.getName()");
+        PreCondition.assertEqual(IntellijLibraryOrderEntry.typeAttributeValue, IntellijXMLElements.getAttributeValue(xml, IntellijLibraryOrderEntry.typeAttributeName), "xml.getAttributeValue(IntellijLibraryOrderEntry.typeAttributeName).await()");
+    }
+
+    /**
+     * Create a new orderEntry that references the project library with the provided name.
+     * @param name The name of the project library.
+     * @return The new orderEntry.
+     */
+    public static IntellijLibraryOrderEntry create(String name)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+
+        return IntellijLibraryOrderEntry.create(XMLElement.create(IntellijModule.orderEntryElementName)
+            .setAttribute(IntellijLibraryOrderEntry.typeAttributeName, IntellijLibraryOrderEntry.typeAttributeValue)
+            .setAttribute(IntellijLibraryOrderEntry.nameAttributeName, name)
+            .setAttribute(IntellijLibraryOrderEntry.levelAttributeName, IntellijLibraryOrderEntry.projectLevel));
+    }
+
+    public static IntellijLibraryOrderEntry create(XMLElement xml)
+    {
+        return new IntellijLibraryOrderEntry(xml);
+    }
+
+    public String getName()
+    {
+        return IntellijXMLElements.getAttributeValue(this.toXml(), IntellijLibraryOrderEntry.nameAttributeName);
+    }
+
+    public IntellijLibraryOrderEntry setName(String name)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+
+        this.toXml().setAttribute(IntellijLibraryOrderEntry.nameAttributeName, name);
+        return this;
+    }
+
+    /**
+     * Get the level of the referenced library, such as "project" or "application".
+     * @return The level of the referenced library.
+     */
+    public String getLevel()
+    {
+        return IntellijXMLElements.getAttributeValue(this.toXml(), IntellijLibraryOrderEntry.levelAttributeName);
+    }
+
+    public IntellijLibraryOrderEntry setLevel(String level)
+    {
+        PreCondition.assertNotNullAndNotEmpty(level, "level");
+
+        this.toXml().setAttribute(IntellijLibraryOrderEntry.levelAttributeName, level);
+        return this;
+    }
+}
@@ -29,6 +29,53 @@ public class IntellijModule extends XMLDocumentWrapperBase
     private static final String inheritedJdkAttributeValue = "inheritedJdk";
     private static final String sourceFolderAttributeValue = "sourceFolder";
     private static final String orderEntryForTestsAttributeName = "forTests";
+    private static final String moduleFileExtension = ".iml";
+
+    /**
+     * The NewModuleRootManager component element, or null if it doesn't exist yet.
+     */
+    private XMLElement componentElement;
+    /**
+     * The content element under the component element, or null if it doesn't exist yet.
+     */
+    private XMLElement contentElement;
+    /**
+     * The orderEntry elements under the component element, grouped by their type attribute and
+     * kept in document order. This is null when the index needs to be rebuilt.
+     */
+    private java.util.HashMap<String,List<XMLElement>> orderEntriesByType;
+    /**
+     * The sourceFolder elements under the content element, keyed by their url attribute.
+     */
+    private java.util.HashMap<String,XMLElement> sourceFoldersByUrl;
+    /**
+     * The module-library orderEntry elements, grouped by their IntellijModuleLibrary key and kept
+     * in document order. This is null when it needs to be rebuilt.
+     */
+    private java.util.HashMap<String,List<XMLElement>> moduleLibrariesByKey;
+    /**
+     * The key that each element in moduleLibrariesByKey is indexed under. This is null whenever
+     * moduleLibrariesByKey is null.
+     */
+    private java.util.IdentityHashMap<XMLElement,String> moduleLibraryKeysByElement;
+    /**
+     * The indexed module-library elements whose urls changed after they were indexed. They are
+     * moved to their new keys the next time that moduleLibrariesByKey is used.
+     */
+    private java.util.Set<XMLElement> changedModuleLibraryElements;
+    /**
+     * The classpaths that have been resolved for this module, keyed by the module folder path
+     * that they were resolved against. These are null when they need to be resolved again.
+     */
+    private java.util.HashMap<String,Iterable<Path>> productionClasspaths;
+    private java.util.HashMap<String,Iterable<Path>> testClasspaths;
+    /**
+     * The actions that are run after a source folder is added to this module. The actions are
+     * only weakly reachable from this module, so an object that listens to this module (such as
+     * an IntellijSourceFolderTrie) can be garbage collected while the module is still in use.
+     * This is null until the first action is added.
+     */
+    private java.util.ArrayList<java.lang.ref.WeakReference<Action1<IntellijSourceFolder>>> sourceFolderAddedActions;
 
     private IntellijModule(XMLDocument xml)
     {
@@ -65,7 +112,7 @@ public class IntellijModule extends XMLDocumentWrapperBase
         PreCondition.assertNotNull(file, "file");
 
         return XML.parse(file)
-            .then((XMLDocument xmlDocument) -> IntellijModule.create(xmlDocument));
+            .then((XMLDocument xmlDocument) -> IntellijModule.create(IntellijUrlPool.internSharedUrls(xmlDocument)));
     }
 
     public static Result<IntellijModule> parse(String text)
@@ -73,16 +120,468 @@ public class IntellijModule extends XMLDocumentWrapperBase
         PreCondition.assertNotNull(text, "text");
 
         return XML.parse(text)
-            .then((XMLDocument xmlDocument) -> IntellijModule.create(xmlDocument));
+            .then((XMLDocument xmlDocument) -> IntellijModule.create(IntellijUrlPool.internSharedUrls(xmlDocument)));
+    }
+
+    /**
+     * Parse an IntellijModule from the provided characters. The characters are read in place, so a
+     * CharSequence that is backed by a large buffer is never copied into a single String.
+     * @param text The characters to parse.
+     * @return The parsed IntellijModule.
+     */
+    public static Result<IntellijModule> parse(CharSequence text)
+    {
+        PreCondition.assertNotNull(text, "text");
+
+        return Result.create(() -> IntellijModule.create(IntellijXMLReader.create(text).readDocument()));
+    }
+
+    /**
+     * Parse an IntellijModule from the UTF-8 bytes between the provided ByteBuffer's position and
+     * limit. The bytes are decoded a block at a time as they are parsed, so the document's text
+     * is never held in memory all at once.
+     * @param bytes The UTF-8 bytes to parse.
+     * @return The parsed IntellijModule.
+     */
+    public static Result<IntellijModule> parse(java.nio.ByteBuffer bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        return Result.create(() -> IntellijModule.create(IntellijXMLReader.create(bytes).readDocument()));
+    }
+
+    /**
+     * Parse an IntellijModule from the file at the provided path. The file is memory-mapped rather
+     * than read onto the heap, which keeps the memory used by parsing a large file close to the
+     * size of the resulting document. On Windows the file can't be replaced or deleted until the
+     * mapping is garbage collected, so code that keeps watching a file should read it with
+     * parse(java.nio.ByteBuffer) instead.
+     * @param path The path to the file to parse.
+     * @return The parsed IntellijModule.
+     */
+    public static Result<IntellijModule> parse(java.nio.file.Path path)
+    {
+        PreCondition.assertNotNull(path, "path");
+
+        return IntellijFiles.map(path)
+            .thenResult((java.nio.ByteBuffer bytes) -> IntellijModule.parse(bytes));
+    }
+
+    /**
+     * Save this module to the provided file if the file's contents are different from this
+     * module's contents. Skipping the write leaves the file's last modified time alone, which
+     * keeps IntelliJ from reloading a module that didn't change.
+     * @param file The file to save this module to.
+     * @return Whether the file was written.
+     */
+    public Result<Boolean> saveIfChanged(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return IntellijFiles.saveIfChanged(this.getDocument(), XMLFormat.pretty, file);
+    }
+
+    /**
+     * Write this module to the provided stream as UTF-8. The output is the same as the bytes of
+     * toString(format), and is written the same way as writeTo(WritableByteChannel,XMLFormat).
+     * The stream is not closed.
+     * @param stream The stream to write this module to.
+     * @param format The format to write this module with.
+     * @return The result of writing this module.
+     */
+    public Result<Void> writeTo(java.io.OutputStream stream, XMLFormat format)
+    {
+        PreCondition.assertNotNull(stream, "stream");
+        PreCondition.assertNotNull(format, "format");
+
+        return this.writeTo(java.nio.channels.Channels.newChannel(stream), format);
+    }
+
+    /**
+     * Write this module to the provided channel as UTF-8. The output is the same as the bytes of
+     * toString(format). For XMLFormat.consise and XMLFormat.pretty it is streamed through a
+     * fixed-size buffer instead of being built as one String first. Any other format is written
+     * from toString(format). The channel is not closed.
+     * @param channel The channel to write this module to.
+     * @param format The format to write this module with.
+     * @return The result of writing this module.
+     */
+    public Result<Void> writeTo(java.nio.channels.WritableByteChannel channel, XMLFormat format)
+    {
+        PreCondition.assertNotNull(channel, "channel");
+        PreCondition.assertNotNull(format, "format");
+
+        return IntellijXMLWriter.supports(format)
+            ? IntellijXMLWriter.write(this.getDocument(), format, (XMLElement element) -> null, channel)
+            : IntellijXMLWriter.write(this.toString(format), channel);
+    }
+
+    /**
+     * Parse every .iml file under the provided folder (including its subfolders). Each file is
+     * parsed by a task that is given to the provided executor, so the files can be parsed in
+     * parallel. The provided callback is invoked on the calling thread for each file as soon as
+     * that file has been parsed, and a file that fails to parse is reported to the callback
+     * without stopping the other files. Files whose root element isn't a module element are
+     * skipped before they are fully parsed.
+     * @param folder The folder to look for .iml files in.
+     * @param executor The executor that will run the parse tasks.
+     * @param onParsed The callback that will be invoked with each .iml file and the result of
+     *                 parsing it.
+     * @return The result of parsing the folder's .iml files.
+     */
+    public static Result<Void> parseAll(Folder folder, java.util.concurrent.Executor executor, Action2<File,Result<IntellijModule>> onParsed)
+    {
+        PreCondition.assertNotNull(folder, "folder");
+        PreCondition.assertNotNull(executor, "executor");
+        PreCondition.assertNotNull(onParsed, "onParsed");
+
+        return Result.create(() ->
+        {
+            final java.util.concurrent.BlockingQueue<Action0> completions = new java.util.concurrent.LinkedBlockingQueue<>();
+            int pendingCount = 0;
+            for (final File file : folder.getFilesRecursively().await())
+            {
+                if (IntellijModule.moduleFileExtension.equals(file.getFileExtension()))
+                {
+                    executor.execute(() ->
+                    {
+                        Result<IntellijModule> result;
+                        try
+                        {
+                            result = IntellijModule.isModuleFile(file).await()
+                                ? IntellijModule.parse(file)
+                                : null;
+                        }
+                        catch (Throwable error)
+                        {
+                            result = Result.error(error);
+                        }
+
+                        final Result<IntellijModule> parseResult = result;
+                        completions.add(() ->
+                        {
+                            if (parseResult != null)
+                            {
+                                onParsed.run(file, parseResult);
+                            }
+                        });
+                    });
+                    ++pendingCount;
+                }
+            }
+
+            try
+            {
+                for (; pendingCount > 0; --pendingCount)
+                {
+                    completions.take().run();
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Get whether the root element of the provided file is a module element. Only the start of
+     * the file is read. A well-formed file whose root element is not a module element isn't a
+     * module file, but a file that can't be read up to its root element is treated as a module
+     * file so that the error is reported when the file is parsed.
+     * @param file The file to check.
+     * @return Whether the root element of the provided file is a module element.
+     */
+    private static Result<Boolean> isModuleFile(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return file.getContentsReadStream()
+            .then((ByteReadStream byteReadStream) ->
+            {
+                try
+                {
+                    final IntellijXMLReader reader = IntellijXMLReader.create(byteReadStream);
+                    IntellijXMLReader.Token token = reader.next();
+                    while (token != IntellijXMLReader.Token.StartElement && token != IntellijXMLReader.Token.EndOfDocument)
+                    {
+                        token = reader.next();
+                    }
+                    return token != IntellijXMLReader.Token.StartElement ||
+                        IntellijModule.moduleElementName.equals(reader.getName());
+                }
+                finally
+                {
+                    byteReadStream.dispose().await();
+                }
+            })
+            .catchError(ParseException.class, () -> true);
+    }
+
+    /**
+     * Get the XMLDocument that this module wraps. The caller may change the returned document
+     * directly, so the module's internal index is rebuilt the next time it is needed. Code that
+     * only reads the document, such as toString() and equals(), doesn't go through this method.
+     * @return The XMLDocument that this module wraps.
+     */
+    @Override
+    public XMLDocument toXml()
+    {
+        this.clearIndex();
+
+        return this.getDocument();
+    }
+
+    /**
+     * Get the XMLDocument that this module wraps without invalidating the internal index. This
+     * should only be used by code that keeps the index up to date.
+     * @return The XMLDocument that this module wraps.
+     */
+    private XMLDocument getDocument()
+    {
+        return super.toXml();
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.toString(XMLFormat.consise);
+    }
+
+    /**
+     * Get the text of this module in the provided format. The text is read without going through
+     * toXml(), so it doesn't invalidate this module's internal index.
+     * @param format The format to write this module with.
+     * @return The text of this module.
+     */
+    @Override
+    public String toString(XMLFormat format)
+    {
+        PreCondition.assertNotNull(format, "format");
+
+        return this.getDocument().toString(format);
+    }
+
+    /**
+     * Get whether the provided object is an IntellijModule with the same document as this module.
+     * Neither module's document is read through toXml(), so neither module's internal index is
+     * invalidated.
+     * @param rhs The object to compare against.
+     * @return Whether the provided object is an equal IntellijModule.
+     */
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs != null &&
+            this.getClass() == rhs.getClass() &&
+            this.getDocument().equals(((IntellijModule)rhs).getDocument());
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.toString().hashCode();
+    }
+
+    private void clearIndex()
+    {
+        this.componentElement = null;
+        this.contentElement = null;
+        this.orderEntriesByType = null;
+        this.sourceFoldersByUrl = null;
+        this.clearModuleLibraryKeyIndex();
+        this.clearClasspaths();
+    }
+
+    private void clearClasspaths()
+    {
+        this.productionClasspaths = null;
+        this.testClasspaths = null;
+    }
+
+    /**
+     * Called after the urls of one of this module's libraries change. Only the changed library is
+     * indexed again, and only when the index is next used, so adding many urls to one library
+     * doesn't rebuild the index of every library.
+     * @param moduleLibraryElement The module-library orderEntry element that changed.
+     */
+    private void onModuleLibraryChanged(XMLElement moduleLibraryElement)
+    {
+        if (this.moduleLibrariesByKey != null)
+        {
+            this.changedModuleLibraryElements.add(moduleLibraryElement);
+        }
+        this.clearClasspaths();
+    }
+
+    /**
+     * Build the index of the component, content, orderEntry, and sourceFolder elements if it
+     * doesn't already exist. This walks the component element's children once, after which the
+     * indexed elements can be found without scanning the document.
+     */
+    private void ensureIndexed()
+    {
+        if (this.orderEntriesByType == null)
+        {
+            this.orderEntriesByType = new java.util.HashMap<>();
+
+            this.componentElement = IntellijXMLElements.getFirstElementChild(this.getDocument().getRoot(), IntellijModule.componentElementName);
+            if (this.componentElement != null)
+            {
+                for (final XMLElement childElement : this.componentElement.getElementChildren())
+                {
+                    final String childElementName = childElement.getName();
+                    if (IntellijModule.orderEntryElementName.equals(childElementName))
+                    {
+                        final String orderEntryType = IntellijXMLElements.getAttributeValue(childElement, IntellijModule.orderEntryTypeAttributeName);
+                        if (orderEntryType != null)
+                        {
+                            this.getOrCreateOrderEntries(orderEntryType).add(childElement);
+                        }
+                    }
+                    else if (this.contentElement == null && IntellijModule.contentElementName.equals(childElementName))
+                    {
+                        this.contentElement = childElement;
+                    }
+                }
+            }
+        }
+    }
+
+    private List<XMLElement> getOrderEntries(String orderEntryType)
+    {
+        this.ensureIndexed();
+
+        final List<XMLElement> result = this.orderEntriesByType.get(orderEntryType);
+        return result == null ? List.create() : result;
+    }
+
+    private List<XMLElement> getOrCreateOrderEntries(String orderEntryType)
+    {
+        return this.orderEntriesByType.computeIfAbsent(orderEntryType, (String key) -> List.create());
+    }
+
+    private XMLElement getFirstOrderEntry(String orderEntryType)
+    {
+        final List<XMLElement> orderEntries = this.getOrderEntries(orderEntryType);
+        return orderEntries.any() ? orderEntries.get(0) : null;
+    }
+
+    /**
+     * Add the provided orderEntry element to the end of this module's component element.
+     * Module-library orderEntries should be added with addModuleLibrary() instead, which keeps
+     * the module library indexes up to date.
+     * @param orderEntryType The type attribute value of the orderEntry element.
+     * @param orderEntryElement The orderEntry element to add.
+     */
+    void addOrderEntry(String orderEntryType, XMLElement orderEntryElement)
+    {
+        this.getOrCreateComponentElement().addChild(orderEntryElement);
+        this.getOrCreateOrderEntries(orderEntryType).add(orderEntryElement);
+    }
+
+    private void removeOrderEntryFromIndex(String orderEntryType, XMLElement orderEntryElement)
+    {
+        final List<XMLElement> orderEntries = this.getOrderEntries(orderEntryType);
+        final int count = orderEntries.getCount();
+        for (int i = 0; i < count; ++i)
+        {
+            if (orderEntries.get(i) == orderEntryElement)
+            {
+                orderEntries.removeAt(i);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Build the index of this module's source folders by url if it doesn't already exist.
+     */
+    private void ensureSourceFolderUrlIndexed()
+    {
+        this.ensureIndexed();
+
+        if (this.sourceFoldersByUrl == null)
+        {
+            this.sourceFoldersByUrl = new java.util.HashMap<>();
+            if (this.contentElement != null)
+            {
+                for (final XMLElement sourceFolderElement : this.contentElement.getElementChildren(IntellijModule.sourceFolderElementName))
+                {
+                    this.indexSourceFolder(sourceFolderElement);
+                }
+            }
+        }
+    }
+
+    private void indexSourceFolder(XMLElement sourceFolderElement)
+    {
+        final String url = IntellijXMLElements.getAttributeValue(sourceFolderElement, IntellijModule.sourceFolderUrlAttributeName);
+        if (this.sourceFoldersByUrl != null && url != null)
+        {
+            this.sourceFoldersByUrl.putIfAbsent(url, sourceFolderElement);
+        }
+    }
+
+    /**
+     * Called after the url of one of this module's source folders changes.
+     */
+    private void onSourceFolderUrlChanged()
+    {
+        this.sourceFoldersByUrl = null;
+    }
+
+    /**
+     * Create a source folder that wraps the provided sourceFolder element and that keeps this
+     * module's index of source folder urls up to date when its url changes.
+     * @param sourceFolderElement The sourceFolder element to wrap.
+     * @return The source folder.
+     */
+    private IntellijSourceFolder createSourceFolder(XMLElement sourceFolderElement)
+    {
+        return IntellijSourceFolder.create(sourceFolderElement)
+            .setOnUrlChanged(this::onSourceFolderUrlChanged);
     }
 
     private XMLElement getOrCreateComponentElement()
     {
-        return this.toXml().getRoot()
-            .getFirstOrCreateElementChild(
-                IntellijModule.componentElementName,
-                () -> XMLElement.create(IntellijModule.componentElementName)
-                    .setAttribute(IntellijModule.componentNameAttributeName, IntellijModule.componentNameAttributeValue));
+        this.ensureIndexed();
+
+        if (this.componentElement == null)
+        {
+            this.componentElement = XMLElement.create(IntellijModule.componentElementName)
+                .setAttribute(IntellijModule.componentNameAttributeName, IntellijModule.componentNameAttributeValue);
+            this.getDocument().getRoot().addChild(this.componentElement);
+        }
+
+        return this.componentElement;
+    }
+
+    private XMLElement getOrCreateContentElement()
+    {
+        final XMLElement componentElement = this.getOrCreateComponentElement();
+        if (this.contentElement == null)
+        {
+            this.contentElement = XMLElement.create(IntellijModule.contentElementName)
+                .setAttribute(IntellijModule.contentUrlAttributeName, IntellijModule.contentUrlAttributeValue);
+            componentElement.addChild(this.contentElement);
+        }
+
+        return this.contentElement;
+    }
+
+    /**
+     * Get the url of this module's output folder.
+     * @return The url of this module's output folder, or null if it isn't set.
+     */
+    public String getOutputUrl()
+    {
+        this.ensureIndexed();
+
+        return this.componentElement == null
+            ? null
+            : this.getOutputElementUrl(IntellijModule.outputElementName, IntellijModule.outputUrlAttributeName);
     }
 
     public IntellijModule setOutputUrl(String outputUrl)
@@ -92,10 +591,24 @@ public class IntellijModule extends XMLDocumentWrapperBase
         this.getOrCreateComponentElement()
             .getFirstOrCreateElementChild(IntellijModule.outputElementName)
             .setAttribute(IntellijModule.outputUrlAttributeName, outputUrl);
+        this.clearClasspaths();
 
         return this;
     }
 
+    /**
+     * Get the url of this module's test output folder.
+     * @return The url of this module's test output folder, or null if it isn't set.
+     */
+    public String getOutputTestUrl()
+    {
+        this.ensureIndexed();
+
+        return this.componentElement == null
+            ? null
+            : this.getOutputElementUrl(IntellijModule.outputTestElementName, IntellijModule.outputTestUrlAttributeName);
+    }
+
     public IntellijModule setOutputTestUrl(String outputTestUrl)
     {
         PreCondition.assertNotNullAndNotEmpty(outputTestUrl, "outputTestUrl");
@@ -103,10 +616,23 @@ public class IntellijModule extends XMLDocumentWrapperBase
         this.getOrCreateComponentElement()
             .getFirstOrCreateElementChild(IntellijModule.outputTestElementName)
             .setAttribute(IntellijModule.outputTestUrlAttributeName, outputTestUrl);
+        this.clearClasspaths();
 
         return this;
     }
 
+    /**
+     * Get whether this module excludes its output folders.
+     * @return Whether this module excludes its output folders.
+     */
+    public boolean getExcludeOutput()
+    {
+        this.ensureIndexed();
+
+        return this.componentElement != null &&
+            IntellijXMLElements.getFirstElementChild(this.componentElement, IntellijModule.excludeOutputElementName) != null;
+    }
+
     public IntellijModule setExcludeOutput(boolean excludeOutput)
     {
         final XMLElement componentElement = this.getOrCreateComponentElement();
@@ -128,73 +654,585 @@ public class IntellijModule extends XMLDocumentWrapperBase
     {
         PreCondition.assertNotNull(sourceFolder, "sourceFolder");
 
-        final XMLElement contentElement = this.getOrCreateComponentElement()
-            .getFirstOrCreateElementChild(
-                IntellijModule.contentElementName,
-                () -> XMLElement.create(IntellijModule.contentElementName)
-                    .setAttribute(IntellijModule.contentUrlAttributeName, IntellijModule.contentUrlAttributeValue));
+        final XMLElement sourceFolderElement = sourceFolder.toXml();
+        this.getOrCreateContentElement().addChild(sourceFolderElement);
+        this.indexSourceFolder(sourceFolderElement);
+        sourceFolder.setOnUrlChanged(this::onSourceFolderUrlChanged);
+
+        if (this.sourceFolderAddedActions != null)
+        {
+            final java.util.Iterator<java.lang.ref.WeakReference<Action1<IntellijSourceFolder>>> iterator = this.sourceFolderAddedActions.iterator();
+            while (iterator.hasNext())
+            {
+                final Action1<IntellijSourceFolder> action = iterator.next().get();
+                if (action == null)
+                {
+                    iterator.remove();
+                }
+                else
+                {
+                    action.run(sourceFolder);
+                }
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Add an action that will be run after a source folder is added to this module. This is used
+     * by the IntellijSourceFolderTries that contain this module to stay up to date. This module
+     * only holds a weak reference to the action, so the caller must hold a strong reference to it
+     * for as long as it should be run. Once the action is garbage collected, it stops being run.
+     * @param action The action to run.
+     * @return This object for method chaining.
+     */
+    IntellijModule addOnSourceFolderAdded(Action1<IntellijSourceFolder> action)
+    {
+        PreCondition.assertNotNull(action, "action");
 
-        contentElement.addChild(sourceFolder.toXml());
+        if (this.sourceFolderAddedActions == null)
+        {
+            this.sourceFolderAddedActions = new java.util.ArrayList<>();
+        }
+        this.sourceFolderAddedActions.add(new java.lang.ref.WeakReference<>(action));
 
         return this;
     }
 
+    /**
+     * Get the source folders in this module, in document order.
+     * @return The source folders in this module.
+     */
+    public Iterable<IntellijSourceFolder> getSourceFolders()
+    {
+        this.ensureIndexed();
+
+        return this.contentElement == null
+            ? Iterable.create()
+            : List.<XMLElement>create()
+                .addAll(this.contentElement.getElementChildren(IntellijModule.sourceFolderElementName))
+                .map(this::createSourceFolder);
+    }
+
+    /**
+     * Get the source folders in this module that are (or aren't) test source folders, in
+     * document order.
+     * @param isTestSource Whether to get the test source folders or the non-test source folders.
+     * @return The matching source folders in this module.
+     */
+    public Iterable<IntellijSourceFolder> getSourceFolders(boolean isTestSource)
+    {
+        return this.getSourceFolders()
+            .where((IntellijSourceFolder sourceFolder) -> sourceFolder.getIsTestSource() == isTestSource);
+    }
+
+    /**
+     * Get the source folder in this module with the provided url. The source folder is looked up
+     * in a hashed index of this module's source folder urls. Changing a url through a source
+     * folder that this module returned invalidates the index. A url that was changed some other
+     * way is caught when the index hit no longer has the url, and the index is rebuilt.
+     * @param url The url of the source folder to get.
+     * @return The source folder with the provided url.
+     */
+    public Result<IntellijSourceFolder> getSourceFolder(String url)
+    {
+        PreCondition.assertNotNullAndNotEmpty(url, "url");
+
+        return Result.create(() ->
+        {
+            this.ensureSourceFolderUrlIndexed();
+
+            XMLElement sourceFolderElement = this.sourceFoldersByUrl.get(url);
+            if (sourceFolderElement != null &&
+                !url.equals(IntellijXMLElements.getAttributeValue(sourceFolderElement, IntellijModule.sourceFolderUrlAttributeName)))
+            {
+                this.sourceFoldersByUrl = null;
+                this.ensureSourceFolderUrlIndexed();
+                sourceFolderElement = this.sourceFoldersByUrl.get(url);
+            }
+
+            if (sourceFolderElement == null)
+            {
+                throw new NotFoundException("Could not find a source folder with the url " + Strings.quote(url) + ".");
+            }
+            return this.createSourceFolder(sourceFolderElement);
+        });
+    }
+
+    /**
+     * Get whether this module uses the project's JDK.
+     * @return Whether this module has an inheritedJdk orderEntry.
+     */
+    public boolean getInheritedJdk()
+    {
+        return this.getFirstOrderEntry(IntellijModule.inheritedJdkAttributeValue) != null;
+    }
+
     public IntellijModule setInheritedJdk(boolean inheritedJdk)
     {
         final XMLElement componentElement = this.getOrCreateComponentElement();
-        final XMLElement inheritedJdkElement = componentElement.getFirstElementChild((XMLElement childElement) ->
-            IntellijModule.orderEntryElementName.equals(childElement.getName()) &&
-            IntellijModule.inheritedJdkAttributeValue.equals(childElement.getAttributeValue(IntellijModule.orderEntryTypeAttributeName).catchError().await()))
-            .catchError(NotFoundException.class)
-            .await();
+        final XMLElement inheritedJdkElement = this.getFirstOrderEntry(IntellijModule.inheritedJdkAttributeValue);
         if (inheritedJdk && inheritedJdkElement == null)
         {
-            componentElement.addChild(XMLElement.create(IntellijModule.orderEntryElementName)
+            this.addOrderEntry(IntellijModule.inheritedJdkAttributeValue, XMLElement.create(IntellijModule.orderEntryElementName)
                 .setAttribute(IntellijModule.orderEntryTypeAttributeName, IntellijModule.inheritedJdkAttributeValue));
         }
         else if (!inheritedJdk && inheritedJdkElement != null)
         {
             componentElement.removeChild(inheritedJdkElement).await();
+            this.removeOrderEntryFromIndex(IntellijModule.inheritedJdkAttributeValue, inheritedJdkElement);
         }
 
         return this;
     }
 
+    /**
+     * Get whether this module's sourceFolder orderEntry is marked forTests.
+     * @return Whether the sourceFolder orderEntry is marked forTests, or null if this module
+     * doesn't have a sourceFolder orderEntry.
+     */
+    public Boolean getSourceFolderForTests()
+    {
+        final XMLElement sourceFolderElement = this.getFirstOrderEntry(IntellijModule.sourceFolderAttributeValue);
+        return sourceFolderElement == null
+            ? null
+            : IntellijModule.isForTests(sourceFolderElement);
+    }
+
     public IntellijModule setSourceFolderForTests(boolean sourceFolderForTests)
     {
-        final XMLElement componentElement = this.getOrCreateComponentElement();
-        XMLElement sourceFolderElement = componentElement.getElementChildren()
-            .first((XMLElement childElement) ->
-            IntellijModule.orderEntryElementName.equals(childElement.getName()) &&
-            IntellijModule.sourceFolderAttributeValue.equals(childElement.getAttributeValue(IntellijModule.orderEntryTypeAttributeName).catchError().await()))
-            .catchError()
-            .await();
+        XMLElement sourceFolderElement = this.getFirstOrderEntry(IntellijModule.sourceFolderAttributeValue);
         if (sourceFolderElement == null)
         {
             sourceFolderElement = XMLElement.create(IntellijModule.orderEntryElementName)
                 .setAttribute(IntellijModule.orderEntryTypeAttributeName, IntellijModule.sourceFolderAttributeValue);
-            componentElement.addChild(sourceFolderElement);
+            this.addOrderEntry(IntellijModule.sourceFolderAttributeValue, sourceFolderElement);
         }
         sourceFolderElement.setAttribute(IntellijModule.orderEntryForTestsAttributeName, Booleans.toString(sourceFolderForTests));
+        this.clearClasspaths();
 
         return this;
     }
 
+    /**
+     * Get an immutable snapshot of this module's output urls, source folders, and orderEntries.
+     * The snapshot doesn't share any state with this module, so it can be read from any number
+     * of threads while this module keeps changing.
+     * @return An immutable snapshot of this module.
+     */
+    public IntellijModuleSnapshot snapshot()
+    {
+        this.ensureIndexed();
+
+        final List<XMLElement> orderEntries = List.create();
+        if (this.componentElement != null)
+        {
+            for (final XMLElement orderEntry : this.componentElement.getElementChildren(IntellijModule.orderEntryElementName))
+            {
+                final String orderEntryType = IntellijXMLElements.getAttributeValue(orderEntry, IntellijModule.orderEntryTypeAttributeName);
+                if (orderEntryType != null &&
+                    !IntellijModule.inheritedJdkAttributeValue.equals(orderEntryType) &&
+                    !IntellijModule.sourceFolderAttributeValue.equals(orderEntryType))
+                {
+                    orderEntries.add(orderEntry);
+                }
+            }
+        }
+
+        return IntellijModuleSnapshot.create(
+            this.getOutputUrl(),
+            this.getOutputTestUrl(),
+            this.getExcludeOutput(),
+            this.getInheritedJdk(),
+            this.getSourceFolderForTests(),
+            this.getSourceFolders(),
+            orderEntries);
+    }
+
+    /**
+     * Get the module libraries in this module. The returned module libraries are views of this
+     * module's orderEntry elements, so reading them doesn't change this module's document.
+     * @return The module libraries in this module.
+     */
     public Iterable<IntellijModuleLibrary> getModuleLibraries()
     {
-        return this.getOrCreateComponentElement()
-            .getElementChildren((XMLElement childElement) ->
-                childElement.getName().equals(IntellijModule.orderEntryElementName) &&
-                IntellijModuleLibrary.typeAttributeValue.equals(childElement.getAttributeValue(IntellijModule.orderEntryTypeAttributeName).catchError().await()))
-            .map(IntellijModuleLibrary::create);
+        return List.<XMLElement>create()
+            .addAll(this.getOrderEntries(IntellijModuleLibrary.typeAttributeValue))
+            .map((XMLElement moduleLibraryElement) -> IntellijModuleLibrary.createView(moduleLibraryElement)
+                .setOnChanged(() -> this.onModuleLibraryChanged(moduleLibraryElement)));
     }
 
     public IntellijModule addModuleLibrary(IntellijModuleLibrary moduleLibrary)
     {
         PreCondition.assertNotNull(moduleLibrary, "moduleLibrary");
 
-        this.getOrCreateComponentElement()
-            .addChild(moduleLibrary.toXml());
+        final XMLElement moduleLibraryElement = moduleLibrary.toXml();
+        this.addOrderEntry(IntellijModuleLibrary.typeAttributeValue, moduleLibraryElement);
+        moduleLibrary.setOnChanged(() -> this.onModuleLibraryChanged(moduleLibraryElement));
+        this.clearClasspaths();
+        if (this.moduleLibrariesByKey != null)
+        {
+            this.indexModuleLibrary(moduleLibraryElement, IntellijModuleLibrary.getKey(moduleLibraryElement));
+        }
+
+        return this;
+    }
+
+    /**
+     * Add the provided module library to this module if this module doesn't already have a
+     * module library that is equal to it. Existing libraries are found through a hashed index of
+     * their contents, so this takes the same amount of time no matter how many libraries this
+     * module has. Libraries that are changed through this module's IntellijModuleLibrary objects
+     * after they were added are still matched correctly, and the index is rebuilt after toXml()
+     * is called.
+     * @param moduleLibrary The module library to add.
+     * @return This object for method chaining.
+     */
+    public IntellijModule addModuleLibraryIfAbsent(IntellijModuleLibrary moduleLibrary)
+    {
+        PreCondition.assertNotNull(moduleLibrary, "moduleLibrary");
+
+        final XMLElement moduleLibraryElement = moduleLibrary.toXml();
+        final String key = IntellijModuleLibrary.getKey(moduleLibraryElement);
+        if (!this.containsModuleLibraryKey(key))
+        {
+            this.addOrderEntry(IntellijModuleLibrary.typeAttributeValue, moduleLibraryElement);
+            this.indexModuleLibrary(moduleLibraryElement, key);
+            moduleLibrary.setOnChanged(() -> this.onModuleLibraryChanged(moduleLibraryElement));
+            this.clearClasspaths();
+        }
+
+        return this;
+    }
+
+    /**
+     * Get whether this module has a module library that is equal to the provided module library.
+     * Like addModuleLibraryIfAbsent(), this looks the library up in a hashed index of this
+     * module's libraries.
+     * @param moduleLibrary The module library to look for.
+     * @return Whether this module has a module library that is equal to the provided library.
+     */
+    public boolean containsModuleLibrary(IntellijModuleLibrary moduleLibrary)
+    {
+        PreCondition.assertNotNull(moduleLibrary, "moduleLibrary");
+
+        return this.containsModuleLibraryKey(IntellijModuleLibrary.getKey(moduleLibrary.toXml()));
+    }
+
+    /**
+     * Get whether this module has a module library with the provided key. A module library that
+     * was changed after it was indexed makes the index out of date, so a match is checked against
+     * the library's current key and the index is rebuilt once if the check fails.
+     * @param key The IntellijModuleLibrary key to look for.
+     * @return Whether this module has a module library with the provided key.
+     */
+    private boolean containsModuleLibraryKey(String key)
+    {
+        this.ensureModuleLibraryKeyIndexed();
+
+        boolean result = false;
+        final List<XMLElement> indexedElements = this.moduleLibrariesByKey.get(key);
+        if (indexedElements != null && indexedElements.any())
+        {
+            result = key.equals(IntellijModuleLibrary.getKey(indexedElements.get(0)));
+            if (!result)
+            {
+                this.clearModuleLibraryKeyIndex();
+                this.ensureModuleLibraryKeyIndexed();
+                result = this.moduleLibrariesByKey.containsKey(key);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Build the index of this module's module libraries by key if it doesn't already exist, or
+     * move the libraries that changed since they were indexed to their new keys.
+     */
+    private void ensureModuleLibraryKeyIndexed()
+    {
+        if (this.moduleLibrariesByKey == null)
+        {
+            this.moduleLibrariesByKey = new java.util.HashMap<>();
+            this.moduleLibraryKeysByElement = new java.util.IdentityHashMap<>();
+            this.changedModuleLibraryElements = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+            for (final XMLElement moduleLibraryElement : this.getOrderEntries(IntellijModuleLibrary.typeAttributeValue))
+            {
+                this.indexModuleLibrary(moduleLibraryElement, IntellijModuleLibrary.getKey(moduleLibraryElement));
+            }
+        }
+        else if (!this.changedModuleLibraryElements.isEmpty())
+        {
+            for (final XMLElement moduleLibraryElement : this.changedModuleLibraryElements)
+            {
+                if (this.unindexModuleLibrary(moduleLibraryElement))
+                {
+                    this.indexModuleLibrary(moduleLibraryElement, IntellijModuleLibrary.getKey(moduleLibraryElement));
+                }
+            }
+            this.changedModuleLibraryElements.clear();
+        }
+    }
+
+    private void clearModuleLibraryKeyIndex()
+    {
+        this.moduleLibrariesByKey = null;
+        this.moduleLibraryKeysByElement = null;
+        this.changedModuleLibraryElements = null;
+    }
+
+    private void indexModuleLibrary(XMLElement moduleLibraryElement, String key)
+    {
+        IntellijModule.addToKeyIndex(this.moduleLibrariesByKey, key, moduleLibraryElement);
+        this.moduleLibraryKeysByElement.put(moduleLibraryElement, key);
+    }
+
+    /**
+     * Remove the provided module-library element from the index of module libraries by key.
+     * @param moduleLibraryElement The element to remove.
+     * @return Whether the element was in the index.
+     */
+    private boolean unindexModuleLibrary(XMLElement moduleLibraryElement)
+    {
+        final String key = this.moduleLibraryKeysByElement.remove(moduleLibraryElement);
+        return key != null && IntellijModule.removeFromKeyIndex(this.moduleLibrariesByKey, key, moduleLibraryElement);
+    }
+
+    /**
+     * Remove the provided element from under the provided key.
+     * @return Whether the element was removed.
+     */
+    private static boolean removeFromKeyIndex(java.util.HashMap<String,List<XMLElement>> index, String key, XMLElement element)
+    {
+        boolean result = false;
+        final List<XMLElement> indexedElements = index.get(key);
+        if (indexedElements != null)
+        {
+            final int count = indexedElements.getCount();
+            for (int i = 0; i < count; ++i)
+            {
+                if (indexedElements.get(i) == element)
+                {
+                    indexedElements.removeAt(i);
+                    result = true;
+                    break;
+                }
+            }
+            if (!indexedElements.any())
+            {
+                index.remove(key);
+            }
+        }
+        return result;
+    }
+
+    private static void addToKeyIndex(java.util.HashMap<String,List<XMLElement>> index, String key, XMLElement element)
+    {
+        index.computeIfAbsent(key, (String k) -> List.create()).add(element);
+    }
+
+    /**
+     * Get the orderEntry elements in this module that reference a library by name, such as a
+     * project library.
+     * @return The library orderEntries in this module.
+     */
+    public Iterable<IntellijLibraryOrderEntry> getLibraryOrderEntries()
+    {
+        return List.<XMLElement>create()
+            .addAll(this.getOrderEntries(IntellijLibraryOrderEntry.typeAttributeValue))
+            .map(IntellijLibraryOrderEntry::create);
+    }
+
+    public IntellijModule addLibraryOrderEntry(IntellijLibraryOrderEntry libraryOrderEntry)
+    {
+        PreCondition.assertNotNull(libraryOrderEntry, "libraryOrderEntry");
+
+        this.addOrderEntry(IntellijLibraryOrderEntry.typeAttributeValue, libraryOrderEntry.toXml());
+
+        return this;
+    }
+
+    /**
+     * Get the orderEntry elements in this module that make this module depend on other modules.
+     * @return The module orderEntries in this module.
+     */
+    public Iterable<IntellijModuleOrderEntry> getModuleOrderEntries()
+    {
+        return List.<XMLElement>create()
+            .addAll(this.getOrderEntries(IntellijModuleOrderEntry.typeAttributeValue))
+            .map(IntellijModuleOrderEntry::create);
+    }
+
+    /**
+     * Get the names of the modules that this module depends on, in document order.
+     * @return The names of the modules that this module depends on.
+     */
+    public Iterable<String> getModuleDependencyNames()
+    {
+        return this.getModuleOrderEntries()
+            .map(IntellijModuleOrderEntry::getModuleName)
+            .where((String moduleName) -> !Strings.isNullOrEmpty(moduleName));
+    }
+
+    public IntellijModule addModuleOrderEntry(IntellijModuleOrderEntry moduleOrderEntry)
+    {
+        PreCondition.assertNotNull(moduleOrderEntry, "moduleOrderEntry");
+
+        this.addOrderEntry(IntellijModuleOrderEntry.typeAttributeValue, moduleOrderEntry.toXml());
+
+        return this;
+    }
+
+    /**
+     * Replace module-library orderEntry elements in this module with the elements that the
+     * provided function returns. This walks the component element's children once, so replacing
+     * any number of libraries costs the same as replacing one.
+     * @param getReplacement The function that returns the orderEntry element that should replace
+     *                       the provided module-library orderEntry element, or null if the
+     *                       element should be kept.
+     * @return The number of module-library orderEntry elements that were replaced.
+     */
+    int replaceModuleLibraries(Func1<XMLElement,XMLElement> getReplacement)
+    {
+        PreCondition.assertNotNull(getReplacement, "getReplacement");
+
+        int result = 0;
+        final List<XMLElement> moduleLibraryElements = this.getOrderEntries(IntellijModuleLibrary.typeAttributeValue);
+        if (moduleLibraryElements.any())
+        {
+            final java.util.Set<XMLElement> moduleLibraryElementSet = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+            for (final XMLElement moduleLibraryElement : moduleLibraryElements)
+            {
+                moduleLibraryElementSet.add(moduleLibraryElement);
+            }
+
+            final List<XMLElementChild> children = List.<XMLElementChild>create().addAll(this.componentElement.getChildren());
+            final List<XMLElementChild> newChildren = List.create();
+            for (final XMLElementChild child : children)
+            {
+                XMLElement replacement = null;
+                if (moduleLibraryElementSet.contains(child))
+                {
+                    replacement = getReplacement.run((XMLElement)child);
+                }
+
+                if (replacement == null)
+                {
+                    newChildren.add(child);
+                }
+                else
+                {
+                    newChildren.add(replacement);
+                    ++result;
+                }
+            }
+
+            if (result > 0)
+            {
+                this.componentElement.clearChildren().addChildren(newChildren);
+                this.clearIndex();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Make this module's module libraries match the provided libraries. Libraries that already
+     * exist in this module keep their existing elements and only the libraries that were added,
+     * removed, or moved cause the document to change. Other orderEntry elements keep their
+     * positions.
+     * @param moduleLibraries The module libraries that this module should have, in order.
+     * @return This object for method chaining.
+     */
+    public IntellijModule setModuleLibraries(Iterable<IntellijModuleLibrary> moduleLibraries)
+    {
+        PreCondition.assertNotNull(moduleLibraries, "moduleLibraries");
+
+        final XMLElement componentElement = this.getOrCreateComponentElement();
+        final List<XMLElement> existingElements = this.getOrderEntries(IntellijModuleLibrary.typeAttributeValue);
+
+        final java.util.HashMap<String,java.util.ArrayDeque<XMLElement>> existingElementsByKey = new java.util.HashMap<>();
+        for (final XMLElement existingElement : existingElements)
+        {
+            existingElementsByKey.computeIfAbsent(IntellijModuleLibrary.getKey(existingElement), (String key) -> new java.util.ArrayDeque<>())
+                .add(existingElement);
+        }
+
+        final List<XMLElement> desiredElements = List.create();
+        for (final IntellijModuleLibrary moduleLibrary : moduleLibraries)
+        {
+            final XMLElement moduleLibraryElement = moduleLibrary.toXml();
+            final java.util.ArrayDeque<XMLElement> matchingElements = existingElementsByKey.get(IntellijModuleLibrary.getKey(moduleLibraryElement));
+            if (matchingElements == null || matchingElements.isEmpty())
+            {
+                desiredElements.add(moduleLibraryElement);
+                moduleLibrary.setOnChanged(() -> this.onModuleLibraryChanged(moduleLibraryElement));
+            }
+            else
+            {
+                desiredElements.add(matchingElements.removeFirst());
+            }
+        }
+
+        boolean changed = (existingElements.getCount() != desiredElements.getCount());
+        for (int i = 0; !changed && i < desiredElements.getCount(); ++i)
+        {
+            changed = (existingElements.get(i) != desiredElements.get(i));
+        }
+
+        if (changed)
+        {
+            final java.util.Set<XMLElement> existingElementSet = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+            for (final XMLElement existingElement : existingElements)
+            {
+                existingElementSet.add(existingElement);
+            }
+
+            // Libraries fill the positions of the existing libraries in order. Any libraries left
+            // over go right after the last existing library, or at the end if there wasn't one.
+            final List<XMLElementChild> children = List.<XMLElementChild>create().addAll(componentElement.getChildren());
+            int lastExistingElementIndex = -1;
+            for (int i = 0; i < children.getCount(); ++i)
+            {
+                if (existingElementSet.contains(children.get(i)))
+                {
+                    lastExistingElementIndex = i;
+                }
+            }
+
+            componentElement.clearChildren();
+            int desiredIndex = 0;
+            for (int i = 0; i < children.getCount(); ++i)
+            {
+                final XMLElementChild child = children.get(i);
+                if (!existingElementSet.contains(child))
+                {
+                    componentElement.addChild(child);
+                }
+                else if (desiredIndex < desiredElements.getCount())
+                {
+                    componentElement.addChild(desiredElements.get(desiredIndex));
+                    ++desiredIndex;
+                }
+
+                if (i == lastExistingElementIndex)
+                {
+                    for (; desiredIndex < desiredElements.getCount(); ++desiredIndex)
+                    {
+                        componentElement.addChild(desiredElements.get(desiredIndex));
+                    }
+                }
+            }
+            for (; desiredIndex < desiredElements.getCount(); ++desiredIndex)
+            {
+                componentElement.addChild(desiredElements.get(desiredIndex));
+            }
+            this.orderEntriesByType.put(IntellijModuleLibrary.typeAttributeValue, desiredElements);
+            this.clearModuleLibraryKeyIndex();
+            this.clearClasspaths();
+        }
 
         return this;
     }
@@ -204,18 +1242,198 @@ public class IntellijModule extends XMLDocumentWrapperBase
         this.getOrCreateComponentElement()
             .removeElementChildren((XMLElement childElement) ->
                 childElement.getName().equals(IntellijModule.orderEntryElementName) &&
-                IntellijModuleLibrary.typeAttributeValue.equals(childElement.getAttributeValue(IntellijModule.orderEntryTypeAttributeName).catchError().await()))
+                IntellijXMLElements.hasAttributeValue(childElement, IntellijModule.orderEntryTypeAttributeName, IntellijModuleLibrary.typeAttributeValue))
             .catchError(NotFoundException.class)
             .await();
+        this.orderEntriesByType.remove(IntellijModuleLibrary.typeAttributeValue);
+        this.clearModuleLibraryKeyIndex();
+        this.clearClasspaths();
 
         return this;
     }
 
+    /**
+     * Remove the first module-library orderEntry element in this module that the provided
+     * function matches. The matched element itself is removed, so this works even when the
+     * element isn't structurally equal to the element that the caller was looking for.
+     * @param isMatch The function that returns whether the provided module-library orderEntry
+     *                element should be removed.
+     * @return Whether a module-library orderEntry element was removed.
+     */
+    boolean removeFirstModuleLibrary(Func1<XMLElement,Boolean> isMatch)
+    {
+        PreCondition.assertNotNull(isMatch, "isMatch");
+
+        boolean result = false;
+        final List<XMLElement> moduleLibraryElements = this.getOrderEntries(IntellijModuleLibrary.typeAttributeValue);
+        final int count = moduleLibraryElements.getCount();
+        for (int i = 0; i < count; ++i)
+        {
+            final XMLElement moduleLibraryElement = moduleLibraryElements.get(i);
+            if (isMatch.run(moduleLibraryElement))
+            {
+                final List<XMLElementChild> newChildren = List.create();
+                for (final XMLElementChild child : this.componentElement.getChildren())
+                {
+                    if (child != moduleLibraryElement)
+                    {
+                        newChildren.add(child);
+                    }
+                }
+                this.componentElement.clearChildren().addChildren(newChildren);
+
+                moduleLibraryElements.removeAt(i);
+                if (this.moduleLibrariesByKey != null && !this.unindexModuleLibrary(moduleLibraryElement))
+                {
+                    this.clearModuleLibraryKeyIndex();
+                }
+                this.clearClasspaths();
+                result = true;
+                break;
+            }
+        }
+        return result;
+    }
+
     public Result<Void> removeModuleLibrary(IntellijModuleLibrary moduleLibrary)
     {
         PreCondition.assertNotNull(moduleLibrary, "moduleLibrary");
 
+        final XMLElement moduleLibraryElement = moduleLibrary.toXml();
         return this.getOrCreateComponentElement()
-            .removeChild(moduleLibrary.toXml());
+            .removeChild(moduleLibraryElement)
+            .then(() ->
+            {
+                final List<XMLElement> moduleLibraryElements = this.getOrderEntries(IntellijModuleLibrary.typeAttributeValue);
+                final int count = moduleLibraryElements.getCount();
+                for (int i = 0; i < count; ++i)
+                {
+                    if (moduleLibraryElements.get(i).equals(moduleLibraryElement))
+                    {
+                        moduleLibraryElements.removeAt(i);
+                        break;
+                    }
+                }
+                if (this.moduleLibrariesByKey != null && !this.unindexModuleLibrary(moduleLibraryElement))
+                {
+                    this.clearModuleLibraryKeyIndex();
+                }
+                this.clearClasspaths();
+            });
+    }
+
+    /**
+     * Get the ordered classpath of this module. The classpath follows this module's orderEntry
+     * elements in document order: the sourceFolder orderEntry contributes this module's output
+     * folder (preceded by its test output folder when resolving the test classpath), and each
+     * module-library orderEntry contributes the paths of its classes urls. An orderEntry that is
+     * marked forTests is only part of the test classpath. The $MODULE_DIR$ macro is expanded
+     * against the provided module folder path, urls that aren't file:// or jar:// urls are
+     * skipped, and a path that appears more than once is only included the first time.
+     *
+     * The resolved classpath is remembered, so asking for it again costs constant time until this
+     * module's outputs or libraries change. The returned Iterable is a read-only view that is
+     * shared with other callers, so it can't be used to change the remembered classpath.
+     * @param moduleFolderPath The path of the folder that contains this module's .iml file.
+     * @param forTests Whether to resolve the test classpath instead of the production classpath.
+     * @return The ordered paths on this module's classpath.
+     */
+    public Iterable<Path> getClasspath(Path moduleFolderPath, boolean forTests)
+    {
+        PreCondition.assertNotNull(moduleFolderPath, "moduleFolderPath");
+
+        this.ensureIndexed();
+
+        java.util.HashMap<String,Iterable<Path>> classpaths = forTests ? this.testClasspaths : this.productionClasspaths;
+        if (classpaths == null)
+        {
+            classpaths = new java.util.HashMap<>();
+            if (forTests)
+            {
+                this.testClasspaths = classpaths;
+            }
+            else
+            {
+                this.productionClasspaths = classpaths;
+            }
+        }
+
+        final String moduleFolderPathString = moduleFolderPath.toString();
+        Iterable<Path> result = classpaths.get(moduleFolderPathString);
+        if (result == null)
+        {
+            result = this.resolveClasspath(moduleFolderPathString, forTests);
+            classpaths.put(moduleFolderPathString, result);
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    private Iterable<Path> resolveClasspath(String moduleFolderPath, boolean forTests)
+    {
+        final java.util.LinkedHashSet<String> paths = new java.util.LinkedHashSet<>();
+        if (this.componentElement != null)
+        {
+            for (final XMLElement orderEntryElement : this.componentElement.getElementChildren(IntellijModule.orderEntryElementName))
+            {
+                if (forTests || !IntellijModule.isForTests(orderEntryElement))
+                {
+                    final String orderEntryType = IntellijXMLElements.getAttributeValue(orderEntryElement, IntellijModule.orderEntryTypeAttributeName);
+                    if (IntellijModule.sourceFolderAttributeValue.equals(orderEntryType))
+                    {
+                        if (forTests)
+                        {
+                            IntellijModule.addClasspathUrl(paths, this.getOutputElementUrl(IntellijModule.outputTestElementName, IntellijModule.outputTestUrlAttributeName), moduleFolderPath);
+                        }
+                        IntellijModule.addClasspathUrl(paths, this.getOutputElementUrl(IntellijModule.outputElementName, IntellijModule.outputUrlAttributeName), moduleFolderPath);
+                    }
+                    else if (IntellijModuleLibrary.typeAttributeValue.equals(orderEntryType))
+                    {
+                        for (final String classesUrl : IntellijModuleLibrary.createView(orderEntryElement).getClassesUrls())
+                        {
+                            IntellijModule.addClasspathUrl(paths, classesUrl, moduleFolderPath);
+                        }
+                    }
+                }
+            }
+        }
+
+        final List<Path> resolvedPaths = List.create();
+        for (final String path : paths)
+        {
+            resolvedPaths.add(Path.parse(path));
+        }
+
+        // The resolved classpath is shared by every caller until it needs to be resolved again,
+        // so callers get a read-only view of it instead of the List itself.
+        return resolvedPaths.map((Path path) -> path);
+    }
+
+    private static boolean isForTests(XMLElement orderEntryElement)
+    {
+        final String forTests = IntellijXMLElements.getAttributeValue(orderEntryElement, IntellijModule.orderEntryForTestsAttributeName);
+        return forTests != null && Booleans.parse(forTests).catchError(() -> false).await();
+    }
+
+    private String getOutputElementUrl(String outputElementName, String urlAttributeName)
+    {
+        final XMLElement outputElement = IntellijXMLElements.getFirstElementChild(this.componentElement, outputElementName);
+        return outputElement == null
+            ? null
+            : IntellijXMLElements.getAttributeValue(outputElement, urlAttributeName);
+    }
+
+    private static void addClasspathUrl(java.util.LinkedHashSet<String> paths, String url, String moduleFolderPath)
+    {
+        if (!Strings.isNullOrEmpty(url))
+        {
+            final String path = IntellijUrls.toPath(url, moduleFolderPath);
+            if (path != null)
+            {
+                paths.add(path);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,630 @@
+package qub;
+
+/**
+ * A recorded sequence of changes that can be replayed against any number of modules. Each
+ * recording method adds one step to the script's XML, so a script can be saved as text and parsed
+ * again later. A script can also have conditions that a module must meet before any of the
+ * script's changes are applied to it.
+ *
+ * Each change only touches a module when the module doesn't already match it. Setting an output
+ * url that a module already has, adding a source folder whose url the module already has, or
+ * replacing a library that the module doesn't have leaves the module alone, so replaying a script
+ * against a module that it has already been applied to doesn't change the module again. The one
+ * exception is addModuleLibrary(), which always adds its library; use addModuleLibraryIfAbsent()
+ * for a step that can be replayed.
+ */
+public class IntellijModuleEditScript extends XMLElementWrapperBase
+{
+    public static final String editScriptElementName = "editScript";
+    private static final String orderEntryTypeAttributeName = "type";
+    private static final String urlAttributeName = "url";
+    private static final String valueAttributeName = "value";
+    private static final String requireModuleLibraryElementName = "requireModuleLibrary";
+    private static final String requireNoModuleLibraryElementName = "requireNoModuleLibrary";
+    private static final String setOutputUrlElementName = "setOutputUrl";
+    private static final String setOutputTestUrlElementName = "setOutputTestUrl";
+    private static final String setExcludeOutputElementName = "setExcludeOutput";
+    private static final String setInheritedJdkElementName = "setInheritedJdk";
+    private static final String setSourceFolderForTestsElementName = "setSourceFolderForTests";
+    private static final String addSourceFolderElementName = "addSourceFolder";
+    private static final String addModuleLibraryElementName = "addModuleLibrary";
+    private static final String addModuleLibraryIfAbsentElementName = "addModuleLibraryIfAbsent";
+    private static final String removeModuleLibraryElementName = "removeModuleLibrary";
+    private static final String replaceModuleLibraryElementName = "replaceModuleLibrary";
+
+    /**
+     * The conditions and changes of a script after its steps have been read from its XML. Nothing
+     * in a compiled script changes after it is created, so one compiled script can be applied to
+     * many modules at the same time.
+     */
+    private static class CompiledScript
+    {
+        private final List<Func1<IntellijModule,Boolean>> conditions;
+        private final List<Func1<IntellijModule,Boolean>> changes;
+
+        private CompiledScript()
+        {
+            this.conditions = List.create();
+            this.changes = List.create();
+        }
+
+        private boolean isApplicable(IntellijModule module)
+        {
+            boolean result = true;
+            for (final Func1<IntellijModule,Boolean> condition : this.conditions)
+            {
+                if (!condition.run(module))
+                {
+                    result = false;
+                    break;
+                }
+            }
+            return result;
+        }
+
+        private boolean apply(IntellijModule module)
+        {
+            boolean result = false;
+            for (final Func1<IntellijModule,Boolean> change : this.changes)
+            {
+                if (change.run(module))
+                {
+                    result = true;
+                }
+            }
+            return result;
+        }
+    }
+
+    private IntellijModuleEditScript(XMLElement xml)
+    {
+        super(xml);
+
+        PreCondition.assertNotNull(xml, "xml");
+        PreCondition.assertEqual(IntellijModuleEditScript.editScriptElementName, xml.getName(), "xml.getName()");
+    }
+
+    public static IntellijModuleEditScript create()
+    {
+        return IntellijModuleEditScript.create(XMLElement.create(IntellijModuleEditScript.editScriptElementName));
+    }
+
+    public static IntellijModuleEditScript create(XMLElement xml)
+    {
+        return new IntellijModuleEditScript(xml);
+    }
+
+    /**
+     * Parse an IntellijModuleEditScript from the provided text. Every step in the script is
+     * checked, so a script that parses successfully can be applied.
+     * @param text The text to parse.
+     * @return The parsed IntellijModuleEditScript.
+     */
+    public static Result<IntellijModuleEditScript> parse(String text)
+    {
+        PreCondition.assertNotNull(text, "text");
+
+        return XML.parse(text)
+            .then((XMLDocument xmlDocument) ->
+            {
+                final XMLElement root = xmlDocument.getRoot();
+                if (root == null || !IntellijModuleEditScript.editScriptElementName.equals(root.getName()))
+                {
+                    throw new ParseException("Expected the root element to be " + Strings.quote(IntellijModuleEditScript.editScriptElementName) + ".");
+                }
+
+                final IntellijModuleEditScript result = IntellijModuleEditScript.create(root);
+                result.compile();
+                return result;
+            });
+    }
+
+    /**
+     * Get the number of conditions and changes in this script.
+     * @return The number of steps in this script.
+     */
+    public int getStepCount()
+    {
+        return this.toXml().getElementChildren().getCount();
+    }
+
+    private IntellijModuleEditScript addStep(XMLElement stepElement)
+    {
+        this.toXml().addChild(stepElement);
+
+        return this;
+    }
+
+    private IntellijModuleEditScript addValueStep(String stepElementName, String valueAttributeName, String value)
+    {
+        return this.addStep(XMLElement.create(stepElementName)
+            .setAttribute(valueAttributeName, value));
+    }
+
+    private IntellijModuleEditScript addModuleLibraryStep(String stepElementName, IntellijModuleLibrary moduleLibrary)
+    {
+        return this.addStep(XMLElement.create(stepElementName)
+            .addChild(IntellijXMLElements.copy(moduleLibrary.toXml())));
+    }
+
+    /**
+     * Only apply this script to modules that have a module library that is equal to the provided
+     * module library.
+     * @param moduleLibrary The module library that a module must have.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleEditScript requireModuleLibrary(IntellijModuleLibrary moduleLibrary)
+    {
+        PreCondition.assertNotNull(moduleLibrary, "moduleLibrary");
+
+        return this.addModuleLibraryStep(IntellijModuleEditScript.requireModuleLibraryElementName, moduleLibrary);
+    }
+
+    /**
+     * Only apply this script to modules that don't have a module library that is equal to the
+     * provided module library.
+     * @param moduleLibrary The module library that a module must not have.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleEditScript requireNoModuleLibrary(IntellijModuleLibrary moduleLibrary)
+    {
+        PreCondition.assertNotNull(moduleLibrary, "moduleLibrary");
+
+        return this.addModuleLibraryStep(IntellijModuleEditScript.requireNoModuleLibraryElementName, moduleLibrary);
+    }
+
+    public IntellijModuleEditScript setOutputUrl(String outputUrl)
+    {
+        PreCondition.assertNotNullAndNotEmpty(outputUrl, "outputUrl");
+
+        return this.addValueStep(IntellijModuleEditScript.setOutputUrlElementName, IntellijModuleEditScript.urlAttributeName, outputUrl);
+    }
+
+    public IntellijModuleEditScript setOutputTestUrl(String outputTestUrl)
+    {
+        PreCondition.assertNotNullAndNotEmpty(outputTestUrl, "outputTestUrl");
+
+        return this.addValueStep(IntellijModuleEditScript.setOutputTestUrlElementName, IntellijModuleEditScript.urlAttributeName, outputTestUrl);
+    }
+
+    public IntellijModuleEditScript setExcludeOutput(boolean excludeOutput)
+    {
+        return this.addValueStep(IntellijModuleEditScript.setExcludeOutputElementName, IntellijModuleEditScript.valueAttributeName, Booleans.toString(excludeOutput));
+    }
+
+    public IntellijModuleEditScript setInheritedJdk(boolean inheritedJdk)
+    {
+        return this.addValueStep(IntellijModuleEditScript.setInheritedJdkElementName, IntellijModuleEditScript.valueAttributeName, Booleans.toString(inheritedJdk));
+    }
+
+    public IntellijModuleEditScript setSourceFolderForTests(boolean sourceFolderForTests)
+    {
+        return this.addValueStep(IntellijModuleEditScript.setSourceFolderForTestsElementName, IntellijModuleEditScript.valueAttributeName, Booleans.toString(sourceFolderForTests));
+    }
+
+    /**
+     * Add the provided source folder to each module that doesn't already have a source folder
+     * with the same url.
+     * @param sourceFolder The source folder to add.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleEditScript addSourceFolder(IntellijSourceFolder sourceFolder)
+    {
+        PreCondition.assertNotNull(sourceFolder, "sourceFolder");
+        PreCondition.assertNotNullAndNotEmpty(sourceFolder.getUrl(), "sourceFolder.getUrl()");
+
+        return this.addStep(XMLElement.create(IntellijModuleEditScript.addSourceFolderElementName)
+            .addChild(IntellijXMLElements.copy(sourceFolder.toXml())));
+    }
+
+    /**
+     * Add the provided module library to the end of each module's orderEntries, even if the
+     * module already has an equal module library. This step always changes the module, so
+     * replaying a script that has it adds the library again.
+     * @param moduleLibrary The module library to add.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleEditScript addModuleLibrary(IntellijModuleLibrary moduleLibrary)
+    {
+        PreCondition.assertNotNull(moduleLibrary, "moduleLibrary");
+
+        return this.addModuleLibraryStep(IntellijModuleEditScript.addModuleLibraryElementName, moduleLibrary);
+    }
+
+    /**
+     * Add the provided module library to each module that doesn't already have an equal module
+     * library.
+     * @param moduleLibrary The module library to add.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleEditScript addModuleLibraryIfAbsent(IntellijModuleLibrary moduleLibrary)
+    {
+        PreCondition.assertNotNull(moduleLibrary, "moduleLibrary");
+
+        return this.addModuleLibraryStep(IntellijModuleEditScript.addModuleLibraryIfAbsentElementName, moduleLibrary);
+    }
+
+    /**
+     * Remove the first module library that is equal to the provided module library from each
+     * module that has one. Libraries are matched by their IntellijModuleLibrary key, so a library
+     * that is formatted differently or has its attributes in a different order is still removed.
+     * @param moduleLibrary The module library to remove.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleEditScript removeModuleLibrary(IntellijModuleLibrary moduleLibrary)
+    {
+        PreCondition.assertNotNull(moduleLibrary, "moduleLibrary");
+
+        return this.addModuleLibraryStep(IntellijModuleEditScript.removeModuleLibraryElementName, moduleLibrary);
+    }
+
+    /**
+     * Replace every module library that is equal to the provided old module library with the
+     * provided new module library. The new library takes the old library's place in the module's
+     * orderEntries, so the module's classpath order is kept.
+     * @param oldModuleLibrary The module library to replace.
+     * @param newModuleLibrary The module library to replace it with.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleEditScript replaceModuleLibrary(IntellijModuleLibrary oldModuleLibrary, IntellijModuleLibrary newModuleLibrary)
+    {
+        PreCondition.assertNotNull(oldModuleLibrary, "oldModuleLibrary");
+        PreCondition.assertNotNull(newModuleLibrary, "newModuleLibrary");
+
+        return this.addStep(XMLElement.create(IntellijModuleEditScript.replaceModuleLibraryElementName)
+            .addChild(IntellijXMLElements.copy(oldModuleLibrary.toXml()))
+            .addChild(IntellijXMLElements.copy(newModuleLibrary.toXml())));
+    }
+
+    /**
+     * Get whether the provided module meets all of this script's conditions.
+     * @param module The module to check.
+     * @return Whether this script applies to the provided module.
+     */
+    public boolean isApplicable(IntellijModule module)
+    {
+        PreCondition.assertNotNull(module, "module");
+
+        return this.compile().isApplicable(module);
+    }
+
+    /**
+     * Apply this script's changes to the provided module if the module meets all of this script's
+     * conditions.
+     * @param module The module to change.
+     * @return Whether the module was changed.
+     */
+    public boolean apply(IntellijModule module)
+    {
+        PreCondition.assertNotNull(module, "module");
+
+        final CompiledScript compiledScript = this.compile();
+        return compiledScript.isApplicable(module) && compiledScript.apply(module);
+    }
+
+    /**
+     * Apply this script to each of the provided modules. The script's steps are read once, and
+     * then each module is checked and changed by a task that is given to the provided executor,
+     * so the modules can be changed in parallel. Each module is only touched by its own task, so
+     * the modules must not share any state with each other. An error that is thrown for one
+     * module is recorded in the summary without stopping the other modules. If the executor
+     * rejects a module's task, the module is recorded as failed with the executor's error.
+     * @param modulesByName The modules to apply this script to, keyed by module name.
+     * @param executor The executor that will run the tasks.
+     * @return The summary of which modules were changed.
+     */
+    public Result<IntellijModuleEditSummary> applyAll(java.util.Map<String,IntellijModule> modulesByName, java.util.concurrent.Executor executor)
+    {
+        PreCondition.assertNotNull(modulesByName, "modulesByName");
+        PreCondition.assertNotNull(executor, "executor");
+
+        return Result.create(() ->
+        {
+            final CompiledScript compiledScript = this.compile();
+
+            final int moduleCount = modulesByName.size();
+            final String[] moduleNames = new String[moduleCount];
+            final Boolean[] changed = new Boolean[moduleCount];
+            final Throwable[] errors = new Throwable[moduleCount];
+            final java.util.concurrent.CountDownLatch latch = new java.util.concurrent.CountDownLatch(moduleCount);
+
+            int index = 0;
+            for (final java.util.Map.Entry<String,IntellijModule> entry : modulesByName.entrySet())
+            {
+                final int moduleIndex = index++;
+                final IntellijModule module = entry.getValue();
+                moduleNames[moduleIndex] = entry.getKey();
+                try
+                {
+                    executor.execute(() ->
+                    {
+                        try
+                        {
+                            if (compiledScript.isApplicable(module))
+                            {
+                                changed[moduleIndex] = compiledScript.apply(module);
+                            }
+                        }
+                        catch (Throwable error)
+                        {
+                            errors[moduleIndex] = error;
+                        }
+                        finally
+                        {
+                            latch.countDown();
+                        }
+                    });
+                }
+                catch (Throwable error)
+                {
+                    // The executor didn't accept the task (for example, because it was shut down),
+                    // so the task will never count down the latch for this module.
+                    errors[moduleIndex] = error;
+                    latch.countDown();
+                }
+            }
+
+            try
+            {
+                latch.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+
+            final IntellijModuleEditSummary result = IntellijModuleEditSummary.create();
+            for (int i = 0; i < moduleCount; ++i)
+            {
+                if (errors[i] != null)
+                {
+                    result.addFailed(moduleNames[i], errors[i]);
+                }
+                else if (changed[i] == null)
+                {
+                    result.addSkipped(moduleNames[i]);
+                }
+                else if (changed[i])
+                {
+                    result.addChanged(moduleNames[i]);
+                }
+                else
+                {
+                    result.addUnchanged(moduleNames[i]);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Read this script's steps into conditions and changes that can be run against modules.
+     * @return The compiled script.
+     */
+    private CompiledScript compile()
+    {
+        final CompiledScript result = new CompiledScript();
+        for (final XMLElement stepElement : this.toXml().getElementChildren())
+        {
+            final String stepName = stepElement.getName();
+            switch (stepName)
+            {
+                case IntellijModuleEditScript.requireModuleLibraryElementName:
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleEditScript.getModuleLibrary(stepElement, 0);
+                    result.conditions.add((IntellijModule module) -> module.containsModuleLibrary(moduleLibrary));
+                    break;
+                }
+
+                case IntellijModuleEditScript.requireNoModuleLibraryElementName:
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleEditScript.getModuleLibrary(stepElement, 0);
+                    result.conditions.add((IntellijModule module) -> !module.containsModuleLibrary(moduleLibrary));
+                    break;
+                }
+
+                case IntellijModuleEditScript.setOutputUrlElementName:
+                {
+                    final String outputUrl = IntellijModuleEditScript.getRequiredAttributeValue(stepElement, IntellijModuleEditScript.urlAttributeName);
+                    result.changes.add((IntellijModule module) ->
+                    {
+                        final boolean changed = !outputUrl.equals(module.getOutputUrl());
+                        if (changed)
+                        {
+                            module.setOutputUrl(outputUrl);
+                        }
+                        return changed;
+                    });
+                    break;
+                }
+
+                case IntellijModuleEditScript.setOutputTestUrlElementName:
+                {
+                    final String outputTestUrl = IntellijModuleEditScript.getRequiredAttributeValue(stepElement, IntellijModuleEditScript.urlAttributeName);
+                    result.changes.add((IntellijModule module) ->
+                    {
+                        final boolean changed = !outputTestUrl.equals(module.getOutputTestUrl());
+                        if (changed)
+                        {
+                            module.setOutputTestUrl(outputTestUrl);
+                        }
+                        return changed;
+                    });
+                    break;
+                }
+
+                case IntellijModuleEditScript.setExcludeOutputElementName:
+                {
+                    final boolean excludeOutput = IntellijModuleEditScript.getRequiredBooleanAttributeValue(stepElement);
+                    result.changes.add((IntellijModule module) ->
+                    {
+                        final boolean changed = module.getExcludeOutput() != excludeOutput;
+                        if (changed)
+                        {
+                            module.setExcludeOutput(excludeOutput);
+                        }
+                        return changed;
+                    });
+                    break;
+                }
+
+                case IntellijModuleEditScript.setInheritedJdkElementName:
+                {
+                    final boolean inheritedJdk = IntellijModuleEditScript.getRequiredBooleanAttributeValue(stepElement);
+                    result.changes.add((IntellijModule module) ->
+                    {
+                        final boolean changed = module.getInheritedJdk() != inheritedJdk;
+                        if (changed)
+                        {
+                            module.setInheritedJdk(inheritedJdk);
+                        }
+                        return changed;
+                    });
+                    break;
+                }
+
+                case IntellijModuleEditScript.setSourceFolderForTestsElementName:
+                {
+                    final boolean sourceFolderForTests = IntellijModuleEditScript.getRequiredBooleanAttributeValue(stepElement);
+                    result.changes.add((IntellijModule module) ->
+                    {
+                        final Boolean currentSourceFolderForTests = module.getSourceFolderForTests();
+                        final boolean changed = currentSourceFolderForTests == null || currentSourceFolderForTests != sourceFolderForTests;
+                        if (changed)
+                        {
+                            module.setSourceFolderForTests(sourceFolderForTests);
+                        }
+                        return changed;
+                    });
+                    break;
+                }
+
+                case IntellijModuleEditScript.addSourceFolderElementName:
+                {
+                    final XMLElement sourceFolderElement = IntellijXMLElements.copy(IntellijModuleEditScript.getStepChild(stepElement, 0));
+                    final String url = IntellijSourceFolder.create(sourceFolderElement).getUrl();
+                    if (Strings.isNullOrEmpty(url))
+                    {
+                        throw new ParseException("The " + Strings.quote(stepName) + " step's source folder must have a url.");
+                    }
+                    result.changes.add((IntellijModule module) ->
+                    {
+                        final boolean changed = module.getSourceFolder(url)
+                            .catchError(NotFoundException.class)
+                            .await() == null;
+                        if (changed)
+                        {
+                            module.addSourceFolder(IntellijSourceFolder.create(IntellijXMLElements.copy(sourceFolderElement)));
+                        }
+                        return changed;
+                    });
+                    break;
+                }
+
+                case IntellijModuleEditScript.addModuleLibraryElementName:
+                {
+                    final XMLElement moduleLibraryElement = IntellijModuleEditScript.getModuleLibrary(stepElement, 0).toXml();
+                    result.changes.add((IntellijModule module) ->
+                    {
+                        module.addModuleLibrary(IntellijModuleLibrary.createView(IntellijXMLElements.copy(moduleLibraryElement)));
+                        return true;
+                    });
+                    break;
+                }
+
+                case IntellijModuleEditScript.addModuleLibraryIfAbsentElementName:
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleEditScript.getModuleLibrary(stepElement, 0);
+                    result.changes.add((IntellijModule module) ->
+                    {
+                        final boolean changed = !module.containsModuleLibrary(moduleLibrary);
+                        if (changed)
+                        {
+                            module.addModuleLibrary(IntellijModuleLibrary.createView(IntellijXMLElements.copy(moduleLibrary.toXml())));
+                        }
+                        return changed;
+                    });
+                    break;
+                }
+
+                case IntellijModuleEditScript.removeModuleLibraryElementName:
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleEditScript.getModuleLibrary(stepElement, 0);
+                    final String moduleLibraryKey = IntellijModuleLibrary.getKey(moduleLibrary.toXml());
+                    result.changes.add((IntellijModule module) ->
+                    {
+                        return module.containsModuleLibrary(moduleLibrary) &&
+                            module.removeFirstModuleLibrary((XMLElement moduleLibraryElement) ->
+                                moduleLibraryKey.equals(IntellijModuleLibrary.getKey(moduleLibraryElement)));
+                    });
+                    break;
+                }
+
+                case IntellijModuleEditScript.replaceModuleLibraryElementName:
+                {
+                    final IntellijModuleLibrary oldModuleLibrary = IntellijModuleEditScript.getModuleLibrary(stepElement, 0);
+                    final String oldModuleLibraryKey = IntellijModuleLibrary.getKey(oldModuleLibrary.toXml());
+                    final XMLElement newModuleLibraryElement = IntellijModuleEditScript.getModuleLibrary(stepElement, 1).toXml();
+                    result.changes.add((IntellijModule module) ->
+                    {
+                        return module.containsModuleLibrary(oldModuleLibrary) &&
+                            module.replaceModuleLibraries((XMLElement moduleLibraryElement) ->
+                                oldModuleLibraryKey.equals(IntellijModuleLibrary.getKey(moduleLibraryElement))
+                                    ? IntellijXMLElements.copy(newModuleLibraryElement)
+                                    : null) > 0;
+                    });
+                    break;
+                }
+
+                default:
+                    throw new ParseException("Unrecognized edit script step: " + Strings.quote(stepName) + ".");
+            }
+        }
+        return result;
+    }
+
+    private static XMLElement getStepChild(XMLElement stepElement, int index)
+    {
+        final List<XMLElement> children = List.<XMLElement>create().addAll(stepElement.getElementChildren());
+        if (children.getCount() <= index)
+        {
+            throw new ParseException("The " + Strings.quote(stepElement.getName()) + " step is missing an element.");
+        }
+        return children.get(index);
+    }
+
+    private static IntellijModuleLibrary getModuleLibrary(XMLElement stepElement, int index)
+    {
+        final XMLElement moduleLibraryElement = IntellijModuleEditScript.getStepChild(stepElement, index);
+        if (!IntellijModule.orderEntryElementName.equals(moduleLibraryElement.getName()) ||
+            !IntellijXMLElements.hasAttributeValue(moduleLibraryElement, IntellijModuleEditScript.orderEntryTypeAttributeName, IntellijModuleLibrary.typeAttributeValue))
+        {
+            throw new ParseException("The " + Strings.quote(stepElement.getName()) + " step's element must be a module-library orderEntry.");
+        }
+        return IntellijModuleLibrary.createView(IntellijXMLElements.copy(moduleLibraryElement));
+    }
+
+    private static String getRequiredAttributeValue(XMLElement stepElement, String attributeName)
+    {
+        final String result = IntellijXMLElements.getAttributeValue(stepElement, attributeName);
+        if (Strings.isNullOrEmpty(result))
+        {
+            throw new ParseException("The " + Strings.quote(stepElement.getName()) + " step must have a " + Strings.quote(attributeName) + " attribute.");
+        }
+        return result;
+    }
+
+    private static boolean getRequiredBooleanAttributeValue(XMLElement stepElement)
+    {
+        final String value = IntellijModuleEditScript.getRequiredAttributeValue(stepElement, IntellijModuleEditScript.valueAttributeName);
+        final Boolean result = Booleans.parse(value)
+            .catchError(() -> null)
+            .await();
+        if (result == null)
+        {
+            throw new ParseException("The " + Strings.quote(stepElement.getName()) + " step's " + Strings.quote(IntellijModuleEditScript.valueAttributeName) + " attribute must be true or false.");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,126 @@
+package qub;
+
+/**
+ * The summary of applying an IntellijModuleEditScript to a set of modules. Every module that the
+ * script was applied to is in exactly one of the summary's groups, and the module names in each
+ * group are in the order that the modules were provided.
+ */
+public class IntellijModuleEditSummary
+{
+    private final List<String> changedModuleNames;
+    private final List<String> unchangedModuleNames;
+    private final List<String> skippedModuleNames;
+    private final List<String> failedModuleNames;
+    private final java.util.HashMap<String,Throwable> errors;
+
+    private IntellijModuleEditSummary()
+    {
+        this.changedModuleNames = List.create();
+        this.unchangedModuleNames = List.create();
+        this.skippedModuleNames = List.create();
+        this.failedModuleNames = List.create();
+        this.errors = new java.util.HashMap<>();
+    }
+
+    static IntellijModuleEditSummary create()
+    {
+        return new IntellijModuleEditSummary();
+    }
+
+    IntellijModuleEditSummary addChanged(String moduleName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(moduleName, "moduleName");
+
+        this.changedModuleNames.add(moduleName);
+
+        return this;
+    }
+
+    IntellijModuleEditSummary addUnchanged(String moduleName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(moduleName, "moduleName");
+
+        this.unchangedModuleNames.add(moduleName);
+
+        return this;
+    }
+
+    IntellijModuleEditSummary addSkipped(String moduleName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(moduleName, "moduleName");
+
+        this.skippedModuleNames.add(moduleName);
+
+        return this;
+    }
+
+    IntellijModuleEditSummary addFailed(String moduleName, Throwable error)
+    {
+        PreCondition.assertNotNullAndNotEmpty(moduleName, "moduleName");
+        PreCondition.assertNotNull(error, "error");
+
+        this.failedModuleNames.add(moduleName);
+        this.errors.put(moduleName, error);
+
+        return this;
+    }
+
+    /**
+     * Get the names of the modules that the script changed.
+     * @return The names of the modules that the script changed.
+     */
+    public Iterable<String> getChangedModuleNames()
+    {
+        return this.changedModuleNames;
+    }
+
+    /**
+     * Get the names of the modules that the script applied to but that already matched the
+     * script, so nothing was changed.
+     * @return The names of the modules that the script didn't need to change.
+     */
+    public Iterable<String> getUnchangedModuleNames()
+    {
+        return this.unchangedModuleNames;
+    }
+
+    /**
+     * Get the names of the modules that didn't meet the script's conditions, so the script wasn't
+     * applied to them.
+     * @return The names of the modules that the script wasn't applied to.
+     */
+    public Iterable<String> getSkippedModuleNames()
+    {
+        return this.skippedModuleNames;
+    }
+
+    /**
+     * Get the names of the modules that an error was thrown for while the script was being
+     * applied. A failed module may have been partially changed.
+     * @return The names of the modules that the script failed on.
+     */
+    public Iterable<String> getFailedModuleNames()
+    {
+        return this.failedModuleNames;
+    }
+
+    /**
+     * Get the error that was thrown while the script was being applied to the provided module.
+     * @param moduleName The name of the module.
+     * @return The error that was thrown for the module.
+     */
+    public Result<Throwable> getError(String moduleName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(moduleName, "moduleName");
+
+        return Result.create(() ->
+        {
+            final Throwable result = this.errors.get(moduleName);
+            if (result == null)
+            {
+                throw new NotFoundException("No error was thrown for the module " + Strings.quote(moduleName) + ".");
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,543 @@
+package qub;
+
+/**
+ * An immutable graph of the module-to-module dependencies in a set of modules. Each module is
+ * given a dense integer id (in the order that the modules were provided), and the graph
+ * precomputes the strongly connected components (cycles), a topological layering, and the
+ * transitive closure of the dependencies in both directions. Once the graph has been created,
+ * asking whether one module depends on another, or which modules are affected by a change to a
+ * module, is a single bitset lookup.
+ *
+ * The closures are stored once per strongly connected component instead of once per module,
+ * since every module in a component has the same dependencies and dependents, and each closure
+ * bitset is trimmed after its highest set bit.
+ */
+public class IntellijModuleGraph
+{
+    private static final long[] emptyBitSet = new long[0];
+
+    private final String[] moduleNames;
+    private final IntellijModule[] modules;
+    private final java.util.HashMap<String,Integer> moduleIdsByName;
+    private final int[][] dependencyIds;
+    private final int[] componentIds;
+    private final int[][] componentModuleIds;
+    private final boolean[] componentIsCyclic;
+    private final int[] componentLayers;
+    private final int layerCount;
+    private final int[][] layerModuleIds;
+    private final long[][] componentDependencyBitSets;
+    private final long[][] componentDependentBitSets;
+
+    private IntellijModuleGraph(java.util.Map<String,IntellijModule> modulesByName)
+    {
+        PreCondition.assertNotNull(modulesByName, "modulesByName");
+
+        final int moduleCount = modulesByName.size();
+        this.moduleNames = new String[moduleCount];
+        this.modules = new IntellijModule[moduleCount];
+        this.moduleIdsByName = new java.util.HashMap<>();
+        int moduleId = 0;
+        for (final java.util.Map.Entry<String,IntellijModule> entry : modulesByName.entrySet())
+        {
+            PreCondition.assertNotNullAndNotEmpty(entry.getKey(), "moduleName");
+            PreCondition.assertNotNull(entry.getValue(), "module");
+
+            this.moduleNames[moduleId] = entry.getKey();
+            this.modules[moduleId] = entry.getValue();
+            this.moduleIdsByName.put(entry.getKey(), moduleId);
+            ++moduleId;
+        }
+
+        this.dependencyIds = new int[moduleCount][];
+        for (int i = 0; i < moduleCount; ++i)
+        {
+            final java.util.LinkedHashSet<Integer> moduleDependencyIds = new java.util.LinkedHashSet<>();
+            for (final String dependencyName : this.modules[i].getModuleDependencyNames())
+            {
+                final Integer dependencyId = this.moduleIdsByName.get(dependencyName);
+                if (dependencyId != null)
+                {
+                    moduleDependencyIds.add(dependencyId);
+                }
+            }
+            this.dependencyIds[i] = IntellijModuleGraph.toIntArray(moduleDependencyIds);
+        }
+
+        // Tarjan's algorithm emits each component after every component that it depends on, so
+        // the component ids are already in dependencies-first topological order.
+        this.componentIds = new int[moduleCount];
+        final List<int[]> components = IntellijModuleGraph.findStronglyConnectedComponents(this.dependencyIds, this.componentIds);
+        final int componentCount = components.getCount();
+        this.componentModuleIds = new int[componentCount][];
+        this.componentIsCyclic = new boolean[componentCount];
+        for (int c = 0; c < componentCount; ++c)
+        {
+            final int[] members = components.get(c);
+            java.util.Arrays.sort(members);
+            this.componentModuleIds[c] = members;
+            boolean isCyclic = members.length > 1;
+            for (int i = 0; !isCyclic && i < this.dependencyIds[members[0]].length; ++i)
+            {
+                isCyclic = this.dependencyIds[members[0]][i] == members[0];
+            }
+            this.componentIsCyclic[c] = isCyclic;
+        }
+
+        final int[][] componentDependencyIds = new int[componentCount][];
+        final int[][] componentDependentIds;
+        final List<java.util.LinkedHashSet<Integer>> componentDependents = List.create();
+        for (int c = 0; c < componentCount; ++c)
+        {
+            componentDependents.add(new java.util.LinkedHashSet<>());
+        }
+        for (int c = 0; c < componentCount; ++c)
+        {
+            final java.util.LinkedHashSet<Integer> dependencyComponentIds = new java.util.LinkedHashSet<>();
+            for (final int memberId : this.componentModuleIds[c])
+            {
+                for (final int dependencyId : this.dependencyIds[memberId])
+                {
+                    final int dependencyComponentId = this.componentIds[dependencyId];
+                    if (dependencyComponentId != c && dependencyComponentIds.add(dependencyComponentId))
+                    {
+                        componentDependents.get(dependencyComponentId).add(c);
+                    }
+                }
+            }
+            componentDependencyIds[c] = IntellijModuleGraph.toIntArray(dependencyComponentIds);
+        }
+        componentDependentIds = new int[componentCount][];
+        for (int c = 0; c < componentCount; ++c)
+        {
+            componentDependentIds[c] = IntellijModuleGraph.toIntArray(componentDependents.get(c));
+        }
+
+        // Each closure is built in one scratch word array that is cleared and reused for every
+        // component, and only the trimmed copy of it is kept.
+        final long[] closure = new long[(moduleCount + 63) >>> 6];
+
+        this.componentLayers = new int[componentCount];
+        int layerCount = 0;
+        this.componentDependencyBitSets = new long[componentCount][];
+        for (int c = 0; c < componentCount; ++c)
+        {
+            int layer = 0;
+            java.util.Arrays.fill(closure, 0L);
+            if (this.componentIsCyclic[c])
+            {
+                IntellijModuleGraph.setAll(closure, this.componentModuleIds[c]);
+            }
+            for (final int d : componentDependencyIds[c])
+            {
+                layer = java.lang.Math.max(layer, this.componentLayers[d] + 1);
+                IntellijModuleGraph.setAll(closure, this.componentModuleIds[d]);
+                IntellijModuleGraph.or(closure, this.componentDependencyBitSets[d]);
+            }
+            this.componentLayers[c] = layer;
+            layerCount = java.lang.Math.max(layerCount, layer + 1);
+            this.componentDependencyBitSets[c] = IntellijModuleGraph.toTrimmedWords(closure);
+        }
+        this.layerCount = layerCount;
+
+        final int[] layerSizes = new int[layerCount];
+        for (int i = 0; i < moduleCount; ++i)
+        {
+            ++layerSizes[this.componentLayers[this.componentIds[i]]];
+        }
+        this.layerModuleIds = new int[layerCount][];
+        for (int layer = 0; layer < layerCount; ++layer)
+        {
+            this.layerModuleIds[layer] = new int[layerSizes[layer]];
+            layerSizes[layer] = 0;
+        }
+        for (int i = 0; i < moduleCount; ++i)
+        {
+            final int layer = this.componentLayers[this.componentIds[i]];
+            this.layerModuleIds[layer][layerSizes[layer]++] = i;
+        }
+
+        this.componentDependentBitSets = new long[componentCount][];
+        for (int c = componentCount - 1; c >= 0; --c)
+        {
+            java.util.Arrays.fill(closure, 0L);
+            if (this.componentIsCyclic[c])
+            {
+                IntellijModuleGraph.setAll(closure, this.componentModuleIds[c]);
+            }
+            for (final int d : componentDependentIds[c])
+            {
+                IntellijModuleGraph.setAll(closure, this.componentModuleIds[d]);
+                IntellijModuleGraph.or(closure, this.componentDependentBitSets[d]);
+            }
+            this.componentDependentBitSets[c] = IntellijModuleGraph.toTrimmedWords(closure);
+        }
+    }
+
+    /**
+     * Create a new IntellijModuleGraph from the provided modules. Each module is given the id of
+     * its position in the map's iteration order, so a java.util.LinkedHashMap gives predictable
+     * ids. Module orderEntries that refer to modules that aren't in the map are ignored.
+     * @param modulesByName The modules to put in the graph, keyed by module name (the name of the
+     *                      module's .iml file without its extension).
+     * @return The new IntellijModuleGraph.
+     */
+    public static IntellijModuleGraph create(java.util.Map<String,IntellijModule> modulesByName)
+    {
+        return new IntellijModuleGraph(modulesByName);
+    }
+
+    /**
+     * Find the strongly connected components of the provided graph with an iterative version of
+     * Tarjan's algorithm, so that long dependency chains can't overflow the stack.
+     * @param edges The ids of the nodes that each node has an edge to.
+     * @param componentIds The array that each node's component id will be written to.
+     * @return The members of each component, in the order that the components were completed.
+     */
+    private static List<int[]> findStronglyConnectedComponents(int[][] edges, int[] componentIds)
+    {
+        final int nodeCount = edges.length;
+        final int[] indexes = new int[nodeCount];
+        final int[] lowLinks = new int[nodeCount];
+        final boolean[] onStack = new boolean[nodeCount];
+        java.util.Arrays.fill(indexes, -1);
+
+        final int[] stack = new int[nodeCount];
+        int stackSize = 0;
+        final int[] callStack = new int[nodeCount];
+        final int[] callEdgeIndexes = new int[nodeCount];
+        int nextIndex = 0;
+        final List<int[]> result = List.create();
+
+        for (int root = 0; root < nodeCount; ++root)
+        {
+            if (indexes[root] == -1)
+            {
+                int callStackSize = 0;
+                callStack[callStackSize] = root;
+                callEdgeIndexes[callStackSize] = 0;
+                ++callStackSize;
+                indexes[root] = nextIndex;
+                lowLinks[root] = nextIndex;
+                ++nextIndex;
+                stack[stackSize++] = root;
+                onStack[root] = true;
+
+                while (callStackSize > 0)
+                {
+                    final int node = callStack[callStackSize - 1];
+                    final int edgeIndex = callEdgeIndexes[callStackSize - 1];
+                    if (edgeIndex < edges[node].length)
+                    {
+                        ++callEdgeIndexes[callStackSize - 1];
+                        final int next = edges[node][edgeIndex];
+                        if (indexes[next] == -1)
+                        {
+                            indexes[next] = nextIndex;
+                            lowLinks[next] = nextIndex;
+                            ++nextIndex;
+                            stack[stackSize++] = next;
+                            onStack[next] = true;
+                            callStack[callStackSize] = next;
+                            callEdgeIndexes[callStackSize] = 0;
+                            ++callStackSize;
+                        }
+                        else if (onStack[next])
+                        {
+                            lowLinks[node] = java.lang.Math.min(lowLinks[node], indexes[next]);
+                        }
+                    }
+                    else
+                    {
+                        --callStackSize;
+                        if (callStackSize > 0)
+                        {
+                            final int parent = callStack[callStackSize - 1];
+                            lowLinks[parent] = java.lang.Math.min(lowLinks[parent], lowLinks[node]);
+                        }
+
+                        if (lowLinks[node] == indexes[node])
+                        {
+                            final int componentId = result.getCount();
+                            int memberCount = 0;
+                            for (int i = stackSize - 1; stack[i] != node; --i)
+                            {
+                                ++memberCount;
+                            }
+                            ++memberCount;
+
+                            final int[] members = new int[memberCount];
+                            for (int i = 0; i < memberCount; ++i)
+                            {
+                                final int member = stack[--stackSize];
+                                onStack[member] = false;
+                                componentIds[member] = componentId;
+                                members[i] = member;
+                            }
+                            result.add(members);
+                        }
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static int[] toIntArray(java.util.Collection<Integer> values)
+    {
+        final int[] result = new int[values.size()];
+        int index = 0;
+        for (final Integer value : values)
+        {
+            result[index++] = value;
+        }
+        return result;
+    }
+
+    private static void setAll(long[] words, int[] indexes)
+    {
+        for (final int index : indexes)
+        {
+            words[index >>> 6] |= 1L << index;
+        }
+    }
+
+    /**
+     * Set the bits in the provided words that are set in the provided source words. The source
+     * words may be shorter than the words, since closures are trimmed after their highest set bit.
+     */
+    private static void or(long[] words, long[] sourceWords)
+    {
+        for (int i = 0; i < sourceWords.length; ++i)
+        {
+            words[i] |= sourceWords[i];
+        }
+    }
+
+    /**
+     * Get a copy of the provided words without the trailing words that have no bits set.
+     */
+    private static long[] toTrimmedWords(long[] words)
+    {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0)
+        {
+            --length;
+        }
+        return length == 0 ? IntellijModuleGraph.emptyBitSet : java.util.Arrays.copyOf(words, length);
+    }
+
+    private static boolean isSet(long[] words, int index)
+    {
+        final int wordIndex = index >>> 6;
+        return wordIndex < words.length && (words[wordIndex] & (1L << index)) != 0;
+    }
+
+    private void assertModuleId(int moduleId, String name)
+    {
+        PreCondition.assertBetween(0, moduleId, this.modules.length - 1, name);
+    }
+
+    /**
+     * Get the number of modules in this graph.
+     * @return The number of modules in this graph.
+     */
+    public int getModuleCount()
+    {
+        return this.modules.length;
+    }
+
+    /**
+     * Get the id of the module with the provided name.
+     * @param moduleName The name of the module.
+     * @return The id of the module with the provided name.
+     */
+    public Result<Integer> getModuleId(String moduleName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(moduleName, "moduleName");
+
+        return Result.create(() ->
+        {
+            final Integer result = this.moduleIdsByName.get(moduleName);
+            if (result == null)
+            {
+                throw new NotFoundException("Could not find a module with the name " + Strings.quote(moduleName) + ".");
+            }
+            return result;
+        });
+    }
+
+    public String getModuleName(int moduleId)
+    {
+        this.assertModuleId(moduleId, "moduleId");
+
+        return this.moduleNames[moduleId];
+    }
+
+    public IntellijModule getModule(int moduleId)
+    {
+        this.assertModuleId(moduleId, "moduleId");
+
+        return this.modules[moduleId];
+    }
+
+    /**
+     * Get the ids of the modules that the provided module directly depends on.
+     * @param moduleId The id of the module.
+     * @return The ids of the modules that the provided module directly depends on.
+     */
+    public Iterable<Integer> getDirectDependencyIds(int moduleId)
+    {
+        this.assertModuleId(moduleId, "moduleId");
+
+        final List<Integer> result = List.create();
+        for (final int dependencyId : this.dependencyIds[moduleId])
+        {
+            result.add(dependencyId);
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the provided module depends on the provided dependency, either directly or
+     * through other modules. A module only depends on itself if it is part of a cycle.
+     * @param moduleId The id of the module.
+     * @param dependencyId The id of the possible dependency.
+     * @return Whether the module transitively depends on the dependency.
+     */
+    public boolean dependsOn(int moduleId, int dependencyId)
+    {
+        this.assertModuleId(moduleId, "moduleId");
+        this.assertModuleId(dependencyId, "dependencyId");
+
+        return IntellijModuleGraph.isSet(this.componentDependencyBitSets[this.componentIds[moduleId]], dependencyId);
+    }
+
+    /**
+     * Get whether a change to the provided changed module affects the provided module. A module is
+     * affected by a change to itself or to any module that it transitively depends on.
+     * @param moduleId The id of the module.
+     * @param changedModuleId The id of the module that changed.
+     * @return Whether the module is affected by the change.
+     */
+    public boolean isAffectedBy(int moduleId, int changedModuleId)
+    {
+        return moduleId == changedModuleId || this.dependsOn(moduleId, changedModuleId);
+    }
+
+    /**
+     * Get the ids of the modules that the provided module transitively depends on.
+     * @param moduleId The id of the module.
+     * @return A new BitSet with a bit set for each module that the module depends on.
+     */
+    public java.util.BitSet getTransitiveDependencyIds(int moduleId)
+    {
+        this.assertModuleId(moduleId, "moduleId");
+
+        return java.util.BitSet.valueOf(this.componentDependencyBitSets[this.componentIds[moduleId]]);
+    }
+
+    /**
+     * Get the ids of the modules that are affected by a change to the provided module: the module
+     * itself and every module that transitively depends on it.
+     * @param changedModuleId The id of the module that changed.
+     * @return A new BitSet with a bit set for each affected module.
+     */
+    public java.util.BitSet getAffectedModuleIds(int changedModuleId)
+    {
+        this.assertModuleId(changedModuleId, "changedModuleId");
+
+        final java.util.BitSet result = java.util.BitSet.valueOf(this.componentDependentBitSets[this.componentIds[changedModuleId]]);
+        result.set(changedModuleId);
+        return result;
+    }
+
+    /**
+     * Get the number of strongly connected components in this graph. Each module that isn't part
+     * of a cycle is a component by itself.
+     * @return The number of strongly connected components in this graph.
+     */
+    public int getComponentCount()
+    {
+        return this.componentModuleIds.length;
+    }
+
+    /**
+     * Get the id of the strongly connected component that the provided module belongs to.
+     * Components are numbered so that a component's id is greater than the ids of the components
+     * that it depends on.
+     * @param moduleId The id of the module.
+     * @return The id of the module's component.
+     */
+    public int getComponentId(int moduleId)
+    {
+        this.assertModuleId(moduleId, "moduleId");
+
+        return this.componentIds[moduleId];
+    }
+
+    /**
+     * Get the groups of modules that depend on each other in a cycle, including modules that
+     * depend on themselves.
+     * @return The names of the modules in each cycle, in component id order.
+     */
+    public Iterable<Iterable<String>> getCycles()
+    {
+        final List<Iterable<String>> result = List.create();
+        for (int c = 0; c < this.componentModuleIds.length; ++c)
+        {
+            if (this.componentIsCyclic[c])
+            {
+                final List<String> cycle = List.create();
+                for (final int moduleId : this.componentModuleIds[c])
+                {
+                    cycle.add(this.moduleNames[moduleId]);
+                }
+                result.add(cycle);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of topological layers in this graph.
+     * @return The number of topological layers in this graph.
+     */
+    public int getLayerCount()
+    {
+        return this.layerCount;
+    }
+
+    /**
+     * Get the topological layer of the provided module. Modules with no dependencies are in layer
+     * 0, and every other module is in the layer after the highest layer of its dependencies, so
+     * the modules in one layer can be built in parallel once the previous layers are built.
+     * Modules in the same cycle share a layer.
+     * @param moduleId The id of the module.
+     * @return The layer of the module.
+     */
+    public int getLayer(int moduleId)
+    {
+        this.assertModuleId(moduleId, "moduleId");
+
+        return this.componentLayers[this.componentIds[moduleId]];
+    }
+
+    /**
+     * Get the ids of the modules in the provided topological layer.
+     * @param layer The layer.
+     * @return The ids of the modules in the layer, in increasing order.
+     */
+    public Iterable<Integer> getModuleIdsInLayer(int layer)
+    {
+        PreCondition.assertBetween(0, layer, this.layerCount - 1, "layer");
+
+        final List<Integer> result = List.create();
+        for (final int moduleId : this.layerModuleIds[layer])
+        {
+            result.add(moduleId);
+        }
+        return result;
+    }
+}
@@ -10,18 +10,81 @@ public class IntellijModuleLibrary extends XMLElementWrapperBase
     private static final String urlAttributeName = "url";
     private static final String javadocElementName = "JAVADOC";
     private static final String sourcesElementName = "SOURCES";
+    private static final String libraryNameAttributeName = "name";
+    private static final String[] rootUrlElementNames = { IntellijModuleLibrary.classesElementName, IntellijModuleLibrary.javadocElementName, IntellijModuleLibrary.sourcesElementName };
+    /**
+     * The character that separates the parts of a module library's key. It can't appear in an
+     * XML attribute value, so two different libraries can't produce the same key.
+     */
+    private static final char keySeparator = '\u0000';
 
-    private IntellijModuleLibrary(XMLElement xml)
+    /**
+     * The urls under this library's CLASSES and SOURCES elements, keyed by the element's name.
+     * Each index is created the first time that an add-if-absent method needs it, so this is null
+     * until then.
+     */
+    private java.util.HashMap<String,RootUrlIndex> rootUrlIndexes;
+    /**
+     * The number of times that this object has changed this library's urls. A RootUrlIndex is
+     * only used while this still has the value that it had when the index was last brought up to
+     * date.
+     */
+    private long modificationCount;
+    private Action0 onChanged;
+
+    /**
+     * The set of urls under one of this library's CLASSES or SOURCES elements. The index
+     * remembers which element it was built from, this library's modification count, and how many
+     * children the element had. Any change made through this object, including clearing the urls
+     * and adding the same number back, bumps the modification count and causes the index to be
+     * rebuilt. The child count catches roots that are added or removed through another object
+     * that wraps the same element.
+     */
+    private static class RootUrlIndex
+    {
+        private final XMLElement parentElement;
+        private final java.util.HashSet<String> urls;
+        private long modificationCount;
+        private int childCount;
+
+        private RootUrlIndex(XMLElement parentElement, long modificationCount)
+        {
+            this.parentElement = parentElement;
+            this.urls = new java.util.HashSet<>();
+            for (final XMLElement rootElement : parentElement.getElementChildren(IntellijModuleLibrary.rootElementName))
+            {
+                final String url = IntellijXMLElements.getAttributeValue(rootElement, IntellijModuleLibrary.urlAttributeName);
+                if (!Strings.isNullOrEmpty(url))
+                {
+                    this.urls.add(url);
+                }
+            }
+            this.modificationCount = modificationCount;
+            this.childCount = parentElement.getChildren().getCount();
+        }
+
+        private boolean isCurrent(XMLElement parentElement, long modificationCount)
+        {
+            return this.parentElement == parentElement &&
+                this.modificationCount == modificationCount &&
+                this.childCount == parentElement.getChildren().getCount();
+        }
+    }
+
+    private IntellijModuleLibrary(XMLElement xml, boolean createChildElements)
     {
         super(xml);
 
         PreCondition.assertNotNull(xml, "xml");
         PreCondition.assertEqual(IntellijModule.orderEntryElementName, xml.getName(), "xml.getName()");
-        PreCondition.assertEqual(IntellijModuleLibrary.typeAttributeValue, xml.getAttributeValue(IntellijModuleLibrary.typeAttributeName).catchError().await(), "xml.getAttributeValue(IntellijModuleLibrary.typeAttributeName).await()");
+        PreCondition.assertEqual(IntellijModuleLibrary.typeAttributeValue, IntellijXMLElements.getAttributeValue(xml, IntellijModuleLibrary.typeAttributeName), "xml.getAttributeValue(IntellijModuleLibrary.typeAttributeName).await()");
 
-        this.getOrCreateClassesElement();
-        this.getOrCreateJavadocElement();
-        this.getOrCreateSourcesElement();
+        if (createChildElements)
+        {
+            this.getOrCreateClassesElement();
+            this.getOrCreateJavadocElement();
+            this.getOrCreateSourcesElement();
+        }
     }
 
     public static IntellijModuleLibrary create()
@@ -32,7 +95,119 @@ public class IntellijModuleLibrary extends XMLElementWrapperBase
 
     public static IntellijModuleLibrary create(XMLElement xml)
     {
-        return new IntellijModuleLibrary(xml);
+        return new IntellijModuleLibrary(xml, true);
+    }
+
+    /**
+     * Create a view of the provided module-library orderEntry element. Unlike
+     * create(XMLElement), this doesn't add the library, CLASSES, JAVADOC, and SOURCES elements to
+     * the provided element. Reading from the view never changes the element, and any missing
+     * child elements are only added when a method that changes the library needs them.
+     * @param xml The module-library orderEntry element to view.
+     * @return The view of the provided element.
+     */
+    public static IntellijModuleLibrary createView(XMLElement xml)
+    {
+        return new IntellijModuleLibrary(xml, false);
+    }
+
+    /**
+     * Set the action that will be run after this library's urls change. This is used by the
+     * IntellijModule that contains this library to know when the results that it has computed
+     * from its libraries are out of date.
+     * @param onChanged The action to run, or null to stop notifying.
+     * @return This object for method chaining.
+     */
+    IntellijModuleLibrary setOnChanged(Action0 onChanged)
+    {
+        this.onChanged = onChanged;
+
+        return this;
+    }
+
+    /**
+     * Called after this object changes the urls under the provided CLASSES, JAVADOC, or SOURCES
+     * element. The indexes of the other elements were not affected by the change, so the ones
+     * that were up to date are kept up to date.
+     * @param parentElement The element whose urls changed.
+     */
+    private void changed(XMLElement parentElement)
+    {
+        final long previousModificationCount = this.modificationCount++;
+        if (this.rootUrlIndexes != null)
+        {
+            for (final RootUrlIndex index : this.rootUrlIndexes.values())
+            {
+                if (index.parentElement != parentElement && index.modificationCount == previousModificationCount)
+                {
+                    index.modificationCount = this.modificationCount;
+                }
+            }
+        }
+
+        final Action0 onChanged = this.onChanged;
+        if (onChanged != null)
+        {
+            onChanged.run();
+        }
+    }
+
+    /**
+     * Get the key that identifies the provided module-library orderEntry element's contents. The
+     * key is built from the orderEntry's attributes, the library's name, and the CLASSES, JAVADOC,
+     * and SOURCES urls in order, so it doesn't depend on how the element is formatted. Attribute
+     * order, whitespace, split or empty elements, and missing CLASSES, JAVADOC, or SOURCES
+     * elements don't change the key. Two module-library elements with the same key describe the
+     * same library.
+     * @param xml The module-library orderEntry element.
+     * @return The key that identifies the element's contents.
+     */
+    static String getKey(XMLElement xml)
+    {
+        PreCondition.assertNotNull(xml, "xml");
+
+        final StringBuilder result = new StringBuilder();
+        IntellijModuleLibrary.appendSortedAttributes(xml, result);
+
+        final XMLElement libraryElement = IntellijXMLElements.getFirstElementChild(xml, IntellijModuleLibrary.libraryElementName);
+        final String libraryName = libraryElement == null
+            ? null
+            : IntellijXMLElements.getAttributeValue(libraryElement, IntellijModuleLibrary.libraryNameAttributeName);
+        result.append(IntellijModuleLibrary.keySeparator).append(Strings.isNullOrEmpty(libraryName) ? "" : libraryName.trim());
+
+        for (final String childElementName : IntellijModuleLibrary.rootUrlElementNames)
+        {
+            result.append(IntellijModuleLibrary.keySeparator).append(childElementName);
+            final XMLElement childElement = libraryElement == null
+                ? null
+                : IntellijXMLElements.getFirstElementChild(libraryElement, childElementName);
+            if (childElement != null)
+            {
+                for (final XMLElement rootElement : childElement.getElementChildren(IntellijModuleLibrary.rootElementName))
+                {
+                    final String url = IntellijXMLElements.getAttributeValue(rootElement, IntellijModuleLibrary.urlAttributeName);
+                    if (!Strings.isNullOrEmpty(url))
+                    {
+                        result.append(IntellijModuleLibrary.keySeparator).append(url);
+                    }
+                }
+            }
+        }
+
+        return result.toString();
+    }
+
+    private static void appendSortedAttributes(XMLElement element, StringBuilder builder)
+    {
+        final java.util.TreeMap<String,String> attributes = new java.util.TreeMap<>();
+        for (final XMLAttribute attribute : element.getAttributes())
+        {
+            attributes.put(attribute.getName(), attribute.getValue());
+        }
+        for (final java.util.Map.Entry<String,String> attribute : attributes.entrySet())
+        {
+            builder.append(attribute.getKey()).append('=').append(attribute.getValue()).append(IntellijModuleLibrary.keySeparator);
+        }
     }
 
     private static XMLElement getOrCreateElement(XMLElement parentElement, String childElementName, Action1<XMLElement> setupChildElement)
@@ -41,7 +216,7 @@ public class IntellijModuleLibrary extends XMLElementWrapperBase
         PreCondition.assertNotNullAndNotEmpty(childElementName, "childElementName");
         PreCondition.assertNotNull(setupChildElement, "setupChildElement");
 
-        XMLElement result = parentElement.getElementChildren(childElementName).first().catchError().await();
+        XMLElement result = IntellijXMLElements.getFirstElementChild(parentElement, childElementName);
         if (result == null)
         {
             result = XMLElement.create(childElementName);
@@ -82,58 +257,238 @@ public class IntellijModuleLibrary extends XMLElementWrapperBase
         return IntellijModuleLibrary.getOrCreateElement(this.getOrCreateLibraryElement(), IntellijModuleLibrary.sourcesElementName);
     }
 
+    /**
+     * Get the urls of the root elements under the library child element with the provided name
+     * without adding any missing elements.
+     * @param childElementName The name of the library child element (CLASSES, JAVADOC, or
+     *                         SOURCES).
+     * @return The non-empty urls of the root elements.
+     */
+    private Iterable<String> getRootUrls(String childElementName)
+    {
+        final XMLElement libraryElement = IntellijXMLElements.getFirstElementChild(this.toXml(), IntellijModuleLibrary.libraryElementName);
+        final XMLElement childElement = libraryElement == null
+            ? null
+            : IntellijXMLElements.getFirstElementChild(libraryElement, childElementName);
+        return childElement == null
+            ? Iterable.create()
+            : childElement
+                .getElementChildren(IntellijModuleLibrary.rootElementName)
+                .map((XMLElement rootElement) -> IntellijXMLElements.getAttributeValue(rootElement, IntellijModuleLibrary.urlAttributeName))
+                .where((String url) -> !Strings.isNullOrEmpty(url));
+    }
+
+    private void addRootUrl(XMLElement parentElement, String url)
+    {
+        parentElement.addChild(XMLElement.create(IntellijModuleLibrary.rootElementName)
+            .setAttribute(IntellijModuleLibrary.urlAttributeName, IntellijUrlPool.internShared(url)));
+        this.changed(parentElement);
+    }
+
+    private void addRootUrlIfAbsent(XMLElement parentElement, String url)
+    {
+        if (this.rootUrlIndexes == null)
+        {
+            this.rootUrlIndexes = new java.util.HashMap<>();
+        }
+
+        RootUrlIndex index = this.rootUrlIndexes.get(parentElement.getName());
+        if (index == null || !index.isCurrent(parentElement, this.modificationCount))
+        {
+            index = new RootUrlIndex(parentElement, this.modificationCount);
+            this.rootUrlIndexes.put(parentElement.getName(), index);
+        }
+
+        if (index.urls.add(url))
+        {
+            this.addRootUrl(parentElement, url);
+            index.modificationCount = this.modificationCount;
+            ++index.childCount;
+        }
+    }
+
+    /**
+     * Get the name of this library, or null if it doesn't have one.
+     * @return The name of this library.
+     */
+    public String getName()
+    {
+        final XMLElement libraryElement = IntellijXMLElements.getFirstElementChild(this.toXml(), IntellijModuleLibrary.libraryElementName);
+        return libraryElement == null
+            ? null
+            : IntellijXMLElements.getAttributeValue(libraryElement, IntellijModuleLibrary.libraryNameAttributeName);
+    }
+
+    /**
+     * Set the name of this library.
+     * @param name The name of this library.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleLibrary setName(String name)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+
+        this.getOrCreateLibraryElement().setAttribute(IntellijModuleLibrary.libraryNameAttributeName, name);
+
+        return this;
+    }
+
     public Iterable<String> getClassesUrls()
     {
-        return this.getOrCreateClassesElement()
-            .getElementChildren(IntellijModuleLibrary.rootElementName)
-            .map((XMLElement rootElement) -> rootElement.getAttributeValue(IntellijModuleLibrary.urlAttributeName).catchError().await())
-            .where((String classesUrl) -> !Strings.isNullOrEmpty(classesUrl));
+        return this.getRootUrls(IntellijModuleLibrary.classesElementName);
     }
 
     public IntellijModuleLibrary addClassesUrl(String classesUrl)
     {
         PreCondition.assertNotNullAndNotEmpty(classesUrl, "classesUrl");
 
-        this.getOrCreateClassesElement()
-            .addChild(XMLElement.create(IntellijModuleLibrary.rootElementName)
-                .setAttribute(IntellijModuleLibrary.urlAttributeName, classesUrl));
+        this.addRootUrl(this.getOrCreateClassesElement(), classesUrl);
+
+        return this;
+    }
+
+    /**
+     * Add the provided classes url to this library if this library doesn't already have it. The
+     * existing classes urls are kept in a hashed set, so this takes the same amount of time no
+     * matter how many classes urls this library has.
+     * @param classesUrl The classes url to add.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleLibrary addClassesUrlIfAbsent(String classesUrl)
+    {
+        PreCondition.assertNotNullAndNotEmpty(classesUrl, "classesUrl");
+
+        this.addRootUrlIfAbsent(this.getOrCreateClassesElement(), classesUrl);
+
+        return this;
+    }
+
+    /**
+     * Add each of the provided classes urls to this library.
+     * @param classesUrls The classes urls to add.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleLibrary addClassesUrls(Iterable<String> classesUrls)
+    {
+        PreCondition.assertNotNull(classesUrls, "classesUrls");
+
+        final XMLElement classesElement = this.getOrCreateClassesElement();
+        for (final String classesUrl : classesUrls)
+        {
+            PreCondition.assertNotNullAndNotEmpty(classesUrl, "classesUrl");
+
+            this.addRootUrl(classesElement, classesUrl);
+        }
+
+        return this;
+    }
+
+    /**
+     * Add each of the provided classes urls that this library doesn't already have. The existing
+     * classes urls are only scanned once, and a url that appears more than once in the provided
+     * urls is only added once.
+     * @param classesUrls The classes urls to add.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleLibrary addClassesUrlsIfAbsent(Iterable<String> classesUrls)
+    {
+        PreCondition.assertNotNull(classesUrls, "classesUrls");
+
+        final XMLElement classesElement = this.getOrCreateClassesElement();
+        for (final String classesUrl : classesUrls)
+        {
+            PreCondition.assertNotNullAndNotEmpty(classesUrl, "classesUrl");
+
+            this.addRootUrlIfAbsent(classesElement, classesUrl);
+        }
 
         return this;
     }
 
     public IntellijModuleLibrary clearClassesUrls()
     {
-        this.getOrCreateClassesElement()
+        final XMLElement classesElement = this.getOrCreateClassesElement();
+        classesElement
             .clearChildren()
             .setSplit(false);
+        this.changed(classesElement);
+
+        return this;
+    }
+
+    public Iterable<String> getJavadocUrls()
+    {
+        return this.getRootUrls(IntellijModuleLibrary.javadocElementName);
+    }
+
+    public IntellijModuleLibrary addJavadocUrl(String javadocUrl)
+    {
+        PreCondition.assertNotNullAndNotEmpty(javadocUrl, "javadocUrl");
+
+        this.addRootUrl(this.getOrCreateJavadocElement(), javadocUrl);
 
         return this;
     }
 
     public Iterable<String> getSourcesUrls()
     {
-        return this.getOrCreateSourcesElement()
-            .getElementChildren(IntellijModuleLibrary.rootElementName)
-            .map((XMLElement rootElement) -> rootElement.getAttributeValue(IntellijModuleLibrary.urlAttributeName).catchError().await())
-            .where((String sourcesUrl) -> !Strings.isNullOrEmpty(sourcesUrl));
+        return this.getRootUrls(IntellijModuleLibrary.sourcesElementName);
     }
 
     public IntellijModuleLibrary addSourcesUrl(String sourcesUrl)
     {
         PreCondition.assertNotNullAndNotEmpty(sourcesUrl, "sourcesUrl");
 
-        this.getOrCreateSourcesElement()
-            .addChild(XMLElement.create(IntellijModuleLibrary.rootElementName)
-                .setAttribute(IntellijModuleLibrary.urlAttributeName, sourcesUrl));
+        this.addRootUrl(this.getOrCreateSourcesElement(), sourcesUrl);
+
+        return this;
+    }
+
+    /**
+     * Add the provided sources url to this library if this library doesn't already have it. The
+     * existing sources urls are kept in a hashed set, so this takes the same amount of time no
+     * matter how many sources urls this library has.
+     * @param sourcesUrl The sources url to add.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleLibrary addSourcesUrlIfAbsent(String sourcesUrl)
+    {
+        PreCondition.assertNotNullAndNotEmpty(sourcesUrl, "sourcesUrl");
+
+        this.addRootUrlIfAbsent(this.getOrCreateSourcesElement(), sourcesUrl);
+
+        return this;
+    }
+
+    /**
+     * Add each of the provided sources urls that this library doesn't already have. The existing
+     * sources urls are only scanned once, and a url that appears more than once in the provided
+     * urls is only added once.
+     * @param sourcesUrls The sources urls to add.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleLibrary addSourcesUrlsIfAbsent(Iterable<String> sourcesUrls)
+    {
+        PreCondition.assertNotNull(sourcesUrls, "sourcesUrls");
+
+        final XMLElement sourcesElement = this.getOrCreateSourcesElement();
+        for (final String sourcesUrl : sourcesUrls)
+        {
+            PreCondition.assertNotNullAndNotEmpty(sourcesUrl, "sourcesUrl");
+
+            this.addRootUrlIfAbsent(sourcesElement, sourcesUrl);
+        }
 
         return this;
     }
 
     public IntellijModuleLibrary clearSourcesUrls()
     {
-        this.getOrCreateSourcesElement()
+        final XMLElement sourcesElement = this.getOrCreateSourcesElement();
+        sourcesElement
             .clearChildren()
             .setSplit(false);
+        this.changed(sourcesElement);
 
         return this;
     }
@@ -0,0 +1,57 @@
+package qub;
+
+/**
+ * An orderEntry element in a module that makes the module depend on another module in the same
+ * project.
+ */
+public class IntellijModuleOrderEntry extends XMLElementWrapperBase
+{
+    private static final String typeAttributeName = "type";
+    public static final String typeAttributeValue = "module";
+    private static final String moduleNameAttributeName = "module-name";
+
+    private IntellijModuleOrderEntry(XMLElement xml)
+    {
+        super(xml);
+
+        PreCondition.assertNotNull(xml, "xml");
+        PreCondition.assertEqual(IntellijModule.orderEntryElementName, xml.getName(), "xml.getName()");
+        PreCondition.assertEqual(IntellijModuleOrderEntry.typeAttributeValue, IntellijXMLElements.getAttributeValue(xml, IntellijModuleOrderEntry.typeAttributeName), "xml.getAttributeValue(IntellijModuleOrderEntry.typeAttributeName).await()");
+    }
+
+    /**
+     * Create a new orderEntry that depends on the module with the provided name.
+     * @param moduleName The name of the module to depend on.
+     * @return The new orderEntry.
+     */
+    public static IntellijModuleOrderEntry create(String moduleName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(moduleName, "moduleName");
+
+        return IntellijModuleOrderEntry.create(XMLElement.create(IntellijModule.orderEntryElementName)
+            .setAttribute(IntellijModuleOrderEntry.typeAttributeName, IntellijModuleOrderEntry.typeAttributeValue)
+            .setAttribute(IntellijModuleOrderEntry.moduleNameAttributeName, moduleName));
+    }
+
+    public static IntellijModuleOrderEntry create(XMLElement xml)
+    {
+        return new IntellijModuleOrderEntry(xml);
+    }
+
+    /**
+     * Get the name of the module that this orderEntry depends on.
+     * @return The name of the module that this orderEntry depends on.
+     */
+    public String getModuleName()
+    {
+        return IntellijXMLElements.getAttributeValue(this.toXml(), IntellijModuleOrderEntry.moduleNameAttributeName);
+    }
+
+    public IntellijModuleOrderEntry setModuleName(String moduleName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(moduleName, "moduleName");
+
+        this.toXml().setAttribute(IntellijModuleOrderEntry.moduleNameAttributeName, moduleName);
+        return this;
+    }
+}
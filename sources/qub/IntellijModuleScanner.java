@@ -0,0 +1,401 @@
+package qub;
+
+/**
+ * A type that reads an IntelliJ module (.iml) document one element at a time and reports the
+ * parts of the module that it finds to the registered callbacks. Unlike IntellijModule.parse(),
+ * no XMLDocument is built, so the memory that a scan uses grows with the depth of the deepest
+ * element rather than with the size of the document.
+ */
+public class IntellijModuleScanner
+{
+    private static final String moduleElementName = "module";
+    private static final String moduleTypeAttributeName = "type";
+    private static final String moduleVersionAttributeName = "version";
+    private static final String componentElementName = "component";
+    private static final String componentNameAttributeName = "name";
+    private static final String componentNameAttributeValue = "NewModuleRootManager";
+    private static final String outputElementName = "output";
+    private static final String outputTestElementName = "output-test";
+    private static final String excludeOutputElementName = "exclude-output";
+    private static final String urlAttributeName = "url";
+    private static final String contentElementName = "content";
+    private static final String sourceFolderElementName = "sourceFolder";
+    private static final String isTestSourceAttributeName = "isTestSource";
+    private static final String orderEntryTypeAttributeName = "type";
+    private static final String inheritedJdkAttributeValue = "inheritedJdk";
+    private static final String sourceFolderAttributeValue = "sourceFolder";
+    private static final String orderEntryForTestsAttributeName = "forTests";
+    private static final String libraryElementName = "library";
+    private static final String classesElementName = "CLASSES";
+    private static final String javadocElementName = "JAVADOC";
+    private static final String sourcesElementName = "SOURCES";
+    private static final String rootElementName = "root";
+
+    private Action2<String,String> onModule;
+    private Action1<String> onOutputUrl;
+    private Action1<String> onOutputTestUrl;
+    private Action0 onExcludeOutput;
+    private Action2<String,Boolean> onSourceFolder;
+    private Action0 onInheritedJdk;
+    private Action1<Boolean> onSourceFolderOrderEntry;
+    private Action3<Iterable<String>,Iterable<String>,Iterable<String>> onModuleLibrary;
+    private boolean stopped;
+
+    private IntellijModuleScanner()
+    {
+    }
+
+    public static IntellijModuleScanner create()
+    {
+        return new IntellijModuleScanner();
+    }
+
+    /**
+     * Set the callback that will be invoked with the type and version attributes of the module
+     * element. Either value may be null if the attribute doesn't exist.
+     * @param onModule The callback that will be invoked when the module element is read.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleScanner setOnModule(Action2<String,String> onModule)
+    {
+        PreCondition.assertNotNull(onModule, "onModule");
+
+        this.onModule = onModule;
+
+        return this;
+    }
+
+    /**
+     * Set the callback that will be invoked with the url of the output element.
+     * @param onOutputUrl The callback that will be invoked when the output element is read.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleScanner setOnOutputUrl(Action1<String> onOutputUrl)
+    {
+        PreCondition.assertNotNull(onOutputUrl, "onOutputUrl");
+
+        this.onOutputUrl = onOutputUrl;
+
+        return this;
+    }
+
+    /**
+     * Set the callback that will be invoked with the url of the output-test element.
+     * @param onOutputTestUrl The callback that will be invoked when the output-test element is
+     *                        read.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleScanner setOnOutputTestUrl(Action1<String> onOutputTestUrl)
+    {
+        PreCondition.assertNotNull(onOutputTestUrl, "onOutputTestUrl");
+
+        this.onOutputTestUrl = onOutputTestUrl;
+
+        return this;
+    }
+
+    /**
+     * Set the callback that will be invoked when the exclude-output element is read.
+     * @param onExcludeOutput The callback that will be invoked when the exclude-output element is
+     *                        read.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleScanner setOnExcludeOutput(Action0 onExcludeOutput)
+    {
+        PreCondition.assertNotNull(onExcludeOutput, "onExcludeOutput");
+
+        this.onExcludeOutput = onExcludeOutput;
+
+        return this;
+    }
+
+    /**
+     * Set the callback that will be invoked with the url and isTestSource value of each
+     * sourceFolder element within the content element.
+     * @param onSourceFolder The callback that will be invoked when a sourceFolder element is read.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleScanner setOnSourceFolder(Action2<String,Boolean> onSourceFolder)
+    {
+        PreCondition.assertNotNull(onSourceFolder, "onSourceFolder");
+
+        this.onSourceFolder = onSourceFolder;
+
+        return this;
+    }
+
+    /**
+     * Set the callback that will be invoked when an inheritedJdk orderEntry element is read.
+     * @param onInheritedJdk The callback that will be invoked when an inheritedJdk orderEntry
+     *                       element is read.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleScanner setOnInheritedJdk(Action0 onInheritedJdk)
+    {
+        PreCondition.assertNotNull(onInheritedJdk, "onInheritedJdk");
+
+        this.onInheritedJdk = onInheritedJdk;
+
+        return this;
+    }
+
+    /**
+     * Set the callback that will be invoked with the forTests value of each sourceFolder
+     * orderEntry element.
+     * @param onSourceFolderOrderEntry The callback that will be invoked when a sourceFolder
+     *                                 orderEntry element is read.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleScanner setOnSourceFolderOrderEntry(Action1<Boolean> onSourceFolderOrderEntry)
+    {
+        PreCondition.assertNotNull(onSourceFolderOrderEntry, "onSourceFolderOrderEntry");
+
+        this.onSourceFolderOrderEntry = onSourceFolderOrderEntry;
+
+        return this;
+    }
+
+    /**
+     * Set the callback that will be invoked with the CLASSES, JAVADOC, and SOURCES root urls of
+     * each module-library orderEntry element.
+     * @param onModuleLibrary The callback that will be invoked when a module-library orderEntry
+     *                        element has been read.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleScanner setOnModuleLibrary(Action3<Iterable<String>,Iterable<String>,Iterable<String>> onModuleLibrary)
+    {
+        PreCondition.assertNotNull(onModuleLibrary, "onModuleLibrary");
+
+        this.onModuleLibrary = onModuleLibrary;
+
+        return this;
+    }
+
+    /**
+     * Stop the current scan. This is meant to be called from one of the callbacks once the caller
+     * has read everything that it needs. No more callbacks will be invoked and the rest of the
+     * document will not be read.
+     */
+    public void stop()
+    {
+        this.stopped = true;
+    }
+
+    /**
+     * Scan the contents of the provided .iml file.
+     * @param file The .iml file to scan.
+     * @return The result of scanning the file.
+     */
+    public Result<Void> scan(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return file.getContentsReadStream()
+            .then((ByteReadStream byteReadStream) ->
+            {
+                try
+                {
+                    this.scan(IntellijXMLReader.create(byteReadStream));
+                }
+                finally
+                {
+                    byteReadStream.dispose().await();
+                }
+            });
+    }
+
+    /**
+     * Scan the provided .iml text.
+     * @param text The .iml text to scan.
+     * @return The result of scanning the text.
+     */
+    public Result<Void> scan(String text)
+    {
+        PreCondition.assertNotNull(text, "text");
+
+        return Result.create(() ->
+        {
+            this.scan(IntellijXMLReader.create(text));
+        });
+    }
+
+    void scan(IntellijXMLReader reader)
+    {
+        PreCondition.assertNotNull(reader, "reader");
+
+        this.stopped = false;
+
+        boolean inRootManager = false;
+        boolean inContent = false;
+        boolean inModuleLibrary = false;
+        List<String> currentRoots = null;
+        List<String> classesUrls = null;
+        List<String> javadocUrls = null;
+        List<String> sourcesUrls = null;
+
+        IntellijXMLReader.Token token = reader.next();
+        while (!this.stopped && token != IntellijXMLReader.Token.EndOfDocument)
+        {
+            final int depth = reader.getDepth();
+            final String name = reader.getName();
+            if (token == IntellijXMLReader.Token.StartElement)
+            {
+                if (depth == 1)
+                {
+                    if (!IntellijModuleScanner.moduleElementName.equals(name))
+                    {
+                        throw new ParseException("Expected the root element to be " + Strings.quote(IntellijModuleScanner.moduleElementName) + ", but found " + Strings.quote(name) + " instead.");
+                    }
+                    if (this.onModule != null)
+                    {
+                        this.onModule.run(
+                            reader.getAttributeValue(IntellijModuleScanner.moduleTypeAttributeName),
+                            reader.getAttributeValue(IntellijModuleScanner.moduleVersionAttributeName));
+                    }
+                }
+                else if (depth == 2)
+                {
+                    inRootManager = IntellijModuleScanner.componentElementName.equals(name) &&
+                        IntellijModuleScanner.componentNameAttributeValue.equals(reader.getAttributeValue(IntellijModuleScanner.componentNameAttributeName));
+                    if (!inRootManager)
+                    {
+                        reader.skipElement();
+                    }
+                }
+                else if (depth == 3 && inRootManager)
+                {
+                    switch (name)
+                    {
+                        case IntellijModuleScanner.outputElementName:
+                            if (this.onOutputUrl != null)
+                            {
+                                this.onOutputUrl.run(reader.getAttributeValue(IntellijModuleScanner.urlAttributeName));
+                            }
+                            break;
+
+                        case IntellijModuleScanner.outputTestElementName:
+                            if (this.onOutputTestUrl != null)
+                            {
+                                this.onOutputTestUrl.run(reader.getAttributeValue(IntellijModuleScanner.urlAttributeName));
+                            }
+                            break;
+
+                        case IntellijModuleScanner.excludeOutputElementName:
+                            if (this.onExcludeOutput != null)
+                            {
+                                this.onExcludeOutput.run();
+                            }
+                            break;
+
+                        case IntellijModuleScanner.contentElementName:
+                            inContent = true;
+                            break;
+
+                        case IntellijModule.orderEntryElementName:
+                            final String orderEntryType = reader.getAttributeValue(IntellijModuleScanner.orderEntryTypeAttributeName);
+                            if (IntellijModuleScanner.inheritedJdkAttributeValue.equals(orderEntryType))
+                            {
+                                if (this.onInheritedJdk != null)
+                                {
+                                    this.onInheritedJdk.run();
+                                }
+                            }
+                            else if (IntellijModuleScanner.sourceFolderAttributeValue.equals(orderEntryType))
+                            {
+                                if (this.onSourceFolderOrderEntry != null)
+                                {
+                                    this.onSourceFolderOrderEntry.run(IntellijModuleScanner.parseBoolean(reader.getAttributeValue(IntellijModuleScanner.orderEntryForTestsAttributeName)));
+                                }
+                            }
+                            else if (IntellijModuleLibrary.typeAttributeValue.equals(orderEntryType) && this.onModuleLibrary != null)
+                            {
+                                inModuleLibrary = true;
+                                classesUrls = List.create();
+                                javadocUrls = List.create();
+                                sourcesUrls = List.create();
+                            }
+                            break;
+                    }
+                    if (!inContent && !inModuleLibrary && !reader.isEmptyElement())
+                    {
+                        reader.skipElement();
+                    }
+                }
+                else if (depth == 4 && inContent)
+                {
+                    if (IntellijModuleScanner.sourceFolderElementName.equals(name) && this.onSourceFolder != null)
+                    {
+                        this.onSourceFolder.run(
+                            reader.getAttributeValue(IntellijModuleScanner.urlAttributeName),
+                            IntellijModuleScanner.parseBoolean(reader.getAttributeValue(IntellijModuleScanner.isTestSourceAttributeName)));
+                    }
+                }
+                else if (depth == 5 && inModuleLibrary)
+                {
+                    switch (name)
+                    {
+                        case IntellijModuleScanner.classesElementName:
+                            currentRoots = classesUrls;
+                            break;
+
+                        case IntellijModuleScanner.javadocElementName:
+                            currentRoots = javadocUrls;
+                            break;
+
+                        case IntellijModuleScanner.sourcesElementName:
+                            currentRoots = sourcesUrls;
+                            break;
+                    }
+                }
+                else if (depth == 6 && currentRoots != null && IntellijModuleScanner.rootElementName.equals(name))
+                {
+                    final String url = reader.getAttributeValue(IntellijModuleScanner.urlAttributeName);
+                    if (!Strings.isNullOrEmpty(url))
+                    {
+                        currentRoots.add(url);
+                    }
+                }
+                else if (depth == 4 && inModuleLibrary && !IntellijModuleScanner.libraryElementName.equals(name))
+                {
+                    reader.skipElement();
+                }
+            }
+            else if (token == IntellijXMLReader.Token.EndElement)
+            {
+                if (depth == 1)
+                {
+                    inRootManager = false;
+                }
+                else if (depth == 2)
+                {
+                    if (inContent)
+                    {
+                        inContent = false;
+                    }
+                    else if (inModuleLibrary)
+                    {
+                        inModuleLibrary = false;
+                        this.onModuleLibrary.run(classesUrls, javadocUrls, sourcesUrls);
+                        classesUrls = null;
+                        javadocUrls = null;
+                        sourcesUrls = null;
+                    }
+                }
+                else if (depth == 4)
+                {
+                    currentRoots = null;
+                }
+            }
+
+            if (!this.stopped)
+            {
+                token = reader.next();
+            }
+        }
+    }
+
+    private static boolean parseBoolean(String value)
+    {
+        return value != null && Booleans.parse(value).catchError(() -> false).await();
+    }
+}
@@ -0,0 +1,402 @@
+package qub;
+
+/**
+ * An immutable copy of the values in an IntellijModule. A snapshot keeps its values in a few flat
+ * arrays instead of a tree of XML elements, so it takes up much less memory than the module it
+ * was taken from, and since it can't be changed it can be shared between threads without any
+ * locking.
+ */
+public final class IntellijModuleSnapshot
+{
+    private static final String[] emptyStrings = new String[0];
+    private static final String orderEntryTypeAttributeName = "type";
+    private static final String sourceFolderElementName = "sourceFolder";
+
+    private final String outputUrl;
+    private final String outputTestUrl;
+    private final boolean excludeOutput;
+    private final boolean inheritedJdk;
+    private final Boolean sourceFolderForTests;
+    /**
+     * The url of each source folder. A source folder that doesn't have a url has a null url.
+     */
+    private final String[] sourceFolderUrls;
+    private final boolean[] sourceFolderIsTestSources;
+    /**
+     * The type of each orderEntry other than the inheritedJdk and sourceFolder orderEntries, in
+     * document order.
+     */
+    private final String[] orderEntryTypes;
+    /**
+     * The attribute names and values of every orderEntry in orderEntryTypes, one orderEntry after
+     * another. The attributes of orderEntry i are the name and value pairs in
+     * orderEntryAttributes[orderEntryAttributeStartIndexes[i]] up to
+     * orderEntryAttributes[orderEntryAttributeStartIndexes[i + 1]].
+     */
+    private final String[] orderEntryAttributes;
+    private final int[] orderEntryAttributeStartIndexes;
+    /**
+     * The name of each module library, or null if the library doesn't have a name.
+     */
+    private final String[] moduleLibraryNames;
+    /**
+     * The CLASSES, JAVADOC, and SOURCES urls of every module library, one library after another.
+     */
+    private final String[] moduleLibraryUrls;
+    /**
+     * The start index in moduleLibraryUrls of each module library's CLASSES, JAVADOC, and SOURCES
+     * urls, followed by the length of moduleLibraryUrls. The urls of module library i's root
+     * type t are in moduleLibraryUrls[moduleLibraryUrlStartIndexes[i * 3 + t]] up to
+     * moduleLibraryUrls[moduleLibraryUrlStartIndexes[i * 3 + t + 1]].
+     */
+    private final int[] moduleLibraryUrlStartIndexes;
+
+    private static final int classesRootType = 0;
+    private static final int javadocRootType = 1;
+    private static final int sourcesRootType = 2;
+    private static final int rootTypeCount = 3;
+
+    private IntellijModuleSnapshot(String outputUrl, String outputTestUrl, boolean excludeOutput, boolean inheritedJdk, Boolean sourceFolderForTests, String[] sourceFolderUrls, boolean[] sourceFolderIsTestSources, String[] orderEntryTypes, String[] orderEntryAttributes, int[] orderEntryAttributeStartIndexes, String[] moduleLibraryNames, String[] moduleLibraryUrls, int[] moduleLibraryUrlStartIndexes)
+    {
+        PreCondition.assertNotNull(sourceFolderUrls, "sourceFolderUrls");
+        PreCondition.assertNotNull(sourceFolderIsTestSources, "sourceFolderIsTestSources");
+        PreCondition.assertEqual(sourceFolderUrls.length, sourceFolderIsTestSources.length, "sourceFolderIsTestSources.length");
+        PreCondition.assertNotNull(orderEntryTypes, "orderEntryTypes");
+        PreCondition.assertNotNull(orderEntryAttributes, "orderEntryAttributes");
+        PreCondition.assertNotNull(orderEntryAttributeStartIndexes, "orderEntryAttributeStartIndexes");
+        PreCondition.assertEqual(orderEntryTypes.length + 1, orderEntryAttributeStartIndexes.length, "orderEntryAttributeStartIndexes.length");
+        PreCondition.assertNotNull(moduleLibraryNames, "moduleLibraryNames");
+        PreCondition.assertNotNull(moduleLibraryUrls, "moduleLibraryUrls");
+        PreCondition.assertNotNull(moduleLibraryUrlStartIndexes, "moduleLibraryUrlStartIndexes");
+
+        this.outputUrl = outputUrl;
+        this.outputTestUrl = outputTestUrl;
+        this.excludeOutput = excludeOutput;
+        this.inheritedJdk = inheritedJdk;
+        this.sourceFolderForTests = sourceFolderForTests;
+        this.sourceFolderUrls = sourceFolderUrls;
+        this.sourceFolderIsTestSources = sourceFolderIsTestSources;
+        this.orderEntryTypes = orderEntryTypes;
+        this.orderEntryAttributes = orderEntryAttributes;
+        this.orderEntryAttributeStartIndexes = orderEntryAttributeStartIndexes;
+        this.moduleLibraryNames = moduleLibraryNames;
+        this.moduleLibraryUrls = moduleLibraryUrls;
+        this.moduleLibraryUrlStartIndexes = moduleLibraryUrlStartIndexes;
+    }
+
+    /**
+     * Create a new IntellijModuleSnapshot from the values of an IntellijModule.
+     * @param outputUrl The module's output url, or null if it doesn't have one.
+     * @param outputTestUrl The module's output test url, or null if it doesn't have one.
+     * @param excludeOutput Whether the module excludes its output folders.
+     * @param inheritedJdk Whether the module uses the project's JDK.
+     * @param sourceFolderForTests The forTests value of the module's sourceFolder orderEntry, or
+     *                             null if it doesn't have one.
+     * @param sourceFolders The module's source folders.
+     * @param orderEntries The module's orderEntry elements other than its inheritedJdk and
+     *                     sourceFolder orderEntries, in document order.
+     * @return The new IntellijModuleSnapshot.
+     */
+    static IntellijModuleSnapshot create(String outputUrl, String outputTestUrl, boolean excludeOutput, boolean inheritedJdk, Boolean sourceFolderForTests, Iterable<IntellijSourceFolder> sourceFolders, Iterable<XMLElement> orderEntries)
+    {
+        PreCondition.assertNotNull(sourceFolders, "sourceFolders");
+        PreCondition.assertNotNull(orderEntries, "orderEntries");
+
+        final java.util.ArrayList<String> sourceFolderUrls = new java.util.ArrayList<>();
+        final java.util.ArrayList<Boolean> sourceFolderIsTestSources = new java.util.ArrayList<>();
+        for (final IntellijSourceFolder sourceFolder : sourceFolders)
+        {
+            sourceFolderUrls.add(sourceFolder.getUrl());
+            sourceFolderIsTestSources.add(sourceFolder.getIsTestSource());
+        }
+        final boolean[] sourceFolderIsTestSourcesArray = new boolean[sourceFolderIsTestSources.size()];
+        for (int i = 0; i < sourceFolderIsTestSourcesArray.length; ++i)
+        {
+            sourceFolderIsTestSourcesArray[i] = sourceFolderIsTestSources.get(i);
+        }
+
+        final java.util.ArrayList<String> orderEntryTypes = new java.util.ArrayList<>();
+        final java.util.ArrayList<String> orderEntryAttributes = new java.util.ArrayList<>();
+        final java.util.ArrayList<Integer> orderEntryAttributeStartIndexes = new java.util.ArrayList<>();
+        final java.util.ArrayList<String> moduleLibraryNames = new java.util.ArrayList<>();
+        final java.util.ArrayList<String> moduleLibraryUrls = new java.util.ArrayList<>();
+        final java.util.ArrayList<Integer> moduleLibraryUrlStartIndexes = new java.util.ArrayList<>();
+        for (final XMLElement orderEntry : orderEntries)
+        {
+            final String orderEntryType = IntellijXMLElements.getAttributeValue(orderEntry, IntellijModuleSnapshot.orderEntryTypeAttributeName);
+            orderEntryTypes.add(orderEntryType);
+            orderEntryAttributeStartIndexes.add(orderEntryAttributes.size());
+            for (final XMLAttribute attribute : orderEntry.getAttributes())
+            {
+                orderEntryAttributes.add(attribute.getName());
+                orderEntryAttributes.add(attribute.getValue());
+            }
+
+            if (IntellijModuleLibrary.typeAttributeValue.equals(orderEntryType))
+            {
+                final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.createView(orderEntry);
+                moduleLibraryNames.add(moduleLibrary.getName());
+                moduleLibraryUrlStartIndexes.add(moduleLibraryUrls.size());
+                for (final String classesUrl : moduleLibrary.getClassesUrls())
+                {
+                    moduleLibraryUrls.add(classesUrl);
+                }
+                moduleLibraryUrlStartIndexes.add(moduleLibraryUrls.size());
+                for (final String javadocUrl : moduleLibrary.getJavadocUrls())
+                {
+                    moduleLibraryUrls.add(javadocUrl);
+                }
+                moduleLibraryUrlStartIndexes.add(moduleLibraryUrls.size());
+                for (final String sourcesUrl : moduleLibrary.getSourcesUrls())
+                {
+                    moduleLibraryUrls.add(sourcesUrl);
+                }
+            }
+        }
+        orderEntryAttributeStartIndexes.add(orderEntryAttributes.size());
+        moduleLibraryUrlStartIndexes.add(moduleLibraryUrls.size());
+
+        return new IntellijModuleSnapshot(
+            outputUrl,
+            outputTestUrl,
+            excludeOutput,
+            inheritedJdk,
+            sourceFolderForTests,
+            sourceFolderUrls.toArray(IntellijModuleSnapshot.emptyStrings),
+            sourceFolderIsTestSourcesArray,
+            orderEntryTypes.toArray(IntellijModuleSnapshot.emptyStrings),
+            orderEntryAttributes.toArray(IntellijModuleSnapshot.emptyStrings),
+            IntellijModuleSnapshot.toIntArray(orderEntryAttributeStartIndexes),
+            moduleLibraryNames.toArray(IntellijModuleSnapshot.emptyStrings),
+            moduleLibraryUrls.toArray(IntellijModuleSnapshot.emptyStrings),
+            IntellijModuleSnapshot.toIntArray(moduleLibraryUrlStartIndexes));
+    }
+
+    private static int[] toIntArray(java.util.ArrayList<Integer> values)
+    {
+        final int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; ++i)
+        {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Get the output url of the module, or null if it doesn't have one.
+     * @return The output url of the module.
+     */
+    public String getOutputUrl()
+    {
+        return this.outputUrl;
+    }
+
+    /**
+     * Get the output test url of the module, or null if it doesn't have one.
+     * @return The output test url of the module.
+     */
+    public String getOutputTestUrl()
+    {
+        return this.outputTestUrl;
+    }
+
+    /**
+     * Get whether the module excludes its output folders.
+     * @return Whether the module excludes its output folders.
+     */
+    public boolean getExcludeOutput()
+    {
+        return this.excludeOutput;
+    }
+
+    /**
+     * Get whether the module uses the project's JDK.
+     * @return Whether the module uses the project's JDK.
+     */
+    public boolean getInheritedJdk()
+    {
+        return this.inheritedJdk;
+    }
+
+    /**
+     * Get the forTests value of the module's sourceFolder orderEntry, or null if the module
+     * doesn't have a sourceFolder orderEntry.
+     * @return The forTests value of the module's sourceFolder orderEntry.
+     */
+    public Boolean getSourceFolderForTests()
+    {
+        return this.sourceFolderForTests;
+    }
+
+    /**
+     * Get the number of source folders in the module.
+     * @return The number of source folders in the module.
+     */
+    public int getSourceFolderCount()
+    {
+        return this.sourceFolderUrls.length;
+    }
+
+    /**
+     * Get the url of the source folder at the provided index, or null if the source folder
+     * doesn't have a url.
+     * @param index The index of the source folder.
+     * @return The url of the source folder.
+     */
+    public String getSourceFolderUrl(int index)
+    {
+        PreCondition.assertBetween(0, index, this.getSourceFolderCount() - 1, "index");
+
+        return this.sourceFolderUrls[index];
+    }
+
+    /**
+     * Get whether the source folder at the provided index contains test sources.
+     * @param index The index of the source folder.
+     * @return Whether the source folder contains test sources.
+     */
+    public boolean getSourceFolderIsTestSource(int index)
+    {
+        PreCondition.assertBetween(0, index, this.getSourceFolderCount() - 1, "index");
+
+        return this.sourceFolderIsTestSources[index];
+    }
+
+    /**
+     * Get the number of module libraries in the module.
+     * @return The number of module libraries in the module.
+     */
+    public int getModuleLibraryCount()
+    {
+        return (this.moduleLibraryUrlStartIndexes.length - 1) / IntellijModuleSnapshot.rootTypeCount;
+    }
+
+    /**
+     * Get the name of the module library at the provided index, or null if it doesn't have one.
+     * @param index The index of the module library.
+     * @return The name of the module library.
+     */
+    public String getModuleLibraryName(int index)
+    {
+        PreCondition.assertBetween(0, index, this.getModuleLibraryCount() - 1, "index");
+
+        return this.moduleLibraryNames[index];
+    }
+
+    /**
+     * Get the CLASSES urls of the module library at the provided index.
+     * @param index The index of the module library.
+     * @return The CLASSES urls of the module library.
+     */
+    public Iterable<String> getModuleLibraryClassesUrls(int index)
+    {
+        return this.getModuleLibraryUrls(index, IntellijModuleSnapshot.classesRootType);
+    }
+
+    /**
+     * Get the JAVADOC urls of the module library at the provided index.
+     * @param index The index of the module library.
+     * @return The JAVADOC urls of the module library.
+     */
+    public Iterable<String> getModuleLibraryJavadocUrls(int index)
+    {
+        return this.getModuleLibraryUrls(index, IntellijModuleSnapshot.javadocRootType);
+    }
+
+    /**
+     * Get the SOURCES urls of the module library at the provided index.
+     * @param index The index of the module library.
+     * @return The SOURCES urls of the module library.
+     */
+    public Iterable<String> getModuleLibrarySourcesUrls(int index)
+    {
+        return this.getModuleLibraryUrls(index, IntellijModuleSnapshot.sourcesRootType);
+    }
+
+    private Iterable<String> getModuleLibraryUrls(int index, int rootType)
+    {
+        PreCondition.assertBetween(0, index, this.getModuleLibraryCount() - 1, "index");
+
+        final int startIndex = this.moduleLibraryUrlStartIndexes[index * IntellijModuleSnapshot.rootTypeCount + rootType];
+        final int endIndex = this.moduleLibraryUrlStartIndexes[index * IntellijModuleSnapshot.rootTypeCount + rootType + 1];
+        return Iterable.create(java.util.Arrays.copyOfRange(this.moduleLibraryUrls, startIndex, endIndex));
+    }
+
+    /**
+     * Create a new editable IntellijModule with the values in this snapshot. The orderEntry
+     * elements of the new module are written in the order that Intellij writes them: the
+     * inheritedJdk entry, then the sourceFolder entry, and then the other orderEntries (module
+     * libraries, library references, and module references) in the order that they had in the
+     * module, with all of their attributes.
+     * @return The new IntellijModule.
+     */
+    public IntellijModule toModule()
+    {
+        final IntellijModule result = IntellijModule.create();
+        if (this.outputUrl != null)
+        {
+            result.setOutputUrl(this.outputUrl);
+        }
+        if (this.outputTestUrl != null)
+        {
+            result.setOutputTestUrl(this.outputTestUrl);
+        }
+        result.setExcludeOutput(this.excludeOutput);
+        for (int i = 0; i < this.sourceFolderUrls.length; ++i)
+        {
+            final IntellijSourceFolder sourceFolder = this.sourceFolderUrls[i] == null
+                ? IntellijSourceFolder.create(XMLElement.create(IntellijModuleSnapshot.sourceFolderElementName))
+                : IntellijSourceFolder.create(this.sourceFolderUrls[i]);
+            result.addSourceFolder(sourceFolder.setIsTestSource(this.sourceFolderIsTestSources[i]));
+        }
+        result.setInheritedJdk(this.inheritedJdk);
+        if (this.sourceFolderForTests != null)
+        {
+            result.setSourceFolderForTests(this.sourceFolderForTests);
+        }
+
+        int moduleLibraryIndex = 0;
+        for (int orderEntryIndex = 0; orderEntryIndex < this.orderEntryTypes.length; ++orderEntryIndex)
+        {
+            final String orderEntryType = this.orderEntryTypes[orderEntryIndex];
+            final XMLElement orderEntry = XMLElement.create(IntellijModule.orderEntryElementName);
+            final int attributesEndIndex = this.orderEntryAttributeStartIndexes[orderEntryIndex + 1];
+            for (int a = this.orderEntryAttributeStartIndexes[orderEntryIndex]; a < attributesEndIndex; a += 2)
+            {
+                orderEntry.setAttribute(this.orderEntryAttributes[a], this.orderEntryAttributes[a + 1]);
+            }
+
+            if (!IntellijModuleLibrary.typeAttributeValue.equals(orderEntryType))
+            {
+                result.addOrderEntry(orderEntryType, orderEntry);
+            }
+            else
+            {
+                final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create(orderEntry);
+                final String moduleLibraryName = this.moduleLibraryNames[moduleLibraryIndex];
+                if (moduleLibraryName != null)
+                {
+                    moduleLibrary.setName(moduleLibraryName);
+                }
+                for (final String classesUrl : this.getModuleLibraryClassesUrls(moduleLibraryIndex))
+                {
+                    moduleLibrary.addClassesUrl(classesUrl);
+                }
+                for (final String javadocUrl : this.getModuleLibraryJavadocUrls(moduleLibraryIndex))
+                {
+                    moduleLibrary.addJavadocUrl(javadocUrl);
+                }
+                for (final String sourcesUrl : this.getModuleLibrarySourcesUrls(moduleLibraryIndex))
+                {
+                    moduleLibrary.addSourcesUrl(sourcesUrl);
+                }
+                result.addModuleLibrary(moduleLibrary);
+                ++moduleLibraryIndex;
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+}
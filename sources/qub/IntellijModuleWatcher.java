@@ -0,0 +1,722 @@
+package qub;
+
+/**
+ * A live model of every .iml and workspace.xml file under a folder. The folder is loaded once
+ * when the watcher is created, and after that a java.nio.file.WatchService reports which files
+ * changed so that only those files are parsed again. Events that arrive close together are
+ * coalesced into one batch, so a tool that rewrites many files at once causes one reload instead
+ * of one reload per file.
+ *
+ * The watcher's thread blocks on the WatchService between batches, so an idle watcher uses no
+ * CPU. The modules and workspaces are published as immutable maps that are replaced after every
+ * batch, so they can be read from any thread without waiting on the watcher. The modules and
+ * workspaces in the maps are replaced when their files change rather than being changed in place.
+ */
+public class IntellijModuleWatcher implements Disposable
+{
+    private static final String moduleFileExtension = ".iml";
+    private static final String workspaceFileName = "workspace.xml";
+    /**
+     * The number of milliseconds that the watcher waits for more events after an event before it
+     * reloads the changed files.
+     */
+    public static final long defaultCoalesceMilliseconds = 5;
+    /**
+     * The longest that the watcher will keep coalescing events into one batch while events keep
+     * arriving, so that a steady stream of events can't delay a reload forever.
+     */
+    private static final long maximumBatchMilliseconds = 250;
+
+    /**
+     * The size and last modified time of a file when it was last parsed. These are used to skip
+     * files that haven't changed when the whole folder has to be scanned again.
+     */
+    private static class FileStamp
+    {
+        private final java.nio.file.attribute.FileTime lastModifiedTime;
+        private final long size;
+
+        private FileStamp(java.nio.file.attribute.BasicFileAttributes attributes)
+        {
+            this.lastModifiedTime = attributes.lastModifiedTime();
+            this.size = attributes.size();
+        }
+
+        @Override
+        public boolean equals(Object rhs)
+        {
+            return rhs instanceof FileStamp &&
+                this.lastModifiedTime.equals(((FileStamp)rhs).lastModifiedTime) &&
+                this.size == ((FileStamp)rhs).size;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.lastModifiedTime.hashCode() ^ java.lang.Long.hashCode(this.size);
+        }
+    }
+
+    /**
+     * The changes that are collected while one batch of events is processed.
+     */
+    private static class Batch
+    {
+        private final java.util.HashMap<java.nio.file.Path,IntellijModule> modules;
+        private final java.util.HashMap<java.nio.file.Path,IntellijWorkspace> workspaces;
+        private final java.util.HashSet<java.nio.file.Path> addedModulePaths;
+        private final java.util.HashSet<java.nio.file.Path> changedModulePaths;
+        private final java.util.HashSet<java.nio.file.Path> removedModulePaths;
+        private final java.util.HashSet<java.nio.file.Path> addedWorkspacePaths;
+        private final java.util.HashSet<java.nio.file.Path> changedWorkspacePaths;
+        private final java.util.HashSet<java.nio.file.Path> removedWorkspacePaths;
+        private final java.util.HashMap<java.nio.file.Path,Throwable> errors;
+
+        private Batch(java.util.Map<java.nio.file.Path,IntellijModule> modules, java.util.Map<java.nio.file.Path,IntellijWorkspace> workspaces)
+        {
+            this.modules = new java.util.HashMap<>(modules);
+            this.workspaces = new java.util.HashMap<>(workspaces);
+            this.addedModulePaths = new java.util.HashSet<>();
+            this.changedModulePaths = new java.util.HashSet<>();
+            this.removedModulePaths = new java.util.HashSet<>();
+            this.addedWorkspacePaths = new java.util.HashSet<>();
+            this.changedWorkspacePaths = new java.util.HashSet<>();
+            this.removedWorkspacePaths = new java.util.HashSet<>();
+            this.errors = new java.util.HashMap<>();
+        }
+
+        private IntellijModuleWatcherChanges getChanges()
+        {
+            return IntellijModuleWatcherChanges.create(
+                this.addedModulePaths,
+                this.changedModulePaths,
+                this.removedModulePaths,
+                this.addedWorkspacePaths,
+                this.changedWorkspacePaths,
+                this.removedWorkspacePaths,
+                this.errors);
+        }
+    }
+
+    private final java.nio.file.Path rootFolderPath;
+    private final long coalesceMilliseconds;
+    private final java.nio.file.WatchService watchService;
+    private final java.util.HashMap<java.nio.file.WatchKey,java.nio.file.Path> watchedFolderPaths;
+    /**
+     * The WatchKey of every folder that has been watched and hasn't been deleted. A folder stays
+     * in this map after its WatchKey is cancelled (which happens as soon as the folder is
+     * deleted), so that a delete event can still be recognized as the delete of a folder.
+     */
+    private final java.util.HashMap<java.nio.file.Path,java.nio.file.WatchKey> folderKeys;
+    private final java.util.HashMap<java.nio.file.Path,FileStamp> fileStamps;
+    private volatile java.util.Map<java.nio.file.Path,IntellijModule> modules;
+    private volatile java.util.Map<java.nio.file.Path,IntellijWorkspace> workspaces;
+    private IntellijModuleWatcherChanges initialChanges;
+    private volatile Action1<IntellijModuleWatcherChanges> onChanges;
+    private volatile boolean disposed;
+
+    private IntellijModuleWatcher(java.nio.file.Path rootFolderPath, long coalesceMilliseconds, java.nio.file.WatchService watchService)
+    {
+        this.rootFolderPath = rootFolderPath;
+        this.coalesceMilliseconds = coalesceMilliseconds;
+        this.watchService = watchService;
+        this.watchedFolderPaths = new java.util.HashMap<>();
+        this.folderKeys = new java.util.HashMap<>();
+        this.fileStamps = new java.util.HashMap<>();
+        this.modules = java.util.Collections.emptyMap();
+        this.workspaces = java.util.Collections.emptyMap();
+    }
+
+    /**
+     * Create a new IntellijModuleWatcher that loads and watches the .iml and workspace.xml files
+     * under the provided folder.
+     * @param rootFolderPath The folder to watch.
+     * @return The new IntellijModuleWatcher.
+     */
+    public static Result<IntellijModuleWatcher> create(java.nio.file.Path rootFolderPath)
+    {
+        return IntellijModuleWatcher.create(rootFolderPath, IntellijModuleWatcher.defaultCoalesceMilliseconds);
+    }
+
+    /**
+     * Create a new IntellijModuleWatcher that loads and watches the .iml and workspace.xml files
+     * under the provided folder. Every folder under the provided folder is watched, and files
+     * that fail to parse while the folder is being loaded are left out of the model until they
+     * change. Those files and their errors are reported by getInitialChanges().
+     * @param rootFolderPath The folder to watch.
+     * @param coalesceMilliseconds The number of milliseconds to wait for more events after an
+     *                             event before the changed files are reloaded.
+     * @return The new IntellijModuleWatcher.
+     */
+    public static Result<IntellijModuleWatcher> create(java.nio.file.Path rootFolderPath, long coalesceMilliseconds)
+    {
+        PreCondition.assertNotNull(rootFolderPath, "rootFolderPath");
+        PreCondition.assertGreaterThanOrEqualTo(coalesceMilliseconds, 0, "coalesceMilliseconds");
+
+        return Result.create(() ->
+        {
+            final java.nio.file.Path absoluteRootFolderPath = rootFolderPath.toAbsolutePath().normalize();
+            if (!java.nio.file.Files.isDirectory(absoluteRootFolderPath))
+            {
+                throw new NotFoundException("Could not find a folder at " + Strings.quote(absoluteRootFolderPath.toString()) + ".");
+            }
+
+            final java.nio.file.WatchService watchService;
+            try
+            {
+                watchService = absoluteRootFolderPath.getFileSystem().newWatchService();
+            }
+            catch (java.io.IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+
+            final IntellijModuleWatcher result = new IntellijModuleWatcher(absoluteRootFolderPath, coalesceMilliseconds, watchService);
+            try
+            {
+                final Batch batch = new Batch(result.modules, result.workspaces);
+                result.loadFolder(absoluteRootFolderPath, batch);
+                result.publish(batch);
+                result.initialChanges = batch.getChanges();
+            }
+            catch (Throwable error)
+            {
+                result.dispose().await();
+                throw error;
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Get the folder that this watcher is watching.
+     * @return The absolute path of the folder that this watcher is watching.
+     */
+    public java.nio.file.Path getRootFolderPath()
+    {
+        return this.rootFolderPath;
+    }
+
+    /**
+     * Get the changes that were found when this watcher first loaded its folder. Every file that
+     * was loaded is reported as added, and every file that couldn't be parsed is reported as
+     * failed along with its error.
+     * @return The changes that were found when this watcher first loaded its folder.
+     */
+    public IntellijModuleWatcherChanges getInitialChanges()
+    {
+        return this.initialChanges;
+    }
+
+    /**
+     * Get the modules that are currently under this watcher's folder. The returned map is never
+     * changed, so it can be read while this watcher keeps processing events.
+     * @return The modules under this watcher's folder, keyed by the absolute path of their .iml
+     * file.
+     */
+    public java.util.Map<java.nio.file.Path,IntellijModule> getModules()
+    {
+        return this.modules;
+    }
+
+    /**
+     * Get the workspaces that are currently under this watcher's folder. The returned map is
+     * never changed, so it can be read while this watcher keeps processing events.
+     * @return The workspaces under this watcher's folder, keyed by the absolute path of their
+     * workspace.xml file.
+     */
+    public java.util.Map<java.nio.file.Path,IntellijWorkspace> getWorkspaces()
+    {
+        return this.workspaces;
+    }
+
+    /**
+     * Set the action that will be run after each batch of changes has been published. The action
+     * is run on the thread that is processing this watcher's events.
+     * @param onChanges The action to run, or null to stop notifying.
+     * @return This object for method chaining.
+     */
+    public IntellijModuleWatcher setOnChanges(Action1<IntellijModuleWatcherChanges> onChanges)
+    {
+        this.onChanges = onChanges;
+
+        return this;
+    }
+
+    /**
+     * Block until at least one watched file has changed, then reload the changed files, publish
+     * the new modules and workspaces, and notify the onChanges action. Events for files that
+     * aren't .iml or workspace.xml files don't end the wait. This should only be called from one
+     * thread at a time.
+     * @return The changes that were published.
+     */
+    public Result<IntellijModuleWatcherChanges> waitForChanges()
+    {
+        PreCondition.assertFalse(this.isDisposed(), "this.isDisposed()");
+
+        return Result.create(this::processNextChanges);
+    }
+
+    /**
+     * Process this watcher's events on the current thread until this watcher is disposed.
+     * @return The result of processing this watcher's events.
+     */
+    public Result<Void> run()
+    {
+        PreCondition.assertFalse(this.isDisposed(), "this.isDisposed()");
+
+        return Result.create(() ->
+        {
+            try
+            {
+                while (!this.isDisposed())
+                {
+                    this.processNextChanges();
+                }
+            }
+            catch (java.nio.file.ClosedWatchServiceException e)
+            {
+                if (!this.isDisposed())
+                {
+                    throw e;
+                }
+            }
+        });
+    }
+
+    private IntellijModuleWatcherChanges processNextChanges()
+    {
+        IntellijModuleWatcherChanges result = null;
+        try
+        {
+            while (result == null)
+            {
+                final java.util.LinkedHashSet<java.nio.file.Path> changedPaths = new java.util.LinkedHashSet<>();
+                java.nio.file.WatchKey key = this.watchService.take();
+                final long batchDeadline = java.lang.System.nanoTime() + java.util.concurrent.TimeUnit.MILLISECONDS.toNanos(IntellijModuleWatcher.maximumBatchMilliseconds);
+                boolean overflowed = false;
+                while (key != null)
+                {
+                    overflowed |= this.collectEvents(key, changedPaths);
+                    key = java.lang.System.nanoTime() < batchDeadline
+                        ? this.watchService.poll(this.coalesceMilliseconds, java.util.concurrent.TimeUnit.MILLISECONDS)
+                        : null;
+                }
+
+                final Batch batch = new Batch(this.modules, this.workspaces);
+                if (overflowed)
+                {
+                    this.rescan(batch);
+                }
+                else
+                {
+                    this.reload(changedPaths, batch);
+                }
+
+                final IntellijModuleWatcherChanges changes = batch.getChanges();
+                if (changes.any())
+                {
+                    this.publish(batch);
+
+                    final Action1<IntellijModuleWatcherChanges> onChanges = this.onChanges;
+                    if (onChanges != null)
+                    {
+                        onChanges.run(changes);
+                    }
+                    result = changes;
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        return result;
+    }
+
+    /**
+     * Add the paths that the provided key's events refer to to the provided set.
+     * @return Whether any of the key's events were lost because too many events happened.
+     */
+    private boolean collectEvents(java.nio.file.WatchKey key, java.util.Set<java.nio.file.Path> changedPaths)
+    {
+        boolean result = false;
+        final java.nio.file.Path folderPath = this.watchedFolderPaths.get(key);
+        for (final java.nio.file.WatchEvent<?> event : key.pollEvents())
+        {
+            if (event.kind() == java.nio.file.StandardWatchEventKinds.OVERFLOW)
+            {
+                result = true;
+            }
+            else if (folderPath != null)
+            {
+                changedPaths.add(folderPath.resolve((java.nio.file.Path)event.context()));
+            }
+        }
+        if (!key.reset())
+        {
+            this.watchedFolderPaths.remove(key);
+        }
+        return result;
+    }
+
+    /**
+     * Reload the provided paths. A path can be a watched file that was created, changed, or
+     * deleted, a folder that was created (which is then watched and loaded), or a folder that was
+     * deleted (which removes every file that was under it).
+     */
+    private void reload(java.util.Collection<java.nio.file.Path> changedPaths, Batch batch)
+    {
+        for (final java.nio.file.Path changedPath : changedPaths)
+        {
+            if (java.nio.file.Files.isDirectory(changedPath))
+            {
+                // A folder that is still being watched already had its files loaded. A folder
+                // that was deleted and created again has to be loaded again from scratch.
+                final java.nio.file.WatchKey folderKey = this.folderKeys.get(changedPath);
+                if (folderKey == null || !folderKey.isValid())
+                {
+                    this.removeFiles(changedPath, batch);
+                    this.loadFolder(changedPath, batch);
+                }
+            }
+            else if (java.nio.file.Files.exists(changedPath))
+            {
+                if (IntellijModuleWatcher.isWatchedFile(changedPath))
+                {
+                    this.loadFile(changedPath, IntellijModuleWatcher.readFileStamp(changedPath), batch);
+                }
+            }
+            else
+            {
+                this.removeFiles(changedPath, batch);
+            }
+        }
+    }
+
+    /**
+     * Scan this watcher's whole folder again after events were lost. Only the files whose size
+     * or last modified time changed are parsed again.
+     */
+    private void rescan(Batch batch)
+    {
+        final java.util.HashSet<java.nio.file.Path> foundPaths = new java.util.HashSet<>();
+        this.walkFolder(this.rootFolderPath, (java.nio.file.Path filePath, FileStamp fileStamp) ->
+        {
+            foundPaths.add(filePath);
+            if (!fileStamp.equals(this.fileStamps.get(filePath)))
+            {
+                this.loadFile(filePath, fileStamp, batch);
+            }
+        });
+
+        final List<java.nio.file.Path> missingPaths = List.create();
+        for (final java.nio.file.Path filePath : this.fileStamps.keySet())
+        {
+            if (!foundPaths.contains(filePath))
+            {
+                missingPaths.add(filePath);
+            }
+        }
+        for (final java.nio.file.Path missingPath : missingPaths)
+        {
+            this.removeFiles(missingPath, batch);
+        }
+    }
+
+    private void loadFolder(java.nio.file.Path folderPath, Batch batch)
+    {
+        this.walkFolder(folderPath, (java.nio.file.Path filePath, FileStamp fileStamp) ->
+        {
+            this.loadFile(filePath, fileStamp, batch);
+        });
+    }
+
+    /**
+     * Watch the provided folder and every folder under it, and run the provided action for each
+     * .iml and workspace.xml file that is found.
+     */
+    private void walkFolder(java.nio.file.Path folderPath, Action2<java.nio.file.Path,FileStamp> onWatchedFile)
+    {
+        try
+        {
+            java.nio.file.Files.walkFileTree(folderPath, new java.nio.file.SimpleFileVisitor<java.nio.file.Path>()
+            {
+                @Override
+                public java.nio.file.FileVisitResult preVisitDirectory(java.nio.file.Path directoryPath, java.nio.file.attribute.BasicFileAttributes attributes)
+                {
+                    java.nio.file.FileVisitResult result;
+                    try
+                    {
+                        final java.nio.file.WatchKey key = directoryPath.register(
+                            IntellijModuleWatcher.this.watchService,
+                            java.nio.file.StandardWatchEventKinds.ENTRY_CREATE,
+                            java.nio.file.StandardWatchEventKinds.ENTRY_DELETE,
+                            java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY);
+                        IntellijModuleWatcher.this.watchedFolderPaths.put(key, directoryPath);
+                        IntellijModuleWatcher.this.folderKeys.put(directoryPath, key);
+                        result = java.nio.file.FileVisitResult.CONTINUE;
+                    }
+                    catch (java.nio.file.NoSuchFileException | java.nio.file.NotDirectoryException e)
+                    {
+                        // The folder was deleted before it could be watched, so its delete event
+                        // will remove anything that was found under it.
+                        result = java.nio.file.FileVisitResult.SKIP_SUBTREE;
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        throw new java.io.UncheckedIOException(e);
+                    }
+                    return result;
+                }
+
+                @Override
+                public java.nio.file.FileVisitResult visitFile(java.nio.file.Path filePath, java.nio.file.attribute.BasicFileAttributes attributes)
+                {
+                    if (attributes.isRegularFile() && IntellijModuleWatcher.isWatchedFile(filePath))
+                    {
+                        onWatchedFile.run(filePath, new FileStamp(attributes));
+                    }
+                    return java.nio.file.FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public java.nio.file.FileVisitResult visitFileFailed(java.nio.file.Path filePath, java.io.IOException error)
+                {
+                    // A file or folder that is deleted while it is being walked will be reported
+                    // by its own delete event.
+                    return java.nio.file.FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        catch (java.io.IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+        catch (java.io.UncheckedIOException e)
+        {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Parse the provided file and put it in the provided batch. The file is read into a heap
+     * buffer instead of being memory-mapped, so the watcher never keeps IntelliJ or
+     * saveIfChanged() from replacing a file that it watches. A file that fails to parse keeps
+     * its previous version (if it had one) and its previous file stamp, so it is parsed again the
+     * next time that it changes or that the folder is scanned.
+     */
+    private void loadFile(java.nio.file.Path filePath, FileStamp fileStamp, Batch batch)
+    {
+        if (IntellijModuleWatcher.isModuleFile(filePath))
+        {
+            IntellijModule module;
+            try
+            {
+                module = IntellijFiles.read(filePath)
+                    .thenResult((java.nio.ByteBuffer bytes) -> IntellijModule.parse(bytes))
+                    .await();
+            }
+            catch (Throwable error)
+            {
+                module = null;
+                batch.errors.put(filePath, error);
+            }
+
+            if (module != null)
+            {
+                batch.errors.remove(filePath);
+                final boolean added = batch.modules.put(filePath, module) == null && !batch.removedModulePaths.remove(filePath);
+                (added ? batch.addedModulePaths : batch.changedModulePaths).add(filePath);
+                this.setFileStamp(filePath, fileStamp);
+            }
+        }
+        else
+        {
+            IntellijWorkspace workspace;
+            try
+            {
+                workspace = IntellijFiles.read(filePath)
+                    .thenResult((java.nio.ByteBuffer bytes) -> IntellijWorkspace.parse(bytes))
+                    .await();
+            }
+            catch (Throwable error)
+            {
+                workspace = null;
+                batch.errors.put(filePath, error);
+            }
+
+            if (workspace != null)
+            {
+                batch.errors.remove(filePath);
+                final boolean added = batch.workspaces.put(filePath, workspace) == null && !batch.removedWorkspacePaths.remove(filePath);
+                (added ? batch.addedWorkspacePaths : batch.changedWorkspacePaths).add(filePath);
+                this.setFileStamp(filePath, fileStamp);
+            }
+        }
+    }
+
+    private void setFileStamp(java.nio.file.Path filePath, FileStamp fileStamp)
+    {
+        if (fileStamp == null)
+        {
+            this.fileStamps.remove(filePath);
+        }
+        else
+        {
+            this.fileStamps.put(filePath, fileStamp);
+        }
+    }
+
+    /**
+     * Remove the file at the provided path, or every file under the provided path if it was a
+     * watched folder, from the provided batch. Deleted paths that are neither watched files nor
+     * watched folders are ignored without looking at the other files.
+     */
+    private void removeFiles(java.nio.file.Path deletedPath, Batch batch)
+    {
+        if (IntellijModuleWatcher.isModuleFile(deletedPath))
+        {
+            this.removeModule(deletedPath, batch);
+        }
+        else if (IntellijModuleWatcher.isWorkspaceFile(deletedPath))
+        {
+            this.removeWorkspace(deletedPath, batch);
+        }
+
+        if (this.folderKeys.containsKey(deletedPath))
+        {
+            this.folderKeys.keySet().removeIf((java.nio.file.Path folderPath) -> folderPath.startsWith(deletedPath));
+
+            final List<java.nio.file.Path> removedModulePaths = List.create();
+            for (final java.nio.file.Path modulePath : batch.modules.keySet())
+            {
+                if (modulePath.startsWith(deletedPath))
+                {
+                    removedModulePaths.add(modulePath);
+                }
+            }
+            for (final java.nio.file.Path modulePath : removedModulePaths)
+            {
+                this.removeModule(modulePath, batch);
+            }
+
+            final List<java.nio.file.Path> removedWorkspacePaths = List.create();
+            for (final java.nio.file.Path workspacePath : batch.workspaces.keySet())
+            {
+                if (workspacePath.startsWith(deletedPath))
+                {
+                    removedWorkspacePaths.add(workspacePath);
+                }
+            }
+            for (final java.nio.file.Path workspacePath : removedWorkspacePaths)
+            {
+                this.removeWorkspace(workspacePath, batch);
+            }
+        }
+    }
+
+    private void removeModule(java.nio.file.Path modulePath, Batch batch)
+    {
+        if (batch.modules.remove(modulePath) != null)
+        {
+            if (!batch.addedModulePaths.remove(modulePath))
+            {
+                batch.removedModulePaths.add(modulePath);
+            }
+            batch.changedModulePaths.remove(modulePath);
+        }
+        batch.errors.remove(modulePath);
+        this.fileStamps.remove(modulePath);
+    }
+
+    private void removeWorkspace(java.nio.file.Path workspacePath, Batch batch)
+    {
+        if (batch.workspaces.remove(workspacePath) != null)
+        {
+            if (!batch.addedWorkspacePaths.remove(workspacePath))
+            {
+                batch.removedWorkspacePaths.add(workspacePath);
+            }
+            batch.changedWorkspacePaths.remove(workspacePath);
+        }
+        batch.errors.remove(workspacePath);
+        this.fileStamps.remove(workspacePath);
+    }
+
+    private void publish(Batch batch)
+    {
+        this.modules = java.util.Collections.unmodifiableMap(batch.modules);
+        this.workspaces = java.util.Collections.unmodifiableMap(batch.workspaces);
+    }
+
+    private static boolean isModuleFile(java.nio.file.Path filePath)
+    {
+        final java.nio.file.Path fileName = filePath.getFileName();
+        return fileName != null && fileName.toString().endsWith(IntellijModuleWatcher.moduleFileExtension);
+    }
+
+    private static boolean isWorkspaceFile(java.nio.file.Path filePath)
+    {
+        final java.nio.file.Path fileName = filePath.getFileName();
+        return fileName != null && fileName.toString().equals(IntellijModuleWatcher.workspaceFileName);
+    }
+
+    private static boolean isWatchedFile(java.nio.file.Path filePath)
+    {
+        return IntellijModuleWatcher.isModuleFile(filePath) || IntellijModuleWatcher.isWorkspaceFile(filePath);
+    }
+
+    private static FileStamp readFileStamp(java.nio.file.Path filePath)
+    {
+        FileStamp result;
+        try
+        {
+            result = new FileStamp(java.nio.file.Files.readAttributes(filePath, java.nio.file.attribute.BasicFileAttributes.class));
+        }
+        catch (java.io.IOException e)
+        {
+            result = null;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    /**
+     * Stop watching this watcher's folder. A thread that is blocked in run() returns, and a
+     * thread that is blocked in waitForChanges() gets a ClosedWatchServiceException. The last
+     * published modules and workspaces can still be read.
+     * @return Whether this call disposed this watcher.
+     */
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            boolean result;
+            synchronized (this)
+            {
+                result = !this.disposed;
+                this.disposed = true;
+            }
+            if (result)
+            {
+                try
+                {
+                    this.watchService.close();
+                }
+                catch (java.io.IOException e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+            return result;
+        });
+    }
+}
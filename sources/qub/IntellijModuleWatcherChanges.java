@@ -0,0 +1,163 @@
+package qub;
+
+/**
+ * The changes that an IntellijModuleWatcher found in one batch of file system events. The paths
+ * in each group are sorted.
+ */
+public class IntellijModuleWatcherChanges
+{
+    private final List<java.nio.file.Path> addedModulePaths;
+    private final List<java.nio.file.Path> changedModulePaths;
+    private final List<java.nio.file.Path> removedModulePaths;
+    private final List<java.nio.file.Path> addedWorkspacePaths;
+    private final List<java.nio.file.Path> changedWorkspacePaths;
+    private final List<java.nio.file.Path> removedWorkspacePaths;
+    private final List<java.nio.file.Path> failedPaths;
+    private final java.util.HashMap<java.nio.file.Path,Throwable> errors;
+
+    private IntellijModuleWatcherChanges(
+        java.util.Collection<java.nio.file.Path> addedModulePaths,
+        java.util.Collection<java.nio.file.Path> changedModulePaths,
+        java.util.Collection<java.nio.file.Path> removedModulePaths,
+        java.util.Collection<java.nio.file.Path> addedWorkspacePaths,
+        java.util.Collection<java.nio.file.Path> changedWorkspacePaths,
+        java.util.Collection<java.nio.file.Path> removedWorkspacePaths,
+        java.util.Map<java.nio.file.Path,Throwable> errors)
+    {
+        this.addedModulePaths = IntellijModuleWatcherChanges.sorted(addedModulePaths);
+        this.changedModulePaths = IntellijModuleWatcherChanges.sorted(changedModulePaths);
+        this.removedModulePaths = IntellijModuleWatcherChanges.sorted(removedModulePaths);
+        this.addedWorkspacePaths = IntellijModuleWatcherChanges.sorted(addedWorkspacePaths);
+        this.changedWorkspacePaths = IntellijModuleWatcherChanges.sorted(changedWorkspacePaths);
+        this.removedWorkspacePaths = IntellijModuleWatcherChanges.sorted(removedWorkspacePaths);
+        this.failedPaths = IntellijModuleWatcherChanges.sorted(errors.keySet());
+        this.errors = new java.util.HashMap<>(errors);
+    }
+
+    static IntellijModuleWatcherChanges create(
+        java.util.Collection<java.nio.file.Path> addedModulePaths,
+        java.util.Collection<java.nio.file.Path> changedModulePaths,
+        java.util.Collection<java.nio.file.Path> removedModulePaths,
+        java.util.Collection<java.nio.file.Path> addedWorkspacePaths,
+        java.util.Collection<java.nio.file.Path> changedWorkspacePaths,
+        java.util.Collection<java.nio.file.Path> removedWorkspacePaths,
+        java.util.Map<java.nio.file.Path,Throwable> errors)
+    {
+        PreCondition.assertNotNull(addedModulePaths, "addedModulePaths");
+        PreCondition.assertNotNull(changedModulePaths, "changedModulePaths");
+        PreCondition.assertNotNull(removedModulePaths, "removedModulePaths");
+        PreCondition.assertNotNull(addedWorkspacePaths, "addedWorkspacePaths");
+        PreCondition.assertNotNull(changedWorkspacePaths, "changedWorkspacePaths");
+        PreCondition.assertNotNull(removedWorkspacePaths, "removedWorkspacePaths");
+        PreCondition.assertNotNull(errors, "errors");
+
+        return new IntellijModuleWatcherChanges(addedModulePaths, changedModulePaths, removedModulePaths, addedWorkspacePaths, changedWorkspacePaths, removedWorkspacePaths, errors);
+    }
+
+    private static List<java.nio.file.Path> sorted(java.util.Collection<java.nio.file.Path> paths)
+    {
+        final java.nio.file.Path[] sortedPaths = paths.toArray(new java.nio.file.Path[0]);
+        java.util.Arrays.sort(sortedPaths);
+        return List.create(sortedPaths);
+    }
+
+    /**
+     * Get whether this batch has any changes (including files that failed to parse).
+     * @return Whether this batch has any changes.
+     */
+    public boolean any()
+    {
+        return this.addedModulePaths.any() ||
+            this.changedModulePaths.any() ||
+            this.removedModulePaths.any() ||
+            this.addedWorkspacePaths.any() ||
+            this.changedWorkspacePaths.any() ||
+            this.removedWorkspacePaths.any() ||
+            this.failedPaths.any();
+    }
+
+    /**
+     * Get the paths of the .iml files that were created.
+     * @return The paths of the .iml files that were created.
+     */
+    public Iterable<java.nio.file.Path> getAddedModulePaths()
+    {
+        return this.addedModulePaths;
+    }
+
+    /**
+     * Get the paths of the .iml files that were changed and parsed again.
+     * @return The paths of the .iml files that were changed.
+     */
+    public Iterable<java.nio.file.Path> getChangedModulePaths()
+    {
+        return this.changedModulePaths;
+    }
+
+    /**
+     * Get the paths of the .iml files that were deleted.
+     * @return The paths of the .iml files that were deleted.
+     */
+    public Iterable<java.nio.file.Path> getRemovedModulePaths()
+    {
+        return this.removedModulePaths;
+    }
+
+    /**
+     * Get the paths of the workspace.xml files that were created.
+     * @return The paths of the workspace.xml files that were created.
+     */
+    public Iterable<java.nio.file.Path> getAddedWorkspacePaths()
+    {
+        return this.addedWorkspacePaths;
+    }
+
+    /**
+     * Get the paths of the workspace.xml files that were changed and parsed again.
+     * @return The paths of the workspace.xml files that were changed.
+     */
+    public Iterable<java.nio.file.Path> getChangedWorkspacePaths()
+    {
+        return this.changedWorkspacePaths;
+    }
+
+    /**
+     * Get the paths of the workspace.xml files that were deleted.
+     * @return The paths of the workspace.xml files that were deleted.
+     */
+    public Iterable<java.nio.file.Path> getRemovedWorkspacePaths()
+    {
+        return this.removedWorkspacePaths;
+    }
+
+    /**
+     * Get the paths of the files that changed but couldn't be parsed. The watcher keeps the last
+     * version of each of these files that did parse, and parses the file again the next time it
+     * changes.
+     * @return The paths of the files that couldn't be parsed.
+     */
+    public Iterable<java.nio.file.Path> getFailedPaths()
+    {
+        return this.failedPaths;
+    }
+
+    /**
+     * Get the error that was thrown when the file at the provided path was parsed.
+     * @param path The path of the file that failed to parse.
+     * @return The error that was thrown when the file was parsed.
+     */
+    public Result<Throwable> getError(java.nio.file.Path path)
+    {
+        PreCondition.assertNotNull(path, "path");
+
+        return Result.create(() ->
+        {
+            final Throwable result = this.errors.get(path);
+            if (result == null)
+            {
+                throw new NotFoundException("No error was thrown for the file " + Strings.quote(path.toString()) + ".");
+            }
+            return result;
+        });
+    }
+}
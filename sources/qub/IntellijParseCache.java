@@ -0,0 +1,218 @@
+package qub;
+
+/**
+ * A bounded, in-memory cache of parsed .iml and workspace.xml documents. Entries are keyed by
+ * file path and are only used while the file's size and last modified time still match what they
+ * were when the file was parsed. When the cache grows past its maximum entry count or its maximum
+ * estimated byte count, the least recently used entries are evicted.
+ *
+ * The cache keeps its own copy of each parsed document and every module or workspace that it
+ * returns wraps a new copy of that document, so changes that a caller makes to a returned module
+ * or workspace can't corrupt the cached document.
+ */
+public class IntellijParseCache
+{
+    /**
+     * The number of bytes that a parsed document is estimated to take up in memory for each byte
+     * of the file that it was parsed from.
+     */
+    private static final int estimatedBytesPerFileByte = 6;
+
+    private final int maximumEntryCount;
+    private final long maximumEstimatedByteCount;
+    private final java.util.LinkedHashMap<String,Entry> entries;
+    private long estimatedByteCount;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    private static class Entry
+    {
+        private final DateTime lastModified;
+        private final long byteCount;
+        private final XMLDocument document;
+
+        private Entry(DateTime lastModified, long byteCount, XMLDocument document)
+        {
+            this.lastModified = lastModified;
+            this.byteCount = byteCount;
+            this.document = document;
+        }
+
+        private long getEstimatedByteCount()
+        {
+            return this.byteCount * IntellijParseCache.estimatedBytesPerFileByte;
+        }
+    }
+
+    private IntellijParseCache(int maximumEntryCount, long maximumEstimatedByteCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumEntryCount, 1, "maximumEntryCount");
+        PreCondition.assertGreaterThanOrEqualTo(maximumEstimatedByteCount, 1, "maximumEstimatedByteCount");
+
+        this.maximumEntryCount = maximumEntryCount;
+        this.maximumEstimatedByteCount = maximumEstimatedByteCount;
+        this.entries = new java.util.LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Create a new IntellijParseCache.
+     * @param maximumEntryCount The maximum number of documents that the cache will hold.
+     * @param maximumEstimatedByteCount The maximum estimated number of bytes that the cached
+     *                                  documents can take up.
+     * @return The new IntellijParseCache.
+     */
+    public static IntellijParseCache create(int maximumEntryCount, long maximumEstimatedByteCount)
+    {
+        return new IntellijParseCache(maximumEntryCount, maximumEstimatedByteCount);
+    }
+
+    /**
+     * Get the module in the provided .iml file, parsing the file only if it isn't already cached.
+     * @param file The .iml file to parse.
+     * @return The module in the provided file.
+     */
+    public Result<IntellijModule> parseModule(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return this.parseDocument(file)
+            .then((XMLDocument document) -> IntellijModule.create(document));
+    }
+
+    /**
+     * Get the workspace in the provided workspace.xml file, parsing the file only if it isn't
+     * already cached.
+     * @param file The workspace.xml file to parse.
+     * @return The workspace in the provided file.
+     */
+    public Result<IntellijWorkspace> parseWorkspace(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return this.parseDocument(file)
+            .then((XMLDocument document) -> IntellijWorkspace.create(document));
+    }
+
+    /**
+     * Get a copy of the document in the provided file.
+     * @param file The file to parse.
+     * @return A copy of the document in the provided file.
+     */
+    private Result<XMLDocument> parseDocument(File file)
+    {
+        return Result.create(() ->
+        {
+            final String path = file.getPath().toString();
+            final DateTime lastModified = file.getLastModified().await();
+            final long byteCount = file.getContentsByteCount().await();
+
+            Entry entry;
+            synchronized (this)
+            {
+                entry = this.entries.get(path);
+                if (entry != null && Comparer.equal(entry.lastModified, lastModified) && entry.byteCount == byteCount)
+                {
+                    ++this.hitCount;
+                }
+                else
+                {
+                    ++this.missCount;
+                    entry = null;
+                }
+            }
+
+            if (entry == null)
+            {
+                entry = new Entry(lastModified, byteCount, XML.parse(file).await());
+                synchronized (this)
+                {
+                    final Entry previousEntry = this.entries.put(path, entry);
+                    if (previousEntry != null)
+                    {
+                        this.estimatedByteCount -= previousEntry.getEstimatedByteCount();
+                    }
+                    this.estimatedByteCount += entry.getEstimatedByteCount();
+                    this.evict();
+                }
+            }
+
+            return IntellijXMLElements.copy(entry.document);
+        });
+    }
+
+    /**
+     * Evict the least recently used entries until this cache is within its bounds. The most
+     * recently used entry is never evicted so that a single large document can still be cached.
+     */
+    private void evict()
+    {
+        final java.util.Iterator<Entry> iterator = this.entries.values().iterator();
+        while (this.entries.size() > 1 &&
+               (this.entries.size() > this.maximumEntryCount || this.estimatedByteCount > this.maximumEstimatedByteCount))
+        {
+            final Entry leastRecentlyUsed = iterator.next();
+            iterator.remove();
+            this.estimatedByteCount -= leastRecentlyUsed.getEstimatedByteCount();
+            ++this.evictionCount;
+        }
+    }
+
+    /**
+     * Remove all of the entries from this cache. The hit, miss, and eviction counts are not reset.
+     * @return This object for method chaining.
+     */
+    public synchronized IntellijParseCache clear()
+    {
+        this.entries.clear();
+        this.estimatedByteCount = 0;
+
+        return this;
+    }
+
+    /**
+     * Get the number of documents in this cache.
+     * @return The number of documents in this cache.
+     */
+    public synchronized int getEntryCount()
+    {
+        return this.entries.size();
+    }
+
+    /**
+     * Get the estimated number of bytes that the documents in this cache take up.
+     * @return The estimated number of bytes that the documents in this cache take up.
+     */
+    public synchronized long getEstimatedByteCount()
+    {
+        return this.estimatedByteCount;
+    }
+
+    /**
+     * Get the number of times that a requested document was found in this cache.
+     * @return The number of times that a requested document was found in this cache.
+     */
+    public synchronized long getHitCount()
+    {
+        return this.hitCount;
+    }
+
+    /**
+     * Get the number of times that a requested document had to be parsed.
+     * @return The number of times that a requested document had to be parsed.
+     */
+    public synchronized long getMissCount()
+    {
+        return this.missCount;
+    }
+
+    /**
+     * Get the number of documents that have been evicted from this cache to keep it within its
+     * bounds.
+     * @return The number of documents that have been evicted from this cache.
+     */
+    public synchronized long getEvictionCount()
+    {
+        return this.evictionCount;
+    }
+}
@@ -0,0 +1,184 @@
+package qub;
+
+/**
+ * A project-level library (typically parsed from a file in a project's .idea/libraries folder).
+ * Modules reference a project library by name with an IntellijLibraryOrderEntry.
+ */
+public class IntellijProjectLibrary extends XMLDocumentWrapperBase
+{
+    private static final String componentElementName = "component";
+    private static final String componentNameAttributeName = "name";
+    private static final String componentNameAttributeValue = "libraryTable";
+    private static final String libraryElementName = "library";
+    private static final String libraryNameAttributeName = "name";
+    private static final String classesElementName = "CLASSES";
+    private static final String javadocElementName = "JAVADOC";
+    private static final String sourcesElementName = "SOURCES";
+    private static final String rootElementName = "root";
+    private static final String urlAttributeName = "url";
+    private static final String fileExtension = ".xml";
+
+    private IntellijProjectLibrary(XMLDocument xml)
+    {
+        super(xml);
+
+        PreCondition.assertNotNull(xml.getRoot(), "xml.getRoot()");
+        PreCondition.assertEqual(IntellijProjectLibrary.componentElementName, xml.getRoot().getName(), "xml.getRoot().getName()");
+    }
+
+    /**
+     * Create a new project library with the provided name and no roots.
+     * @param name The name of the project library.
+     * @return The new project library.
+     */
+    public static IntellijProjectLibrary create(String name)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+
+        return IntellijProjectLibrary.create(XMLDocument.create()
+            .setRoot(XMLElement.create(IntellijProjectLibrary.componentElementName)
+                .setAttribute(IntellijProjectLibrary.componentNameAttributeName, IntellijProjectLibrary.componentNameAttributeValue)
+                .addChild(XMLElement.create(IntellijProjectLibrary.libraryElementName)
+                    .setAttribute(IntellijProjectLibrary.libraryNameAttributeName, name)
+                    .addChild(XMLElement.create(IntellijProjectLibrary.classesElementName))
+                    .addChild(XMLElement.create(IntellijProjectLibrary.javadocElementName))
+                    .addChild(XMLElement.create(IntellijProjectLibrary.sourcesElementName)))));
+    }
+
+    public static IntellijProjectLibrary create(XMLDocument xml)
+    {
+        PreCondition.assertNotNull(xml, "xml");
+
+        return new IntellijProjectLibrary(xml);
+    }
+
+    public static Result<IntellijProjectLibrary> parse(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return XML.parse(file)
+            .then((XMLDocument xmlDocument) -> IntellijProjectLibrary.create(IntellijUrlPool.internSharedUrls(xmlDocument)));
+    }
+
+    public static Result<IntellijProjectLibrary> parse(String text)
+    {
+        PreCondition.assertNotNull(text, "text");
+
+        return XML.parse(text)
+            .then((XMLDocument xmlDocument) -> IntellijProjectLibrary.create(IntellijUrlPool.internSharedUrls(xmlDocument)));
+    }
+
+    /**
+     * Save this project library to the provided file if the file's contents are different from
+     * this project library's contents.
+     * @param file The file to save this project library to.
+     * @return Whether the file was written.
+     */
+    public Result<Boolean> saveIfChanged(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return IntellijFiles.saveIfChanged(this.toXml(), XMLFormat.pretty, file);
+    }
+
+    private XMLElement getOrCreateLibraryElement()
+    {
+        return this.toXml().getRoot().getFirstOrCreateElementChild(IntellijProjectLibrary.libraryElementName);
+    }
+
+    public String getName()
+    {
+        final XMLElement libraryElement = IntellijXMLElements.getFirstElementChild(this.toXml().getRoot(), IntellijProjectLibrary.libraryElementName);
+        return libraryElement == null
+            ? null
+            : IntellijXMLElements.getAttributeValue(libraryElement, IntellijProjectLibrary.libraryNameAttributeName);
+    }
+
+    public IntellijProjectLibrary setName(String name)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+
+        this.getOrCreateLibraryElement().setAttribute(IntellijProjectLibrary.libraryNameAttributeName, name);
+        return this;
+    }
+
+    /**
+     * Get the name of the file in the .idea/libraries folder that Intellij stores this project
+     * library in. Intellij replaces each character in the library's name that isn't a letter or
+     * a digit with an underscore.
+     * @return The name of the file that this project library is stored in.
+     */
+    public String getFileName()
+    {
+        final String name = this.getName();
+        PreCondition.assertNotNullAndNotEmpty(name, "this.getName()");
+
+        final StringBuilder result = new StringBuilder(name.length() + IntellijProjectLibrary.fileExtension.length());
+        for (int i = 0; i < name.length(); ++i)
+        {
+            final char c = name.charAt(i);
+            result.append(Character.isLetterOrDigit(c) ? c : '_');
+        }
+        result.append(IntellijProjectLibrary.fileExtension);
+        return result.toString();
+    }
+
+    private Iterable<String> getRootUrls(String childElementName)
+    {
+        final XMLElement libraryElement = IntellijXMLElements.getFirstElementChild(this.toXml().getRoot(), IntellijProjectLibrary.libraryElementName);
+        final XMLElement childElement = libraryElement == null
+            ? null
+            : IntellijXMLElements.getFirstElementChild(libraryElement, childElementName);
+        return childElement == null
+            ? Iterable.create()
+            : childElement
+                .getElementChildren(IntellijProjectLibrary.rootElementName)
+                .map((XMLElement rootElement) -> IntellijXMLElements.getAttributeValue(rootElement, IntellijProjectLibrary.urlAttributeName))
+                .where((String url) -> !Strings.isNullOrEmpty(url));
+    }
+
+    private IntellijProjectLibrary addRootUrl(String childElementName, String url)
+    {
+        this.getOrCreateLibraryElement()
+            .getFirstOrCreateElementChild(childElementName)
+            .addChild(XMLElement.create(IntellijProjectLibrary.rootElementName)
+                .setAttribute(IntellijProjectLibrary.urlAttributeName, IntellijUrlPool.internShared(url)));
+        return this;
+    }
+
+    public Iterable<String> getClassesUrls()
+    {
+        return this.getRootUrls(IntellijProjectLibrary.classesElementName);
+    }
+
+    public IntellijProjectLibrary addClassesUrl(String classesUrl)
+    {
+        PreCondition.assertNotNullAndNotEmpty(classesUrl, "classesUrl");
+
+        return this.addRootUrl(IntellijProjectLibrary.classesElementName, classesUrl);
+    }
+
+    public Iterable<String> getJavadocUrls()
+    {
+        return this.getRootUrls(IntellijProjectLibrary.javadocElementName);
+    }
+
+    public IntellijProjectLibrary addJavadocUrl(String javadocUrl)
+    {
+        PreCondition.assertNotNullAndNotEmpty(javadocUrl, "javadocUrl");
+
+        return this.addRootUrl(IntellijProjectLibrary.javadocElementName, javadocUrl);
+    }
+
+    public Iterable<String> getSourcesUrls()
+    {
+        return this.getRootUrls(IntellijProjectLibrary.sourcesElementName);
+    }
+
+    public IntellijProjectLibrary addSourcesUrl(String sourcesUrl)
+    {
+        PreCondition.assertNotNullAndNotEmpty(sourcesUrl, "sourcesUrl");
+
+        return this.addRootUrl(IntellijProjectLibrary.sourcesElementName, sourcesUrl);
+    }
+}
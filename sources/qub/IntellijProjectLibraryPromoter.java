@@ -0,0 +1,281 @@
+package qub;
+
+/**
+ * Finds module libraries that are embedded in many modules and promotes them to project
+ * libraries. Two module libraries are the same library when they have the same set of classes
+ * urls, the same set of javadoc urls, and the same set of sources urls, regardless of the order
+ * of the urls. A library that is used by more modules than the promoter's threshold becomes a
+ * project library, and promoting it replaces each of its module-library orderEntries with a
+ * library orderEntry that references the project library by name.
+ *
+ * Module libraries that have a url relative to their module's folder (a url that contains the
+ * $MODULE_DIR$ macro) are never promoted. The same url names different files in modules at
+ * different depths, and the macro has no meaning in a project library.
+ *
+ * Each module library is hashed once, so the time that an analysis takes grows linearly with the
+ * total number of module libraries in the provided modules. A module that appears more than once
+ * in the provided modules is only counted once for each library.
+ */
+public class IntellijProjectLibraryPromoter
+{
+    private static final String defaultLibraryName = "library";
+    private static final String jarFileExtension = ".jar";
+    private static final String typeAttributeName = "type";
+
+    private final int moduleCountThreshold;
+
+    /**
+     * A distinct set of library roots and the modules that use it.
+     */
+    private static class Candidate
+    {
+        private final IntellijModuleLibrary firstModuleLibrary;
+        private final java.util.Set<IntellijModule> modules;
+        private IntellijProjectLibrary projectLibrary;
+
+        private Candidate(IntellijModuleLibrary firstModuleLibrary)
+        {
+            this.firstModuleLibrary = firstModuleLibrary;
+            this.modules = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+        }
+    }
+
+    private IntellijProjectLibraryPromoter(int moduleCountThreshold)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(moduleCountThreshold, 0, "moduleCountThreshold");
+
+        this.moduleCountThreshold = moduleCountThreshold;
+    }
+
+    /**
+     * Create a new IntellijProjectLibraryPromoter.
+     * @param moduleCountThreshold A library is promoted when it is used by more than this number
+     *                             of modules.
+     * @return The new IntellijProjectLibraryPromoter.
+     */
+    public static IntellijProjectLibraryPromoter create(int moduleCountThreshold)
+    {
+        return new IntellijProjectLibraryPromoter(moduleCountThreshold);
+    }
+
+    /**
+     * Get the number of modules that a library must be used by more than to be promoted.
+     * @return The number of modules that a library must be used by more than to be promoted.
+     */
+    public int getModuleCountThreshold()
+    {
+        return this.moduleCountThreshold;
+    }
+
+    /**
+     * Get the project libraries that the module libraries in the provided modules would be
+     * promoted to, without changing the modules.
+     * @param modules The modules to analyze.
+     * @return The project libraries that would be created, in the order that their libraries
+     * first appear in the provided modules.
+     */
+    public Iterable<IntellijProjectLibrary> analyze(Iterable<IntellijModule> modules)
+    {
+        PreCondition.assertNotNull(modules, "modules");
+
+        return this.findPromotedLibraries(modules, new java.util.IdentityHashMap<>());
+    }
+
+    /**
+     * Promote the module libraries that are used by more than this promoter's threshold of the
+     * provided modules to project libraries. Each promoted module-library orderEntry is replaced
+     * in place by a library orderEntry that references the new project library and keeps the
+     * module-library orderEntry's other attributes (such as scope or exported). The caller is
+     * responsible for saving the returned project libraries to the project's .idea/libraries
+     * folder and for saving the changed modules.
+     * @param modules The modules to promote the shared libraries of.
+     * @return The new project libraries, in the order that their libraries first appear in the
+     * provided modules.
+     */
+    public Iterable<IntellijProjectLibrary> promote(Iterable<IntellijModule> modules)
+    {
+        PreCondition.assertNotNull(modules, "modules");
+
+        final java.util.IdentityHashMap<XMLElement,Candidate> candidatesByElement = new java.util.IdentityHashMap<>();
+        final Iterable<IntellijProjectLibrary> result = this.findPromotedLibraries(modules, candidatesByElement);
+        if (result.any())
+        {
+            for (final IntellijModule module : modules)
+            {
+                module.replaceModuleLibraries((XMLElement moduleLibraryElement) ->
+                {
+                    final Candidate candidate = candidatesByElement.get(moduleLibraryElement);
+                    return candidate == null || candidate.projectLibrary == null
+                        ? null
+                        : IntellijProjectLibraryPromoter.createLibraryOrderEntryElement(moduleLibraryElement, candidate.projectLibrary.getName());
+                });
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Hash every module library in the provided modules and create a project library for each
+     * set of roots that is used by more than this promoter's threshold of modules.
+     * @param modules The modules to analyze.
+     * @param candidatesByElement The map that each module-library orderEntry element will be
+     *                            added to, along with the candidate that its roots belong to.
+     * @return The project libraries for the promoted candidates.
+     */
+    private Iterable<IntellijProjectLibrary> findPromotedLibraries(Iterable<IntellijModule> modules, java.util.IdentityHashMap<XMLElement,Candidate> candidatesByElement)
+    {
+        final java.util.LinkedHashMap<String,Candidate> candidates = new java.util.LinkedHashMap<>();
+        for (final IntellijModule module : modules)
+        {
+            PreCondition.assertNotNull(module, "module");
+
+            for (final IntellijModuleLibrary moduleLibrary : module.getModuleLibraries())
+            {
+                if (!IntellijProjectLibraryPromoter.isModuleRelative(moduleLibrary))
+                {
+                    final Candidate candidate = candidates.computeIfAbsent(
+                        IntellijProjectLibraryPromoter.getRootsKey(moduleLibrary),
+                        (String key) -> new Candidate(moduleLibrary));
+                    candidate.modules.add(module);
+                    candidatesByElement.put(moduleLibrary.toXml(), candidate);
+                }
+            }
+        }
+
+        final List<IntellijProjectLibrary> result = List.create();
+        final java.util.HashSet<String> libraryNames = new java.util.HashSet<>();
+        for (final Candidate candidate : candidates.values())
+        {
+            if (candidate.modules.size() > this.moduleCountThreshold)
+            {
+                final IntellijModuleLibrary moduleLibrary = candidate.firstModuleLibrary;
+                final IntellijProjectLibrary projectLibrary = IntellijProjectLibrary.create(
+                    IntellijProjectLibraryPromoter.getUniqueLibraryName(moduleLibrary, libraryNames));
+                for (final String classesUrl : moduleLibrary.getClassesUrls())
+                {
+                    projectLibrary.addClassesUrl(classesUrl);
+                }
+                for (final String javadocUrl : moduleLibrary.getJavadocUrls())
+                {
+                    projectLibrary.addJavadocUrl(javadocUrl);
+                }
+                for (final String sourcesUrl : moduleLibrary.getSourcesUrls())
+                {
+                    projectLibrary.addSourcesUrl(sourcesUrl);
+                }
+                candidate.projectLibrary = projectLibrary;
+                result.add(projectLibrary);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get a key that is the same for two module libraries if and only if they have the same set
+     * of classes urls, the same set of javadoc urls, and the same set of sources urls.
+     * @param moduleLibrary The module library to get the key of.
+     * @return The key of the module library's roots.
+     */
+    static String getRootsKey(IntellijModuleLibrary moduleLibrary)
+    {
+        PreCondition.assertNotNull(moduleLibrary, "moduleLibrary");
+
+        final StringBuilder result = new StringBuilder();
+        IntellijProjectLibraryPromoter.appendSortedUrls(moduleLibrary.getClassesUrls(), result);
+        result.append('\n');
+        IntellijProjectLibraryPromoter.appendSortedUrls(moduleLibrary.getJavadocUrls(), result);
+        result.append('\n');
+        IntellijProjectLibraryPromoter.appendSortedUrls(moduleLibrary.getSourcesUrls(), result);
+        return result.toString();
+    }
+
+    /**
+     * Get whether any of the provided module library's urls are relative to its module's folder.
+     * @param moduleLibrary The module library to check.
+     * @return Whether any of the module library's urls contain the $MODULE_DIR$ macro.
+     */
+    private static boolean isModuleRelative(IntellijModuleLibrary moduleLibrary)
+    {
+        return moduleLibrary.getClassesUrls().where(IntellijProjectLibraryPromoter::isModuleRelative).any() ||
+            moduleLibrary.getJavadocUrls().where(IntellijProjectLibraryPromoter::isModuleRelative).any() ||
+            moduleLibrary.getSourcesUrls().where(IntellijProjectLibraryPromoter::isModuleRelative).any();
+    }
+
+    private static boolean isModuleRelative(String url)
+    {
+        return url.contains(IntellijUrls.moduleDirMacro);
+    }
+
+    private static void appendSortedUrls(Iterable<String> urls, StringBuilder builder)
+    {
+        final java.util.TreeSet<String> sortedUrls = new java.util.TreeSet<>();
+        for (final String url : urls)
+        {
+            sortedUrls.add(url);
+        }
+        for (final String url : sortedUrls)
+        {
+            // A url can't contain a space, so a space can't be confused with part of a url.
+            builder.append(url).append(' ');
+        }
+    }
+
+    /**
+     * Get a name for a project library that is made from the provided module library. The name is
+     * the file name of the library's first classes url without its .jar extension, with a number
+     * added to the end if that name has already been used.
+     * @param moduleLibrary The module library that the project library is made from.
+     * @param libraryNames The names that have already been used. The returned name is added to
+     *                     this set.
+     * @return The name of the project library.
+     */
+    private static String getUniqueLibraryName(IntellijModuleLibrary moduleLibrary, java.util.HashSet<String> libraryNames)
+    {
+        String baseName = null;
+        final String classesUrl = moduleLibrary.getClassesUrls().first().catchError().await();
+        if (classesUrl != null)
+        {
+            final String path = IntellijUrls.toPath(classesUrl, IntellijUrls.moduleDirMacro);
+            if (path != null)
+            {
+                baseName = path.substring(java.lang.Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1);
+                if (baseName.endsWith(IntellijProjectLibraryPromoter.jarFileExtension))
+                {
+                    baseName = baseName.substring(0, baseName.length() - IntellijProjectLibraryPromoter.jarFileExtension.length());
+                }
+            }
+        }
+        if (Strings.isNullOrEmpty(baseName))
+        {
+            baseName = IntellijProjectLibraryPromoter.defaultLibraryName;
+        }
+
+        String result = baseName;
+        for (int suffix = 2; !libraryNames.add(result); ++suffix)
+        {
+            result = baseName + "_" + suffix;
+        }
+        return result;
+    }
+
+    /**
+     * Create the library orderEntry element that replaces the provided module-library orderEntry
+     * element. The module-library orderEntry element's attributes (other than its type) are kept.
+     * @param moduleLibraryElement The module-library orderEntry element to replace.
+     * @param projectLibraryName The name of the project library to reference.
+     * @return The library orderEntry element.
+     */
+    private static XMLElement createLibraryOrderEntryElement(XMLElement moduleLibraryElement, String projectLibraryName)
+    {
+        final XMLElement result = IntellijLibraryOrderEntry.create(projectLibraryName).toXml();
+        for (final XMLAttribute attribute : moduleLibraryElement.getAttributes())
+        {
+            if (!IntellijProjectLibraryPromoter.typeAttributeName.equals(attribute.getName()))
+            {
+                result.setAttribute(attribute.getName(), attribute.getValue());
+            }
+        }
+        return result;
+    }
+}
@@ -6,6 +6,8 @@ public class IntellijSourceFolder extends XMLElementWrapperBase
     private static final String urlAttributeName = "url";
     private static final String isTestSourceAttributeName = "isTestSource";
 
+    private Action0 onUrlChanged;
+
     private IntellijSourceFolder(XMLElement xml)
     {
         super(xml);
@@ -27,27 +29,45 @@ public class IntellijSourceFolder extends XMLElementWrapperBase
         return new IntellijSourceFolder(xml);
     }
 
+    /**
+     * Set the action that will be run after this source folder's url changes. This is used by the
+     * IntellijModule that contains this source folder to know when its index of source folder
+     * urls is out of date.
+     * @param onUrlChanged The action to run, or null to stop notifying.
+     * @return This object for method chaining.
+     */
+    IntellijSourceFolder setOnUrlChanged(Action0 onUrlChanged)
+    {
+        this.onUrlChanged = onUrlChanged;
+
+        return this;
+    }
+
     public String getUrl()
     {
-        return this.toXml().getAttributeValue(IntellijSourceFolder.urlAttributeName)
-            .catchError(NotFoundException.class)
-            .await();
+        return IntellijXMLElements.getAttributeValue(this.toXml(), IntellijSourceFolder.urlAttributeName);
     }
 
     public IntellijSourceFolder setUrl(String url)
     {
         PreCondition.assertNotNullAndNotEmpty(url, "url");
 
-        this.toXml().setAttribute(IntellijSourceFolder.urlAttributeName, url);
+        this.toXml().setAttribute(IntellijSourceFolder.urlAttributeName, IntellijUrlPool.internShared(url));
+
+        final Action0 onUrlChanged = this.onUrlChanged;
+        if (onUrlChanged != null)
+        {
+            onUrlChanged.run();
+        }
+
         return this;
     }
 
     public boolean getIsTestSource()
     {
-        return this.toXml().getAttributeValue(IntellijSourceFolder.isTestSourceAttributeName)
-            .then((String isTestSourceAttributeValue) -> Booleans.parse(isTestSourceAttributeValue).await())
-            .catchError(() -> false)
-            .await();
+        final String isTestSourceAttributeValue = IntellijXMLElements.getAttributeValue(this.toXml(), IntellijSourceFolder.isTestSourceAttributeName);
+        return isTestSourceAttributeValue != null &&
+            Booleans.parse(isTestSourceAttributeValue).catchError(() -> false).await();
     }
 
     public IntellijSourceFolder setIsTestSource(boolean isTestSource)
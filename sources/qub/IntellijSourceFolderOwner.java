@@ -0,0 +1,76 @@
+package qub;
+
+/**
+ * A source folder together with the module that contains it. This is what an
+ * IntellijSourceFolderTrie returns when it finds the source folder that owns a file.
+ */
+public class IntellijSourceFolderOwner
+{
+    private final IntellijModule module;
+    private final Path moduleFolderPath;
+    private final IntellijSourceFolder sourceFolder;
+    private final Path sourceFolderPath;
+
+    private IntellijSourceFolderOwner(IntellijModule module, Path moduleFolderPath, IntellijSourceFolder sourceFolder, Path sourceFolderPath)
+    {
+        PreCondition.assertNotNull(module, "module");
+        PreCondition.assertNotNull(moduleFolderPath, "moduleFolderPath");
+        PreCondition.assertNotNull(sourceFolder, "sourceFolder");
+        PreCondition.assertNotNull(sourceFolderPath, "sourceFolderPath");
+
+        this.module = module;
+        this.moduleFolderPath = moduleFolderPath;
+        this.sourceFolder = sourceFolder;
+        this.sourceFolderPath = sourceFolderPath;
+    }
+
+    static IntellijSourceFolderOwner create(IntellijModule module, Path moduleFolderPath, IntellijSourceFolder sourceFolder, Path sourceFolderPath)
+    {
+        return new IntellijSourceFolderOwner(module, moduleFolderPath, sourceFolder, sourceFolderPath);
+    }
+
+    /**
+     * Get the module that contains the source folder.
+     * @return The module that contains the source folder.
+     */
+    public IntellijModule getModule()
+    {
+        return this.module;
+    }
+
+    /**
+     * Get the path of the folder that contains the module's .iml file.
+     * @return The path of the folder that contains the module's .iml file.
+     */
+    public Path getModuleFolderPath()
+    {
+        return this.moduleFolderPath;
+    }
+
+    /**
+     * Get the source folder.
+     * @return The source folder.
+     */
+    public IntellijSourceFolder getSourceFolder()
+    {
+        return this.sourceFolder;
+    }
+
+    /**
+     * Get the filesystem path of the source folder.
+     * @return The filesystem path of the source folder.
+     */
+    public Path getSourceFolderPath()
+    {
+        return this.sourceFolderPath;
+    }
+
+    /**
+     * Get whether the source folder is a test source folder.
+     * @return Whether the source folder is a test source folder.
+     */
+    public boolean getIsTestSource()
+    {
+        return this.sourceFolder.getIsTestSource();
+    }
+}
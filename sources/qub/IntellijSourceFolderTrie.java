@@ -0,0 +1,178 @@
+package qub;
+
+/**
+ * A trie of the source folders in a set of modules, keyed by the segments of each source
+ * folder's filesystem path. It answers which source folder owns a file by walking the file's
+ * path segments once, so the time that a query takes depends on the length of the path and not
+ * on the number of modules or source folders. When a source folder is nested inside another
+ * source folder, the innermost one owns the files inside it.
+ *
+ * Source folders that are added to a module after the module was added to the trie are added to
+ * the trie as well, and a module can be in any number of tries at once. A module doesn't keep
+ * the tries that it is in reachable. Changing or removing a source folder that is already in the trie isn't
+ * tracked, so a module whose source folders change that way should be added to a new trie.
+ */
+public class IntellijSourceFolderTrie
+{
+    private final Node root;
+    private int sourceFolderCount;
+    /**
+     * The actions that this trie added to its modules to hear about new source folders. Modules
+     * only hold weak references to these actions, so this list is what keeps them alive for as
+     * long as this trie is alive.
+     */
+    private final java.util.ArrayList<Action1<IntellijSourceFolder>> sourceFolderAddedActions;
+
+    private static class Node
+    {
+        private java.util.HashMap<String,Node> children;
+        private IntellijSourceFolderOwner owner;
+
+        private Node getOrCreateChild(String segment)
+        {
+            if (this.children == null)
+            {
+                this.children = new java.util.HashMap<>();
+            }
+            return this.children.computeIfAbsent(segment, (String key) -> new Node());
+        }
+
+        private Node getChild(String segment)
+        {
+            return this.children == null ? null : this.children.get(segment);
+        }
+    }
+
+    private IntellijSourceFolderTrie()
+    {
+        this.root = new Node();
+        this.sourceFolderAddedActions = new java.util.ArrayList<>();
+    }
+
+    /**
+     * Create a new empty IntellijSourceFolderTrie.
+     * @return The new IntellijSourceFolderTrie.
+     */
+    public static IntellijSourceFolderTrie create()
+    {
+        return new IntellijSourceFolderTrie();
+    }
+
+    /**
+     * Add the source folders of the provided module to this trie. Source folders that are added
+     * to the module later are added to this trie too. Source folders with urls that aren't
+     * file:// urls are skipped, and if two source folders have the same path, the one that was
+     * added first owns that path.
+     * @param module The module to add.
+     * @param moduleFolderPath The path of the folder that contains the module's .iml file. This
+     *                         is used to expand the $MODULE_DIR$ macro in the source folder urls.
+     * @return This object for method chaining.
+     */
+    public IntellijSourceFolderTrie addModule(IntellijModule module, Path moduleFolderPath)
+    {
+        PreCondition.assertNotNull(module, "module");
+        PreCondition.assertNotNull(moduleFolderPath, "moduleFolderPath");
+
+        final String moduleFolderPathString = moduleFolderPath.toString();
+        for (final IntellijSourceFolder sourceFolder : module.getSourceFolders())
+        {
+            this.addSourceFolder(module, moduleFolderPath, moduleFolderPathString, sourceFolder);
+        }
+        final Action1<IntellijSourceFolder> sourceFolderAddedAction = (IntellijSourceFolder sourceFolder) ->
+        {
+            this.addSourceFolder(module, moduleFolderPath, moduleFolderPathString, sourceFolder);
+        };
+        this.sourceFolderAddedActions.add(sourceFolderAddedAction);
+        module.addOnSourceFolderAdded(sourceFolderAddedAction);
+
+        return this;
+    }
+
+    private void addSourceFolder(IntellijModule module, Path moduleFolderPath, String moduleFolderPathString, IntellijSourceFolder sourceFolder)
+    {
+        final String url = sourceFolder.getUrl();
+        final String sourceFolderPath = Strings.isNullOrEmpty(url)
+            ? null
+            : IntellijUrls.toPath(url, moduleFolderPathString);
+        if (sourceFolderPath != null)
+        {
+            final Node[] node = new Node[] { this.root };
+            IntellijSourceFolderTrie.forEachSegment(sourceFolderPath, (String segment) ->
+            {
+                node[0] = node[0].getOrCreateChild(segment);
+                return true;
+            });
+            if (node[0].owner == null)
+            {
+                node[0].owner = IntellijSourceFolderOwner.create(module, moduleFolderPath, sourceFolder, Path.parse(sourceFolderPath));
+                ++this.sourceFolderCount;
+            }
+        }
+    }
+
+    /**
+     * Get the source folder that owns the file or folder at the provided path. This is the
+     * innermost source folder whose path is the provided path or a parent of it.
+     * @param path The path of the file or folder.
+     * @return The owner of the provided path, or a NotFoundException if no source folder in this
+     * trie contains the path.
+     */
+    public Result<IntellijSourceFolderOwner> getOwner(Path path)
+    {
+        PreCondition.assertNotNull(path, "path");
+
+        return Result.create(() ->
+        {
+            final String pathString = path.toString();
+            final Node[] node = new Node[] { this.root };
+            final IntellijSourceFolderOwner[] result = new IntellijSourceFolderOwner[] { this.root.owner };
+            IntellijSourceFolderTrie.forEachSegment(pathString, (String segment) ->
+            {
+                node[0] = node[0].getChild(segment);
+                if (node[0] != null && node[0].owner != null)
+                {
+                    result[0] = node[0].owner;
+                }
+                return node[0] != null;
+            });
+            if (result[0] == null)
+            {
+                throw new NotFoundException("Could not find a source folder that contains " + Strings.quote(pathString) + ".");
+            }
+            return result[0];
+        });
+    }
+
+    /**
+     * Get the number of source folders in this trie.
+     * @return The number of source folders in this trie.
+     */
+    public int getSourceFolderCount()
+    {
+        return this.sourceFolderCount;
+    }
+
+    /**
+     * Run the provided function on each of the non-empty segments of the provided path, in order,
+     * until the function returns false. Both '/' and '\' separate segments.
+     * @param path The path to split.
+     * @param onSegment The function to run on each segment.
+     */
+    private static void forEachSegment(String path, Func1<String,Boolean> onSegment)
+    {
+        final int length = path.length();
+        int segmentStartIndex = 0;
+        boolean keepGoing = true;
+        for (int i = 0; keepGoing && i <= length; ++i)
+        {
+            if (i == length || path.charAt(i) == '/' || path.charAt(i) == '\\')
+            {
+                if (segmentStartIndex < i)
+                {
+                    keepGoing = onSegment.run(path.substring(segmentStartIndex, i));
+                }
+                segmentStartIndex = i + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package qub;
+
+/**
+ * A pool of url strings that makes sure that equal urls share a single String object. The pool
+ * only holds weak references to its urls, so a url is removed from the pool once nothing else
+ * refers to it.
+ *
+ * A shared pool can be set with setShared(). While one is set, the urls that are added to module
+ * libraries and source folders, and the url attributes of every document that this project's
+ * parse() functions read, are interned in it. No shared pool is set by default.
+ */
+public class IntellijUrlPool
+{
+    private static final String urlAttributeName = "url";
+
+    private static volatile IntellijUrlPool shared;
+
+    private final java.util.WeakHashMap<String,java.lang.ref.WeakReference<String>> urls;
+
+    private IntellijUrlPool()
+    {
+        this.urls = new java.util.WeakHashMap<>();
+    }
+
+    /**
+     * Create a new, empty IntellijUrlPool.
+     * @return The new IntellijUrlPool.
+     */
+    public static IntellijUrlPool create()
+    {
+        return new IntellijUrlPool();
+    }
+
+    /**
+     * Get the shared IntellijUrlPool, or null if no shared pool has been set.
+     * @return The shared IntellijUrlPool.
+     */
+    public static IntellijUrlPool getShared()
+    {
+        return IntellijUrlPool.shared;
+    }
+
+    /**
+     * Set the shared IntellijUrlPool.
+     * @param shared The pool to share, or null to stop interning urls.
+     */
+    public static void setShared(IntellijUrlPool shared)
+    {
+        IntellijUrlPool.shared = shared;
+    }
+
+    /**
+     * Intern the provided url in the shared pool, if one is set.
+     * @param url The url to intern.
+     * @return The shared pool's copy of the url, or the provided url if no shared pool is set.
+     */
+    static String internShared(String url)
+    {
+        final IntellijUrlPool shared = IntellijUrlPool.shared;
+        return shared == null ? url : shared.intern(url);
+    }
+
+    /**
+     * Intern the values of the url attributes of every element in the provided document in the
+     * shared pool, if one is set. This is how documents that weren't read by IntellijXMLReader
+     * have their urls interned.
+     * @param document The document to intern the urls of.
+     * @return The provided document.
+     */
+    static XMLDocument internSharedUrls(XMLDocument document)
+    {
+        PreCondition.assertNotNull(document, "document");
+
+        final IntellijUrlPool shared = IntellijUrlPool.shared;
+        if (shared != null && document.getRoot() != null)
+        {
+            final java.util.ArrayDeque<XMLElement> elements = new java.util.ArrayDeque<>();
+            elements.add(document.getRoot());
+            while (!elements.isEmpty())
+            {
+                final XMLElement element = elements.removeLast();
+                for (final XMLAttribute attribute : element.getAttributes().toList())
+                {
+                    if (IntellijUrlPool.urlAttributeName.equals(attribute.getName()))
+                    {
+                        element.setAttribute(attribute.getName(), shared.intern(attribute.getValue()));
+                    }
+                }
+                for (final XMLElementChild child : element.getChildren())
+                {
+                    if (child instanceof XMLElement)
+                    {
+                        elements.add((XMLElement)child);
+                    }
+                }
+            }
+        }
+
+        return document;
+    }
+
+    /**
+     * Get this pool's copy of the provided url. If this pool doesn't have a copy of the url yet,
+     * then the provided url becomes this pool's copy.
+     * @param url The url to intern.
+     * @return This pool's copy of the provided url, or null if the provided url is null.
+     */
+    public synchronized String intern(String url)
+    {
+        String result = null;
+        if (url != null)
+        {
+            final java.lang.ref.WeakReference<String> reference = this.urls.get(url);
+            if (reference != null)
+            {
+                result = reference.get();
+            }
+            if (result == null)
+            {
+                result = url;
+                this.urls.put(url, new java.lang.ref.WeakReference<>(url));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of urls in this pool. Urls that are no longer referred to anywhere else may
+     * still be counted until the garbage collector clears them.
+     * @return The number of urls in this pool.
+     */
+    public synchronized int getCount()
+    {
+        return this.urls.size();
+    }
+}
@@ -0,0 +1,64 @@
+package qub;
+
+/**
+ * Functions for converting the urls that Intellij writes into .iml files into filesystem paths.
+ */
+interface IntellijUrls
+{
+    String moduleDirMacro = "$MODULE_DIR$";
+    String fileUrlPrefix = "file://";
+    String jarUrlPrefix = "jar://";
+    String jarEntrySeparator = "!/";
+
+    /**
+     * Get the filesystem path that the provided file:// or jar:// url refers to. The
+     * $MODULE_DIR$ macro is replaced with the provided module folder path, and the entry path
+     * after a jar url's "!/" separator is dropped so that a jar url resolves to the jar file.
+     * @param url The url to convert.
+     * @param moduleFolderPath The path of the folder that contains the module's .iml file.
+     * @return The filesystem path that the url refers to, or null if the url isn't a file:// or
+     * jar:// url.
+     */
+    static String toPath(String url, String moduleFolderPath)
+    {
+        PreCondition.assertNotNullAndNotEmpty(url, "url");
+        PreCondition.assertNotNullAndNotEmpty(moduleFolderPath, "moduleFolderPath");
+
+        String result = null;
+        if (url.startsWith(IntellijUrls.jarUrlPrefix))
+        {
+            result = url.substring(IntellijUrls.jarUrlPrefix.length());
+            final int separatorIndex = result.indexOf(IntellijUrls.jarEntrySeparator);
+            if (separatorIndex >= 0)
+            {
+                result = result.substring(0, separatorIndex);
+            }
+            else if (result.endsWith("!"))
+            {
+                result = result.substring(0, result.length() - 1);
+            }
+        }
+        else if (url.startsWith(IntellijUrls.fileUrlPrefix))
+        {
+            result = url.substring(IntellijUrls.fileUrlPrefix.length());
+        }
+
+        if (result != null)
+        {
+            if (result.contains(IntellijUrls.moduleDirMacro))
+            {
+                result = result.replace(IntellijUrls.moduleDirMacro, IntellijUrls.trimTrailingSlash(moduleFolderPath));
+            }
+            result = IntellijUrls.trimTrailingSlash(result);
+        }
+
+        return result;
+    }
+
+    static String trimTrailingSlash(String path)
+    {
+        return path.length() > 1 && path.endsWith("/")
+            ? path.substring(0, path.length() - 1)
+            : path;
+    }
+}
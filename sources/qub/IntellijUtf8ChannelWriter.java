@@ -0,0 +1,150 @@
+package qub;
+
+/**
+ * An Appendable that encodes the characters appended to it as UTF-8 and writes the encoded bytes
+ * to a WritableByteChannel. Characters are encoded through a fixed-size byte buffer that is
+ * borrowed from a shared pool, so writing a document takes the same amount of memory no matter
+ * how large the document is. Characters that can't be encoded (such as unpaired surrogates) are
+ * replaced the same way that String.getBytes() replaces them.
+ */
+final class IntellijUtf8ChannelWriter implements Appendable
+{
+    static final int byteBufferLength = 8192;
+    static final int charBufferLength = 1024;
+
+    private static final java.util.concurrent.ConcurrentLinkedQueue<java.nio.ByteBuffer> byteBufferPool = new java.util.concurrent.ConcurrentLinkedQueue<>();
+
+    private final java.nio.channels.WritableByteChannel channel;
+    private final java.nio.charset.CharsetEncoder encoder;
+    private final java.nio.CharBuffer chars;
+    private java.nio.ByteBuffer bytes;
+
+    private IntellijUtf8ChannelWriter(java.nio.channels.WritableByteChannel channel)
+    {
+        PreCondition.assertNotNull(channel, "channel");
+
+        this.channel = channel;
+        this.encoder = java.nio.charset.StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(java.nio.charset.CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(java.nio.charset.CodingErrorAction.REPLACE);
+        this.chars = java.nio.CharBuffer.allocate(IntellijUtf8ChannelWriter.charBufferLength);
+
+        final java.nio.ByteBuffer pooledBytes = IntellijUtf8ChannelWriter.byteBufferPool.poll();
+        this.bytes = pooledBytes != null
+            ? pooledBytes
+            : java.nio.ByteBuffer.allocate(IntellijUtf8ChannelWriter.byteBufferLength);
+    }
+
+    /**
+     * Write the text that the provided action appends to a new IntellijUtf8ChannelWriter to the
+     * provided channel. The channel is not closed.
+     * @param channel The channel to write to.
+     * @param action The action that appends the text to write.
+     */
+    static void write(java.nio.channels.WritableByteChannel channel, Action1<Appendable> action) throws java.io.IOException
+    {
+        PreCondition.assertNotNull(channel, "channel");
+        PreCondition.assertNotNull(action, "action");
+
+        final IntellijUtf8ChannelWriter writer = new IntellijUtf8ChannelWriter(channel);
+        try
+        {
+            action.run(writer);
+            writer.finish();
+        }
+        finally
+        {
+            writer.release();
+        }
+    }
+
+    @Override
+    public Appendable append(CharSequence text) throws java.io.IOException
+    {
+        final CharSequence value = text == null ? "null" : text;
+        return this.append(value, 0, value.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence text, int startIndex, int endIndex) throws java.io.IOException
+    {
+        final CharSequence value = text == null ? "null" : text;
+        int index = startIndex;
+        while (index < endIndex)
+        {
+            if (!this.chars.hasRemaining())
+            {
+                this.encodeChars(false);
+            }
+            final int count = java.lang.Math.min(this.chars.remaining(), endIndex - index);
+            for (int i = 0; i < count; ++i)
+            {
+                this.chars.put(value.charAt(index + i));
+            }
+            index += count;
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws java.io.IOException
+    {
+        if (!this.chars.hasRemaining())
+        {
+            this.encodeChars(false);
+        }
+        this.chars.put(c);
+        return this;
+    }
+
+    /**
+     * Encode the characters that are waiting in the character buffer. A high surrogate at the end
+     * of the buffer is kept until the character that follows it has been appended.
+     * @param endOfInput Whether no more characters will be appended.
+     */
+    private void encodeChars(boolean endOfInput) throws java.io.IOException
+    {
+        this.chars.flip();
+        java.nio.charset.CoderResult result = this.encoder.encode(this.chars, this.bytes, endOfInput);
+        while (result.isOverflow())
+        {
+            this.writeBytes();
+            result = this.encoder.encode(this.chars, this.bytes, endOfInput);
+        }
+        if (result.isError())
+        {
+            result.throwException();
+        }
+        this.chars.compact();
+    }
+
+    private void writeBytes() throws java.io.IOException
+    {
+        this.bytes.flip();
+        while (this.bytes.hasRemaining())
+        {
+            this.channel.write(this.bytes);
+        }
+        this.bytes.clear();
+    }
+
+    private void finish() throws java.io.IOException
+    {
+        this.encodeChars(true);
+        while (this.encoder.flush(this.bytes).isOverflow())
+        {
+            this.writeBytes();
+        }
+        this.writeBytes();
+    }
+
+    private void release()
+    {
+        if (this.bytes != null)
+        {
+            this.bytes.clear();
+            IntellijUtf8ChannelWriter.byteBufferPool.offer(this.bytes);
+            this.bytes = null;
+        }
+    }
+}
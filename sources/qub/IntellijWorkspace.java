@@ -11,12 +11,35 @@ public class IntellijWorkspace extends XMLDocumentWrapperBase
     private final static String componentNameAttributeName = "name";
     private final static String runManagerAttributeValue = "RunManager";
 
-    private IntellijWorkspace(XMLDocument xml)
+    /**
+     * The raw text of the component elements that were skipped when this workspace was parsed,
+     * keyed by the placeholder elements that stand in for them in this workspace's document.
+     */
+    private final java.util.IdentityHashMap<XMLElement,CharSequence> rawComponents;
+    /**
+     * The RunManager component element, or null if it doesn't exist yet.
+     */
+    private XMLElement runManagerElement;
+    /**
+     * The configuration elements under the RunManager component element, grouped by their name
+     * and kept in document order. This is null when the index needs to be rebuilt.
+     */
+    private java.util.HashMap<String,List<XMLElement>> runConfigurationsByName;
+    /**
+     * The configuration elements under the RunManager component element, grouped by the full
+     * name of their main class and kept in document order.
+     */
+    private java.util.HashMap<String,List<XMLElement>> runConfigurationsByMainClassFullName;
+
+    private IntellijWorkspace(XMLDocument xml, java.util.IdentityHashMap<XMLElement,CharSequence> rawComponents)
     {
         super(xml);
 
         PreCondition.assertNotNull(xml.getRoot(), "xml.getRoot()");
         PreCondition.assertEqual(IntellijWorkspace.projectElementName, xml.getRoot().getName(), "xml.getRoot().getName()");
+        PreCondition.assertNotNull(rawComponents, "rawComponents");
+
+        this.rawComponents = rawComponents;
     }
 
     public static IntellijWorkspace create()
@@ -28,7 +51,440 @@ public class IntellijWorkspace extends XMLDocumentWrapperBase
 
     public static IntellijWorkspace create(XMLDocument document)
     {
-        return new IntellijWorkspace(document);
+        return new IntellijWorkspace(document, new java.util.IdentityHashMap<>());
+    }
+
+    public static Result<IntellijWorkspace> parse(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return XML.parse(file)
+            .then((XMLDocument xmlDocument) -> IntellijWorkspace.create(IntellijUrlPool.internSharedUrls(xmlDocument)));
+    }
+
+    public static Result<IntellijWorkspace> parse(String text)
+    {
+        PreCondition.assertNotNull(text, "text");
+
+        return XML.parse(text)
+            .then((XMLDocument xmlDocument) -> IntellijWorkspace.create(IntellijUrlPool.internSharedUrls(xmlDocument)));
+    }
+
+    /**
+     * Parse an IntellijWorkspace from the provided file, but only build elements for the
+     * RunManager component and the components with the provided names. Every other component is
+     * kept as the raw text that it was parsed from and is written back out unchanged when the
+     * workspace is saved.
+     * @param file The file to parse.
+     * @param componentNames The names of the components other than RunManager to build elements
+     *                       for.
+     * @return The parsed IntellijWorkspace.
+     */
+    public static Result<IntellijWorkspace> parse(File file, Iterable<String> componentNames)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(componentNames, "componentNames");
+
+        return file.getContentsAsString()
+            .thenResult((String text) -> IntellijWorkspace.parse(text, componentNames));
+    }
+
+    /**
+     * Parse an IntellijWorkspace from the provided text, but only build elements for the
+     * RunManager component and the components with the provided names. Every other component is
+     * kept as a copy of the range of the provided text that it was parsed from, so the workspace
+     * doesn't keep the rest of the text reachable, and is written back out unchanged when the
+     * workspace is saved. Each skipped component is represented in the
+     * workspace's document by an empty element with the component's attributes until toXml() is
+     * called, which parses the skipped components into full elements.
+     * @param text The text to parse.
+     * @param componentNames The names of the components other than RunManager to build elements
+     *                       for.
+     * @return The parsed IntellijWorkspace.
+     */
+    public static Result<IntellijWorkspace> parse(String text, Iterable<String> componentNames)
+    {
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertNotNull(componentNames, "componentNames");
+
+        return Result.create(() ->
+        {
+            final java.util.HashSet<String> parsedComponentNames = new java.util.HashSet<>();
+            parsedComponentNames.add(IntellijWorkspace.runManagerAttributeValue);
+            for (final String componentName : componentNames)
+            {
+                parsedComponentNames.add(componentName);
+            }
+
+            final java.util.IdentityHashMap<XMLElement,CharSequence> rawComponents = new java.util.IdentityHashMap<>();
+            final XMLDocument document = XMLDocument.create();
+            final IntellijXMLReader reader = IntellijXMLReader.create(text);
+            XMLElement root = null;
+            IntellijXMLReader.Token token = reader.next();
+            while (token != IntellijXMLReader.Token.EndOfDocument)
+            {
+                if (token == IntellijXMLReader.Token.Declaration)
+                {
+                    document.setDeclaration(reader.createDeclaration());
+                }
+                else if (token == IntellijXMLReader.Token.StartElement)
+                {
+                    if (reader.getDepth() == 1)
+                    {
+                        if (root != null)
+                        {
+                            throw new ParseException("A document can only have one root element.");
+                        }
+                        root = reader.createElement();
+                        document.setRoot(root);
+                    }
+                    else if (IntellijWorkspace.componentElementName.equals(reader.getName()) &&
+                             !parsedComponentNames.contains(reader.getAttributeValue(IntellijWorkspace.componentNameAttributeName)))
+                    {
+                        final int startIndex = reader.getTokenStartIndex();
+                        final XMLElement placeholder = XMLElement.create(reader.getName());
+                        for (int i = 0; i < reader.getAttributeCount(); ++i)
+                        {
+                            placeholder.setAttribute(reader.getAttributeName(i), reader.getAttributeValue(i));
+                        }
+                        reader.skipElement();
+                        rawComponents.put(placeholder, text.substring(startIndex, reader.getIndex()));
+                        root.addChild(placeholder);
+                    }
+                    else
+                    {
+                        root.addChild(reader.readElement());
+                    }
+                }
+                else if (token == IntellijXMLReader.Token.Text && reader.getDepth() == 1 && !IntellijXMLReader.isWhitespace(reader.getText()))
+                {
+                    root.addChild(XMLText.create(reader.getText()));
+                }
+
+                token = reader.next();
+            }
+
+            return new IntellijWorkspace(document, rawComponents);
+        });
+    }
+
+    /**
+     * Parse an IntellijWorkspace from the provided characters. The characters are read in place, so a
+     * CharSequence that is backed by a large buffer is never copied into a single String.
+     * @param text The characters to parse.
+     * @return The parsed IntellijWorkspace.
+     */
+    public static Result<IntellijWorkspace> parse(CharSequence text)
+    {
+        PreCondition.assertNotNull(text, "text");
+
+        return Result.create(() -> IntellijWorkspace.create(IntellijXMLReader.create(text).readDocument()));
+    }
+
+    /**
+     * Parse an IntellijWorkspace from the UTF-8 bytes between the provided ByteBuffer's position and
+     * limit. The bytes are decoded a block at a time as they are parsed, so the document's text
+     * is never held in memory all at once.
+     * @param bytes The UTF-8 bytes to parse.
+     * @return The parsed IntellijWorkspace.
+     */
+    public static Result<IntellijWorkspace> parse(java.nio.ByteBuffer bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        return Result.create(() -> IntellijWorkspace.create(IntellijXMLReader.create(bytes).readDocument()));
+    }
+
+    /**
+     * Parse an IntellijWorkspace from the file at the provided path. The file is memory-mapped rather
+     * than read onto the heap, which keeps the memory used by parsing a large file close to the
+     * size of the resulting document. On Windows the file can't be replaced or deleted until the
+     * mapping is garbage collected, so code that keeps watching a file should read it with
+     * parse(java.nio.ByteBuffer) instead.
+     * @param path The path to the file to parse.
+     * @return The parsed IntellijWorkspace.
+     */
+    public static Result<IntellijWorkspace> parse(java.nio.file.Path path)
+    {
+        PreCondition.assertNotNull(path, "path");
+
+        return IntellijFiles.map(path)
+            .thenResult((java.nio.ByteBuffer bytes) -> IntellijWorkspace.parse(bytes));
+    }
+
+    /**
+     * Save this workspace to the provided file if the file's contents are different from this
+     * workspace's contents.
+     * @param file The file to save this workspace to.
+     * @return Whether the file was written.
+     */
+    public Result<Boolean> saveIfChanged(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return IntellijFiles.saveIfChanged((Appendable output) -> IntellijXMLWriter.write(this.getDocument(), XMLFormat.pretty, this.rawComponents::get, output), file);
+    }
+
+    /**
+     * Write this workspace to the provided stream as UTF-8. The output is the same as the bytes
+     * of toString(format), and is written the same way as writeTo(WritableByteChannel,XMLFormat).
+     * The stream is not closed.
+     * @param stream The stream to write this workspace to.
+     * @param format The format to write this workspace with.
+     * @return The result of writing this workspace.
+     */
+    public Result<Void> writeTo(java.io.OutputStream stream, XMLFormat format)
+    {
+        PreCondition.assertNotNull(stream, "stream");
+        PreCondition.assertNotNull(format, "format");
+
+        return this.writeTo(java.nio.channels.Channels.newChannel(stream), format);
+    }
+
+    /**
+     * Write this workspace to the provided channel as UTF-8. The output is the same as the bytes
+     * of toString(format). For XMLFormat.consise and XMLFormat.pretty it is streamed through a
+     * fixed-size buffer instead of being built as one String first, and components that were
+     * skipped when this workspace was parsed are written as the raw text that they were parsed
+     * from. Any other format is written from toString(format). The channel is not closed.
+     * @param channel The channel to write this workspace to.
+     * @param format The format to write this workspace with.
+     * @return The result of writing this workspace.
+     */
+    public Result<Void> writeTo(java.nio.channels.WritableByteChannel channel, XMLFormat format)
+    {
+        PreCondition.assertNotNull(channel, "channel");
+        PreCondition.assertNotNull(format, "format");
+
+        return IntellijXMLWriter.supports(format)
+            ? IntellijXMLWriter.write(this.getDocument(), format, this.rawComponents::get, channel)
+            : IntellijXMLWriter.write(this.toString(format), channel);
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.toString(XMLFormat.consise);
+    }
+
+    /**
+     * Get the text of this workspace in the provided format. For XMLFormat.consise and
+     * XMLFormat.pretty, components that were skipped when this workspace was parsed are written
+     * as the raw text that they were parsed from. Any other format can't reproduce the raw text's
+     * layout, so the skipped components are parsed into full elements first.
+     * @param format The format to write this workspace with.
+     * @return The text of this workspace.
+     */
+    @Override
+    public String toString(XMLFormat format)
+    {
+        PreCondition.assertNotNull(format, "format");
+
+        final String result;
+        if (this.rawComponents.isEmpty())
+        {
+            result = this.getDocument().toString(format);
+        }
+        else if (IntellijXMLWriter.supports(format))
+        {
+            result = IntellijXMLWriter.toString(this.getDocument(), format, this.rawComponents::get);
+        }
+        else
+        {
+            this.materializeRawComponents();
+            result = this.getDocument().toString(format);
+        }
+        return result;
+    }
+
+    /**
+     * Get the XMLDocument that this workspace wraps. The caller may change the returned document
+     * directly, so the workspace's internal index is rebuilt the next time it is needed. Any
+     * components that were skipped when this workspace was parsed are parsed into full elements
+     * first, so the returned document never contains their empty placeholders. After that, the
+     * workspace is written out from its elements instead of from the raw text.
+     * @return The XMLDocument that this workspace wraps.
+     */
+    @Override
+    public XMLDocument toXml()
+    {
+        this.clearIndex();
+        this.materializeRawComponents();
+
+        return this.getDocument();
+    }
+
+    /**
+     * Replace the placeholder element of each component that was skipped when this workspace was
+     * parsed with the element that is parsed from the component's raw text.
+     */
+    private void materializeRawComponents()
+    {
+        if (!this.rawComponents.isEmpty())
+        {
+            final XMLElement root = this.getDocument().getRoot();
+            final List<XMLElementChild> children = List.<XMLElementChild>create().addAll(root.getChildren());
+            final List<XMLElementChild> newChildren = List.create();
+            for (final XMLElementChild child : children)
+            {
+                final CharSequence rawComponent = this.rawComponents.get(child);
+                newChildren.add(rawComponent == null
+                    ? child
+                    : IntellijXMLReader.create(rawComponent).readDocument().getRoot());
+            }
+            root.clearChildren().addChildren(newChildren);
+            this.rawComponents.clear();
+        }
+    }
+
+    /**
+     * Get the XMLDocument that this workspace wraps without invalidating the internal index. This
+     * should only be used by code that keeps the index up to date.
+     * @return The XMLDocument that this workspace wraps.
+     */
+    private XMLDocument getDocument()
+    {
+        return super.toXml();
+    }
+
+    private void clearIndex()
+    {
+        this.runManagerElement = null;
+        this.runConfigurationsByName = null;
+        this.runConfigurationsByMainClassFullName = null;
+    }
+
+    /**
+     * Build the index of the RunManager component element and its configuration elements if it
+     * doesn't already exist.
+     */
+    private void ensureIndexed()
+    {
+        if (this.runConfigurationsByName == null)
+        {
+            this.runConfigurationsByName = new java.util.HashMap<>();
+            this.runConfigurationsByMainClassFullName = new java.util.HashMap<>();
+
+            this.runManagerElement = IntellijXMLElements.getFirstElementChild(
+                this.getDocument().getRoot(),
+                IntellijWorkspace.componentElementName,
+                IntellijWorkspace.componentNameAttributeName,
+                IntellijWorkspace.runManagerAttributeValue);
+            if (this.runManagerElement != null)
+            {
+                for (final XMLElement configurationElement : this.runManagerElement.getElementChildren(IntellijWorkspaceRunConfiguration.configurationElementName))
+                {
+                    final IntellijWorkspaceRunConfiguration runConfiguration = IntellijWorkspaceRunConfiguration.create(configurationElement);
+                    IntellijWorkspace.addToIndex(this.runConfigurationsByName, runConfiguration.getName(), configurationElement);
+                    IntellijWorkspace.addToIndex(this.runConfigurationsByMainClassFullName, runConfiguration.getMainClassFullName(), configurationElement);
+                }
+            }
+        }
+    }
+
+    private static void addToIndex(java.util.HashMap<String,List<XMLElement>> index, String key, XMLElement element)
+    {
+        if (key != null)
+        {
+            index.computeIfAbsent(key, (String k) -> List.create()).add(element);
+        }
+    }
+
+    private static void removeFromIndex(java.util.HashMap<String,List<XMLElement>> index, String key, XMLElement element)
+    {
+        if (key != null)
+        {
+            final List<XMLElement> elements = index.get(key);
+            if (elements != null)
+            {
+                final int count = elements.getCount();
+                for (int i = 0; i < count; ++i)
+                {
+                    if (elements.get(i) == element)
+                    {
+                        elements.removeAt(i);
+                        break;
+                    }
+                }
+                if (!elements.any())
+                {
+                    index.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the configuration elements in the provided index with the provided key. Because the
+     * configuration elements can be changed without going through this workspace, each indexed
+     * element is checked against its current value. If any of them no longer match, the index
+     * is rebuilt.
+     * @param byMainClassFullName Whether to use the main class index instead of the name index.
+     * @param key The name or main class to look up.
+     * @return The matching configuration elements in document order.
+     */
+    private List<XMLElement> getIndexedRunConfigurations(boolean byMainClassFullName, String key)
+    {
+        List<XMLElement> result = null;
+        for (int attempt = 0; result == null; ++attempt)
+        {
+            this.ensureIndexed();
+
+            final List<XMLElement> elements = (byMainClassFullName ? this.runConfigurationsByMainClassFullName : this.runConfigurationsByName).get(key);
+            if (elements == null)
+            {
+                result = List.create();
+            }
+            else
+            {
+                boolean isCurrent = true;
+                for (final XMLElement element : elements)
+                {
+                    final IntellijWorkspaceRunConfiguration runConfiguration = IntellijWorkspaceRunConfiguration.create(element);
+                    if (!key.equals(byMainClassFullName ? runConfiguration.getMainClassFullName() : runConfiguration.getName()))
+                    {
+                        isCurrent = false;
+                        break;
+                    }
+                }
+
+                if (isCurrent || attempt > 0)
+                {
+                    result = List.create(elements);
+                }
+                else
+                {
+                    this.clearIndex();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Create a run configuration that wraps the provided configuration element and that keeps
+     * this workspace's index up to date when its name or main class changes.
+     * @param configurationElement The configuration element to wrap.
+     * @return The run configuration.
+     */
+    private IntellijWorkspaceRunConfiguration createRunConfiguration(XMLElement configurationElement)
+    {
+        return this.trackRunConfiguration(IntellijWorkspaceRunConfiguration.create(configurationElement));
+    }
+
+    private IntellijWorkspaceRunConfiguration trackRunConfiguration(IntellijWorkspaceRunConfiguration runConfiguration)
+    {
+        return runConfiguration.setOnIndexedValueChanged((IntellijWorkspaceRunConfiguration changedRunConfiguration, String previousName, String previousMainClassFullName) ->
+        {
+            if (this.runConfigurationsByName != null)
+            {
+                final XMLElement configurationElement = changedRunConfiguration.toXml();
+                IntellijWorkspace.removeFromIndex(this.runConfigurationsByName, previousName, configurationElement);
+                IntellijWorkspace.removeFromIndex(this.runConfigurationsByMainClassFullName, previousMainClassFullName, configurationElement);
+                IntellijWorkspace.addToIndex(this.runConfigurationsByName, changedRunConfiguration.getName(), configurationElement);
+                IntellijWorkspace.addToIndex(this.runConfigurationsByMainClassFullName, changedRunConfiguration.getMainClassFullName(), configurationElement);
+            }
+        });
     }
 
     /**
@@ -37,7 +493,7 @@ public class IntellijWorkspace extends XMLDocumentWrapperBase
      */
     private XMLElement getProjectElement()
     {
-        return this.toXml().getRoot();
+        return this.getDocument().getRoot();
     }
 
     /**
@@ -47,11 +503,16 @@ public class IntellijWorkspace extends XMLDocumentWrapperBase
      */
     private XMLElement getOrCreateRunManagerComponentElement()
     {
-        return this.getProjectElement()
-            .getFirstOrCreateElementChild(
-                (XMLElement elementChild) -> Comparer.equal(elementChild.getName(), IntellijWorkspace.componentElementName) &&
-                                             Comparer.equal(elementChild.getAttributeValue(IntellijWorkspace.componentNameAttributeName).catchError().await(), IntellijWorkspace.runManagerAttributeValue),
-                () -> XMLElement.create(IntellijWorkspace.componentElementName).setAttribute(IntellijWorkspace.componentNameAttributeName, IntellijWorkspace.runManagerAttributeValue));
+        this.ensureIndexed();
+
+        if (this.runManagerElement == null)
+        {
+            this.runManagerElement = XMLElement.create(IntellijWorkspace.componentElementName)
+                .setAttribute(IntellijWorkspace.componentNameAttributeName, IntellijWorkspace.runManagerAttributeValue);
+            this.getProjectElement().addChild(this.runManagerElement);
+        }
+
+        return this.runManagerElement;
     }
 
     /**
@@ -62,7 +523,41 @@ public class IntellijWorkspace extends XMLDocumentWrapperBase
     {
         return this.getOrCreateRunManagerComponentElement()
             .getElementChildren(IntellijWorkspaceRunConfiguration.configurationElementName)
-            .map(IntellijWorkspaceRunConfiguration::create);
+            .map(this::createRunConfiguration);
+    }
+
+    /**
+     * Get the first run configuration in this workspace.xml document with the provided name.
+     * @param name The name of the run configuration to get.
+     * @return The first run configuration with the provided name.
+     */
+    public Result<IntellijWorkspaceRunConfiguration> getRunConfiguration(String name)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+
+        return Result.create(() ->
+        {
+            final List<XMLElement> configurationElements = this.getIndexedRunConfigurations(false, name);
+            if (!configurationElements.any())
+            {
+                throw new NotFoundException("Could not find a run configuration with the name " + Strings.quote(name) + ".");
+            }
+            return this.createRunConfiguration(configurationElements.get(0));
+        });
+    }
+
+    /**
+     * Get the run configurations in this workspace.xml document that run the main class with the
+     * provided full name.
+     * @param mainClassFullName The full name of the main class.
+     * @return The run configurations that run the main class, in document order.
+     */
+    public Iterable<IntellijWorkspaceRunConfiguration> getRunConfigurationsByMainClass(String mainClassFullName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(mainClassFullName, "mainClassFullName");
+
+        return this.getIndexedRunConfigurations(true, mainClassFullName)
+            .map(this::createRunConfiguration);
     }
 
     /**
@@ -74,8 +569,12 @@ public class IntellijWorkspace extends XMLDocumentWrapperBase
     {
         PreCondition.assertNotNull(runConfiguration, "runConfiguration");
 
+        final XMLElement configurationElement = runConfiguration.toXml();
         this.getOrCreateRunManagerComponentElement()
-            .addChild(runConfiguration.toXml());
+            .addChild(configurationElement);
+        IntellijWorkspace.addToIndex(this.runConfigurationsByName, runConfiguration.getName(), configurationElement);
+        IntellijWorkspace.addToIndex(this.runConfigurationsByMainClassFullName, runConfiguration.getMainClassFullName(), configurationElement);
+        this.trackRunConfiguration(runConfiguration);
 
         return this;
     }
@@ -89,7 +588,114 @@ public class IntellijWorkspace extends XMLDocumentWrapperBase
     {
         PreCondition.assertNotNull(runConfiguration, "runConfiguration");
 
-        return this.getOrCreateRunManagerComponentElement()
-            .removeChild(runConfiguration.toXml());
+        final XMLElement configurationElement = runConfiguration.toXml();
+        final XMLElement runManagerElement = this.getOrCreateRunManagerComponentElement();
+
+        // The removed element is the first one that equals the provided run configuration, which
+        // is also the first one with the provided run configuration's name.
+        XMLElement removedElement = null;
+        final String name = runConfiguration.getName();
+        if (name != null)
+        {
+            for (final XMLElement element : this.getIndexedRunConfigurations(false, name))
+            {
+                if (element.equals(configurationElement))
+                {
+                    removedElement = element;
+                    break;
+                }
+            }
+        }
+        final XMLElement removedElementFinal = removedElement;
+
+        return runManagerElement.removeChild(configurationElement)
+            .then(() ->
+            {
+                if (removedElementFinal != null)
+                {
+                    IntellijWorkspace.removeFromIndex(this.runConfigurationsByName, name, removedElementFinal);
+                    IntellijWorkspace.removeFromIndex(this.runConfigurationsByMainClassFullName, IntellijWorkspaceRunConfiguration.create(removedElementFinal).getMainClassFullName(), removedElementFinal);
+                }
+                else
+                {
+                    this.clearIndex();
+                }
+            });
+    }
+
+    /**
+     * Remove the run configurations that match the provided condition from this workspace.xml's
+     * list of run configurations. The RunManager component's children are rebuilt in a single
+     * pass, so the cost of this is linear in the number of run configurations no matter how many
+     * are removed.
+     * @param condition The condition that determines whether a run configuration is removed.
+     * @return The number of run configurations that were removed.
+     */
+    public int removeRunConfigurations(Func1<IntellijWorkspaceRunConfiguration,Boolean> condition)
+    {
+        PreCondition.assertNotNull(condition, "condition");
+
+        final XMLElement runManagerElement = this.getOrCreateRunManagerComponentElement();
+        final List<XMLElementChild> keptChildren = List.create();
+        int result = 0;
+        for (final XMLElementChild child : runManagerElement.getChildren())
+        {
+            if (child instanceof XMLElement &&
+                IntellijWorkspaceRunConfiguration.configurationElementName.equals(((XMLElement)child).getName()) &&
+                condition.run(IntellijWorkspaceRunConfiguration.create((XMLElement)child)))
+            {
+                ++result;
+            }
+            else
+            {
+                keptChildren.add(child);
+            }
+        }
+
+        if (result > 0)
+        {
+            runManagerElement.clearChildren();
+            runManagerElement.addChildren(keptChildren);
+            this.runConfigurationsByName = null;
+            this.runConfigurationsByMainClassFullName = null;
+        }
+
+        PostCondition.assertGreaterThanOrEqualTo(result, 0, "result");
+
+        return result;
+    }
+
+    /**
+     * Remove the run configurations with any of the provided names from this workspace.xml's list
+     * of run configurations.
+     * @param names The names of the run configurations to remove.
+     * @return The number of run configurations that were removed.
+     */
+    public int removeRunConfigurationsByName(Iterable<String> names)
+    {
+        PreCondition.assertNotNull(names, "names");
+
+        final java.util.HashSet<String> nameSet = new java.util.HashSet<>();
+        for (final String name : names)
+        {
+            nameSet.add(name);
+        }
+
+        return nameSet.isEmpty()
+            ? 0
+            : this.removeRunConfigurations((IntellijWorkspaceRunConfiguration runConfiguration) -> nameSet.contains(runConfiguration.getName()));
+    }
+
+    /**
+     * Remove the run configurations with the provided name from this workspace.xml's list of run
+     * configurations.
+     * @param name The name of the run configurations to remove.
+     * @return The number of run configurations that were removed.
+     */
+    public int removeRunConfigurationsByName(String name)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+
+        return this.removeRunConfigurationsByName(Iterable.create(name));
     }
 }
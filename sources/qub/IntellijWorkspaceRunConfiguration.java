@@ -22,6 +22,13 @@ public class IntellijWorkspaceRunConfiguration extends XMLElementWrapperBase
     private final static String methodVAttributeValue = "2";
     private final static String optionEnabledAttributeName = "enabled";
 
+    /**
+     * The action to run after this run configuration's name or main class changes, or null if
+     * nothing needs to know. The action is given this run configuration and its name and main
+     * class from before the change.
+     */
+    private Action3<IntellijWorkspaceRunConfiguration,String,String> onIndexedValueChanged;
+
     private IntellijWorkspaceRunConfiguration(XMLElement xml)
     {
         super(xml);
@@ -47,15 +54,50 @@ public class IntellijWorkspaceRunConfiguration extends XMLElementWrapperBase
         return new IntellijWorkspaceRunConfiguration(xmlElement);
     }
 
+    /**
+     * Set the action that will be run after this run configuration's name or main class changes.
+     * This is used by the IntellijWorkspace that contains this run configuration to keep its
+     * index up to date.
+     * @param onIndexedValueChanged The action to run, or null to stop notifying.
+     * @return This object for method chaining.
+     */
+    IntellijWorkspaceRunConfiguration setOnIndexedValueChanged(Action3<IntellijWorkspaceRunConfiguration,String,String> onIndexedValueChanged)
+    {
+        this.onIndexedValueChanged = onIndexedValueChanged;
+
+        return this;
+    }
+
+    /**
+     * Run the provided change and then notify the onIndexedValueChanged action, if there is one.
+     * @param change The change to run.
+     * @return This object for method chaining.
+     */
+    private IntellijWorkspaceRunConfiguration changeIndexedValue(Action0 change)
+    {
+        final Action3<IntellijWorkspaceRunConfiguration,String,String> onIndexedValueChanged = this.onIndexedValueChanged;
+        if (onIndexedValueChanged == null)
+        {
+            change.run();
+        }
+        else
+        {
+            final String previousName = this.getName();
+            final String previousMainClassFullName = this.getMainClassFullName();
+            change.run();
+            onIndexedValueChanged.run(this, previousName, previousMainClassFullName);
+        }
+
+        return this;
+    }
+
     /**
      * Get the name of this run configuration.
      * @return The name of this run configuration.
      */
     public String getName()
     {
-        return this.toXml().getAttributeValue(IntellijWorkspaceRunConfiguration.configurationNameAttributeName)
-            .catchError(NotFoundException.class)
-            .await();
+        return IntellijXMLElements.getAttributeValue(this.toXml(), IntellijWorkspaceRunConfiguration.configurationNameAttributeName);
     }
 
     /**
@@ -67,9 +109,8 @@ public class IntellijWorkspaceRunConfiguration extends XMLElementWrapperBase
     {
         PreCondition.assertNotNullAndNotEmpty(name, "name");
 
-        this.toXml().setAttribute(IntellijWorkspaceRunConfiguration.configurationNameAttributeName, name);
-
-        return this;
+        return this.changeIndexedValue(() ->
+            this.toXml().setAttribute(IntellijWorkspaceRunConfiguration.configurationNameAttributeName, name));
     }
 
     /**
@@ -78,9 +119,7 @@ public class IntellijWorkspaceRunConfiguration extends XMLElementWrapperBase
      */
     public String getType()
     {
-        return this.toXml().getAttributeValue(IntellijWorkspaceRunConfiguration.configurationTypeAttributeName)
-            .catchError(NotFoundException.class)
-            .await();
+        return IntellijXMLElements.getAttributeValue(this.toXml(), IntellijWorkspaceRunConfiguration.configurationTypeAttributeName);
     }
 
     /**
@@ -103,9 +142,7 @@ public class IntellijWorkspaceRunConfiguration extends XMLElementWrapperBase
      */
     public String getFactoryName()
     {
-        return this.toXml().getAttributeValue(IntellijWorkspaceRunConfiguration.configurationFactoryNameAttributeName)
-            .catchError(NotFoundException.class)
-            .await();
+        return IntellijXMLElements.getAttributeValue(this.toXml(), IntellijWorkspaceRunConfiguration.configurationFactoryNameAttributeName);
     }
 
     /**
@@ -124,20 +161,19 @@ public class IntellijWorkspaceRunConfiguration extends XMLElementWrapperBase
 
     private XMLElement getOptionElementChild(String attributeName, String attributeValue)
     {
-        return this.toXml().getFirstElementChild(
-            (XMLElement childElement) -> Comparer.equal(childElement.getName(), IntellijWorkspaceRunConfiguration.optionElementName) &&
-                                         Comparer.equal(childElement.getAttributeValue(attributeName).catchError().await(), attributeValue))
-            .catchError(NotFoundException.class)
-            .await();
+        return IntellijXMLElements.getFirstElementChild(this.toXml(), IntellijWorkspaceRunConfiguration.optionElementName, attributeName, attributeValue);
     }
 
     private XMLElement getOrCreateOptionElementChild(String attributeName, String attributeValue)
     {
-        return this.toXml().getFirstOrCreateElementChild(
-            (XMLElement childElement) -> Comparer.equal(childElement.getName(), IntellijWorkspaceRunConfiguration.optionElementName) &&
-                                         Comparer.equal(childElement.getAttributeValue(attributeName).catchError().await(), attributeValue),
-            () -> XMLElement.create(IntellijWorkspaceRunConfiguration.optionElementName)
-                .setAttribute(attributeName, attributeValue));
+        XMLElement result = this.getOptionElementChild(attributeName, attributeValue);
+        if (result == null)
+        {
+            result = XMLElement.create(IntellijWorkspaceRunConfiguration.optionElementName)
+                .setAttribute(attributeName, attributeValue);
+            this.toXml().addChild(result);
+        }
+        return result;
     }
 
     /**
@@ -151,7 +187,7 @@ public class IntellijWorkspaceRunConfiguration extends XMLElementWrapperBase
             IntellijWorkspaceRunConfiguration.mainClassNameAttributeValue);
         return mainClassNameElement == null
             ? null
-            : mainClassNameElement.getAttributeValue(IntellijWorkspaceRunConfiguration.optionValueAttributeName).catchError().await();
+            : IntellijXMLElements.getAttributeValue(mainClassNameElement, IntellijWorkspaceRunConfiguration.optionValueAttributeName);
     }
 
     /**
@@ -163,12 +199,11 @@ public class IntellijWorkspaceRunConfiguration extends XMLElementWrapperBase
     {
         PreCondition.assertNotNullAndNotEmpty(mainClassFullName, "mainClassFullName");
 
-        this.getOrCreateOptionElementChild(
-            IntellijWorkspaceRunConfiguration.optionNameAttributeName,
-            IntellijWorkspaceRunConfiguration.mainClassNameAttributeValue)
-            .setAttribute(IntellijWorkspaceRunConfiguration.optionValueAttributeName, mainClassFullName);
-
-        return this;
+        return this.changeIndexedValue(() ->
+            this.getOrCreateOptionElementChild(
+                IntellijWorkspaceRunConfiguration.optionNameAttributeName,
+                IntellijWorkspaceRunConfiguration.mainClassNameAttributeValue)
+                .setAttribute(IntellijWorkspaceRunConfiguration.optionValueAttributeName, mainClassFullName));
     }
 
     /**
@@ -177,10 +212,10 @@ public class IntellijWorkspaceRunConfiguration extends XMLElementWrapperBase
      */
     public String getModuleName()
     {
-        return this.toXml().getFirstElementChild(IntellijWorkspaceRunConfiguration.moduleElementName)
-            .then((XMLElement moduleElement) -> moduleElement.getAttributeValue(IntellijWorkspaceRunConfiguration.optionNameAttributeName).await())
-            .catchError(NotFoundException.class)
-            .await();
+        final XMLElement moduleElement = IntellijXMLElements.getFirstElementChild(this.toXml(), IntellijWorkspaceRunConfiguration.moduleElementName);
+        return moduleElement == null
+            ? null
+            : IntellijXMLElements.getAttributeValue(moduleElement, IntellijWorkspaceRunConfiguration.optionNameAttributeName);
     }
 
     /**
@@ -211,9 +246,7 @@ public class IntellijWorkspaceRunConfiguration extends XMLElementWrapperBase
             IntellijWorkspaceRunConfiguration.programParametersAttributeValue);
         return programParametersElement == null
             ? null
-            : programParametersElement.getAttributeValue(IntellijWorkspaceRunConfiguration.optionValueAttributeName)
-                .catchError(NotFoundException.class)
-                .await();
+            : IntellijXMLElements.getAttributeValue(programParametersElement, IntellijWorkspaceRunConfiguration.optionValueAttributeName);
     }
 
     /**
@@ -246,9 +279,7 @@ public class IntellijWorkspaceRunConfiguration extends XMLElementWrapperBase
             IntellijWorkspaceRunConfiguration.vmParametersAttributeValue);
         return vmParametersElement == null
             ? null
-            : vmParametersElement.getAttributeValue(IntellijWorkspaceRunConfiguration.optionValueAttributeName)
-                .catchError(NotFoundException.class)
-                .await();
+            : IntellijXMLElements.getAttributeValue(vmParametersElement, IntellijWorkspaceRunConfiguration.optionValueAttributeName);
     }
 
     /**
@@ -0,0 +1,165 @@
+package qub;
+
+/**
+ * Lookup functions for XMLElements that return null instead of a NotFoundException when the
+ * requested attribute or child doesn't exist. The Intellij wrapper types use these on their read
+ * paths so that probing for a missing attribute doesn't allocate a Result or an exception.
+ */
+interface IntellijXMLElements
+{
+    /**
+     * Get the value of the attribute with the provided name on the provided element.
+     * @param element The element to look at.
+     * @param attributeName The name of the attribute to get.
+     * @return The value of the attribute, or null if the element doesn't have the attribute.
+     */
+    static String getAttributeValue(XMLElement element, String attributeName)
+    {
+        PreCondition.assertNotNull(element, "element");
+        PreCondition.assertNotNullAndNotEmpty(attributeName, "attributeName");
+
+        String result = null;
+        for (final XMLAttribute attribute : element.getAttributes())
+        {
+            if (attributeName.equals(attribute.getName()))
+            {
+                result = attribute.getValue();
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the provided element has an attribute with the provided name and value.
+     * @param element The element to look at.
+     * @param attributeName The name of the attribute to check.
+     * @param attributeValue The value that the attribute must have.
+     * @return Whether the element has an attribute with the provided name and value.
+     */
+    static boolean hasAttributeValue(XMLElement element, String attributeName, String attributeValue)
+    {
+        return Comparer.equal(IntellijXMLElements.getAttributeValue(element, attributeName), attributeValue);
+    }
+
+    /**
+     * Get the first child element of the provided element that has the provided name.
+     * @param element The element to look at.
+     * @param childElementName The name of the child element to get.
+     * @return The first child element with the provided name, or null if no such child exists.
+     */
+    static XMLElement getFirstElementChild(XMLElement element, String childElementName)
+    {
+        PreCondition.assertNotNull(element, "element");
+        PreCondition.assertNotNullAndNotEmpty(childElementName, "childElementName");
+
+        XMLElement result = null;
+        for (final XMLElement childElement : element.getElementChildren())
+        {
+            if (childElementName.equals(childElement.getName()))
+            {
+                result = childElement;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the first child element of the provided element that has the provided name and an
+     * attribute with the provided name and value.
+     * @param element The element to look at.
+     * @param childElementName The name of the child element to get.
+     * @param attributeName The name of the attribute that the child element must have.
+     * @param attributeValue The value that the child element's attribute must have.
+     * @return The first matching child element, or null if no such child exists.
+     */
+    static XMLElement getFirstElementChild(XMLElement element, String childElementName, String attributeName, String attributeValue)
+    {
+        PreCondition.assertNotNull(element, "element");
+        PreCondition.assertNotNullAndNotEmpty(childElementName, "childElementName");
+        PreCondition.assertNotNullAndNotEmpty(attributeName, "attributeName");
+
+        XMLElement result = null;
+        for (final XMLElement childElement : element.getElementChildren())
+        {
+            if (childElementName.equals(childElement.getName()) &&
+                IntellijXMLElements.hasAttributeValue(childElement, attributeName, attributeValue))
+            {
+                result = childElement;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Create a deep copy of the provided element. The copy shares no elements with the provided
+     * element, so changes to one won't affect the other.
+     * @param element The element to copy.
+     * @return The copy of the element.
+     */
+    static XMLElement copy(XMLElement element)
+    {
+        PreCondition.assertNotNull(element, "element");
+
+        final XMLElement result = XMLElement.create(element.getName(), element.isSplit());
+        for (final XMLAttribute attribute : element.getAttributes())
+        {
+            result.setAttribute(attribute.getName(), attribute.getValue());
+        }
+        for (final XMLElementChild child : element.getChildren())
+        {
+            if (child instanceof XMLElement)
+            {
+                result.addChild(IntellijXMLElements.copy((XMLElement)child));
+            }
+            else if (child instanceof XMLText)
+            {
+                result.addChild(XMLText.create(((XMLText)child).getText()));
+            }
+            else
+            {
+                result.addChild(child);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Create a deep copy of the provided document.
+     * @param document The document to copy.
+     * @return The copy of the document.
+     */
+    static XMLDocument copy(XMLDocument document)
+    {
+        PreCondition.assertNotNull(document, "document");
+
+        final XMLDocument result = XMLDocument.create();
+        final XMLDeclaration declaration = document.getDeclaration();
+        if (declaration != null)
+        {
+            final XMLDeclaration declarationCopy = XMLDeclaration.create();
+            if (declaration.getVersion() != null)
+            {
+                declarationCopy.setVersion(declaration.getVersion());
+            }
+            if (declaration.getEncoding() != null)
+            {
+                declarationCopy.setEncoding(declaration.getEncoding());
+            }
+            if (declaration.getStandalone() != null)
+            {
+                declarationCopy.setStandalone(declaration.getStandalone());
+            }
+            result.setDeclaration(declarationCopy);
+        }
+        if (document.getRoot() != null)
+        {
+            result.setRoot(IntellijXMLElements.copy(document.getRoot()));
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,972 @@
+package qub;
+
+/**
+ * A minimal pull-style XML reader that hands out one token at a time instead of building an
+ * XMLDocument. Only the names of the currently open elements are kept, so the memory that this
+ * reader uses grows with the depth of the current element rather than with the size of the
+ * document.
+ */
+class IntellijXMLReader
+{
+    /**
+     * The different kinds of tokens that an IntellijXMLReader can return.
+     */
+    enum Token
+    {
+        Declaration,
+        StartElement,
+        EndElement,
+        Text,
+        EndOfDocument
+    }
+
+    private static final int bufferLength = 8192;
+    private static final char byteOrderMark = '\uFEFF';
+    private static final String urlAttributeName = "url";
+
+    private final java.io.Reader reader;
+    private final char[] buffer;
+    private int bufferCount;
+    private int bufferIndex;
+    private boolean hasRead;
+    private int index;
+    private int tokenStartIndex;
+    private final StringBuilder builder;
+
+    private String[] elementNames;
+    private int depth;
+    private boolean pendingEndElement;
+
+    private Token current;
+    private String name;
+    private String text;
+    private String[] attributeNames;
+    private String[] attributeValues;
+    private int attributeCount;
+
+    private IntellijXMLReader(java.io.Reader reader)
+    {
+        PreCondition.assertNotNull(reader, "reader");
+
+        this.reader = reader;
+        this.buffer = new char[IntellijXMLReader.bufferLength];
+        this.builder = new StringBuilder();
+        this.elementNames = new String[8];
+        this.attributeNames = new String[4];
+        this.attributeValues = new String[4];
+    }
+
+    static IntellijXMLReader create(java.io.Reader reader)
+    {
+        return new IntellijXMLReader(reader);
+    }
+
+    static IntellijXMLReader create(String text)
+    {
+        PreCondition.assertNotNull(text, "text");
+
+        return IntellijXMLReader.create(new java.io.StringReader(text));
+    }
+
+    /**
+     * Create a new IntellijXMLReader that reads the characters of the provided CharSequence
+     * without copying them.
+     * @param text The text to read.
+     * @return The new IntellijXMLReader.
+     */
+    static IntellijXMLReader create(CharSequence text)
+    {
+        PreCondition.assertNotNull(text, "text");
+
+        return IntellijXMLReader.create(new java.io.Reader()
+        {
+            private int index;
+
+            @Override
+            public int read(char[] outputCharacters, int startIndex, int length)
+            {
+                int result = -1;
+                final int textLength = text.length();
+                if (this.index < textLength)
+                {
+                    result = Math.min(length, textLength - this.index);
+                    for (int i = 0; i < result; ++i)
+                    {
+                        outputCharacters[startIndex + i] = text.charAt(this.index + i);
+                    }
+                    this.index += result;
+                }
+                return result;
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        });
+    }
+
+    /**
+     * Create a new IntellijXMLReader that decodes the UTF-8 bytes between the provided
+     * ByteBuffer's position and limit as they are needed. The provided ByteBuffer's position is
+     * not changed.
+     * @param bytes The UTF-8 bytes to read.
+     * @return The new IntellijXMLReader.
+     */
+    static IntellijXMLReader create(java.nio.ByteBuffer bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        final java.nio.ByteBuffer input = bytes.duplicate();
+        final java.nio.charset.CharsetDecoder decoder = java.nio.charset.StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(java.nio.charset.CodingErrorAction.REPORT)
+            .onUnmappableCharacter(java.nio.charset.CodingErrorAction.REPORT);
+        return IntellijXMLReader.create(new java.io.Reader()
+        {
+            /**
+             * Whether all of the input has been decoded and the decoder has been flushed. A
+             * flushed decoder can't decode again, so every read after this returns -1.
+             */
+            private boolean flushed;
+
+            @Override
+            public int read(char[] outputCharacters, int startIndex, int length) throws java.io.IOException
+            {
+                int result = -1;
+                if (!this.flushed)
+                {
+                    final java.nio.CharBuffer output = java.nio.CharBuffer.wrap(outputCharacters, startIndex, length);
+                    final java.nio.charset.CoderResult decodeResult = decoder.decode(input, output, true);
+                    if (decodeResult.isError())
+                    {
+                        decodeResult.throwException();
+                    }
+                    if (decodeResult.isUnderflow())
+                    {
+                        // Underflow with endOfInput set means that all of the input has been
+                        // decoded. The decoder may still need to be flushed again if the output
+                        // doesn't have room for what it is holding on to.
+                        this.flushed = decoder.flush(output).isUnderflow();
+                    }
+
+                    result = output.position() - startIndex;
+                    if (result == 0 && this.flushed)
+                    {
+                        result = -1;
+                    }
+                }
+                return result;
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        });
+    }
+
+    /**
+     * Create a new IntellijXMLReader that decodes the UTF-8 bytes of the provided ByteReadStream
+     * as they are needed.
+     * @param byteReadStream The stream of UTF-8 bytes to read.
+     * @return The new IntellijXMLReader.
+     */
+    static IntellijXMLReader create(ByteReadStream byteReadStream)
+    {
+        PreCondition.assertNotNull(byteReadStream, "byteReadStream");
+
+        final java.io.InputStream inputStream = new java.io.InputStream()
+        {
+            @Override
+            public int read()
+            {
+                final Byte result = byteReadStream.readByte()
+                    .catchError(EndOfStreamException.class)
+                    .await();
+                return result == null ? -1 : (result & 0xFF);
+            }
+
+            @Override
+            public int read(byte[] outputBytes, int startIndex, int length)
+            {
+                final Integer result = byteReadStream.readBytes(outputBytes, startIndex, length)
+                    .catchError(EndOfStreamException.class)
+                    .await();
+                return result == null || result <= 0 ? -1 : result;
+            }
+        };
+        return IntellijXMLReader.create(new java.io.InputStreamReader(inputStream, java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the token that this reader is currently pointing at, or null if next() hasn't been
+     * called yet.
+     * @return The token that this reader is currently pointing at.
+     */
+    Token getCurrent()
+    {
+        return this.current;
+    }
+
+    /**
+     * Get the name of the current start or end element.
+     * @return The name of the current start or end element.
+     */
+    String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Get the decoded text of the current text token.
+     * @return The decoded text of the current text token.
+     */
+    String getText()
+    {
+        return this.text;
+    }
+
+    /**
+     * Get the number of characters that this reader has read so far.
+     * @return The number of characters that this reader has read so far.
+     */
+    int getIndex()
+    {
+        return this.index;
+    }
+
+    /**
+     * Get the index of the first character of the current token.
+     * @return The index of the first character of the current token.
+     */
+    int getTokenStartIndex()
+    {
+        return this.tokenStartIndex;
+    }
+
+    /**
+     * Get the number of elements that are currently open. A start element counts itself and an
+     * end element does not.
+     * @return The number of elements that are currently open.
+     */
+    int getDepth()
+    {
+        return this.depth;
+    }
+
+    /**
+     * Get whether the current start element was written as an empty element (&lt;a/&gt;). The
+     * matching end element will still be returned by the next call to next().
+     * @return Whether the current start element was written as an empty element.
+     */
+    boolean isEmptyElement()
+    {
+        return this.pendingEndElement;
+    }
+
+    int getAttributeCount()
+    {
+        return this.attributeCount;
+    }
+
+    String getAttributeName(int index)
+    {
+        PreCondition.assertBetween(0, index, this.attributeCount - 1, "index");
+
+        return this.attributeNames[index];
+    }
+
+    String getAttributeValue(int index)
+    {
+        PreCondition.assertBetween(0, index, this.attributeCount - 1, "index");
+
+        return this.attributeValues[index];
+    }
+
+    /**
+     * Get the value of the attribute on the current start element or declaration with the
+     * provided name, or null if no such attribute exists.
+     * @param attributeName The name of the attribute to look for.
+     * @return The value of the attribute, or null if no such attribute exists.
+     */
+    String getAttributeValue(String attributeName)
+    {
+        String result = null;
+        for (int i = 0; i < this.attributeCount; ++i)
+        {
+            if (this.attributeNames[i].equals(attributeName))
+            {
+                result = this.attributeValues[i];
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Move to the next token in the document. Comments, processing instructions and DOCTYPE
+     * declarations are skipped.
+     * @return The token that this reader now points at.
+     */
+    Token next()
+    {
+        this.name = null;
+        this.text = null;
+        this.attributeCount = 0;
+
+        if (this.pendingEndElement)
+        {
+            this.pendingEndElement = false;
+            this.name = this.popElementName();
+            this.current = Token.EndElement;
+        }
+        else
+        {
+            this.current = null;
+            while (this.current == null)
+            {
+                this.tokenStartIndex = this.index;
+                final int c = this.peek();
+                if (c == -1)
+                {
+                    if (this.depth > 0)
+                    {
+                        throw new ParseException("Missing end tag for element " + Strings.quote(this.elementNames[this.depth - 1]) + ".");
+                    }
+                    this.current = Token.EndOfDocument;
+                }
+                else if (c != '<')
+                {
+                    this.readText();
+                }
+                else
+                {
+                    this.read();
+                    final int afterLeftAngleBracket = this.peek();
+                    if (afterLeftAngleBracket == '?')
+                    {
+                        this.read();
+                        this.readProcessingInstruction();
+                    }
+                    else if (afterLeftAngleBracket == '!')
+                    {
+                        this.read();
+                        this.readExclamationConstruct();
+                    }
+                    else if (afterLeftAngleBracket == '/')
+                    {
+                        this.read();
+                        this.readEndElement();
+                    }
+                    else
+                    {
+                        this.readStartElement();
+                    }
+                }
+            }
+        }
+
+        return this.current;
+    }
+
+    /**
+     * Read the rest of the document into an XMLDocument. Text that is only whitespace is not
+     * added to the document, since it only exists to format the document.
+     * @return The XMLDocument that was read.
+     */
+    XMLDocument readDocument()
+    {
+        final XMLDocument result = XMLDocument.create();
+
+        Token token = this.next();
+        while (token != Token.EndOfDocument)
+        {
+            if (token == Token.Declaration)
+            {
+                result.setDeclaration(this.createDeclaration());
+            }
+            else if (token == Token.StartElement)
+            {
+                if (result.getRoot() != null)
+                {
+                    throw new ParseException("A document can only have one root element.");
+                }
+                result.setRoot(this.readElement());
+            }
+
+            token = this.next();
+        }
+
+        return result;
+    }
+
+    /**
+     * Create an XMLDeclaration from the current declaration token.
+     * @return The XMLDeclaration.
+     */
+    XMLDeclaration createDeclaration()
+    {
+        PreCondition.assertEqual(Token.Declaration, this.current, "this.getCurrent()");
+
+        final XMLDeclaration result = XMLDeclaration.create();
+        final String version = this.getAttributeValue("version");
+        if (version != null)
+        {
+            result.setVersion(version);
+        }
+        final String encoding = this.getAttributeValue("encoding");
+        if (encoding != null)
+        {
+            result.setEncoding(encoding);
+        }
+        final String standalone = this.getAttributeValue("standalone");
+        if (standalone != null)
+        {
+            result.setStandalone(standalone);
+        }
+        return result;
+    }
+
+    /**
+     * Create an XMLElement from the current start element token without reading its children.
+     * The values of url attributes are interned in the shared IntellijUrlPool, if one is set.
+     * @return The XMLElement.
+     */
+    XMLElement createElement()
+    {
+        PreCondition.assertEqual(Token.StartElement, this.current, "this.getCurrent()");
+
+        final XMLElement result = XMLElement.create(this.name, !this.isEmptyElement());
+        for (int i = 0; i < this.attributeCount; ++i)
+        {
+            final String attributeName = this.attributeNames[i];
+            String attributeValue = this.attributeValues[i];
+            if (IntellijXMLReader.urlAttributeName.equals(attributeName))
+            {
+                attributeValue = IntellijUrlPool.internShared(attributeValue);
+            }
+            result.setAttribute(attributeName, attributeValue);
+        }
+        return result;
+    }
+
+    /**
+     * Read the current start element and all of its children into an XMLElement. When this
+     * returns, the reader points at the current element's matching end element. Text that is
+     * only whitespace is not added to the element.
+     * @return The XMLElement that was read.
+     */
+    XMLElement readElement()
+    {
+        final XMLElement result = this.createElement();
+
+        final int startDepth = this.depth;
+        XMLElement[] elements = new XMLElement[8];
+        elements[0] = result;
+        int elementCount = 1;
+        while (elementCount > 0)
+        {
+            final Token token = this.next();
+            if (token == Token.StartElement)
+            {
+                final XMLElement element = this.createElement();
+                elements[elementCount - 1].addChild(element);
+                if (elementCount == elements.length)
+                {
+                    elements = java.util.Arrays.copyOf(elements, elementCount * 2);
+                }
+                elements[elementCount] = element;
+                ++elementCount;
+            }
+            else if (token == Token.EndElement)
+            {
+                --elementCount;
+                elements[elementCount] = null;
+            }
+            else if (token == Token.Text && !IntellijXMLReader.isWhitespace(this.text))
+            {
+                elements[elementCount - 1].addChild(XMLText.create(this.text));
+            }
+        }
+
+        PostCondition.assertEqual(startDepth - 1, this.depth, "this.getDepth()");
+
+        return result;
+    }
+
+    /**
+     * Skip the rest of the current start element, including all of its children, so that the
+     * reader points at the current element's matching end element. The children are skipped by
+     * scanning their characters for the matching end tag, so no names, attribute values or text
+     * are built for them. Only the current element's end tag is checked against its start tag.
+     */
+    void skipElement()
+    {
+        PreCondition.assertEqual(Token.StartElement, this.current, "this.getCurrent()");
+
+        if (this.pendingEndElement)
+        {
+            this.next();
+        }
+        else
+        {
+            this.name = null;
+            this.text = null;
+            this.attributeCount = 0;
+            this.current = null;
+
+            int nestedDepth = 0;
+            while (this.current == null)
+            {
+                if (this.readRequired() == '<')
+                {
+                    final char afterLeftAngleBracket = this.readRequired();
+                    if (afterLeftAngleBracket == '/')
+                    {
+                        if (nestedDepth == 0)
+                        {
+                            this.tokenStartIndex = this.index - 2;
+                            this.readEndElement();
+                        }
+                        else
+                        {
+                            --nestedDepth;
+                            this.skipPast(">");
+                        }
+                    }
+                    else if (afterLeftAngleBracket == '?')
+                    {
+                        this.skipPast("?>");
+                    }
+                    else if (afterLeftAngleBracket == '!')
+                    {
+                        if (this.peek() == '-')
+                        {
+                            this.skipPast("-->");
+                        }
+                        else if (this.peek() == '[')
+                        {
+                            this.skipPast("]]>");
+                        }
+                        else
+                        {
+                            this.skipPast(">");
+                        }
+                    }
+                    else if (!this.skipStartTag(afterLeftAngleBracket))
+                    {
+                        ++nestedDepth;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Skip past the '&gt;' that ends a start tag without building its name or attributes.
+     * @param c The first character after the start tag's '&lt;'.
+     * @return Whether the start tag was an empty element (&lt;a/&gt;).
+     */
+    private boolean skipStartTag(char c)
+    {
+        char previous = '<';
+        while (c != '>')
+        {
+            if (c == '"' || c == '\'')
+            {
+                final char quote = c;
+                do
+                {
+                    c = this.readRequired();
+                }
+                while (c != quote);
+            }
+            previous = c;
+            c = this.readRequired();
+        }
+        return previous == '/';
+    }
+
+    private void readText()
+    {
+        this.builder.setLength(0);
+        int c = this.peek();
+        while (c != -1 && c != '<')
+        {
+            this.read();
+            if (c == '&')
+            {
+                this.readEntity();
+            }
+            else
+            {
+                this.builder.append((char)c);
+            }
+            c = this.peek();
+        }
+
+        if (this.depth > 0)
+        {
+            this.text = this.builder.toString();
+            this.current = Token.Text;
+        }
+        else if (!IntellijXMLReader.isWhitespace(this.builder))
+        {
+            throw new ParseException("Expected only whitespace and elements at the root of the document.");
+        }
+    }
+
+    private void readProcessingInstruction()
+    {
+        final String target = this.readName();
+        if ("xml".equals(target))
+        {
+            this.readAttributes();
+            this.expect('?');
+            this.expect('>');
+            this.name = target;
+            this.current = Token.Declaration;
+        }
+        else
+        {
+            this.skipPast("?>");
+        }
+    }
+
+    private void readExclamationConstruct()
+    {
+        if (this.peek() == '-')
+        {
+            this.expect('-');
+            this.expect('-');
+            this.skipPast("-->");
+        }
+        else if (this.peek() == '[')
+        {
+            for (final char expected : "[CDATA[".toCharArray())
+            {
+                this.expect(expected);
+            }
+            this.builder.setLength(0);
+            while (!IntellijXMLReader.endsWith(this.builder, "]]>"))
+            {
+                this.builder.append(this.readRequired());
+            }
+            this.builder.setLength(this.builder.length() - 3);
+            this.text = this.builder.toString();
+            this.current = Token.Text;
+        }
+        else
+        {
+            this.skipPast(">");
+        }
+    }
+
+    private void readStartElement()
+    {
+        this.name = this.readName();
+        this.readAttributes();
+
+        this.pushElementName(this.name);
+        if (this.peek() == '/')
+        {
+            this.read();
+            this.pendingEndElement = true;
+        }
+        this.expect('>');
+        this.current = Token.StartElement;
+    }
+
+    private void readEndElement()
+    {
+        this.name = this.readName();
+        this.skipWhitespace();
+        this.expect('>');
+
+        if (this.depth == 0 || !this.elementNames[this.depth - 1].equals(this.name))
+        {
+            throw new ParseException("Unexpected end tag for element " + Strings.quote(this.name) + ".");
+        }
+        this.popElementName();
+        this.current = Token.EndElement;
+    }
+
+    private void readAttributes()
+    {
+        this.skipWhitespace();
+        int c = this.peek();
+        while (c != -1 && c != '>' && c != '/' && c != '?')
+        {
+            final String attributeName = this.readName();
+            this.skipWhitespace();
+            this.expect('=');
+            this.skipWhitespace();
+            final char quote = this.readRequired();
+            if (quote != '"' && quote != '\'')
+            {
+                throw new ParseException("Expected attribute value to start with a quote.");
+            }
+            this.builder.setLength(0);
+            char valueCharacter = this.readRequired();
+            while (valueCharacter != quote)
+            {
+                if (valueCharacter == '&')
+                {
+                    this.readEntity();
+                }
+                else
+                {
+                    this.builder.append(valueCharacter);
+                }
+                valueCharacter = this.readRequired();
+            }
+            this.addAttribute(attributeName, this.builder.toString());
+
+            this.skipWhitespace();
+            c = this.peek();
+        }
+    }
+
+    private void addAttribute(String attributeName, String attributeValue)
+    {
+        if (this.attributeCount == this.attributeNames.length)
+        {
+            this.attributeNames = java.util.Arrays.copyOf(this.attributeNames, this.attributeCount * 2);
+            this.attributeValues = java.util.Arrays.copyOf(this.attributeValues, this.attributeCount * 2);
+        }
+        this.attributeNames[this.attributeCount] = attributeName;
+        this.attributeValues[this.attributeCount] = attributeValue;
+        ++this.attributeCount;
+    }
+
+    /**
+     * Read an entity reference (the '&amp;' has already been read) and append its decoded value
+     * to the builder.
+     */
+    private void readEntity()
+    {
+        final int entityStart = this.builder.length();
+        char c = this.readRequired();
+        while (c != ';')
+        {
+            this.builder.append(c);
+            c = this.readRequired();
+        }
+        final String entity = this.builder.substring(entityStart);
+        this.builder.setLength(entityStart);
+
+        switch (entity)
+        {
+            case "amp": this.builder.append('&'); break;
+            case "lt": this.builder.append('<'); break;
+            case "gt": this.builder.append('>'); break;
+            case "quot": this.builder.append('"'); break;
+            case "apos": this.builder.append('\''); break;
+            default:
+                if (entity.startsWith("#x"))
+                {
+                    this.builder.appendCodePoint(IntellijXMLReader.parseCharacterReference(entity, 2, 16));
+                }
+                else if (entity.startsWith("#"))
+                {
+                    this.builder.appendCodePoint(IntellijXMLReader.parseCharacterReference(entity, 1, 10));
+                }
+                else
+                {
+                    throw new ParseException("Unrecognized entity reference: " + Strings.quote("&" + entity + ";"));
+                }
+                break;
+        }
+    }
+
+    /**
+     * Parse the code point of a character reference entity, such as "#x41" or "#65".
+     * @param entity The entity, without its surrounding '&amp;' and ';'.
+     * @param digitsStart The index in the entity where the digits start.
+     * @param radix The radix of the digits.
+     * @return The code point that the entity refers to.
+     */
+    private static int parseCharacterReference(String entity, int digitsStart, int radix)
+    {
+        final int entityLength = entity.length();
+        int result = digitsStart == entityLength ? -1 : 0;
+        for (int i = digitsStart; i < entityLength && result != -1; ++i)
+        {
+            final int digit = Character.digit(entity.charAt(i), radix);
+            result = digit == -1 || result > (Character.MAX_CODE_POINT - digit) / radix
+                ? -1
+                : result * radix + digit;
+        }
+        if (result <= 0 || (Character.MIN_SURROGATE <= result && result <= Character.MAX_SURROGATE))
+        {
+            throw new ParseException("Invalid character reference: " + Strings.quote("&" + entity + ";"));
+        }
+        return result;
+    }
+
+    private String readName()
+    {
+        this.builder.setLength(0);
+        int c = this.peek();
+        while (c != -1 && !IntellijXMLReader.isWhitespace((char)c) && c != '=' && c != '>' && c != '/' && c != '?')
+        {
+            this.builder.append((char)this.read());
+            c = this.peek();
+        }
+        if (this.builder.length() == 0)
+        {
+            throw new ParseException("Expected a name.");
+        }
+        return this.builder.toString();
+    }
+
+    private void skipWhitespace()
+    {
+        int c = this.peek();
+        while (c != -1 && IntellijXMLReader.isWhitespace((char)c))
+        {
+            this.read();
+            c = this.peek();
+        }
+    }
+
+    private void skipPast(String terminator)
+    {
+        int matched = 0;
+        while (matched < terminator.length())
+        {
+            final char c = this.readRequired();
+            if (c == terminator.charAt(matched))
+            {
+                ++matched;
+            }
+            else if (c != terminator.charAt(0))
+            {
+                matched = 0;
+            }
+            else if (!IntellijXMLReader.isRepeated(terminator, c, matched))
+            {
+                // A run of the terminator's first character (such as "]]]>") keeps what has
+                // already been matched.
+                matched = 1;
+            }
+        }
+    }
+
+    private void expect(char expected)
+    {
+        final char c = this.readRequired();
+        if (c != expected)
+        {
+            throw new ParseException("Expected " + Strings.quote(String.valueOf(expected)) + ", but found " + Strings.quote(String.valueOf(c)) + " instead.");
+        }
+    }
+
+    private char readRequired()
+    {
+        final int result = this.read();
+        if (result == -1)
+        {
+            throw new ParseException("Unexpected end of document.");
+        }
+        return (char)result;
+    }
+
+    private void pushElementName(String elementName)
+    {
+        if (this.depth == this.elementNames.length)
+        {
+            this.elementNames = java.util.Arrays.copyOf(this.elementNames, this.depth * 2);
+        }
+        this.elementNames[this.depth] = elementName;
+        ++this.depth;
+    }
+
+    private String popElementName()
+    {
+        --this.depth;
+        final String result = this.elementNames[this.depth];
+        this.elementNames[this.depth] = null;
+        return result;
+    }
+
+    private int peek()
+    {
+        if (this.bufferIndex == this.bufferCount)
+        {
+            this.fillBuffer();
+        }
+        return this.bufferIndex < this.bufferCount ? this.buffer[this.bufferIndex] : -1;
+    }
+
+    private int read()
+    {
+        final int result = this.peek();
+        if (result != -1)
+        {
+            ++this.bufferIndex;
+            ++this.index;
+        }
+        return result;
+    }
+
+    private void fillBuffer()
+    {
+        try
+        {
+            final boolean isFirstRead = !this.hasRead;
+            this.hasRead = true;
+
+            final int charactersRead = this.reader.read(this.buffer, 0, this.buffer.length);
+            this.bufferCount = Math.max(0, charactersRead);
+            this.bufferIndex = 0;
+
+            if (isFirstRead && this.bufferCount > 0 && this.buffer[0] == IntellijXMLReader.byteOrderMark)
+            {
+                this.bufferIndex = 1;
+                this.index = 1;
+            }
+        }
+        catch (java.io.IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static boolean isWhitespace(char c)
+    {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    static boolean isWhitespace(CharSequence text)
+    {
+        boolean result = true;
+        for (int i = 0; result && i < text.length(); ++i)
+        {
+            result = IntellijXMLReader.isWhitespace(text.charAt(i));
+        }
+        return result;
+    }
+
+    private static boolean isRepeated(String text, char c, int count)
+    {
+        boolean result = true;
+        for (int i = 0; result && i < count; ++i)
+        {
+            result = text.charAt(i) == c;
+        }
+        return result;
+    }
+
+    private static boolean endsWith(StringBuilder builder, String suffix)
+    {
+        final int builderLength = builder.length();
+        final int suffixLength = suffix.length();
+        boolean result = builderLength >= suffixLength;
+        for (int i = 0; result && i < suffixLength; ++i)
+        {
+            result = builder.charAt(builderLength - suffixLength + i) == suffix.charAt(i);
+        }
+        return result;
+    }
+}
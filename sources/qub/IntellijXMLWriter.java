@@ -0,0 +1,250 @@
+package qub;
+
+/**
+ * Functions for writing an XMLDocument as text. Elements can be replaced by raw text that is
+ * written verbatim in the element's place, which lets a document hold on to parts that were never
+ * parsed.
+ */
+interface IntellijXMLWriter
+{
+    String prettyNewLine = "\n";
+    String prettySingleIndent = "  ";
+
+    /**
+     * Get whether this writer can write documents in the provided format. Only XMLFormat.consise
+     * and XMLFormat.pretty are supported, because this writer can only reproduce their newline
+     * and indentation exactly. Documents in any other format should be written with
+     * XMLDocument.toString(XMLFormat) instead.
+     * @param format The format to check.
+     * @return Whether this writer can write documents in the provided format.
+     */
+    static boolean supports(XMLFormat format)
+    {
+        return format == XMLFormat.consise || format == XMLFormat.pretty;
+    }
+
+    /**
+     * Write the provided document to the provided output.
+     * @param document The document to write.
+     * @param format The format to write the document with. This must be a supported format.
+     * @param getRawText A function that returns the raw text that should be written in place of
+     *                   an element, or null if the element should be written normally.
+     * @param output The output to write to.
+     */
+    static void write(XMLDocument document, XMLFormat format, Func1<XMLElement,CharSequence> getRawText, Appendable output)
+    {
+        PreCondition.assertNotNull(document, "document");
+        PreCondition.assertTrue(IntellijXMLWriter.supports(format), "IntellijXMLWriter.supports(format)");
+        PreCondition.assertNotNull(getRawText, "getRawText");
+        PreCondition.assertNotNull(output, "output");
+
+        final boolean pretty = (format == XMLFormat.pretty);
+        try
+        {
+            final XMLDeclaration declaration = document.getDeclaration();
+            if (declaration != null)
+            {
+                output.append("<?xml");
+                IntellijXMLWriter.writeAttribute("version", declaration.getVersion(), output);
+                IntellijXMLWriter.writeAttribute("encoding", declaration.getEncoding(), output);
+                IntellijXMLWriter.writeAttribute("standalone", declaration.getStandalone(), output);
+                output.append("?>");
+            }
+
+            final XMLElement root = document.getRoot();
+            if (root != null)
+            {
+                if (declaration != null && pretty)
+                {
+                    output.append(IntellijXMLWriter.prettyNewLine);
+                }
+                IntellijXMLWriter.writeElement(root, pretty, "", getRawText, output);
+            }
+        }
+        catch (java.io.IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Write the provided document to a String.
+     * @param document The document to write.
+     * @param format The format to write the document with. This must be a supported format.
+     * @param getRawText A function that returns the raw text that should be written in place of
+     *                   an element, or null if the element should be written normally.
+     * @return The text of the document.
+     */
+    static String toString(XMLDocument document, XMLFormat format, Func1<XMLElement,CharSequence> getRawText)
+    {
+        final StringBuilder result = new StringBuilder();
+        IntellijXMLWriter.write(document, format, getRawText, result);
+        return result.toString();
+    }
+
+    /**
+     * Write the provided document to the provided channel as UTF-8. The document is encoded
+     * through a fixed-size buffer, so no String of the whole document is ever created.
+     * @param document The document to write.
+     * @param format The format to write the document with. This must be a supported format.
+     * @param getRawText A function that returns the raw text that should be written in place of
+     *                   an element, or null if the element should be written normally.
+     * @param channel The channel to write to. The channel is not closed.
+     * @return The result of writing the document.
+     */
+    static Result<Void> write(XMLDocument document, XMLFormat format, Func1<XMLElement,CharSequence> getRawText, java.nio.channels.WritableByteChannel channel)
+    {
+        PreCondition.assertNotNull(document, "document");
+        PreCondition.assertTrue(IntellijXMLWriter.supports(format), "IntellijXMLWriter.supports(format)");
+        PreCondition.assertNotNull(getRawText, "getRawText");
+        PreCondition.assertNotNull(channel, "channel");
+
+        return Result.create(() ->
+        {
+            try
+            {
+                IntellijUtf8ChannelWriter.write(channel, (Appendable output) ->
+                {
+                    IntellijXMLWriter.write(document, format, getRawText, output);
+                });
+            }
+            catch (java.io.IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Write the provided text to the provided channel as UTF-8. This is used for documents in
+     * formats that this writer doesn't support, which have already been written to a String.
+     * @param text The text to write.
+     * @param channel The channel to write to. The channel is not closed.
+     * @return The result of writing the text.
+     */
+    static Result<Void> write(String text, java.nio.channels.WritableByteChannel channel)
+    {
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertNotNull(channel, "channel");
+
+        return Result.create(() ->
+        {
+            try
+            {
+                final java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap(text.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                while (bytes.hasRemaining())
+                {
+                    channel.write(bytes);
+                }
+            }
+            catch (java.io.IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    static void writeElement(XMLElement element, boolean pretty, String indent, Func1<XMLElement,CharSequence> getRawText, Appendable output) throws java.io.IOException
+    {
+        final CharSequence rawText = getRawText.run(element);
+        if (rawText != null)
+        {
+            output.append(rawText);
+        }
+        else
+        {
+            output.append('<').append(element.getName());
+            for (final XMLAttribute attribute : element.getAttributes())
+            {
+                IntellijXMLWriter.writeAttribute(attribute.getName(), attribute.getValue(), output);
+            }
+
+            final Iterable<XMLElementChild> children = element.getChildren();
+            if (!children.any())
+            {
+                output.append(element.isSplit() ? "></" + element.getName() + ">" : "/>");
+            }
+            else
+            {
+                output.append('>');
+
+                boolean hasText = false;
+                for (final XMLElementChild child : children)
+                {
+                    if (child instanceof XMLText)
+                    {
+                        hasText = true;
+                        break;
+                    }
+                }
+
+                // Elements that contain text are written on a single line so that no whitespace
+                // is added to their text.
+                final boolean prettyChildren = pretty && !hasText;
+                final String childIndent = prettyChildren ? indent + IntellijXMLWriter.prettySingleIndent : indent;
+                for (final XMLElementChild child : children)
+                {
+                    if (prettyChildren)
+                    {
+                        output.append(IntellijXMLWriter.prettyNewLine).append(childIndent);
+                    }
+
+                    if (child instanceof XMLElement)
+                    {
+                        IntellijXMLWriter.writeElement((XMLElement)child, prettyChildren, childIndent, getRawText, output);
+                    }
+                    else if (child instanceof XMLText)
+                    {
+                        IntellijXMLWriter.writeEscaped(((XMLText)child).getText(), false, output);
+                    }
+                    else
+                    {
+                        output.append(child.toString(XMLFormat.consise));
+                    }
+                }
+
+                if (prettyChildren)
+                {
+                    output.append(IntellijXMLWriter.prettyNewLine).append(indent);
+                }
+                output.append("</").append(element.getName()).append('>');
+            }
+        }
+    }
+
+    static void writeAttribute(String name, String value, Appendable output) throws java.io.IOException
+    {
+        if (value != null)
+        {
+            output.append(' ').append(name).append("=\"");
+            IntellijXMLWriter.writeEscaped(value, true, output);
+            output.append('"');
+        }
+    }
+
+    static void writeEscaped(String text, boolean isAttributeValue, Appendable output) throws java.io.IOException
+    {
+        final int length = text.length();
+        for (int i = 0; i < length; ++i)
+        {
+            final char c = text.charAt(i);
+            switch (c)
+            {
+                case '&': output.append("&amp;"); break;
+                case '<': output.append("&lt;"); break;
+                case '>': output.append("&gt;"); break;
+                case '"':
+                    if (isAttributeValue)
+                    {
+                        output.append("&quot;");
+                    }
+                    else
+                    {
+                        output.append(c);
+                    }
+                    break;
+                default: output.append(c); break;
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package qub;
+
+public interface IntellijBinaryCacheTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijBinaryCache.class, () ->
+        {
+            runner.testGroup("create(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijBinaryCache.create(null),
+                        new PreConditionFailure("cacheFolderName cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijBinaryCache.create(""),
+                        new PreConditionFailure("cacheFolderName cannot be empty."));
+                });
+            });
+
+            runner.testGroup("write(XMLDocument,String,long) and read(byte[],String,long)", () ->
+            {
+                final Action1<XMLDocument> roundTripTest = (XMLDocument document) ->
+                {
+                    runner.test("with " + document.toString(XMLFormat.consise), (Test test) ->
+                    {
+                        final byte[] bytes = IntellijBinaryCache.write(document, "a", 10);
+                        test.assertNotNull(bytes);
+                        final XMLDocument result = IntellijBinaryCache.read(bytes, "a", 10).await();
+                        test.assertEqual(document, result);
+                        test.assertEqual(document.toString(XMLFormat.pretty), result.toString(XMLFormat.pretty));
+                    });
+                };
+
+                roundTripTest.run(IntellijModule.create().toXml());
+                roundTripTest.run(IntellijModule.create()
+                    .setOutputUrl("file://$MODULE_DIR$/outputs")
+                    .setExcludeOutput(true)
+                    .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources"))
+                    .setInheritedJdk(true)
+                    .addModuleLibrary(IntellijModuleLibrary.create()
+                        .addClassesUrl("jar://a.jar!/")
+                        .addSourcesUrl("jar://a.sources.jar!/"))
+                    .toXml());
+                roundTripTest.run(IntellijWorkspace.create()
+                    .addRunConfiguration(IntellijWorkspaceRunConfiguration.create()
+                        .setName("a")
+                        .setMainClassFullName("qub.A"))
+                    .toXml());
+                roundTripTest.run(XMLDocument.create()
+                    .setRoot(XMLElement.create("a", true)
+                        .addChild(XMLText.create("h\u00E9llo & <goodbye>"))
+                        .addChild(XMLElement.create("b"))));
+
+                runner.test("with out of date source", (Test test) ->
+                {
+                    final byte[] bytes = IntellijBinaryCache.write(IntellijModule.create().toXml(), "a", 10);
+                    test.assertThrows(() -> IntellijBinaryCache.read(bytes, "b", 10).await(),
+                        new ParseException("The binary cache is out of date."));
+                    test.assertThrows(() -> IntellijBinaryCache.read(bytes, "a", 11).await(),
+                        new ParseException("The binary cache is out of date."));
+                });
+
+                runner.test("with corrupted byte", (Test test) ->
+                {
+                    final byte[] bytes = IntellijBinaryCache.write(IntellijModule.create().toXml(), "a", 10);
+                    bytes[bytes.length / 2] ^= 0x01;
+                    test.assertThrows(() -> IntellijBinaryCache.read(bytes, "a", 10).await(),
+                        new ParseException("The binary cache's checksum doesn't match its contents."));
+                });
+
+                runner.test("with wrong magic bytes", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijBinaryCache.read(new byte[] { 1, 2, 3, 4, 1, 0, 0, 0, 0 }, null, -1).await(),
+                        new ParseException("The binary cache doesn't start with the expected magic bytes."));
+                });
+
+                runner.test("with too few bytes", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijBinaryCache.read(new byte[] { 1, 2 }, null, -1).await(),
+                        new ParseException("The binary cache is too short."));
+                });
+            });
+
+            runner.testGroup("parseModule(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijBinaryCache cache = IntellijBinaryCache.create();
+                    test.assertThrows(() -> cache.parseModule(null),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with non-existing file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/a.iml").await();
+                    final IntellijBinaryCache cache = IntellijBinaryCache.create();
+                    test.assertThrows(() -> cache.parseModule(file).await(),
+                        new FileNotFoundException(file));
+                });
+
+                runner.test("with the same file twice", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/a.iml").await();
+                    final IntellijModule module = IntellijModule.create()
+                        .setOutputUrl("a")
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b"));
+                    file.setContentsAsString(module.toString()).await();
+                    final IntellijBinaryCache cache = IntellijBinaryCache.create();
+
+                    test.assertEqual(module, cache.parseModule(file).await());
+                    final File cacheFile = cache.getCacheFile(file).await();
+                    test.assertEqual("/.intellij-cache/a.iml.bin", cacheFile.getPath().toString());
+                    test.assertTrue(cacheFile.exists().await());
+
+                    final IntellijModule cachedModule = cache.parseModule(file).await();
+                    test.assertEqual(module, cachedModule);
+
+                    cachedModule.setInheritedJdk(true);
+                    test.assertEqual(IntellijModule.create()
+                        .setOutputUrl("a")
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b"))
+                        .setInheritedJdk(true),
+                        cachedModule);
+                });
+
+                runner.test("with a file that changed", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/a.iml").await();
+                    file.setContentsAsString(IntellijModule.create().toString()).await();
+                    final IntellijBinaryCache cache = IntellijBinaryCache.create();
+                    cache.parseModule(file).await();
+
+                    file.setContentsAsString(IntellijModule.create().setOutputUrl("hello").toString()).await();
+                    test.assertEqual(IntellijModule.create().setOutputUrl("hello"), cache.parseModule(file).await());
+                });
+
+                runner.test("with a corrupted cache file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/a.iml").await();
+                    file.setContentsAsString(IntellijModule.create().setOutputUrl("a").toString()).await();
+                    final IntellijBinaryCache cache = IntellijBinaryCache.create();
+                    cache.parseModule(file).await();
+
+                    cache.getCacheFile(file).await().setContentsAsBytes(new byte[] { 1, 2, 3 }).await();
+                    test.assertEqual(IntellijModule.create().setOutputUrl("a"), cache.parseModule(file).await());
+                });
+            });
+
+            runner.testGroup("parseWorkspace(File)", () ->
+            {
+                runner.test("with the same file twice", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/workspace.xml").await();
+                    final IntellijWorkspace workspace = IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"));
+                    file.setContentsAsString(workspace.toString()).await();
+                    final IntellijBinaryCache cache = IntellijBinaryCache.create();
+
+                    test.assertEqual(workspace, cache.parseWorkspace(file).await());
+                    final IntellijWorkspace cachedWorkspace = cache.parseWorkspace(file).await();
+                    test.assertEqual(workspace, cachedWorkspace);
+                    test.assertEqual("a", cachedWorkspace.getRunConfiguration("a").await().getName());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,148 @@
+package qub;
+
+public interface IntellijConcurrentModuleTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijConcurrentModule.class, () ->
+        {
+            runner.testGroup("create(IntellijModule)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijConcurrentModule.create(null),
+                        new PreConditionFailure("module cannot be null."));
+                });
+
+                runner.test("with existing module libraries", (Test test) ->
+                {
+                    final IntellijConcurrentModule module = IntellijConcurrentModule.create(IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a")));
+                    test.assertEqual(1, module.snapshot().getModuleLibraryCount());
+                });
+            });
+
+            runner.testGroup("addModuleLibrary(IntellijModuleLibrary)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijConcurrentModule module = IntellijConcurrentModule.create(IntellijModule.create());
+                    test.assertThrows(() -> module.addModuleLibrary(null),
+                        new PreConditionFailure("moduleLibrary cannot be null."));
+                });
+
+                runner.test("before and after flush()", (Test test) ->
+                {
+                    final IntellijConcurrentModule module = IntellijConcurrentModule.create(IntellijModule.create());
+                    module.addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b"));
+                    module.addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a"));
+                    test.assertEqual(0, module.snapshot().getModuleLibraryCount());
+
+                    test.assertEqual(2, module.flush());
+                    final IntellijModuleSnapshot snapshot = module.snapshot();
+                    test.assertEqual(2, snapshot.getModuleLibraryCount());
+                    test.assertEqual(Iterable.create("b"), snapshot.getModuleLibraryClassesUrls(0));
+                    test.assertEqual(Iterable.create("a"), snapshot.getModuleLibraryClassesUrls(1));
+                    test.assertEqual(
+                        IntellijModule.create()
+                            .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b"))
+                            .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a"))
+                            .toString(),
+                        module.toString());
+                });
+
+                runner.test("from many threads", (Test test) ->
+                {
+                    for (int run = 0; run < 5; ++run)
+                    {
+                        final IntellijConcurrentModule module = IntellijConcurrentModule.create(IntellijModule.create());
+                        final int threadCount = 16;
+                        final int moduleLibrariesPerThread = 50;
+                        final java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newFixedThreadPool(threadCount);
+                        try
+                        {
+                            final java.util.ArrayList<java.util.concurrent.Future<?>> futures = new java.util.ArrayList<>();
+                            for (int i = 0; i < threadCount; ++i)
+                            {
+                                final int threadIndex = i;
+                                futures.add(executor.submit(() ->
+                                {
+                                    for (int j = moduleLibrariesPerThread - 1; j >= 0; --j)
+                                    {
+                                        module.addModuleLibrary(threadIndex, IntellijModuleLibrary.create().addClassesUrl(threadIndex + "-" + j));
+                                    }
+                                }));
+                            }
+                            for (final java.util.concurrent.Future<?> future : futures)
+                            {
+                                future.get();
+                            }
+                        }
+                        catch (Exception e)
+                        {
+                            throw new RuntimeException(e);
+                        }
+                        finally
+                        {
+                            executor.shutdown();
+                        }
+
+                        test.assertEqual(threadCount * moduleLibrariesPerThread, module.flush());
+
+                        // The libraries are grouped by producer, and each producer's libraries
+                        // keep the order that the producer added them in, on every run.
+                        final IntellijModuleSnapshot snapshot = module.snapshot();
+                        int index = 0;
+                        for (int i = 0; i < threadCount; ++i)
+                        {
+                            for (int j = moduleLibrariesPerThread - 1; j >= 0; --j)
+                            {
+                                test.assertEqual(Iterable.create(i + "-" + j), snapshot.getModuleLibraryClassesUrls(index));
+                                ++index;
+                            }
+                        }
+                    }
+                });
+            });
+
+            runner.testGroup("addModuleLibrary(int,IntellijModuleLibrary)", () ->
+            {
+                runner.test("with negative producerIndex", (Test test) ->
+                {
+                    final IntellijConcurrentModule module = IntellijConcurrentModule.create(IntellijModule.create());
+                    test.assertThrows(() -> module.addModuleLibrary(-1, IntellijModuleLibrary.create()),
+                        new PreConditionFailure("producerIndex (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with producers added out of order", (Test test) ->
+                {
+                    final IntellijConcurrentModule module = IntellijConcurrentModule.create(IntellijModule.create());
+                    module.addModuleLibrary(2, IntellijModuleLibrary.create().addClassesUrl("c"));
+                    module.addModuleLibrary(0, IntellijModuleLibrary.create().addClassesUrl("a"));
+                    module.addModuleLibrary(2, IntellijModuleLibrary.create().addClassesUrl("d"));
+                    module.addModuleLibrary(1, IntellijModuleLibrary.create().addClassesUrl("b"));
+
+                    test.assertEqual(4, module.flush());
+                    final IntellijModuleSnapshot snapshot = module.snapshot();
+                    test.assertEqual(Iterable.create("a"), snapshot.getModuleLibraryClassesUrls(0));
+                    test.assertEqual(Iterable.create("b"), snapshot.getModuleLibraryClassesUrls(1));
+                    test.assertEqual(Iterable.create("c"), snapshot.getModuleLibraryClassesUrls(2));
+                    test.assertEqual(Iterable.create("d"), snapshot.getModuleLibraryClassesUrls(3));
+                });
+            });
+
+            runner.test("saveIfChanged(File)", (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final File file = fileSystem.getFile("/a.iml").await();
+                final IntellijConcurrentModule module = IntellijConcurrentModule.create(IntellijModule.create());
+                module.addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a"));
+
+                test.assertTrue(module.saveIfChanged(file).await());
+                test.assertFalse(module.saveIfChanged(file).await());
+                test.assertEqual(1, module.snapshot().getModuleLibraryCount());
+            });
+        });
+    }
+}
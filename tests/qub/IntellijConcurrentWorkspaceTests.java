@@ -0,0 +1,123 @@
+package qub;
+
+public interface IntellijConcurrentWorkspaceTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijConcurrentWorkspace.class, () ->
+        {
+            runner.testGroup("create(IntellijWorkspace)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijConcurrentWorkspace.create(null),
+                        new PreConditionFailure("workspace cannot be null."));
+                });
+
+                runner.test("with existing run configurations", (Test test) ->
+                {
+                    final IntellijConcurrentWorkspace workspace = IntellijConcurrentWorkspace.create(IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("b"))
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a")));
+                    test.assertEqual(Iterable.create("b", "a"), workspace.getRunConfigurationNames());
+                    test.assertTrue(workspace.containsRunConfiguration("a"));
+                    test.assertFalse(workspace.containsRunConfiguration("c"));
+                });
+            });
+
+            runner.testGroup("addRunConfiguration(IntellijWorkspaceRunConfiguration)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijConcurrentWorkspace workspace = IntellijConcurrentWorkspace.create(IntellijWorkspace.create());
+                    test.assertThrows(() -> workspace.addRunConfiguration(null),
+                        new PreConditionFailure("runConfiguration cannot be null."));
+                });
+
+                runner.test("before flush()", (Test test) ->
+                {
+                    final IntellijConcurrentWorkspace workspace = IntellijConcurrentWorkspace.create(IntellijWorkspace.create());
+                    workspace.addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"));
+                    test.assertEqual(Iterable.create(), workspace.getRunConfigurationNames());
+                    test.assertFalse(workspace.containsRunConfiguration("a"));
+                });
+
+                runner.test("after flush()", (Test test) ->
+                {
+                    final IntellijConcurrentWorkspace workspace = IntellijConcurrentWorkspace.create(IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("z")));
+                    workspace.addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("c"));
+                    workspace.addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"));
+                    workspace.addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("b"));
+                    test.assertEqual(3, workspace.flush());
+                    test.assertEqual(Iterable.create("z", "a", "b", "c"), workspace.getRunConfigurationNames());
+                    test.assertTrue(workspace.containsRunConfiguration("a"));
+                    test.assertEqual(0, workspace.flush());
+                });
+
+                runner.test("from many threads", (Test test) ->
+                {
+                    final IntellijConcurrentWorkspace workspace = IntellijConcurrentWorkspace.create(IntellijWorkspace.create());
+                    final int threadCount = 8;
+                    final int runConfigurationsPerThread = 100;
+                    final java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newFixedThreadPool(threadCount);
+                    try
+                    {
+                        final java.util.ArrayList<java.util.concurrent.Future<?>> futures = new java.util.ArrayList<>();
+                        for (int i = 0; i < threadCount; ++i)
+                        {
+                            final int threadIndex = i;
+                            futures.add(executor.submit(() ->
+                            {
+                                for (int j = 0; j < runConfigurationsPerThread; ++j)
+                                {
+                                    workspace.addRunConfiguration(threadIndex, IntellijWorkspaceRunConfiguration.create().setName(String.format("%02d-%03d", threadIndex, j)));
+                                }
+                            }));
+                        }
+                        for (final java.util.concurrent.Future<?> future : futures)
+                        {
+                            future.get();
+                        }
+                    }
+                    catch (Exception e)
+                    {
+                        throw new RuntimeException(e);
+                    }
+                    finally
+                    {
+                        executor.shutdown();
+                    }
+
+                    test.assertEqual(threadCount * runConfigurationsPerThread, workspace.flush());
+                    final List<String> expectedNames = List.create();
+                    for (int i = 0; i < threadCount; ++i)
+                    {
+                        for (int j = 0; j < runConfigurationsPerThread; ++j)
+                        {
+                            expectedNames.add(String.format("%02d-%03d", i, j));
+                        }
+                    }
+                    test.assertEqual(expectedNames, workspace.getRunConfigurationNames());
+                });
+            });
+
+            runner.test("saveIfChanged(File)", (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final File file = fileSystem.getFile("/workspace.xml").await();
+                final IntellijConcurrentWorkspace workspace = IntellijConcurrentWorkspace.create(IntellijWorkspace.create());
+                workspace.addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"));
+
+                test.assertTrue(workspace.saveIfChanged(file).await());
+                test.assertEqual(
+                    IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"))
+                        .toString(XMLFormat.pretty),
+                    file.getContentsAsString().await());
+                test.assertTrue(workspace.containsRunConfiguration("a"));
+            });
+        });
+    }
+}
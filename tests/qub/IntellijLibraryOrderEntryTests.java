@@ -0,0 +1,67 @@
+package qub;
+
+public interface IntellijLibraryOrderEntryTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijLibraryOrderEntry.class, () ->
+        {
+            runner.testGroup("create(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijLibraryOrderEntry.create((String)null),
+                        new PreConditionFailure("name cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijLibraryOrderEntry.create(""),
+                        new PreConditionFailure("name cannot be empty."));
+                });
+
+                runner.test("with name", (Test test) ->
+                {
+                    final IntellijLibraryOrderEntry orderEntry = IntellijLibraryOrderEntry.create("junit");
+                    test.assertEqual("junit", orderEntry.getName());
+                    test.assertEqual("project", orderEntry.getLevel());
+                    test.assertEqual(
+                        XMLElement.create("orderEntry")
+                            .setAttribute("type", "library")
+                            .setAttribute("name", "junit")
+                            .setAttribute("level", "project"),
+                        orderEntry.toXml());
+                });
+            });
+
+            runner.testGroup("create(XMLElement)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijLibraryOrderEntry.create((XMLElement)null),
+                        new PreConditionFailure("xml cannot be null."));
+                });
+
+                runner.test("with module-library orderEntry", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijLibraryOrderEntry.create(IntellijModuleLibrary.create().toXml()),
+                        new PreConditionFailure("xml.getAttributeValue(IntellijLibraryOrderEntry.typeAttributeName).await() (module-library) must be library."));
+                });
+            });
+
+            runner.test("setName(String)", (Test test) ->
+            {
+                final IntellijLibraryOrderEntry orderEntry = IntellijLibraryOrderEntry.create("a");
+                test.assertSame(orderEntry, orderEntry.setName("b"));
+                test.assertEqual("b", orderEntry.getName());
+            });
+
+            runner.test("setLevel(String)", (Test test) ->
+            {
+                final IntellijLibraryOrderEntry orderEntry = IntellijLibraryOrderEntry.create("a");
+                test.assertSame(orderEntry, orderEntry.setLevel("application"));
+                test.assertEqual("application", orderEntry.getLevel());
+            });
+        });
+    }
+}
@@ -0,0 +1,394 @@
+package qub;
+
+public interface IntellijModuleEditScriptTests
+{
+    static IntellijModuleLibrary createLibrary(String classesUrl)
+    {
+        return IntellijModuleLibrary.create().addClassesUrl(classesUrl);
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijModuleEditScript.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final IntellijModuleEditScript script = IntellijModuleEditScript.create();
+                test.assertEqual(0, script.getStepCount());
+                test.assertEqual("<editScript/>", script.toString());
+            });
+
+            runner.testGroup("create(XMLElement)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleEditScript.create((XMLElement)null),
+                        new PreConditionFailure("xml cannot be null."));
+                });
+
+                runner.test("with wrong element name", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleEditScript.create(XMLElement.create("a")),
+                        new PreConditionFailure("xml.getName() (a) must be editScript."));
+                });
+            });
+
+            runner.testGroup("parse(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleEditScript.parse(null),
+                        new PreConditionFailure("text cannot be null."));
+                });
+
+                runner.test("with wrong root element", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleEditScript.parse("<a/>").await(),
+                        new ParseException("Expected the root element to be \"editScript\"."));
+                });
+
+                runner.test("with unrecognized step", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleEditScript.parse("<editScript><spam/></editScript>").await(),
+                        new ParseException("Unrecognized edit script step: \"spam\"."));
+                });
+
+                runner.test("with missing url", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleEditScript.parse("<editScript><setOutputUrl/></editScript>").await(),
+                        new ParseException("The \"setOutputUrl\" step must have a \"url\" attribute."));
+                });
+
+                runner.test("with invalid boolean", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleEditScript.parse("<editScript><setExcludeOutput value=\"maybe\"/></editScript>").await(),
+                        new ParseException("The \"setExcludeOutput\" step's \"value\" attribute must be true or false."));
+                });
+
+                runner.test("with missing module library", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleEditScript.parse("<editScript><removeModuleLibrary/></editScript>").await(),
+                        new ParseException("The \"removeModuleLibrary\" step is missing an element."));
+                });
+
+                runner.test("with text from a recorded script", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create()
+                        .requireModuleLibrary(IntellijModuleEditScriptTests.createLibrary("a"))
+                        .setOutputUrl("file://$MODULE_DIR$/outputs")
+                        .setExcludeOutput(true)
+                        .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources"))
+                        .replaceModuleLibrary(IntellijModuleEditScriptTests.createLibrary("a"), IntellijModuleEditScriptTests.createLibrary("b"));
+                    final IntellijModuleEditScript parsedScript = IntellijModuleEditScript.parse(script.toString()).await();
+                    test.assertEqual(5, parsedScript.getStepCount());
+                    test.assertEqual(script.toString(), parsedScript.toString());
+
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleEditScriptTests.createLibrary("a"));
+                    test.assertTrue(parsedScript.apply(module));
+                    test.assertEqual("file://$MODULE_DIR$/outputs", module.getOutputUrl());
+                    test.assertTrue(module.getExcludeOutput());
+                    test.assertEqual(
+                        Iterable.create(IntellijModuleEditScriptTests.createLibrary("b")),
+                        module.getModuleLibraries());
+                });
+            });
+
+            runner.test("recording copies its arguments", (Test test) ->
+            {
+                final IntellijModuleLibrary moduleLibrary = IntellijModuleEditScriptTests.createLibrary("a");
+                final IntellijModuleEditScript script = IntellijModuleEditScript.create()
+                    .addModuleLibrary(moduleLibrary);
+                moduleLibrary.addClassesUrl("b");
+
+                final IntellijModule module = IntellijModule.create();
+                script.apply(module);
+                test.assertEqual(
+                    Iterable.create(IntellijModuleEditScriptTests.createLibrary("a")),
+                    module.getModuleLibraries());
+            });
+
+            runner.testGroup("apply(IntellijModule)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create();
+                    test.assertThrows(() -> script.apply(null),
+                        new PreConditionFailure("module cannot be null."));
+                });
+
+                runner.test("with empty script", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create();
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertFalse(script.apply(module));
+                    test.assertEqual(IntellijModule.create(), module);
+                });
+
+                runner.test("with output urls", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create()
+                        .setOutputUrl("a")
+                        .setOutputTestUrl("b");
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertTrue(script.apply(module));
+                    test.assertEqual("a", module.getOutputUrl());
+                    test.assertEqual("b", module.getOutputTestUrl());
+                    test.assertFalse(script.apply(module));
+                });
+
+                runner.test("with booleans", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create()
+                        .setExcludeOutput(true)
+                        .setInheritedJdk(true)
+                        .setSourceFolderForTests(false);
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertTrue(script.apply(module));
+                    test.assertTrue(module.getExcludeOutput());
+                    test.assertTrue(module.getInheritedJdk());
+                    test.assertEqual(false, module.getSourceFolderForTests());
+                    test.assertFalse(script.apply(module));
+
+                    final IntellijModuleEditScript undoScript = IntellijModuleEditScript.create()
+                        .setExcludeOutput(false)
+                        .setInheritedJdk(false);
+                    test.assertTrue(undoScript.apply(module));
+                    test.assertFalse(module.getExcludeOutput());
+                    test.assertFalse(module.getInheritedJdk());
+                });
+
+                runner.test("with addSourceFolder()", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create()
+                        .addSourceFolder(IntellijSourceFolder.create("a").setIsTestSource(true));
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertTrue(script.apply(module));
+                    test.assertFalse(script.apply(module));
+                    test.assertEqual(
+                        Iterable.create(IntellijSourceFolder.create("a").setIsTestSource(true)),
+                        module.getSourceFolders());
+                });
+
+                runner.test("with addModuleLibrary()", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create()
+                        .addModuleLibrary(IntellijModuleEditScriptTests.createLibrary("a"));
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertTrue(script.apply(module));
+                    test.assertTrue(script.apply(module));
+                    test.assertEqual(2, module.getModuleLibraries().getCount());
+                });
+
+                runner.test("with addModuleLibraryIfAbsent()", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create()
+                        .addModuleLibraryIfAbsent(IntellijModuleEditScriptTests.createLibrary("a"));
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertTrue(script.apply(module));
+                    test.assertFalse(script.apply(module));
+                    test.assertEqual(
+                        Iterable.create(IntellijModuleEditScriptTests.createLibrary("a")),
+                        module.getModuleLibraries());
+                });
+
+                runner.test("with removeModuleLibrary()", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create()
+                        .removeModuleLibrary(IntellijModuleEditScriptTests.createLibrary("a"));
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleEditScriptTests.createLibrary("a"))
+                        .addModuleLibrary(IntellijModuleEditScriptTests.createLibrary("b"));
+                    test.assertTrue(script.apply(module));
+                    test.assertFalse(script.apply(module));
+                    test.assertEqual(
+                        Iterable.create(IntellijModuleEditScriptTests.createLibrary("b")),
+                        module.getModuleLibraries());
+                });
+
+                runner.test("with removeModuleLibrary() and a differently formatted library", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create()
+                        .removeModuleLibrary(IntellijModuleLibrary.create()
+                            .addClassesUrl("jar://a.jar!/"));
+                    final IntellijModule module = IntellijModule.parse(
+                        "<module type=\"JAVA_MODULE\" version=\"4\">\n" +
+                        "  <component name=\"NewModuleRootManager\">\n" +
+                        "    <orderEntry type=\"module-library\">\n" +
+                        "      <library>\n" +
+                        "        <CLASSES>\n" +
+                        "          <root url=\"jar://a.jar!/\" />\n" +
+                        "        </CLASSES>\n" +
+                        "      </library>\n" +
+                        "    </orderEntry>\n" +
+                        "    <orderEntry type=\"module-library\"><library><CLASSES><root url=\"jar://b.jar!/\"/></CLASSES></library></orderEntry>\n" +
+                        "  </component>\n" +
+                        "</module>").await();
+                    test.assertTrue(script.apply(module));
+                    test.assertFalse(script.apply(module));
+                    test.assertEqual(1, module.getModuleLibraries().getCount());
+                    test.assertEqual(
+                        Iterable.create("jar://b.jar!/"),
+                        module.getModuleLibraries().first().await().getClassesUrls());
+                });
+
+                runner.test("with replaceModuleLibrary()", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create()
+                        .replaceModuleLibrary(
+                            IntellijModuleEditScriptTests.createLibrary("xml-java-49.jar"),
+                            IntellijModuleEditScriptTests.createLibrary("xml-java-50.jar"));
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleEditScriptTests.createLibrary("a"))
+                        .addModuleLibrary(IntellijModuleEditScriptTests.createLibrary("xml-java-49.jar"))
+                        .addModuleLibrary(IntellijModuleEditScriptTests.createLibrary("b"));
+                    test.assertTrue(script.apply(module));
+                    test.assertFalse(script.apply(module));
+                    test.assertEqual(
+                        Iterable.create(
+                            IntellijModuleEditScriptTests.createLibrary("a"),
+                            IntellijModuleEditScriptTests.createLibrary("xml-java-50.jar"),
+                            IntellijModuleEditScriptTests.createLibrary("b")),
+                        module.getModuleLibraries());
+                });
+
+                runner.test("with unmet condition", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create()
+                        .requireModuleLibrary(IntellijModuleEditScriptTests.createLibrary("a"))
+                        .setOutputUrl("b");
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertFalse(script.isApplicable(module));
+                    test.assertFalse(script.apply(module));
+                    test.assertNull(module.getOutputUrl());
+                });
+
+                runner.test("with requireNoModuleLibrary()", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create()
+                        .requireNoModuleLibrary(IntellijModuleEditScriptTests.createLibrary("a"))
+                        .setOutputUrl("b");
+                    test.assertTrue(script.isApplicable(IntellijModule.create()));
+                    test.assertFalse(script.isApplicable(IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleEditScriptTests.createLibrary("a"))));
+                });
+            });
+
+            runner.testGroup("applyAll(java.util.Map<String,IntellijModule>,java.util.concurrent.Executor)", () ->
+            {
+                runner.test("with null modulesByName", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create();
+                    test.assertThrows(() -> script.applyAll(null, Runnable::run),
+                        new PreConditionFailure("modulesByName cannot be null."));
+                });
+
+                runner.test("with null executor", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create();
+                    test.assertThrows(() -> script.applyAll(new java.util.LinkedHashMap<>(), null),
+                        new PreConditionFailure("executor cannot be null."));
+                });
+
+                runner.test("with invalid script", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create(
+                        XMLElement.create("editScript").addChild(XMLElement.create("spam")));
+                    test.assertThrows(() -> script.applyAll(new java.util.LinkedHashMap<>(), Runnable::run).await(),
+                        new ParseException("Unrecognized edit script step: \"spam\"."));
+                });
+
+                runner.test("with modules", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create()
+                        .requireModuleLibrary(IntellijModuleEditScriptTests.createLibrary("a"))
+                        .setOutputUrl("out");
+                    final java.util.LinkedHashMap<String,IntellijModule> modules = new java.util.LinkedHashMap<>();
+                    modules.put("changed", IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleEditScriptTests.createLibrary("a")));
+                    modules.put("skipped", IntellijModule.create());
+                    modules.put("unchanged", IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleEditScriptTests.createLibrary("a"))
+                        .setOutputUrl("out"));
+
+                    final IntellijModuleEditSummary summary = script.applyAll(modules, Runnable::run).await();
+                    test.assertEqual(Iterable.create("changed"), summary.getChangedModuleNames());
+                    test.assertEqual(Iterable.create("unchanged"), summary.getUnchangedModuleNames());
+                    test.assertEqual(Iterable.create("skipped"), summary.getSkippedModuleNames());
+                    test.assertEqual(Iterable.create(), summary.getFailedModuleNames());
+                    test.assertThrows(() -> summary.getError("changed").await(),
+                        new NotFoundException("No error was thrown for the module \"changed\"."));
+                    test.assertEqual("out", modules.get("changed").getOutputUrl());
+                    test.assertNull(modules.get("skipped").getOutputUrl());
+                });
+
+                runner.test("with executor that rejects tasks", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create()
+                        .setOutputUrl("out");
+                    final java.util.LinkedHashMap<String,IntellijModule> modules = new java.util.LinkedHashMap<>();
+                    modules.put("accepted", IntellijModule.create());
+                    modules.put("rejected", IntellijModule.create());
+
+                    final java.util.concurrent.RejectedExecutionException rejectedError = new java.util.concurrent.RejectedExecutionException("rejected");
+                    final int[] taskCount = new int[1];
+                    final java.util.concurrent.Executor executor = (Runnable task) ->
+                    {
+                        if (taskCount[0]++ > 0)
+                        {
+                            throw rejectedError;
+                        }
+                        task.run();
+                    };
+
+                    final IntellijModuleEditSummary summary = script.applyAll(modules, executor).await();
+                    test.assertEqual(Iterable.create("accepted"), summary.getChangedModuleNames());
+                    test.assertEqual(Iterable.create("rejected"), summary.getFailedModuleNames());
+                    test.assertSame(rejectedError, summary.getError("rejected").await());
+                    test.assertNull(modules.get("rejected").getOutputUrl());
+                });
+
+                runner.test("with many modules in parallel", (Test test) ->
+                {
+                    final IntellijModuleEditScript script = IntellijModuleEditScript.create()
+                        .replaceModuleLibrary(
+                            IntellijModuleEditScriptTests.createLibrary("xml-java-49.jar"),
+                            IntellijModuleEditScriptTests.createLibrary("xml-java-50.jar"));
+                    final java.util.LinkedHashMap<String,IntellijModule> modules = new java.util.LinkedHashMap<>();
+                    final List<String> expectedChangedModuleNames = List.create();
+                    final List<String> expectedUnchangedModuleNames = List.create();
+                    for (int i = 0; i < 200; ++i)
+                    {
+                        final String moduleName = "module" + i;
+                        final IntellijModule module = IntellijModule.create();
+                        if (i % 2 == 0)
+                        {
+                            module.addModuleLibrary(IntellijModuleEditScriptTests.createLibrary("xml-java-49.jar"));
+                            expectedChangedModuleNames.add(moduleName);
+                        }
+                        else
+                        {
+                            expectedUnchangedModuleNames.add(moduleName);
+                        }
+                        modules.put(moduleName, module);
+                    }
+
+                    final java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newFixedThreadPool(4);
+                    try
+                    {
+                        final IntellijModuleEditSummary summary = script.applyAll(modules, executor).await();
+                        test.assertEqual(expectedChangedModuleNames, summary.getChangedModuleNames());
+                        test.assertEqual(expectedUnchangedModuleNames, summary.getUnchangedModuleNames());
+                        test.assertEqual(
+                            Iterable.create(IntellijModuleEditScriptTests.createLibrary("xml-java-50.jar")),
+                            modules.get("module0").getModuleLibraries());
+                    }
+                    finally
+                    {
+                        executor.shutdown();
+                    }
+                });
+            });
+        });
+    }
+}
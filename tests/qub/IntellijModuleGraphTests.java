@@ -0,0 +1,203 @@
+package qub;
+
+public interface IntellijModuleGraphTests
+{
+    static IntellijModule createModule(String... dependencyNames)
+    {
+        final IntellijModule result = IntellijModule.create();
+        for (final String dependencyName : dependencyNames)
+        {
+            result.addModuleOrderEntry(IntellijModuleOrderEntry.create(dependencyName));
+        }
+        return result;
+    }
+
+    static java.util.BitSet createBitSet(int... indexes)
+    {
+        final java.util.BitSet result = new java.util.BitSet();
+        for (final int index : indexes)
+        {
+            result.set(index);
+        }
+        return result;
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijModuleGraph.class, () ->
+        {
+            runner.testGroup("create(java.util.Map<String,IntellijModule>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleGraph.create(null),
+                        new PreConditionFailure("modulesByName cannot be null."));
+                });
+
+                runner.test("with no modules", (Test test) ->
+                {
+                    final IntellijModuleGraph graph = IntellijModuleGraph.create(new java.util.LinkedHashMap<>());
+                    test.assertEqual(0, graph.getModuleCount());
+                    test.assertEqual(0, graph.getComponentCount());
+                    test.assertEqual(0, graph.getLayerCount());
+                    test.assertEqual(Iterable.create(), graph.getCycles());
+                });
+            });
+
+            runner.testGroup("with acyclic modules", () ->
+            {
+                // d depends on b and c, b and c depend on a, and e depends on a module that isn't
+                // in the graph.
+                final java.util.LinkedHashMap<String,IntellijModule> modules = new java.util.LinkedHashMap<>();
+                modules.put("a", IntellijModuleGraphTests.createModule());
+                modules.put("b", IntellijModuleGraphTests.createModule("a"));
+                modules.put("c", IntellijModuleGraphTests.createModule("a", "a"));
+                modules.put("d", IntellijModuleGraphTests.createModule("b", "c"));
+                modules.put("e", IntellijModuleGraphTests.createModule("unknown"));
+                final IntellijModuleGraph graph = IntellijModuleGraph.create(modules);
+
+                runner.test("getModuleId(String)", (Test test) ->
+                {
+                    test.assertEqual(0, graph.getModuleId("a").await());
+                    test.assertEqual(3, graph.getModuleId("d").await());
+                    test.assertThrows(() -> graph.getModuleId("unknown").await(),
+                        new NotFoundException("Could not find a module with the name \"unknown\"."));
+                });
+
+                runner.test("getModuleName(int)", (Test test) ->
+                {
+                    test.assertEqual("c", graph.getModuleName(2));
+                    test.assertSame(modules.get("c"), graph.getModule(2));
+                    test.assertThrows(() -> graph.getModuleName(5),
+                        new PreConditionFailure("moduleId (5) must be between 0 and 4."));
+                });
+
+                runner.test("getDirectDependencyIds(int)", (Test test) ->
+                {
+                    test.assertEqual(Iterable.create(), graph.getDirectDependencyIds(0));
+                    test.assertEqual(Iterable.create(0), graph.getDirectDependencyIds(2));
+                    test.assertEqual(Iterable.create(1, 2), graph.getDirectDependencyIds(3));
+                    test.assertEqual(Iterable.create(), graph.getDirectDependencyIds(4));
+                });
+
+                runner.test("dependsOn(int,int)", (Test test) ->
+                {
+                    test.assertTrue(graph.dependsOn(3, 0));
+                    test.assertTrue(graph.dependsOn(3, 1));
+                    test.assertTrue(graph.dependsOn(1, 0));
+                    test.assertFalse(graph.dependsOn(0, 3));
+                    test.assertFalse(graph.dependsOn(1, 2));
+                    test.assertFalse(graph.dependsOn(0, 0));
+                    test.assertFalse(graph.dependsOn(4, 0));
+                });
+
+                runner.test("isAffectedBy(int,int)", (Test test) ->
+                {
+                    test.assertTrue(graph.isAffectedBy(0, 0));
+                    test.assertTrue(graph.isAffectedBy(3, 0));
+                    test.assertFalse(graph.isAffectedBy(0, 3));
+                });
+
+                runner.test("getTransitiveDependencyIds(int)", (Test test) ->
+                {
+                    test.assertEqual(IntellijModuleGraphTests.createBitSet(0, 1, 2), graph.getTransitiveDependencyIds(3));
+                    test.assertEqual(IntellijModuleGraphTests.createBitSet(), graph.getTransitiveDependencyIds(0));
+                });
+
+                runner.test("getAffectedModuleIds(int)", (Test test) ->
+                {
+                    test.assertEqual(IntellijModuleGraphTests.createBitSet(0, 1, 2, 3), graph.getAffectedModuleIds(0));
+                    test.assertEqual(IntellijModuleGraphTests.createBitSet(1, 3), graph.getAffectedModuleIds(1));
+                    test.assertEqual(IntellijModuleGraphTests.createBitSet(3), graph.getAffectedModuleIds(3));
+                    test.assertEqual(IntellijModuleGraphTests.createBitSet(4), graph.getAffectedModuleIds(4));
+                });
+
+                runner.test("components", (Test test) ->
+                {
+                    test.assertEqual(5, graph.getComponentCount());
+                    test.assertEqual(Iterable.create(), graph.getCycles());
+                    test.assertTrue(graph.getComponentId(0) < graph.getComponentId(1));
+                    test.assertTrue(graph.getComponentId(2) < graph.getComponentId(3));
+                });
+
+                runner.test("layers", (Test test) ->
+                {
+                    test.assertEqual(3, graph.getLayerCount());
+                    test.assertEqual(0, graph.getLayer(0));
+                    test.assertEqual(1, graph.getLayer(1));
+                    test.assertEqual(2, graph.getLayer(3));
+                    test.assertEqual(Iterable.create(0, 4), graph.getModuleIdsInLayer(0));
+                    test.assertEqual(Iterable.create(1, 2), graph.getModuleIdsInLayer(1));
+                    test.assertEqual(Iterable.create(3), graph.getModuleIdsInLayer(2));
+                    test.assertThrows(() -> graph.getModuleIdsInLayer(3),
+                        new PreConditionFailure("layer (3) must be between 0 and 2."));
+                });
+            });
+
+            runner.testGroup("with cyclic modules", () ->
+            {
+                // a and b depend on each other, c depends on a, d depends on itself, and a depends
+                // on e.
+                final java.util.LinkedHashMap<String,IntellijModule> modules = new java.util.LinkedHashMap<>();
+                modules.put("a", IntellijModuleGraphTests.createModule("b", "e"));
+                modules.put("b", IntellijModuleGraphTests.createModule("a"));
+                modules.put("c", IntellijModuleGraphTests.createModule("a"));
+                modules.put("d", IntellijModuleGraphTests.createModule("d"));
+                modules.put("e", IntellijModuleGraphTests.createModule());
+                final IntellijModuleGraph graph = IntellijModuleGraph.create(modules);
+
+                runner.test("getCycles()", (Test test) ->
+                {
+                    test.assertEqual(4, graph.getComponentCount());
+                    test.assertEqual(graph.getComponentId(0), graph.getComponentId(1));
+                    test.assertEqual(
+                        Iterable.create(Iterable.create("a", "b"), Iterable.create("d")),
+                        graph.getCycles());
+                });
+
+                runner.test("dependsOn(int,int)", (Test test) ->
+                {
+                    test.assertTrue(graph.dependsOn(0, 0));
+                    test.assertTrue(graph.dependsOn(0, 1));
+                    test.assertTrue(graph.dependsOn(1, 0));
+                    test.assertTrue(graph.dependsOn(1, 4));
+                    test.assertTrue(graph.dependsOn(2, 1));
+                    test.assertTrue(graph.dependsOn(3, 3));
+                    test.assertFalse(graph.dependsOn(2, 2));
+                    test.assertFalse(graph.dependsOn(0, 2));
+                });
+
+                runner.test("getAffectedModuleIds(int)", (Test test) ->
+                {
+                    test.assertEqual(IntellijModuleGraphTests.createBitSet(0, 1, 2, 4), graph.getAffectedModuleIds(4));
+                    test.assertEqual(IntellijModuleGraphTests.createBitSet(0, 1, 2), graph.getAffectedModuleIds(1));
+                    test.assertEqual(IntellijModuleGraphTests.createBitSet(3), graph.getAffectedModuleIds(3));
+                });
+
+                runner.test("layers", (Test test) ->
+                {
+                    test.assertEqual(3, graph.getLayerCount());
+                    test.assertEqual(Iterable.create(3, 4), graph.getModuleIdsInLayer(0));
+                    test.assertEqual(Iterable.create(0, 1), graph.getModuleIdsInLayer(1));
+                    test.assertEqual(Iterable.create(2), graph.getModuleIdsInLayer(2));
+                });
+            });
+
+            runner.test("with long dependency chain", (Test test) ->
+            {
+                final int moduleCount = 10000;
+                final java.util.LinkedHashMap<String,IntellijModule> modules = new java.util.LinkedHashMap<>();
+                for (int i = 0; i < moduleCount; ++i)
+                {
+                    modules.put("m" + i, i == moduleCount - 1
+                        ? IntellijModuleGraphTests.createModule()
+                        : IntellijModuleGraphTests.createModule("m" + (i + 1)));
+                }
+                final IntellijModuleGraph graph = IntellijModuleGraph.create(modules);
+                test.assertEqual(moduleCount, graph.getComponentCount());
+                test.assertEqual(moduleCount, graph.getLayerCount());
+                test.assertTrue(graph.dependsOn(0, moduleCount - 1));
+            });
+        });
+    }
+}
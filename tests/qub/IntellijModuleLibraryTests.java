@@ -63,6 +63,50 @@ public interface IntellijModuleLibraryTests
                 });
             });
 
+            runner.testGroup("createView(XMLElement)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleLibrary.createView(null),
+                        new PreConditionFailure("xml cannot be null."));
+                });
+
+                runner.test("with non-orderEntry element", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleLibrary.createView(XMLElement.create("hello")),
+                        new PreConditionFailure("xml.getName() (hello) must be orderEntry."));
+                });
+
+                runner.test("with valid element", (Test test) ->
+                {
+                    final XMLElement xml = XMLElement.create("orderEntry")
+                        .setAttribute("type", "module-library");
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.createView(xml);
+                    test.assertSame(xml, moduleLibrary.toXml());
+                    test.assertEqual(Iterable.create(), moduleLibrary.getClassesUrls());
+                    test.assertEqual(Iterable.create(), moduleLibrary.getSourcesUrls());
+                    test.assertEqual(
+                        XMLElement.create("orderEntry")
+                            .setAttribute("type", "module-library"),
+                        xml);
+                });
+
+                runner.test("with addClassesUrl(String)", (Test test) ->
+                {
+                    final XMLElement xml = XMLElement.create("orderEntry")
+                        .setAttribute("type", "module-library");
+                    IntellijModuleLibrary.createView(xml).addClassesUrl("a");
+                    test.assertEqual(
+                        XMLElement.create("orderEntry")
+                            .setAttribute("type", "module-library")
+                            .addChild(XMLElement.create("library")
+                                .addChild(XMLElement.create("CLASSES")
+                                    .addChild(XMLElement.create("root")
+                                        .setAttribute("url", "a")))),
+                        xml);
+                });
+            });
+
             runner.testGroup("getClassesUrls(XMLElement,Iterable<String>)", () ->
             {
                 final Action2<XMLElement,Iterable<String>> getClassesUrlsTest = (XMLElement xml, Iterable<String> expected) ->
@@ -156,6 +200,119 @@ public interface IntellijModuleLibraryTests
                 addClassesUrlTest.run("jar:///qub/folder/thing");
             });
 
+            runner.testGroup("addClassesUrlIfAbsent(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create();
+                    test.assertThrows(() -> moduleLibrary.addClassesUrlIfAbsent(null),
+                        new PreConditionFailure("classesUrl cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create();
+                    test.assertThrows(() -> moduleLibrary.addClassesUrlIfAbsent(""),
+                        new PreConditionFailure("classesUrl cannot be empty."));
+                });
+
+                runner.test("with new and existing urls", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create()
+                        .addClassesUrl("a");
+                    test.assertSame(moduleLibrary, moduleLibrary.addClassesUrlIfAbsent("a"));
+                    test.assertEqual(Iterable.create("a"), moduleLibrary.getClassesUrls());
+
+                    moduleLibrary.addClassesUrlIfAbsent("b").addClassesUrlIfAbsent("a").addClassesUrlIfAbsent("b");
+                    test.assertEqual(Iterable.create("a", "b"), moduleLibrary.getClassesUrls());
+                    test.assertEqual(Iterable.create(), moduleLibrary.getSourcesUrls());
+                });
+
+                runner.test("after clearClassesUrls()", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create()
+                        .addClassesUrlIfAbsent("a")
+                        .clearClassesUrls()
+                        .addClassesUrlIfAbsent("a");
+                    test.assertEqual(Iterable.create("a"), moduleLibrary.getClassesUrls());
+                });
+
+                runner.test("after clearClassesUrls() and adding the same number of urls", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create()
+                        .addClassesUrlIfAbsent("a")
+                        .clearClassesUrls()
+                        .addClassesUrl("b")
+                        .addClassesUrlIfAbsent("a");
+                    test.assertEqual(Iterable.create("b", "a"), moduleLibrary.getClassesUrls());
+                });
+
+                runner.test("with sources urls added in between", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create()
+                        .addClassesUrlIfAbsent("a")
+                        .addSourcesUrlIfAbsent("a")
+                        .addClassesUrlIfAbsent("b")
+                        .addSourcesUrl("b")
+                        .addClassesUrlIfAbsent("a")
+                        .addSourcesUrlIfAbsent("b");
+                    test.assertEqual(Iterable.create("a", "b"), moduleLibrary.getClassesUrls());
+                    test.assertEqual(Iterable.create("a", "b"), moduleLibrary.getSourcesUrls());
+                });
+
+                runner.test("with url added through another view", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create()
+                        .addClassesUrlIfAbsent("a");
+                    IntellijModuleLibrary.createView(moduleLibrary.toXml()).addClassesUrl("b");
+                    moduleLibrary.addClassesUrlIfAbsent("b");
+                    test.assertEqual(Iterable.create("a", "b"), moduleLibrary.getClassesUrls());
+                });
+            });
+
+            runner.testGroup("addClassesUrls(Iterable<String>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create();
+                    test.assertThrows(() -> moduleLibrary.addClassesUrls(null),
+                        new PreConditionFailure("classesUrls cannot be null."));
+                });
+
+                runner.test("with empty url", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create();
+                    test.assertThrows(() -> moduleLibrary.addClassesUrls(Iterable.create("")),
+                        new PreConditionFailure("classesUrl cannot be empty."));
+                });
+
+                runner.test("with duplicate urls", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create()
+                        .addClassesUrl("a");
+                    test.assertSame(moduleLibrary, moduleLibrary.addClassesUrls(Iterable.create("a", "b", "b")));
+                    test.assertEqual(Iterable.create("a", "a", "b", "b"), moduleLibrary.getClassesUrls());
+                });
+            });
+
+            runner.testGroup("addClassesUrlsIfAbsent(Iterable<String>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create();
+                    test.assertThrows(() -> moduleLibrary.addClassesUrlsIfAbsent(null),
+                        new PreConditionFailure("classesUrls cannot be null."));
+                });
+
+                runner.test("with duplicate urls", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create()
+                        .addClassesUrl("a");
+                    test.assertSame(moduleLibrary, moduleLibrary.addClassesUrlsIfAbsent(Iterable.create("c", "a", "b", "c")));
+                    test.assertEqual(Iterable.create("a", "c", "b"), moduleLibrary.getClassesUrls());
+                });
+            });
+
             runner.testGroup("clearClassesUrls()", () ->
             {
                 final Action2<IntellijModuleLibrary,IntellijModuleLibrary> clearClassesUrlsTest = (IntellijModuleLibrary moduleLibrary, IntellijModuleLibrary expected) ->
@@ -289,6 +446,97 @@ public interface IntellijModuleLibraryTests
                 });
             });
 
+            runner.testGroup("addSourcesUrlIfAbsent(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create();
+                    test.assertThrows(() -> moduleLibrary.addSourcesUrlIfAbsent(null),
+                        new PreConditionFailure("sourcesUrl cannot be null."));
+                });
+
+                runner.test("with new and existing urls", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create()
+                        .addSourcesUrl("a")
+                        .addClassesUrl("b");
+                    moduleLibrary.addSourcesUrlIfAbsent("a").addSourcesUrlIfAbsent("b");
+                    test.assertEqual(Iterable.create("a", "b"), moduleLibrary.getSourcesUrls());
+                    test.assertEqual(Iterable.create("b"), moduleLibrary.getClassesUrls());
+                });
+            });
+
+            runner.testGroup("addSourcesUrlsIfAbsent(Iterable<String>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create();
+                    test.assertThrows(() -> moduleLibrary.addSourcesUrlsIfAbsent(null),
+                        new PreConditionFailure("sourcesUrls cannot be null."));
+                });
+
+                runner.test("with duplicate urls", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create()
+                        .addSourcesUrl("b");
+                    moduleLibrary.addSourcesUrlsIfAbsent(Iterable.create("a", "b", "a"));
+                    test.assertEqual(Iterable.create("b", "a"), moduleLibrary.getSourcesUrls());
+                });
+            });
+
+            runner.testGroup("getJavadocUrls()", () ->
+            {
+                runner.test("with no JAVADOC element", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.createView(
+                        XMLElement.create("orderEntry")
+                            .setAttribute("type", "module-library"));
+                    test.assertEqual(Iterable.create(), moduleLibrary.getJavadocUrls());
+                });
+
+                runner.test("with urls", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create()
+                        .addJavadocUrl("a")
+                        .addJavadocUrl("b");
+                    test.assertEqual(Iterable.create("a", "b"), moduleLibrary.getJavadocUrls());
+                });
+            });
+
+            runner.testGroup("addJavadocUrl(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create();
+                    test.assertThrows(() -> moduleLibrary.addJavadocUrl(null),
+                        new PreConditionFailure("javadocUrl cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create();
+                    test.assertThrows(() -> moduleLibrary.addJavadocUrl(""),
+                        new PreConditionFailure("javadocUrl cannot be empty."));
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create();
+                    final IntellijModuleLibrary addJavadocUrlResult = moduleLibrary.addJavadocUrl("hello");
+                    test.assertSame(moduleLibrary, addJavadocUrlResult);
+                    test.assertEqual(
+                        XMLElement.create("orderEntry")
+                            .setAttribute("type", "module-library")
+                            .addChild(XMLElement.create("library")
+                                .addChild(XMLElement.create("CLASSES"))
+                                .addChild(XMLElement.create("JAVADOC")
+                                    .addChild(XMLElement.create("root")
+                                        .setAttribute("url", "hello")))
+                                .addChild(XMLElement.create("SOURCES"))),
+                        moduleLibrary.toXml());
+                });
+            });
+
             runner.testGroup("clearSourcesUrls()", () ->
             {
                 final Action2<IntellijModuleLibrary,IntellijModuleLibrary> clearSourcesUrlTest = (IntellijModuleLibrary moduleLibrary, IntellijModuleLibrary expected) ->
@@ -312,6 +560,58 @@ public interface IntellijModuleLibraryTests
                         .addClassesUrl("there"));
             });
 
+            runner.testGroup("getKey(XMLElement)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleLibrary.getKey(null),
+                        new PreConditionFailure("xml cannot be null."));
+                });
+
+                final Action3<String,String,Boolean> getKeyTest = (String lhsText, String rhsText, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(lhsText) + " and " + Strings.escapeAndQuote(rhsText), (Test test) ->
+                    {
+                        final XMLElement lhs = XML.parse(lhsText).await().getRoot();
+                        final XMLElement rhs = XML.parse(rhsText).await().getRoot();
+                        test.assertEqual(expected, IntellijModuleLibrary.getKey(lhs).equals(IntellijModuleLibrary.getKey(rhs)));
+                    });
+                };
+
+                getKeyTest.run(
+                    "<orderEntry type=\"module-library\"/>",
+                    "<orderEntry type=\"module-library\"><library><CLASSES/><JAVADOC/><SOURCES/></library></orderEntry>",
+                    true);
+                getKeyTest.run(
+                    "<orderEntry type=\"module-library\"><library><CLASSES><root url=\"a\"/></CLASSES></library></orderEntry>",
+                    "<orderEntry type=\"module-library\">\n  <library>\n    <CLASSES>\n      <root url=\"a\" />\n    </CLASSES>\n    <JAVADOC></JAVADOC>\n  </library>\n</orderEntry>",
+                    true);
+                getKeyTest.run(
+                    "<orderEntry type=\"module-library\" scope=\"TEST\"/>",
+                    "<orderEntry scope=\"TEST\" type=\"module-library\"/>",
+                    true);
+                getKeyTest.run(
+                    "<orderEntry type=\"module-library\"/>",
+                    "<orderEntry type=\"module-library\" scope=\"TEST\"/>",
+                    false);
+                getKeyTest.run(
+                    "<orderEntry type=\"module-library\"><library name=\"a\"/></orderEntry>",
+                    "<orderEntry type=\"module-library\"><library name=\"b\"/></orderEntry>",
+                    false);
+                getKeyTest.run(
+                    "<orderEntry type=\"module-library\"><library><CLASSES><root url=\"a\"/><root url=\"b\"/></CLASSES></library></orderEntry>",
+                    "<orderEntry type=\"module-library\"><library><CLASSES><root url=\"b\"/><root url=\"a\"/></CLASSES></library></orderEntry>",
+                    false);
+                getKeyTest.run(
+                    "<orderEntry type=\"module-library\"><library><CLASSES><root url=\"a\"/></CLASSES></library></orderEntry>",
+                    "<orderEntry type=\"module-library\"><library><SOURCES><root url=\"a\"/></SOURCES></library></orderEntry>",
+                    false);
+                getKeyTest.run(
+                    "<orderEntry type=\"module-library\"><library><CLASSES><root url=\"a\"/></CLASSES></library></orderEntry>",
+                    "<orderEntry type=\"module-library\"><library><JAVADOC><root url=\"a\"/></JAVADOC></library></orderEntry>",
+                    false);
+            });
+
             runner.testGroup("equals(Object)", () ->
             {
                 final Action3<IntellijModuleLibrary,Object,Boolean> equalsTest = (IntellijModuleLibrary moduleLibrary, Object rhs, Boolean expected) ->
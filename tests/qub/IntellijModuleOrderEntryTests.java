@@ -0,0 +1,58 @@
+package qub;
+
+public interface IntellijModuleOrderEntryTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijModuleOrderEntry.class, () ->
+        {
+            runner.testGroup("create(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleOrderEntry.create((String)null),
+                        new PreConditionFailure("moduleName cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleOrderEntry.create(""),
+                        new PreConditionFailure("moduleName cannot be empty."));
+                });
+
+                runner.test("with module name", (Test test) ->
+                {
+                    final IntellijModuleOrderEntry orderEntry = IntellijModuleOrderEntry.create("a");
+                    test.assertEqual("a", orderEntry.getModuleName());
+                    test.assertEqual(
+                        XMLElement.create("orderEntry")
+                            .setAttribute("type", "module")
+                            .setAttribute("module-name", "a"),
+                        orderEntry.toXml());
+                });
+            });
+
+            runner.testGroup("create(XMLElement)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleOrderEntry.create((XMLElement)null),
+                        new PreConditionFailure("xml cannot be null."));
+                });
+
+                runner.test("with library orderEntry", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleOrderEntry.create(IntellijLibraryOrderEntry.create("a").toXml()),
+                        new PreConditionFailure("xml.getAttributeValue(IntellijModuleOrderEntry.typeAttributeName).await() (library) must be module."));
+                });
+            });
+
+            runner.test("setModuleName(String)", (Test test) ->
+            {
+                final IntellijModuleOrderEntry orderEntry = IntellijModuleOrderEntry.create("a");
+                test.assertSame(orderEntry, orderEntry.setModuleName("b"));
+                test.assertEqual("b", orderEntry.getModuleName());
+            });
+        });
+    }
+}
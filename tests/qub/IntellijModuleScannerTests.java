@@ -0,0 +1,147 @@
+package qub;
+
+public interface IntellijModuleScannerTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijModuleScanner.class, () ->
+        {
+            runner.testGroup("scan(String)", () ->
+            {
+                final Action2<String,Throwable> scanErrorTest = (String text, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        final IntellijModuleScanner scanner = IntellijModuleScanner.create();
+                        test.assertThrows(() -> scanner.scan(text).await(), expected);
+                    });
+                };
+
+                scanErrorTest.run(null, new PreConditionFailure("text cannot be null."));
+                scanErrorTest.run("hello there", new ParseException("Expected only whitespace and elements at the root of the document."));
+                scanErrorTest.run("<a/>", new ParseException("Expected the root element to be \"module\", but found \"a\" instead."));
+                scanErrorTest.run("<module>", new ParseException("Missing end tag for element \"module\"."));
+
+                runner.test("with empty text", (Test test) ->
+                {
+                    final List<String> events = List.create();
+                    IntellijModuleScanner.create()
+                        .setOnModule((String type, String version) -> events.add("module"))
+                        .scan("")
+                        .await();
+                    test.assertEqual(Iterable.create(), events);
+                });
+
+                runner.test("with module header", (Test test) ->
+                {
+                    final List<String> events = List.create();
+                    IntellijModuleScanner.create()
+                        .setOnModule((String type, String version) -> events.add(type + " " + version))
+                        .scan(IntellijModule.create().toString())
+                        .await();
+                    test.assertEqual(Iterable.create("JAVA_MODULE 4"), events);
+                });
+
+                runner.test("with all scanned parts", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .setOutputUrl("file://$MODULE_DIR$/outputs")
+                        .setOutputTestUrl("file://$MODULE_DIR$/test-outputs")
+                        .setExcludeOutput(true)
+                        .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources"))
+                        .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/tests").setIsTestSource(true))
+                        .setInheritedJdk(true)
+                        .setSourceFolderForTests(false)
+                        .addModuleLibrary(IntellijModuleLibrary.create()
+                            .addClassesUrl("jar://a.jar!/")
+                            .addSourcesUrl("jar://a.sources.jar!/"));
+
+                    final List<String> events = List.create();
+                    IntellijModuleScanner.create()
+                        .setOnModule((String type, String version) -> events.add("module " + type + " " + version))
+                        .setOnOutputUrl((String url) -> events.add("output " + url))
+                        .setOnOutputTestUrl((String url) -> events.add("output-test " + url))
+                        .setOnExcludeOutput(() -> events.add("exclude-output"))
+                        .setOnSourceFolder((String url, Boolean isTestSource) -> events.add("sourceFolder " + url + " " + isTestSource))
+                        .setOnInheritedJdk(() -> events.add("inheritedJdk"))
+                        .setOnSourceFolderOrderEntry((Boolean forTests) -> events.add("sourceFolder orderEntry " + forTests))
+                        .setOnModuleLibrary((Iterable<String> classesUrls, Iterable<String> javadocUrls, Iterable<String> sourcesUrls) ->
+                            events.add("module-library " + classesUrls + " " + javadocUrls + " " + sourcesUrls))
+                        .scan(module.toString(XMLFormat.pretty))
+                        .await();
+                    test.assertEqual(
+                        Iterable.create(
+                            "module JAVA_MODULE 4",
+                            "output file://$MODULE_DIR$/outputs",
+                            "output-test file://$MODULE_DIR$/test-outputs",
+                            "exclude-output",
+                            "sourceFolder file://$MODULE_DIR$/sources false",
+                            "sourceFolder file://$MODULE_DIR$/tests true",
+                            "inheritedJdk",
+                            "sourceFolder orderEntry false",
+                            "module-library [jar://a.jar!/] [] [jar://a.sources.jar!/]"),
+                        events);
+                });
+
+                runner.test("with components other than NewModuleRootManager", (Test test) ->
+                {
+                    final List<String> events = List.create();
+                    IntellijModuleScanner.create()
+                        .setOnOutputUrl((String url) -> events.add(url))
+                        .scan("<module><component name=\"Other\"><output url=\"a\"/></component><component name=\"NewModuleRootManager\"><output url=\"b\"/></component></module>")
+                        .await();
+                    test.assertEqual(Iterable.create("b"), events);
+                });
+
+                runner.test("with stop() called from a callback", (Test test) ->
+                {
+                    final IntellijModuleScanner scanner = IntellijModuleScanner.create();
+                    final List<String> events = List.create();
+                    scanner
+                        .setOnModule((String type, String version) ->
+                        {
+                            events.add("module");
+                            scanner.stop();
+                        })
+                        .setOnOutputUrl((String url) -> events.add(url))
+                        .scan("<module><component name=\"NewModuleRootManager\"><output url=\"a\"/></component>")
+                        .await();
+                    test.assertEqual(Iterable.create("module"), events);
+                });
+            });
+
+            runner.testGroup("scan(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleScanner.create().scan((File)null),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with non-existing file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/a.iml").await();
+                    test.assertThrows(() -> IntellijModuleScanner.create().scan(file).await(),
+                        new FileNotFoundException(file));
+                });
+
+                runner.test("with module file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/a.iml").await();
+                    file.setContentsAsString(IntellijModule.create().setOutputUrl("hello").toString()).await();
+
+                    final List<String> events = List.create();
+                    IntellijModuleScanner.create()
+                        .setOnOutputUrl((String url) -> events.add(url))
+                        .scan(file)
+                        .await();
+                    test.assertEqual(Iterable.create("hello"), events);
+                });
+            });
+        });
+    }
+}
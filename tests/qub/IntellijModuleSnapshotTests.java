@@ -0,0 +1,156 @@
+package qub;
+
+public interface IntellijModuleSnapshotTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijModuleSnapshot.class, () ->
+        {
+            runner.test("with empty module", (Test test) ->
+            {
+                final IntellijModuleSnapshot snapshot = IntellijModule.create().snapshot();
+                test.assertNull(snapshot.getOutputUrl());
+                test.assertNull(snapshot.getOutputTestUrl());
+                test.assertFalse(snapshot.getExcludeOutput());
+                test.assertFalse(snapshot.getInheritedJdk());
+                test.assertNull(snapshot.getSourceFolderForTests());
+                test.assertEqual(0, snapshot.getSourceFolderCount());
+                test.assertEqual(0, snapshot.getModuleLibraryCount());
+                test.assertEqual(IntellijModule.create(), snapshot.toModule());
+            });
+
+            runner.test("with module with no component element", (Test test) ->
+            {
+                final IntellijModule module = IntellijModule.create(XMLDocument.create()
+                    .setRoot(XMLElement.create("module")));
+                final IntellijModuleSnapshot snapshot = module.snapshot();
+                test.assertNull(snapshot.getOutputUrl());
+                test.assertEqual(0, snapshot.getModuleLibraryCount());
+                test.assertEqual("<module/>", module.toString());
+            });
+
+            runner.test("with full module", (Test test) ->
+            {
+                final IntellijModule module = IntellijModule.create()
+                    .setOutputUrl("a")
+                    .setOutputTestUrl("b")
+                    .setExcludeOutput(true)
+                    .addSourceFolder(IntellijSourceFolder.create("c").setIsTestSource(false))
+                    .addSourceFolder(IntellijSourceFolder.create("d").setIsTestSource(true))
+                    .setInheritedJdk(true)
+                    .setSourceFolderForTests(false)
+                    .addModuleLibrary(IntellijModuleLibrary.create()
+                        .addClassesUrl("e")
+                        .addClassesUrl("f")
+                        .addSourcesUrl("g"))
+                    .addModuleLibrary(IntellijModuleLibrary.create()
+                        .addJavadocUrl("h"));
+                final IntellijModuleSnapshot snapshot = module.snapshot();
+
+                test.assertEqual("a", snapshot.getOutputUrl());
+                test.assertEqual("b", snapshot.getOutputTestUrl());
+                test.assertTrue(snapshot.getExcludeOutput());
+                test.assertTrue(snapshot.getInheritedJdk());
+                test.assertFalse(snapshot.getSourceFolderForTests());
+                test.assertEqual(2, snapshot.getSourceFolderCount());
+                test.assertEqual("c", snapshot.getSourceFolderUrl(0));
+                test.assertFalse(snapshot.getSourceFolderIsTestSource(0));
+                test.assertEqual("d", snapshot.getSourceFolderUrl(1));
+                test.assertTrue(snapshot.getSourceFolderIsTestSource(1));
+                test.assertEqual(2, snapshot.getModuleLibraryCount());
+                test.assertEqual(Iterable.create("e", "f"), snapshot.getModuleLibraryClassesUrls(0));
+                test.assertEqual(Iterable.create(), snapshot.getModuleLibraryJavadocUrls(0));
+                test.assertEqual(Iterable.create("g"), snapshot.getModuleLibrarySourcesUrls(0));
+                test.assertEqual(Iterable.create(), snapshot.getModuleLibraryClassesUrls(1));
+                test.assertEqual(Iterable.create("h"), snapshot.getModuleLibraryJavadocUrls(1));
+                test.assertEqual(Iterable.create(), snapshot.getModuleLibrarySourcesUrls(1));
+
+                test.assertEqual(module, snapshot.toModule());
+            });
+
+            runner.test("with fully populated module", (Test test) ->
+            {
+                final IntellijModuleLibrary namedLibrary = IntellijModuleLibrary.create()
+                    .setName("named")
+                    .addClassesUrl("c");
+                namedLibrary.toXml()
+                    .setAttribute("scope", "TEST")
+                    .setAttribute("exported", "");
+                final IntellijModule module = IntellijModule.create()
+                    .setOutputUrl("a")
+                    .setOutputTestUrl("b")
+                    .setExcludeOutput(true)
+                    .addSourceFolder(IntellijSourceFolder.create("src").setIsTestSource(false))
+                    .addSourceFolder(IntellijSourceFolder.create(XMLElement.create("sourceFolder")).setIsTestSource(true))
+                    .setInheritedJdk(true)
+                    .setSourceFolderForTests(false)
+                    .addModuleOrderEntry(IntellijModuleOrderEntry.create("other"))
+                    .addModuleLibrary(namedLibrary)
+                    .addLibraryOrderEntry(IntellijLibraryOrderEntry.create("junit"))
+                    .addModuleLibrary(IntellijModuleLibrary.create().addJavadocUrl("d"));
+                final IntellijModuleSnapshot snapshot = module.snapshot();
+
+                test.assertEqual(2, snapshot.getSourceFolderCount());
+                test.assertNull(snapshot.getSourceFolderUrl(1));
+                test.assertEqual(2, snapshot.getModuleLibraryCount());
+                test.assertEqual("named", snapshot.getModuleLibraryName(0));
+                test.assertNull(snapshot.getModuleLibraryName(1));
+
+                final IntellijModule roundTripped = snapshot.toModule();
+                test.assertEqual(module.toString(), roundTripped.toString());
+                test.assertEqual(module, roundTripped);
+                test.assertEqual(Iterable.create("other"), roundTripped.getModuleDependencyNames());
+                test.assertEqual(Iterable.create("junit"), roundTripped.getLibraryOrderEntries().map(IntellijLibraryOrderEntry::getName));
+                test.assertEqual("named", roundTripped.getModuleLibraries().first().await().getName());
+            });
+
+            runner.test("after the module changes", (Test test) ->
+            {
+                final IntellijModule module = IntellijModule.create()
+                    .setOutputUrl("a")
+                    .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b"));
+                final IntellijModuleSnapshot snapshot = module.snapshot();
+
+                module.setOutputUrl("c");
+                module.clearModuleLibraries();
+
+                test.assertEqual("a", snapshot.getOutputUrl());
+                test.assertEqual(1, snapshot.getModuleLibraryCount());
+                test.assertEqual(Iterable.create("b"), snapshot.getModuleLibraryClassesUrls(0));
+            });
+
+            runner.test("with toModule() changes", (Test test) ->
+            {
+                final IntellijModuleSnapshot snapshot = IntellijModule.create()
+                    .setOutputUrl("a")
+                    .snapshot();
+
+                snapshot.toModule().setOutputUrl("b");
+
+                test.assertEqual("a", snapshot.getOutputUrl());
+                test.assertEqual(IntellijModule.create().setOutputUrl("a"), snapshot.toModule());
+            });
+
+            runner.testGroup("getSourceFolderUrl(int)", () ->
+            {
+                runner.test("with negative index", (Test test) ->
+                {
+                    final IntellijModuleSnapshot snapshot = IntellijModule.create()
+                        .addSourceFolder(IntellijSourceFolder.create("a"))
+                        .snapshot();
+                    test.assertThrows(() -> snapshot.getSourceFolderUrl(-1),
+                        new PreConditionFailure("index (-1) must be between 0 and 0."));
+                });
+
+                runner.test("with too large index", (Test test) ->
+                {
+                    final IntellijModuleSnapshot snapshot = IntellijModule.create()
+                        .addSourceFolder(IntellijSourceFolder.create("a"))
+                        .snapshot();
+                    test.assertThrows(() -> snapshot.getSourceFolderUrl(1),
+                        new PreConditionFailure("index (1) must be between 0 and 0."));
+                });
+            });
+        });
+    }
+}
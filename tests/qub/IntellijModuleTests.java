@@ -152,6 +152,206 @@ public interface IntellijModuleTests
                         .setRoot(XMLElement.create("module"))));
             });
 
+            runner.testGroup("parse(CharSequence)", () ->
+            {
+                final Action2<CharSequence,Throwable> parseErrorTest = (CharSequence text, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(Objects.toString(text)), (Test test) ->
+                    {
+                        test.assertThrows(() -> IntellijModule.parse(text).await(), expected);
+                    });
+                };
+
+                parseErrorTest.run(null, new PreConditionFailure("text cannot be null."));
+                parseErrorTest.run(new StringBuilder(), new PreConditionFailure("xml.getRoot() cannot be null."));
+                parseErrorTest.run(new StringBuilder("hello there"), new ParseException("Expected only whitespace and elements at the root of the document."));
+                parseErrorTest.run(new StringBuilder("<a/>"), new PreConditionFailure("xml.getRoot().getName() (a) must be module."));
+
+                final Action1<IntellijModule> parseTest = (IntellijModule expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(expected.toString()), (Test test) ->
+                    {
+                        test.assertEqual(expected, IntellijModule.parse(new StringBuilder(expected.toString(XMLFormat.pretty))).await());
+                    });
+                };
+
+                parseTest.run(IntellijModule.create());
+                parseTest.run(IntellijModule.create()
+                    .setOutputUrl("file://$MODULE_DIR$/outputs")
+                    .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources"))
+                    .setInheritedJdk(true)
+                    .addModuleLibrary(IntellijModuleLibrary.create()
+                        .addClassesUrl("jar://C:/qub/qub/xml-java/50/xml-java.jar!/")
+                        .addSourcesUrl("jar://C:/qub/qub/xml-java/50/xml-java.sources.jar!/")));
+            });
+
+            runner.testGroup("parse(ByteBuffer)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModule.parse((java.nio.ByteBuffer)null),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                runner.test("with invalid UTF-8", (Test test) ->
+                {
+                    final java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap(new byte[] { '<', (byte)0xFF, '/', '>' });
+                    test.assertThrows(() -> IntellijModule.parse(bytes).await(),
+                        new RuntimeException(new java.nio.charset.MalformedInputException(1)));
+                });
+
+                runner.test("with module bytes", (Test test) ->
+                {
+                    final IntellijModule expected = IntellijModule.create()
+                        .setOutputUrl("file://$MODULE_DIR$/outputs")
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/caf\u00E9.jar!/"));
+                    final java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap(expected.toString(XMLFormat.pretty).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    test.assertEqual(expected, IntellijModule.parse(bytes).await());
+                    test.assertEqual(0, bytes.position());
+                });
+
+                runner.test("with module bytes that are longer than one read buffer", (Test test) ->
+                {
+                    final IntellijModule expected = IntellijModule.create()
+                        .setOutputUrl("file://$MODULE_DIR$/outputs");
+                    for (int i = 0; i < 500; ++i)
+                    {
+                        expected.addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/caf\u00E9/" + i + ".jar!/"));
+                    }
+                    final byte[] text = expected.toString(XMLFormat.pretty).getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    test.assertTrue(text.length > 8192 * 4);
+
+                    final IntellijModule module = IntellijModule.parse(java.nio.ByteBuffer.wrap(text)).await();
+                    test.assertEqual(expected, module);
+                    test.assertEqual(500, module.getModuleLibraries().getCount());
+                });
+            });
+
+            runner.testGroup("parse(java.nio.file.Path)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModule.parse((java.nio.file.Path)null),
+                        new PreConditionFailure("path cannot be null."));
+                });
+
+                runner.test("with non-existing file", (Test test) ->
+                {
+                    final java.nio.file.Path path = java.nio.file.Paths.get(System.getProperty("java.io.tmpdir"), "IntellijModuleTests-does-not-exist.iml");
+                    test.assertThrows(() -> IntellijModule.parse(path).await(),
+                        new FileNotFoundException(path.toString()));
+                });
+
+                runner.test("with existing file", (Test test) ->
+                {
+                    final IntellijModule expected = IntellijModule.create().setOutputUrl("hello");
+                    try
+                    {
+                        final java.nio.file.Path path = java.nio.file.Files.createTempFile("IntellijModuleTests", ".iml");
+                        try
+                        {
+                            java.nio.file.Files.write(path, expected.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                            test.assertEqual(expected, IntellijModule.parse(path).await());
+                        }
+                        finally
+                        {
+                            java.nio.file.Files.delete(path);
+                        }
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        throw new RuntimeException(e);
+                    }
+                });
+            });
+
+            runner.testGroup("parseAll(Folder,Executor,Action2<File,Result<IntellijModule>>)", () ->
+            {
+                runner.test("with null folder", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModule.parseAll(null, Runnable::run, (File file, Result<IntellijModule> result) -> {}),
+                        new PreConditionFailure("folder cannot be null."));
+                });
+
+                runner.test("with null executor", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/").await();
+                    test.assertThrows(() -> IntellijModule.parseAll(folder, null, (File file, Result<IntellijModule> result) -> {}),
+                        new PreConditionFailure("executor cannot be null."));
+                });
+
+                runner.test("with null onParsed", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/").await();
+                    test.assertThrows(() -> IntellijModule.parseAll(folder, Runnable::run, null),
+                        new PreConditionFailure("onParsed cannot be null."));
+                });
+
+                runner.test("with module, non-module, and invalid files", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    fileSystem.getFile("/a.iml").await().setContentsAsString(IntellijModule.create().setOutputUrl("a").toString()).await();
+                    fileSystem.getFile("/sub/b.iml").await().setContentsAsString(IntellijModule.create().setOutputUrl("b").toString()).await();
+                    fileSystem.getFile("/c.iml").await().setContentsAsString("hello there").await();
+                    fileSystem.getFile("/d.iml").await().setContentsAsString("<project/>").await();
+                    fileSystem.getFile("/e.xml").await().setContentsAsString(IntellijModule.create().toString()).await();
+                    final Folder folder = fileSystem.getFolder("/").await();
+
+                    final List<String> parsed = List.create();
+                    final List<String> failed = List.create();
+                    IntellijModule.parseAll(folder, Runnable::run, (File file, Result<IntellijModule> result) ->
+                    {
+                        final IntellijModule module = result.catchError().await();
+                        if (module == null)
+                        {
+                            failed.add(file.getName());
+                        }
+                        else
+                        {
+                            parsed.add(file.getName());
+                            test.assertEqual(IntellijModule.create().setOutputUrl(file.getNameWithoutFileExtension()), module);
+                        }
+                    }).await();
+
+                    test.assertEqual(2, parsed.getCount());
+                    test.assertTrue(parsed.contains("a.iml"));
+                    test.assertTrue(parsed.contains("b.iml"));
+                    test.assertEqual(Iterable.create("c.iml"), failed);
+                });
+
+                runner.test("with thread pool executor", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    for (int i = 0; i < 20; ++i)
+                    {
+                        fileSystem.getFile("/" + i + ".iml").await().setContentsAsString(IntellijModule.create().toString()).await();
+                    }
+                    final Folder folder = fileSystem.getFolder("/").await();
+
+                    final java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newFixedThreadPool(4);
+                    try
+                    {
+                        final List<String> parsed = List.create();
+                        IntellijModule.parseAll(folder, executor, (File file, Result<IntellijModule> result) ->
+                        {
+                            result.await();
+                            parsed.add(file.getName());
+                        }).await();
+                        test.assertEqual(20, parsed.getCount());
+                    }
+                    finally
+                    {
+                        executor.shutdown();
+                    }
+                });
+            });
+
             runner.testGroup("setOutputUrl(String)", () ->
             {
                 final Action3<IntellijModule,String,Throwable> setOutputUrlErrorTest = (IntellijModule module, String outputUrl, Throwable expected) ->
@@ -662,6 +862,30 @@ public interface IntellijModuleTests
                     Iterable.create(
                         IntellijModuleLibrary.create().addSourcesUrl("sources-url-1"),
                         IntellijModuleLibrary.create().addSourcesUrl("sources-url-2")));
+
+                runner.test("with module library elements that have no child elements", (Test test) ->
+                {
+                    final String text =
+                        "<module>" +
+                            "<component name=\"NewModuleRootManager\">" +
+                                "<orderEntry type=\"module-library\"/>" +
+                                "<orderEntry type=\"module-library\"><library><CLASSES><root url=\"a\"/></CLASSES></library></orderEntry>" +
+                            "</component>" +
+                        "</module>";
+                    final IntellijModule module = IntellijModule.parse(text).await();
+                    test.assertEqual(
+                        Iterable.create(Iterable.create(), Iterable.create("a")),
+                        module.getModuleLibraries().map(IntellijModuleLibrary::getClassesUrls));
+                    test.assertEqual(text, module.toString());
+                });
+
+                runner.test("with no component element", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create(XMLDocument.create()
+                        .setRoot(XMLElement.create("module")));
+                    test.assertEqual(Iterable.create(), module.getModuleLibraries());
+                    test.assertEqual("<module/>", module.toString());
+                });
             });
 
             runner.testGroup("addModuleLibrary(IntellijModuleLibrary)", () ->
@@ -698,6 +922,316 @@ public interface IntellijModuleTests
                 });
             });
 
+            runner.testGroup("addModuleLibraryIfAbsent(IntellijModuleLibrary)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertThrows(() -> module.addModuleLibraryIfAbsent(null),
+                        new PreConditionFailure("moduleLibrary cannot be null."));
+                });
+
+                runner.test("with new and existing libraries", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a"));
+                    test.assertSame(module, module.addModuleLibraryIfAbsent(IntellijModuleLibrary.create().addClassesUrl("a")));
+                    module.addModuleLibraryIfAbsent(IntellijModuleLibrary.create().addClassesUrl("b"));
+                    module.addModuleLibraryIfAbsent(IntellijModuleLibrary.create().addClassesUrl("b"));
+                    test.assertEqual(
+                        Iterable.create(
+                            IntellijModuleLibrary.create().addClassesUrl("a"),
+                            IntellijModuleLibrary.create().addClassesUrl("b")),
+                        module.getModuleLibraries());
+                });
+
+                runner.test("after removeModuleLibrary(IntellijModuleLibrary)", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibraryIfAbsent(IntellijModuleLibrary.create().addClassesUrl("a"));
+                    module.removeModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a")).await();
+                    module.addModuleLibraryIfAbsent(IntellijModuleLibrary.create().addClassesUrl("a"));
+                    test.assertEqual(
+                        Iterable.create(IntellijModuleLibrary.create().addClassesUrl("a")),
+                        module.getModuleLibraries());
+                });
+
+                runner.test("after clearModuleLibraries()", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibraryIfAbsent(IntellijModuleLibrary.create().addClassesUrl("a"))
+                        .clearModuleLibraries()
+                        .addModuleLibraryIfAbsent(IntellijModuleLibrary.create().addClassesUrl("a"));
+                    test.assertEqual(
+                        Iterable.create(IntellijModuleLibrary.create().addClassesUrl("a")),
+                        module.getModuleLibraries());
+                });
+
+                runner.test("with library changed after it was added", (Test test) ->
+                {
+                    final IntellijModuleLibrary moduleLibrary = IntellijModuleLibrary.create().addClassesUrl("a");
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibraryIfAbsent(moduleLibrary);
+                    moduleLibrary.addClassesUrl("b");
+
+                    module.addModuleLibraryIfAbsent(IntellijModuleLibrary.create().addClassesUrl("a"));
+                    test.assertEqual(
+                        Iterable.create(
+                            IntellijModuleLibrary.create().addClassesUrl("a").addClassesUrl("b"),
+                            IntellijModuleLibrary.create().addClassesUrl("a")),
+                        module.getModuleLibraries());
+                });
+
+                runner.test("with library changed through getModuleLibraries()", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibraryIfAbsent(IntellijModuleLibrary.create().addClassesUrl("a"));
+                    module.getModuleLibraries().first().await().addClassesUrl("b");
+
+                    module.addModuleLibraryIfAbsent(IntellijModuleLibrary.create().addClassesUrl("a").addClassesUrl("b"));
+                    test.assertEqual(
+                        Iterable.create(IntellijModuleLibrary.create().addClassesUrl("a").addClassesUrl("b")),
+                        module.getModuleLibraries());
+                });
+            });
+
+            runner.testGroup("addLibraryOrderEntry(IntellijLibraryOrderEntry)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertThrows(() -> module.addLibraryOrderEntry(null),
+                        new PreConditionFailure("libraryOrderEntry cannot be null."));
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create());
+                    test.assertSame(module, module.addLibraryOrderEntry(IntellijLibraryOrderEntry.create("junit")));
+                    test.assertEqual(Iterable.create("junit"), module.getLibraryOrderEntries().map(IntellijLibraryOrderEntry::getName));
+                    test.assertEqual(1, module.getModuleLibraries().getCount());
+                    test.assertEqual(
+                        XMLElement.create("orderEntry")
+                            .setAttribute("type", "library")
+                            .setAttribute("name", "junit")
+                            .setAttribute("level", "project"),
+                        module.toXml().getRoot().getElementChildren().first().await().getElementChildren().last().await());
+                });
+            });
+
+            runner.test("getOutputUrl() and getOutputTestUrl()", (Test test) ->
+            {
+                final IntellijModule module = IntellijModule.create();
+                test.assertNull(module.getOutputUrl());
+                test.assertNull(module.getOutputTestUrl());
+                module.setOutputUrl("a").setOutputTestUrl("b");
+                test.assertEqual("a", module.getOutputUrl());
+                test.assertEqual("b", module.getOutputTestUrl());
+            });
+
+            runner.test("getExcludeOutput()", (Test test) ->
+            {
+                final IntellijModule module = IntellijModule.create();
+                test.assertFalse(module.getExcludeOutput());
+                test.assertTrue(module.setExcludeOutput(true).getExcludeOutput());
+                test.assertFalse(module.setExcludeOutput(false).getExcludeOutput());
+            });
+
+            runner.test("getInheritedJdk()", (Test test) ->
+            {
+                final IntellijModule module = IntellijModule.create();
+                test.assertFalse(module.getInheritedJdk());
+                test.assertTrue(module.setInheritedJdk(true).getInheritedJdk());
+                test.assertFalse(module.setInheritedJdk(false).getInheritedJdk());
+            });
+
+            runner.test("getSourceFolderForTests()", (Test test) ->
+            {
+                final IntellijModule module = IntellijModule.create();
+                test.assertNull(module.getSourceFolderForTests());
+                test.assertEqual(true, module.setSourceFolderForTests(true).getSourceFolderForTests());
+                test.assertEqual(false, module.setSourceFolderForTests(false).getSourceFolderForTests());
+            });
+
+            runner.testGroup("containsModuleLibrary(IntellijModuleLibrary)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertThrows(() -> module.containsModuleLibrary(null),
+                        new PreConditionFailure("moduleLibrary cannot be null."));
+                });
+
+                runner.test("with equal and unequal libraries", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a"));
+                    test.assertTrue(module.containsModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a")));
+                    test.assertFalse(module.containsModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b")));
+                });
+
+                runner.test("after urls are added to indexed libraries", (Test test) ->
+                {
+                    final IntellijModuleLibrary addedLibrary = IntellijModuleLibrary.create().addClassesUrl("a");
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibrary(addedLibrary)
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b"));
+                    test.assertTrue(module.containsModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a")));
+
+                    addedLibrary.addClassesUrl("c");
+                    module.getModuleLibraries().last().await().addClassesUrl("d");
+
+                    test.assertFalse(module.containsModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a")));
+                    test.assertFalse(module.containsModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b")));
+                    test.assertTrue(module.containsModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a").addClassesUrl("c")));
+                    test.assertTrue(module.containsModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b").addClassesUrl("d")));
+
+                    module.addModuleLibraryIfAbsent(IntellijModuleLibrary.create().addClassesUrl("b").addClassesUrl("d"));
+                    test.assertEqual(2, module.getModuleLibraries().getCount());
+                });
+
+                runner.test("after an indexed library changes and is removed", (Test test) ->
+                {
+                    final IntellijModuleLibrary addedLibrary = IntellijModuleLibrary.create().addClassesUrl("a");
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibrary(addedLibrary);
+                    test.assertTrue(module.containsModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a")));
+
+                    addedLibrary.addClassesUrl("b");
+                    module.removeModuleLibrary(addedLibrary).await();
+
+                    test.assertFalse(module.containsModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a")));
+                    test.assertFalse(module.containsModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a").addClassesUrl("b")));
+                });
+            });
+
+            runner.testGroup("addModuleOrderEntry(IntellijModuleOrderEntry)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertThrows(() -> module.addModuleOrderEntry(null),
+                        new PreConditionFailure("moduleOrderEntry cannot be null."));
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create());
+                    test.assertSame(module, module.addModuleOrderEntry(IntellijModuleOrderEntry.create("a")));
+                    module.addModuleOrderEntry(IntellijModuleOrderEntry.create("b"));
+                    test.assertEqual(Iterable.create("a", "b"), module.getModuleOrderEntries().map(IntellijModuleOrderEntry::getModuleName));
+                    test.assertEqual(Iterable.create("a", "b"), module.getModuleDependencyNames());
+                    test.assertEqual(1, module.getModuleLibraries().getCount());
+                });
+            });
+
+            runner.testGroup("getModuleDependencyNames()", () ->
+            {
+                runner.test("with parsed module", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.parse(
+                        "<module type=\"JAVA_MODULE\" version=\"4\">" +
+                        "<component name=\"NewModuleRootManager\">" +
+                        "<orderEntry type=\"inheritedJdk\"/>" +
+                        "<orderEntry type=\"module\" module-name=\"a\"/>" +
+                        "<orderEntry type=\"module\"/>" +
+                        "<orderEntry type=\"module\" module-name=\"b\" scope=\"TEST\"/>" +
+                        "</component>" +
+                        "</module>").await();
+                    test.assertEqual(Iterable.create("a", "b"), module.getModuleDependencyNames());
+                });
+            });
+
+            runner.testGroup("setModuleLibraries(Iterable<IntellijModuleLibrary>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertThrows(() -> module.setModuleLibraries(null),
+                        new PreConditionFailure("moduleLibraries cannot be null."));
+                    test.assertEqual(IntellijModule.create(), module);
+                });
+
+                final Action3<IntellijModule,Iterable<IntellijModuleLibrary>,IntellijModule> setModuleLibrariesTest = (IntellijModule module, Iterable<IntellijModuleLibrary> moduleLibraries, IntellijModule expected) ->
+                {
+                    runner.test("with " + English.andList(module, moduleLibraries), (Test test) ->
+                    {
+                        final IntellijModule setModuleLibrariesResult = module.setModuleLibraries(moduleLibraries);
+                        test.assertSame(module, setModuleLibrariesResult);
+                        test.assertEqual(expected, module);
+                        test.assertEqual(moduleLibraries, module.getModuleLibraries());
+                    });
+                };
+
+                setModuleLibrariesTest.run(
+                    IntellijModule.create(),
+                    Iterable.create(),
+                    IntellijModule.create());
+                setModuleLibrariesTest.run(
+                    IntellijModule.create(),
+                    Iterable.create(
+                        IntellijModuleLibrary.create().addClassesUrl("a"),
+                        IntellijModuleLibrary.create().addClassesUrl("b")),
+                    IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a"))
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b")));
+                setModuleLibrariesTest.run(
+                    IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a"))
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b")),
+                    Iterable.create(
+                        IntellijModuleLibrary.create().addClassesUrl("b"),
+                        IntellijModuleLibrary.create().addClassesUrl("a")),
+                    IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b"))
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a")));
+                setModuleLibrariesTest.run(
+                    IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a"))
+                        .setInheritedJdk(true)
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b"))
+                        .setSourceFolderForTests(false),
+                    Iterable.create(
+                        IntellijModuleLibrary.create().addClassesUrl("a"),
+                        IntellijModuleLibrary.create().addClassesUrl("c"),
+                        IntellijModuleLibrary.create().addClassesUrl("d")),
+                    IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a"))
+                        .setInheritedJdk(true)
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("c"))
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("d"))
+                        .setSourceFolderForTests(false));
+                setModuleLibrariesTest.run(
+                    IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a"))
+                        .setInheritedJdk(true)
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b")),
+                    Iterable.create(
+                        IntellijModuleLibrary.create().addClassesUrl("b")),
+                    IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b"))
+                        .setInheritedJdk(true));
+
+                runner.test("keeps the elements of unchanged libraries", (Test test) ->
+                {
+                    final IntellijModuleLibrary a = IntellijModuleLibrary.create().addClassesUrl("a");
+                    final IntellijModuleLibrary b = IntellijModuleLibrary.create().addClassesUrl("b");
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibrary(a)
+                        .addModuleLibrary(b);
+
+                    module.setModuleLibraries(Iterable.create(
+                        IntellijModuleLibrary.create().addClassesUrl("a"),
+                        IntellijModuleLibrary.create().addClassesUrl("c")));
+
+                    final Iterable<IntellijModuleLibrary> moduleLibraries = module.getModuleLibraries();
+                    test.assertSame(a.toXml(), moduleLibraries.first().await().toXml());
+                    test.assertEqual(IntellijModuleLibrary.create().addClassesUrl("c"), moduleLibraries.last().await());
+                });
+            });
+
             runner.testGroup("clearModuleLibraries()", () ->
             {
                 final Action2<IntellijModule,IntellijModule> clearModuleLibrariesTest = (IntellijModule module, IntellijModule expected) ->
@@ -732,6 +1266,443 @@ public interface IntellijModuleTests
                                 .addChild(XMLElement.create("component", true).setAttribute("name", "NewModuleRootManager")))));
             });
 
+            runner.testGroup("getSourceFolders()", () ->
+            {
+                runner.test("with no source folders", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertEqual(Iterable.create(), module.getSourceFolders());
+                    test.assertEqual(
+                        XMLElement.create("module").setAttribute("type", "JAVA_MODULE").setAttribute("version", "4")
+                            .addChild(XMLElement.create("component").setAttribute("name", "NewModuleRootManager")),
+                        module.toXml().getRoot());
+                });
+
+                runner.test("with source folders", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources"))
+                        .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/tests").setIsTestSource(true));
+                    test.assertEqual(
+                        Iterable.create(
+                            IntellijSourceFolder.create("file://$MODULE_DIR$/sources"),
+                            IntellijSourceFolder.create("file://$MODULE_DIR$/tests").setIsTestSource(true)),
+                        module.getSourceFolders());
+                });
+            });
+
+            runner.testGroup("getSourceFolders(boolean)", () ->
+            {
+                final IntellijModule module = IntellijModule.create()
+                    .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources"))
+                    .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/tests").setIsTestSource(true))
+                    .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/generated").setIsTestSource(false));
+
+                runner.test("with false", (Test test) ->
+                {
+                    test.assertEqual(
+                        Iterable.create("file://$MODULE_DIR$/sources", "file://$MODULE_DIR$/generated"),
+                        module.getSourceFolders(false).map(IntellijSourceFolder::getUrl));
+                });
+
+                runner.test("with true", (Test test) ->
+                {
+                    test.assertEqual(
+                        Iterable.create("file://$MODULE_DIR$/tests"),
+                        module.getSourceFolders(true).map(IntellijSourceFolder::getUrl));
+                });
+            });
+
+            runner.testGroup("getSourceFolder(String)", () ->
+            {
+                final Action3<IntellijModule,String,Throwable> getSourceFolderErrorTest = (IntellijModule module, String url, Throwable expected) ->
+                {
+                    runner.test("with " + English.andList(module, Strings.escapeAndQuote(url)), (Test test) ->
+                    {
+                        test.assertThrows(() -> module.getSourceFolder(url).await(), expected);
+                    });
+                };
+
+                getSourceFolderErrorTest.run(IntellijModule.create(), null, new PreConditionFailure("url cannot be null."));
+                getSourceFolderErrorTest.run(IntellijModule.create(), "", new PreConditionFailure("url cannot be empty."));
+                getSourceFolderErrorTest.run(IntellijModule.create(), "hello", new NotFoundException("Could not find a source folder with the url \"hello\"."));
+                getSourceFolderErrorTest.run(
+                    IntellijModule.create()
+                        .addSourceFolder(IntellijSourceFolder.create("there")),
+                    "hello",
+                    new NotFoundException("Could not find a source folder with the url \"hello\"."));
+
+                final Action3<IntellijModule,String,IntellijSourceFolder> getSourceFolderTest = (IntellijModule module, String url, IntellijSourceFolder expected) ->
+                {
+                    runner.test("with " + English.andList(module, Strings.escapeAndQuote(url)), (Test test) ->
+                    {
+                        test.assertEqual(expected, module.getSourceFolder(url).await());
+                    });
+                };
+
+                getSourceFolderTest.run(
+                    IntellijModule.create()
+                        .addSourceFolder(IntellijSourceFolder.create("hello")),
+                    "hello",
+                    IntellijSourceFolder.create("hello"));
+                getSourceFolderTest.run(
+                    IntellijModule.create()
+                        .addSourceFolder(IntellijSourceFolder.create("hello"))
+                        .addSourceFolder(IntellijSourceFolder.create("there").setIsTestSource(true)),
+                    "there",
+                    IntellijSourceFolder.create("there").setIsTestSource(true));
+                getSourceFolderTest.run(
+                    IntellijModule.parse("<module><component name=\"NewModuleRootManager\"><content url=\"file://$MODULE_DIR$\"><sourceFolder url=\"hello\" isTestSource=\"false\"/></content></component></module>").await(),
+                    "hello",
+                    IntellijSourceFolder.create("hello").setIsTestSource(false));
+
+                runner.test("after the url of a returned source folder changes", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .addSourceFolder(IntellijSourceFolder.create("a"));
+                    module.getSourceFolder("a").await()
+                        .setUrl("b");
+
+                    test.assertEqual(IntellijSourceFolder.create("b"), module.getSourceFolder("b").await());
+                    test.assertThrows(() -> module.getSourceFolder("a").await(),
+                        new NotFoundException("Could not find a source folder with the url \"a\"."));
+                });
+
+                runner.test("after the url of an added source folder changes", (Test test) ->
+                {
+                    final IntellijSourceFolder sourceFolder = IntellijSourceFolder.create("a");
+                    final IntellijModule module = IntellijModule.create()
+                        .addSourceFolder(sourceFolder);
+                    sourceFolder.setUrl("b");
+
+                    test.assertEqual(IntellijSourceFolder.create("b"), module.getSourceFolder("b").await());
+                    test.assertThrows(() -> module.getSourceFolder("a").await(),
+                        new NotFoundException("Could not find a source folder with the url \"a\"."));
+                });
+
+                runner.test("after the url changes through the source folder's XML", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .addSourceFolder(IntellijSourceFolder.create("a"));
+                    test.assertEqual(IntellijSourceFolder.create("a"), module.getSourceFolder("a").await());
+
+                    IntellijSourceFolder.create(module.getSourceFolder("a").await().toXml())
+                        .setUrl("b");
+
+                    test.assertThrows(() -> module.getSourceFolder("a").await(),
+                        new NotFoundException("Could not find a source folder with the url \"a\"."));
+                    test.assertEqual(IntellijSourceFolder.create("b"), module.getSourceFolder("b").await());
+                });
+            });
+
+            runner.testGroup("index", () ->
+            {
+                runner.test("with changes made through toXml()", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a"));
+                    test.assertEqual(1, module.getModuleLibraries().getCount());
+
+                    module.toXml().getRoot()
+                        .getFirstElementChild("component").await()
+                        .addChild(IntellijModuleLibrary.create().addClassesUrl("b").toXml());
+                    test.assertEqual(
+                        Iterable.create(
+                            IntellijModuleLibrary.create().addClassesUrl("a"),
+                            IntellijModuleLibrary.create().addClassesUrl("b")),
+                        module.getModuleLibraries());
+                });
+
+                runner.test("with toString() and equals() between changes", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a"));
+                    final IntellijModule expected = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a"));
+                    test.assertEqual(expected.toString(), module.toString());
+                    test.assertEqual(expected, module);
+                    test.assertEqual(expected.hashCode(), module.hashCode());
+                    test.assertNotEqual(module, IntellijModule.create());
+                    test.assertFalse(module.equals(null));
+                    test.assertFalse(module.equals(module.toString()));
+
+                    module.addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b"));
+                    expected.addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b"));
+                    test.assertEqual(expected, module);
+                    test.assertTrue(module.containsModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b")));
+                    test.assertEqual(
+                        Iterable.create(
+                            IntellijModuleLibrary.create().addClassesUrl("a"),
+                            IntellijModuleLibrary.create().addClassesUrl("b")),
+                        module.getModuleLibraries());
+                });
+
+                runner.test("with setInheritedJdk() after removeModuleLibrary()", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a"))
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b"));
+                    module.removeModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("a")).await();
+                    module.setInheritedJdk(true);
+                    module.setInheritedJdk(true);
+                    test.assertEqual(
+                        Iterable.create(IntellijModuleLibrary.create().addClassesUrl("b")),
+                        module.getModuleLibraries());
+                    test.assertEqual(
+                        IntellijModule.create()
+                            .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("b"))
+                            .setInheritedJdk(true),
+                        module);
+                });
+            });
+
+            runner.testGroup("saveIfChanged(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertThrows(() -> module.saveIfChanged(null),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with non-existing file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/a.iml").await();
+                    final IntellijModule module = IntellijModule.create();
+
+                    test.assertTrue(module.saveIfChanged(file).await());
+                    test.assertEqual(module.toString(XMLFormat.pretty), file.getContentsAsString().await());
+                    test.assertEqual(1, fileSystem.getFolder("/").await().getFiles().await().getCount());
+                });
+
+                runner.test("with file that has the same contents", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/a.iml").await();
+                    final IntellijModule module = IntellijModule.create().setOutputUrl("hello");
+                    file.setContentsAsString(module.toString(XMLFormat.pretty)).await();
+
+                    test.assertFalse(module.saveIfChanged(file).await());
+                    test.assertEqual(module.toString(XMLFormat.pretty), file.getContentsAsString().await());
+                });
+
+                runner.test("with file that has different contents", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/a.iml").await();
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertTrue(module.saveIfChanged(file).await());
+
+                    module.setOutputUrl("hello");
+                    test.assertTrue(module.saveIfChanged(file).await());
+                    test.assertEqual(module.toString(XMLFormat.pretty), file.getContentsAsString().await());
+                    test.assertFalse(module.saveIfChanged(file).await());
+                });
+
+                runner.test("with module larger than the write buffer", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/a.iml").await();
+                    final IntellijModule module = IntellijModule.create();
+                    for (int i = 0; i < 1000; ++i)
+                    {
+                        module.addModuleLibrary(IntellijModuleLibrary.create()
+                            .addClassesUrl("jar://C:/qub/\u00E9" + i + ".jar!/"));
+                    }
+
+                    test.assertTrue(module.saveIfChanged(file).await());
+                    test.assertEqual(module.toString(XMLFormat.pretty), file.getContentsAsString().await());
+                    test.assertEqual(1, fileSystem.getFolder("/").await().getFiles().await().getCount());
+                    test.assertFalse(module.saveIfChanged(file).await());
+
+                    module.setOutputUrl("hello");
+                    test.assertTrue(module.saveIfChanged(file).await());
+                    test.assertEqual(module.toString(XMLFormat.pretty), file.getContentsAsString().await());
+                });
+            });
+
+            runner.testGroup("writeTo(OutputStream,XMLFormat)", () ->
+            {
+                runner.test("with null stream", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertThrows(() -> module.writeTo((java.io.OutputStream)null, XMLFormat.pretty),
+                        new PreConditionFailure("stream cannot be null."));
+                });
+
+                runner.test("with null format", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertThrows(() -> module.writeTo(new java.io.ByteArrayOutputStream(), null),
+                        new PreConditionFailure("format cannot be null."));
+                });
+
+                final Action2<IntellijModule,XMLFormat> writeToTest = (IntellijModule module, XMLFormat format) ->
+                {
+                    runner.test("with " + module.toString(XMLFormat.consise) + " and " + (format == XMLFormat.pretty ? "pretty" : "consise"), (Test test) ->
+                    {
+                        final java.io.ByteArrayOutputStream stream = new java.io.ByteArrayOutputStream();
+                        test.assertNull(module.writeTo(stream, format).await());
+                        test.assertEqual(
+                            module.toString(format),
+                            new String(stream.toByteArray(), java.nio.charset.StandardCharsets.UTF_8));
+                    });
+                };
+
+                writeToTest.run(IntellijModule.create(), XMLFormat.consise);
+                writeToTest.run(IntellijModule.create(), XMLFormat.pretty);
+                writeToTest.run(
+                    IntellijModule.create()
+                        .setOutputUrl("file://$MODULE_DIR$/outputs")
+                        .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources"))
+                        .addModuleLibrary(IntellijModuleLibrary.create()
+                            .addClassesUrl("jar://C:/qub/a & b/\u00E9\uD83D\uDE00.jar!/")),
+                    XMLFormat.pretty);
+
+                runner.test("with module larger than the write buffer", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create();
+                    for (int i = 0; i < 1000; ++i)
+                    {
+                        module.addModuleLibrary(IntellijModuleLibrary.create()
+                            .addClassesUrl("jar://C:/qub/\u00E9" + i + ".jar!/"));
+                    }
+                    final java.io.ByteArrayOutputStream stream = new java.io.ByteArrayOutputStream();
+                    module.writeTo(stream, XMLFormat.pretty).await();
+                    test.assertEqual(
+                        module.toString(XMLFormat.pretty),
+                        new String(stream.toByteArray(), java.nio.charset.StandardCharsets.UTF_8));
+                });
+            });
+
+            runner.testGroup("writeTo(WritableByteChannel,XMLFormat)", () ->
+            {
+                runner.test("with null channel", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertThrows(() -> module.writeTo((java.nio.channels.WritableByteChannel)null, XMLFormat.pretty),
+                        new PreConditionFailure("channel cannot be null."));
+                });
+
+                runner.test("with module", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create().setOutputUrl("a");
+                    final java.io.ByteArrayOutputStream stream = new java.io.ByteArrayOutputStream();
+                    final java.nio.channels.WritableByteChannel channel = java.nio.channels.Channels.newChannel(stream);
+                    module.writeTo(channel, XMLFormat.consise).await();
+                    test.assertTrue(channel.isOpen());
+                    test.assertEqual(
+                        module.toString(XMLFormat.consise),
+                        new String(stream.toByteArray(), java.nio.charset.StandardCharsets.UTF_8));
+                });
+            });
+
+            runner.testGroup("getClasspath(Path,boolean)", () ->
+            {
+                runner.test("with null moduleFolderPath", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertThrows(() -> module.getClasspath(null, false),
+                        new PreConditionFailure("moduleFolderPath cannot be null."));
+                });
+
+                runner.test("with empty module", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create();
+                    test.assertEqual(Iterable.create(), module.getClasspath(Path.parse("/project"), false));
+                    test.assertEqual(Iterable.create(), module.getClasspath(Path.parse("/project"), true));
+                });
+
+                runner.test("with outputs and libraries", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .setOutputUrl("file://$MODULE_DIR$/outputs")
+                        .setOutputTestUrl("file://$MODULE_DIR$/test-outputs")
+                        .setSourceFolderForTests(false)
+                        .addModuleLibrary(IntellijModuleLibrary.create()
+                            .addClassesUrl("jar://C:/qub/a.jar!/")
+                            .addSourcesUrl("jar://C:/qub/a.sources.jar!/"))
+                        .addModuleLibrary(IntellijModuleLibrary.create()
+                            .addClassesUrl("jar://$MODULE_DIR$/libs/b.jar!/")
+                            .addClassesUrl("jar://C:/qub/a.jar!/")
+                            .addClassesUrl("http://example.com/c.jar"));
+
+                    test.assertEqual(
+                        Iterable.create("/project/outputs", "C:/qub/a.jar", "/project/libs/b.jar"),
+                        module.getClasspath(Path.parse("/project"), false).map(Path::toString));
+                    test.assertEqual(
+                        Iterable.create("/project/test-outputs", "/project/outputs", "C:/qub/a.jar", "/project/libs/b.jar"),
+                        module.getClasspath(Path.parse("/project"), true).map(Path::toString));
+                    test.assertEqual(
+                        Iterable.create("/other/outputs", "C:/qub/a.jar", "/other/libs/b.jar"),
+                        module.getClasspath(Path.parse("/other"), false).map(Path::toString));
+                });
+
+                runner.test("with forTests orderEntries", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .setOutputUrl("file://$MODULE_DIR$/outputs")
+                        .setSourceFolderForTests(true);
+                    final IntellijModuleLibrary testLibrary = IntellijModuleLibrary.create()
+                        .addClassesUrl("jar://C:/qub/test.jar!/");
+                    testLibrary.toXml().setAttribute("forTests", "true");
+                    module.addModuleLibrary(testLibrary);
+
+                    test.assertEqual(
+                        Iterable.create(),
+                        module.getClasspath(Path.parse("/project"), false).map(Path::toString));
+                    test.assertEqual(
+                        Iterable.create("/project/outputs", "C:/qub/test.jar"),
+                        module.getClasspath(Path.parse("/project"), true).map(Path::toString));
+                });
+
+                runner.test("with repeated queries", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/a.jar!/"));
+                    final Iterable<Path> classpath = module.getClasspath(Path.parse("/project"), false);
+                    test.assertSame(classpath, module.getClasspath(Path.parse("/project"), false));
+                });
+
+                runner.test("with returned classpath", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/a.jar!/"));
+                    final Iterable<Path> classpath = module.getClasspath(Path.parse("/project"), false);
+                    test.assertFalse(classpath instanceof List);
+                    test.assertEqual(Iterable.create("C:/qub/a.jar"), module.getClasspath(Path.parse("/project"), false).map(Path::toString));
+                });
+
+                runner.test("with changes", (Test test) ->
+                {
+                    final IntellijModuleLibrary library = IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/a.jar!/");
+                    final IntellijModule module = IntellijModule.create()
+                        .addModuleLibrary(library);
+                    final Path moduleFolderPath = Path.parse("/project");
+                    test.assertEqual(Iterable.create("C:/qub/a.jar"), module.getClasspath(moduleFolderPath, false).map(Path::toString));
+
+                    library.addClassesUrl("jar://C:/qub/b.jar!/");
+                    test.assertEqual(Iterable.create("C:/qub/a.jar", "C:/qub/b.jar"), module.getClasspath(moduleFolderPath, false).map(Path::toString));
+
+                    module.getModuleLibraries().first().await().clearClassesUrls();
+                    test.assertEqual(Iterable.create(), module.getClasspath(moduleFolderPath, false).map(Path::toString));
+
+                    module.setSourceFolderForTests(false).setOutputUrl("file://$MODULE_DIR$/outputs");
+                    test.assertEqual(Iterable.create("/project/outputs"), module.getClasspath(moduleFolderPath, false).map(Path::toString));
+
+                    module.addModuleLibraryIfAbsent(IntellijModuleLibrary.create().addClassesUrl("file://$MODULE_DIR$/classes/"));
+                    test.assertEqual(Iterable.create("/project/outputs", "/project/classes"), module.getClasspath(moduleFolderPath, false).map(Path::toString));
+
+                    module.clearModuleLibraries();
+                    test.assertEqual(Iterable.create("/project/outputs"), module.getClasspath(moduleFolderPath, false).map(Path::toString));
+                });
+            });
+
             runner.testGroup("toXml()", () ->
             {
                 final Action2<IntellijModule,XMLDocument> toXmlTest = (IntellijModule module, XMLDocument expected) ->
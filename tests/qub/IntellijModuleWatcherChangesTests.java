@@ -0,0 +1,43 @@
+package qub;
+
+public interface IntellijModuleWatcherChangesTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijModuleWatcherChanges.class, () ->
+        {
+            final java.util.Set<java.nio.file.Path> none = java.util.Collections.emptySet();
+
+            runner.test("with no changes", (Test test) ->
+            {
+                final IntellijModuleWatcherChanges changes = IntellijModuleWatcherChanges.create(none, none, none, none, none, none, java.util.Collections.emptyMap());
+                test.assertFalse(changes.any());
+                test.assertEqual(Iterable.create(), changes.getAddedModulePaths());
+                test.assertEqual(Iterable.create(), changes.getFailedPaths());
+            });
+
+            runner.test("with sorted paths", (Test test) ->
+            {
+                final java.nio.file.Path a = java.nio.file.Paths.get("a.iml");
+                final java.nio.file.Path b = java.nio.file.Paths.get("b.iml");
+                final IntellijModuleWatcherChanges changes = IntellijModuleWatcherChanges.create(
+                    new java.util.LinkedHashSet<>(java.util.Arrays.asList(b, a)), none, none, none, none, none, java.util.Collections.emptyMap());
+                test.assertTrue(changes.any());
+                test.assertEqual(Iterable.create(a, b), changes.getAddedModulePaths());
+            });
+
+            runner.test("with errors", (Test test) ->
+            {
+                final java.nio.file.Path a = java.nio.file.Paths.get("a.iml");
+                final java.nio.file.Path b = java.nio.file.Paths.get("b.iml");
+                final ParseException error = new ParseException("bad");
+                final IntellijModuleWatcherChanges changes = IntellijModuleWatcherChanges.create(none, none, none, none, none, none, java.util.Collections.singletonMap(a, error));
+                test.assertTrue(changes.any());
+                test.assertEqual(Iterable.create(a), changes.getFailedPaths());
+                test.assertSame(error, changes.getError(a).await());
+                test.assertThrows(() -> changes.getError(b).await(),
+                    new NotFoundException("No error was thrown for the file \"b.iml\"."));
+            });
+        });
+    }
+}
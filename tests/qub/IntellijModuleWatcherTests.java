@@ -0,0 +1,194 @@
+package qub;
+
+public interface IntellijModuleWatcherTests
+{
+    static java.nio.file.Path createTempFolder()
+    {
+        try
+        {
+            return java.nio.file.Files.createTempDirectory("IntellijModuleWatcherTests").toAbsolutePath().normalize();
+        }
+        catch (java.io.IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static void write(java.nio.file.Path path, String text)
+    {
+        try
+        {
+            java.nio.file.Files.createDirectories(path.getParent());
+            java.nio.file.Files.write(path, text.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        }
+        catch (java.io.IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static void delete(java.nio.file.Path path)
+    {
+        try
+        {
+            if (java.nio.file.Files.isDirectory(path))
+            {
+                try (final java.util.stream.Stream<java.nio.file.Path> children = java.nio.file.Files.list(path))
+                {
+                    for (final java.nio.file.Path child : (java.lang.Iterable<java.nio.file.Path>)children::iterator)
+                    {
+                        IntellijModuleWatcherTests.delete(child);
+                    }
+                }
+            }
+            java.nio.file.Files.deleteIfExists(path);
+        }
+        catch (java.io.IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Wait for changes from the provided watcher until the provided condition is true. The
+     * watcher is disposed if the condition isn't met within 10 seconds, which makes the wait fail
+     * instead of blocking forever.
+     */
+    static List<IntellijModuleWatcherChanges> waitUntil(IntellijModuleWatcher watcher, Func0<Boolean> condition)
+    {
+        final List<IntellijModuleWatcherChanges> result = List.create();
+        final java.util.concurrent.ScheduledExecutorService timeout = java.util.concurrent.Executors.newSingleThreadScheduledExecutor();
+        try
+        {
+            timeout.schedule(() -> { watcher.dispose().await(); }, 10, java.util.concurrent.TimeUnit.SECONDS);
+            while (!condition.run())
+            {
+                result.add(watcher.waitForChanges().await());
+            }
+        }
+        finally
+        {
+            timeout.shutdownNow();
+        }
+        return result;
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijModuleWatcher.class, () ->
+        {
+            runner.testGroup("create(java.nio.file.Path,long)", () ->
+            {
+                runner.test("with null rootFolderPath", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleWatcher.create(null),
+                        new PreConditionFailure("rootFolderPath cannot be null."));
+                });
+
+                runner.test("with negative coalesceMilliseconds", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijModuleWatcher.create(java.nio.file.Paths.get("a"), -1),
+                        new PreConditionFailure("coalesceMilliseconds (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with folder that doesn't exist", (Test test) ->
+                {
+                    final java.nio.file.Path rootFolderPath = java.nio.file.Paths.get("IntellijModuleWatcherTests-folder-that-does-not-exist").toAbsolutePath().normalize();
+                    test.assertThrows(() -> IntellijModuleWatcher.create(rootFolderPath).await(),
+                        new NotFoundException("Could not find a folder at " + Strings.quote(rootFolderPath.toString()) + "."));
+                });
+            });
+
+            // This is the only test in this file that touches the real file system. It uses a
+            // folder under java.io.tmpdir, depends on the platform's WatchService delivering
+            // events, and disposes the watcher after 10 seconds of wall-clock time so that a
+            // missing event fails the test instead of hanging it.
+            runner.test("integration: load, watch, and dispose a folder on disk", (Test test) ->
+            {
+                final String moduleText = IntellijModule.create().setOutputUrl("a").toString();
+                final String changedModuleText = IntellijModule.create().setOutputUrl("b").toString();
+                final String workspaceText = IntellijWorkspace.create().toString();
+
+                final java.nio.file.Path rootFolderPath = IntellijModuleWatcherTests.createTempFolder();
+                try
+                {
+                    final java.nio.file.Path modulePath = rootFolderPath.resolve("a/a.iml");
+                    final java.nio.file.Path invalidModulePath = rootFolderPath.resolve("b/b.iml");
+                    IntellijModuleWatcherTests.write(modulePath, moduleText);
+                    IntellijModuleWatcherTests.write(invalidModulePath, "<not a module");
+                    IntellijModuleWatcherTests.write(rootFolderPath.resolve("a/notes.txt"), "hello");
+
+                    final IntellijModuleWatcher watcher = IntellijModuleWatcher.create(rootFolderPath, 50).await();
+                    try
+                    {
+                        // Loading the folder.
+                        test.assertEqual(rootFolderPath, watcher.getRootFolderPath());
+                        test.assertEqual(java.util.Collections.singleton(modulePath), watcher.getModules().keySet());
+                        test.assertEqual("a", watcher.getModules().get(modulePath).getOutputUrl());
+                        test.assertEqual(Iterable.create(modulePath), watcher.getInitialChanges().getAddedModulePaths());
+                        test.assertEqual(Iterable.create(invalidModulePath), watcher.getInitialChanges().getFailedPaths());
+                        test.assertNotNull(watcher.getInitialChanges().getError(invalidModulePath).await());
+
+                        final List<IntellijModuleWatcherChanges> notifiedChanges = List.create();
+                        watcher.setOnChanges(notifiedChanges::add);
+                        final java.util.Map<java.nio.file.Path,IntellijModule> initialModules = watcher.getModules();
+
+                        // Changing an existing module.
+                        IntellijModuleWatcherTests.write(modulePath, changedModuleText);
+                        List<IntellijModuleWatcherChanges> changes = IntellijModuleWatcherTests.waitUntil(watcher,
+                            () -> "b".equals(watcher.getModules().get(modulePath).getOutputUrl()));
+                        test.assertTrue(changes.any());
+                        test.assertEqual(Iterable.create(modulePath), changes.last().await().getChangedModulePaths());
+                        test.assertEqual(changes, notifiedChanges);
+                        test.assertEqual("a", initialModules.get(modulePath).getOutputUrl());
+
+                        // Fixing the module that didn't parse.
+                        IntellijModuleWatcherTests.write(invalidModulePath, moduleText);
+                        changes = IntellijModuleWatcherTests.waitUntil(watcher,
+                            () -> watcher.getModules().containsKey(invalidModulePath));
+                        test.assertTrue(changes.where((IntellijModuleWatcherChanges c) -> c.getAddedModulePaths().contains(invalidModulePath)).any());
+
+                        // Adding a module in a new folder.
+                        final java.nio.file.Path addedModulePath = rootFolderPath.resolve("c/d/c.iml");
+                        IntellijModuleWatcherTests.write(addedModulePath, moduleText);
+                        changes = IntellijModuleWatcherTests.waitUntil(watcher,
+                            () -> watcher.getModules().containsKey(addedModulePath));
+                        test.assertTrue(changes.where((IntellijModuleWatcherChanges c) -> c.getAddedModulePaths().contains(addedModulePath)).any());
+
+                        // Adding a workspace.
+                        final java.nio.file.Path workspacePath = rootFolderPath.resolve(".idea/workspace.xml");
+                        IntellijModuleWatcherTests.write(workspacePath, workspaceText);
+                        changes = IntellijModuleWatcherTests.waitUntil(watcher,
+                            () -> watcher.getWorkspaces().containsKey(workspacePath));
+                        test.assertTrue(changes.where((IntellijModuleWatcherChanges c) -> c.getAddedWorkspacePaths().contains(workspacePath)).any());
+
+                        // Deleting a module.
+                        IntellijModuleWatcherTests.delete(modulePath);
+                        changes = IntellijModuleWatcherTests.waitUntil(watcher,
+                            () -> !watcher.getModules().containsKey(modulePath));
+                        test.assertTrue(changes.where((IntellijModuleWatcherChanges c) -> c.getRemovedModulePaths().contains(modulePath)).any());
+
+                        // Deleting a folder that contains a module.
+                        IntellijModuleWatcherTests.delete(rootFolderPath.resolve("c"));
+                        changes = IntellijModuleWatcherTests.waitUntil(watcher,
+                            () -> !watcher.getModules().containsKey(addedModulePath));
+                        test.assertTrue(changes.where((IntellijModuleWatcherChanges c) -> c.getRemovedModulePaths().contains(addedModulePath)).any());
+                    }
+                    finally
+                    {
+                        // Disposing.
+                        test.assertTrue(watcher.dispose().await());
+                        test.assertTrue(watcher.isDisposed());
+                        test.assertFalse(watcher.dispose().await());
+                        test.assertThrows(() -> watcher.waitForChanges(),
+                            new PreConditionFailure("this.isDisposed() cannot be true."));
+                    }
+                }
+                finally
+                {
+                    IntellijModuleWatcherTests.delete(rootFolderPath);
+                }
+            });
+        });
+    }
+}
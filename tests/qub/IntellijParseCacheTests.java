@@ -0,0 +1,167 @@
+package qub;
+
+public interface IntellijParseCacheTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijParseCache.class, () ->
+        {
+            runner.testGroup("create(int,long)", () ->
+            {
+                runner.test("with 0 maximumEntryCount", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijParseCache.create(0, 100),
+                        new PreConditionFailure("maximumEntryCount (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with 0 maximumEstimatedByteCount", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijParseCache.create(1, 0),
+                        new PreConditionFailure("maximumEstimatedByteCount (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with valid bounds", (Test test) ->
+                {
+                    final IntellijParseCache cache = IntellijParseCache.create(1, 100);
+                    test.assertEqual(0, cache.getEntryCount());
+                    test.assertEqual(0L, cache.getEstimatedByteCount());
+                    test.assertEqual(0L, cache.getHitCount());
+                    test.assertEqual(0L, cache.getMissCount());
+                    test.assertEqual(0L, cache.getEvictionCount());
+                });
+            });
+
+            runner.testGroup("parseModule(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijParseCache cache = IntellijParseCache.create(10, 1000000);
+                    test.assertThrows(() -> cache.parseModule(null),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with non-existing file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/a.iml").await();
+                    final IntellijParseCache cache = IntellijParseCache.create(10, 1000000);
+                    test.assertThrows(() -> cache.parseModule(file).await(),
+                        new FileNotFoundException(file));
+                    test.assertEqual(0, cache.getEntryCount());
+                });
+
+                runner.test("with the same file twice", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/a.iml").await();
+                    file.setContentsAsString(IntellijModule.create().setOutputUrl("a").toString()).await();
+                    final IntellijParseCache cache = IntellijParseCache.create(10, 1000000);
+
+                    final IntellijModule module1 = cache.parseModule(file).await();
+                    test.assertEqual(IntellijModule.create().setOutputUrl("a"), module1);
+                    test.assertEqual(0L, cache.getHitCount());
+                    test.assertEqual(1L, cache.getMissCount());
+
+                    final IntellijModule module2 = cache.parseModule(file).await();
+                    test.assertEqual(module1, module2);
+                    test.assertNotSame(module1.toXml(), module2.toXml());
+                    test.assertEqual(1L, cache.getHitCount());
+                    test.assertEqual(1L, cache.getMissCount());
+                    test.assertEqual(1, cache.getEntryCount());
+                });
+
+                runner.test("with changes to a returned module", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/a.iml").await();
+                    file.setContentsAsString(IntellijModule.create().toString()).await();
+                    final IntellijParseCache cache = IntellijParseCache.create(10, 1000000);
+
+                    cache.parseModule(file).await()
+                        .setOutputUrl("changed")
+                        .addModuleLibrary(IntellijModuleLibrary.create());
+
+                    test.assertEqual(IntellijModule.create(), cache.parseModule(file).await());
+                });
+
+                runner.test("with a file that changed", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/a.iml").await();
+                    file.setContentsAsString(IntellijModule.create().toString()).await();
+                    final IntellijParseCache cache = IntellijParseCache.create(10, 1000000);
+                    cache.parseModule(file).await();
+
+                    file.setContentsAsString(IntellijModule.create().setOutputUrl("hello").toString()).await();
+                    test.assertEqual(IntellijModule.create().setOutputUrl("hello"), cache.parseModule(file).await());
+                    test.assertEqual(0L, cache.getHitCount());
+                    test.assertEqual(2L, cache.getMissCount());
+                    test.assertEqual(1, cache.getEntryCount());
+                });
+
+                runner.test("with more files than maximumEntryCount", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File a = fileSystem.getFile("/a.iml").await();
+                    a.setContentsAsString(IntellijModule.create().toString()).await();
+                    final File b = fileSystem.getFile("/b.iml").await();
+                    b.setContentsAsString(IntellijModule.create().toString()).await();
+                    final File c = fileSystem.getFile("/c.iml").await();
+                    c.setContentsAsString(IntellijModule.create().toString()).await();
+                    final IntellijParseCache cache = IntellijParseCache.create(2, 1000000);
+
+                    cache.parseModule(a).await();
+                    cache.parseModule(b).await();
+                    cache.parseModule(a).await();
+                    cache.parseModule(c).await();
+                    test.assertEqual(2, cache.getEntryCount());
+                    test.assertEqual(1L, cache.getEvictionCount());
+
+                    cache.parseModule(a).await();
+                    test.assertEqual(2L, cache.getHitCount());
+                    cache.parseModule(b).await();
+                    test.assertEqual(4L, cache.getMissCount());
+                });
+
+                runner.test("with more bytes than maximumEstimatedByteCount", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File a = fileSystem.getFile("/a.iml").await();
+                    a.setContentsAsString(IntellijModule.create().toString()).await();
+                    final File b = fileSystem.getFile("/b.iml").await();
+                    b.setContentsAsString(IntellijModule.create().toString()).await();
+                    final IntellijParseCache cache = IntellijParseCache.create(10, 1);
+
+                    cache.parseModule(a).await();
+                    test.assertEqual(1, cache.getEntryCount());
+                    cache.parseModule(b).await();
+                    test.assertEqual(1, cache.getEntryCount());
+                    test.assertEqual(1L, cache.getEvictionCount());
+                });
+            });
+
+            runner.testGroup("parseWorkspace(File)", () ->
+            {
+                runner.test("with the same file twice", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/workspace.xml").await();
+                    file.setContentsAsString(IntellijWorkspace.create().toString()).await();
+                    final IntellijParseCache cache = IntellijParseCache.create(10, 1000000);
+
+                    test.assertEqual(IntellijWorkspace.create(), cache.parseWorkspace(file).await());
+                    test.assertEqual(IntellijWorkspace.create(), cache.parseWorkspace(file).await());
+                    test.assertEqual(1L, cache.getHitCount());
+                    test.assertEqual(1L, cache.getMissCount());
+                });
+            });
+        });
+    }
+}
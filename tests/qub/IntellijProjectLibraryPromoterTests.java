@@ -0,0 +1,202 @@
+package qub;
+
+public interface IntellijProjectLibraryPromoterTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijProjectLibraryPromoter.class, () ->
+        {
+            runner.testGroup("create(int)", () ->
+            {
+                runner.test("with -1", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijProjectLibraryPromoter.create(-1),
+                        new PreConditionFailure("moduleCountThreshold (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with 1", (Test test) ->
+                {
+                    test.assertEqual(1, IntellijProjectLibraryPromoter.create(1).getModuleCountThreshold());
+                });
+            });
+
+            runner.testGroup("getRootsKey(IntellijModuleLibrary)", () ->
+            {
+                runner.test("with same urls in different orders", (Test test) ->
+                {
+                    test.assertEqual(
+                        IntellijProjectLibraryPromoter.getRootsKey(IntellijModuleLibrary.create().addClassesUrl("a").addClassesUrl("b").addSourcesUrl("c")),
+                        IntellijProjectLibraryPromoter.getRootsKey(IntellijModuleLibrary.create().addSourcesUrl("c").addClassesUrl("b").addClassesUrl("a")));
+                });
+
+                runner.test("with same javadoc urls in different orders", (Test test) ->
+                {
+                    test.assertEqual(
+                        IntellijProjectLibraryPromoter.getRootsKey(IntellijModuleLibrary.create().addClassesUrl("a").addJavadocUrl("b").addJavadocUrl("c")),
+                        IntellijProjectLibraryPromoter.getRootsKey(IntellijModuleLibrary.create().addJavadocUrl("c").addClassesUrl("a").addJavadocUrl("b")));
+                });
+
+                runner.test("with different javadoc urls", (Test test) ->
+                {
+                    test.assertNotEqual(
+                        IntellijProjectLibraryPromoter.getRootsKey(IntellijModuleLibrary.create().addClassesUrl("a")),
+                        IntellijProjectLibraryPromoter.getRootsKey(IntellijModuleLibrary.create().addClassesUrl("a").addJavadocUrl("d")));
+                });
+
+                runner.test("with javadoc url moved to sources", (Test test) ->
+                {
+                    test.assertNotEqual(
+                        IntellijProjectLibraryPromoter.getRootsKey(IntellijModuleLibrary.create().addJavadocUrl("a")),
+                        IntellijProjectLibraryPromoter.getRootsKey(IntellijModuleLibrary.create().addSourcesUrl("a")));
+                });
+
+                runner.test("with classes url moved to sources", (Test test) ->
+                {
+                    test.assertNotEqual(
+                        IntellijProjectLibraryPromoter.getRootsKey(IntellijModuleLibrary.create().addClassesUrl("a")),
+                        IntellijProjectLibraryPromoter.getRootsKey(IntellijModuleLibrary.create().addSourcesUrl("a")));
+                });
+            });
+
+            runner.testGroup("analyze(Iterable<IntellijModule>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijProjectLibraryPromoter.create(1).analyze(null),
+                        new PreConditionFailure("modules cannot be null."));
+                });
+
+                runner.test("with shared and unshared libraries", (Test test) ->
+                {
+                    final IntellijModule a = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/shared.jar!/").addSourcesUrl("jar://C:/qub/shared.sources.jar!/"))
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/a.jar!/"));
+                    final IntellijModule b = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/shared.jar!/").addSourcesUrl("jar://C:/qub/shared.sources.jar!/"));
+                    final String aText = a.toString();
+                    final String bText = b.toString();
+
+                    final Iterable<IntellijProjectLibrary> projectLibraries = IntellijProjectLibraryPromoter.create(1).analyze(Iterable.create(a, b));
+                    test.assertEqual(
+                        Iterable.create(IntellijProjectLibrary.create("shared")
+                            .addClassesUrl("jar://C:/qub/shared.jar!/")
+                            .addSourcesUrl("jar://C:/qub/shared.sources.jar!/")),
+                        projectLibraries);
+                    test.assertEqual(aText, a.toString());
+                    test.assertEqual(bText, b.toString());
+                });
+
+                runner.test("with library used twice by one module", (Test test) ->
+                {
+                    final IntellijModule a = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/a.jar!/"))
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/a.jar!/"));
+                    test.assertEqual(Iterable.create(), IntellijProjectLibraryPromoter.create(1).analyze(Iterable.create(a)));
+                    test.assertEqual(1, IntellijProjectLibraryPromoter.create(0).analyze(Iterable.create(a)).getCount());
+                });
+
+                runner.test("with module that appears more than once", (Test test) ->
+                {
+                    final IntellijModule a = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/shared.jar!/"));
+                    final IntellijModule b = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/shared.jar!/"));
+                    test.assertEqual(Iterable.create(), IntellijProjectLibraryPromoter.create(2).analyze(Iterable.create(a, b, a)));
+                    test.assertEqual(1, IntellijProjectLibraryPromoter.create(1).analyze(Iterable.create(a, b, a)).getCount());
+                });
+
+                runner.test("with module-relative libraries", (Test test) ->
+                {
+                    final IntellijModule a = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://$MODULE_DIR$/../lib/x.jar!/"))
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/shared.jar!/").addSourcesUrl("jar://$MODULE_DIR$/shared.sources.jar!/"));
+                    final IntellijModule b = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://$MODULE_DIR$/../lib/x.jar!/"))
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/shared.jar!/").addSourcesUrl("jar://$MODULE_DIR$/shared.sources.jar!/"));
+                    final String aText = a.toString();
+                    final String bText = b.toString();
+
+                    test.assertEqual(Iterable.create(), IntellijProjectLibraryPromoter.create(1).promote(Iterable.create(a, b)));
+                    test.assertEqual(aText, a.toString());
+                    test.assertEqual(bText, b.toString());
+                });
+
+                runner.test("with libraries that only differ by javadoc urls", (Test test) ->
+                {
+                    final IntellijModule a = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/shared.jar!/").addJavadocUrl("jar://C:/qub/shared.javadoc.jar!/"));
+                    final IntellijModule b = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/shared.jar!/"));
+                    test.assertEqual(Iterable.create(), IntellijProjectLibraryPromoter.create(1).analyze(Iterable.create(a, b)));
+                });
+
+                runner.test("with libraries that have the same jar name", (Test test) ->
+                {
+                    final IntellijModule a = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/one/a.jar!/"))
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/two/a.jar!/"))
+                        .addModuleLibrary(IntellijModuleLibrary.create().addSourcesUrl("jar://C:/two/a.sources.jar!/"));
+                    test.assertEqual(
+                        Iterable.create("a", "a_2", "library"),
+                        IntellijProjectLibraryPromoter.create(0).analyze(Iterable.create(a)).map(IntellijProjectLibrary::getName));
+                });
+            });
+
+            runner.testGroup("promote(Iterable<IntellijModule>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijProjectLibraryPromoter.create(1).promote(null),
+                        new PreConditionFailure("modules cannot be null."));
+                });
+
+                runner.test("with shared and unshared libraries", (Test test) ->
+                {
+                    final IntellijModuleLibrary sharedLibrary = IntellijModuleLibrary.create()
+                        .addClassesUrl("jar://C:/qub/shared.jar!/");
+                    final IntellijModule a = IntellijModule.create()
+                        .setInheritedJdk(true)
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/shared.jar!/"))
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/a.jar!/"));
+                    final IntellijModuleLibrary bSharedLibrary = IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/shared.jar!/");
+                    bSharedLibrary.toXml().setAttribute("scope", "TEST");
+                    final IntellijModule b = IntellijModule.create()
+                        .addModuleLibrary(bSharedLibrary);
+                    final IntellijModule c = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/a.jar!/").addClassesUrl("jar://C:/qub/c.jar!/"));
+
+                    final Iterable<IntellijProjectLibrary> projectLibraries = IntellijProjectLibraryPromoter.create(1).promote(Iterable.create(a, b, c));
+                    test.assertEqual(
+                        Iterable.create(IntellijProjectLibrary.create("shared").addClassesUrl("jar://C:/qub/shared.jar!/")),
+                        projectLibraries);
+
+                    test.assertEqual(
+                        IntellijModule.create()
+                            .setInheritedJdk(true)
+                            .addLibraryOrderEntry(IntellijLibraryOrderEntry.create("shared"))
+                            .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/a.jar!/")),
+                        a);
+                    test.assertEqual(Iterable.create("shared"), a.getLibraryOrderEntries().map(IntellijLibraryOrderEntry::getName));
+                    test.assertEqual(1, a.getModuleLibraries().getCount());
+
+                    final IntellijLibraryOrderEntry bOrderEntry = b.getLibraryOrderEntries().first().await();
+                    test.assertEqual("shared", bOrderEntry.getName());
+                    test.assertEqual("TEST", IntellijXMLElements.getAttributeValue(bOrderEntry.toXml(), "scope"));
+                    test.assertEqual(0, b.getModuleLibraries().getCount());
+
+                    test.assertEqual(Iterable.create(), c.getLibraryOrderEntries());
+                    test.assertEqual(1, c.getModuleLibraries().getCount());
+                });
+
+                runner.test("with nothing to promote", (Test test) ->
+                {
+                    final IntellijModule a = IntellijModule.create()
+                        .addModuleLibrary(IntellijModuleLibrary.create().addClassesUrl("jar://C:/qub/a.jar!/"));
+                    final String aText = a.toString();
+                    test.assertEqual(Iterable.create(), IntellijProjectLibraryPromoter.create(1).promote(Iterable.create(a)));
+                    test.assertEqual(aText, a.toString());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,109 @@
+package qub;
+
+public interface IntellijProjectLibraryTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijProjectLibrary.class, () ->
+        {
+            runner.testGroup("create(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijProjectLibrary.create((String)null),
+                        new PreConditionFailure("name cannot be null."));
+                });
+
+                runner.test("with name", (Test test) ->
+                {
+                    final IntellijProjectLibrary library = IntellijProjectLibrary.create("junit");
+                    test.assertEqual("junit", library.getName());
+                    test.assertEqual(
+                        XMLDocument.create()
+                            .setRoot(XMLElement.create("component").setAttribute("name", "libraryTable")
+                                .addChild(XMLElement.create("library").setAttribute("name", "junit")
+                                    .addChild(XMLElement.create("CLASSES"))
+                                    .addChild(XMLElement.create("JAVADOC"))
+                                    .addChild(XMLElement.create("SOURCES")))),
+                        library.toXml());
+                });
+            });
+
+            runner.testGroup("create(XMLDocument)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijProjectLibrary.create((XMLDocument)null),
+                        new PreConditionFailure("xml cannot be null."));
+                });
+
+                runner.test("with wrong root element", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijProjectLibrary.create(XMLDocument.create().setRoot(XMLElement.create("module"))),
+                        new PreConditionFailure("xml.getRoot().getName() (module) must be component."));
+                });
+            });
+
+            runner.testGroup("parse(String)", () ->
+            {
+                runner.test("with library", (Test test) ->
+                {
+                    final IntellijProjectLibrary library = IntellijProjectLibrary.parse(
+                        "<component name=\"libraryTable\">\n" +
+                        "  <library name=\"junit\">\n" +
+                        "    <CLASSES>\n" +
+                        "      <root url=\"jar://C:/qub/junit.jar!/\"/>\n" +
+                        "    </CLASSES>\n" +
+                        "    <JAVADOC/>\n" +
+                        "    <SOURCES>\n" +
+                        "      <root url=\"jar://C:/qub/junit.sources.jar!/\"/>\n" +
+                        "    </SOURCES>\n" +
+                        "  </library>\n" +
+                        "</component>").await();
+                    test.assertEqual("junit", library.getName());
+                    test.assertEqual(Iterable.create("jar://C:/qub/junit.jar!/"), library.getClassesUrls());
+                    test.assertEqual(Iterable.create(), library.getJavadocUrls());
+                    test.assertEqual(Iterable.create("jar://C:/qub/junit.sources.jar!/"), library.getSourcesUrls());
+                });
+            });
+
+            runner.test("add urls", (Test test) ->
+            {
+                final IntellijProjectLibrary library = IntellijProjectLibrary.create("a")
+                    .addClassesUrl("b")
+                    .addJavadocUrl("c")
+                    .addSourcesUrl("d")
+                    .addClassesUrl("e");
+                test.assertEqual(Iterable.create("b", "e"), library.getClassesUrls());
+                test.assertEqual(Iterable.create("c"), library.getJavadocUrls());
+                test.assertEqual(Iterable.create("d"), library.getSourcesUrls());
+            });
+
+            runner.testGroup("getFileName()", () ->
+            {
+                final Action2<String,String> getFileNameTest = (String name, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(name), (Test test) ->
+                    {
+                        test.assertEqual(expected, IntellijProjectLibrary.create(name).getFileName());
+                    });
+                };
+
+                getFileNameTest.run("junit", "junit.xml");
+                getFileNameTest.run("Maven: org.junit:junit-4.12", "Maven__org_junit_junit_4_12.xml");
+            });
+
+            runner.test("saveIfChanged(File)", (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final File file = fileSystem.getFile("/.idea/libraries/junit.xml").await();
+                final IntellijProjectLibrary library = IntellijProjectLibrary.create("junit").addClassesUrl("a");
+
+                test.assertTrue(library.saveIfChanged(file).await());
+                test.assertFalse(library.saveIfChanged(file).await());
+                test.assertEqual(library, IntellijProjectLibrary.parse(file).await());
+            });
+        });
+    }
+}
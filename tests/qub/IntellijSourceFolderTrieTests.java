@@ -0,0 +1,134 @@
+package qub;
+
+public interface IntellijSourceFolderTrieTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijSourceFolderTrie.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final IntellijSourceFolderTrie trie = IntellijSourceFolderTrie.create();
+                test.assertEqual(0, trie.getSourceFolderCount());
+                test.assertThrows(() -> trie.getOwner(Path.parse("/project/sources/A.java")).await(),
+                    new NotFoundException("Could not find a source folder that contains \"/project/sources/A.java\"."));
+            });
+
+            runner.testGroup("addModule(IntellijModule,Path)", () ->
+            {
+                runner.test("with null module", (Test test) ->
+                {
+                    final IntellijSourceFolderTrie trie = IntellijSourceFolderTrie.create();
+                    test.assertThrows(() -> trie.addModule(null, Path.parse("/project")),
+                        new PreConditionFailure("module cannot be null."));
+                });
+
+                runner.test("with null moduleFolderPath", (Test test) ->
+                {
+                    final IntellijSourceFolderTrie trie = IntellijSourceFolderTrie.create();
+                    test.assertThrows(() -> trie.addModule(IntellijModule.create(), null),
+                        new PreConditionFailure("moduleFolderPath cannot be null."));
+                });
+
+                runner.test("with module with no source folders", (Test test) ->
+                {
+                    final IntellijSourceFolderTrie trie = IntellijSourceFolderTrie.create();
+                    test.assertSame(trie, trie.addModule(IntellijModule.create(), Path.parse("/project")));
+                    test.assertEqual(0, trie.getSourceFolderCount());
+                });
+
+                runner.test("with duplicate and non-file source folders", (Test test) ->
+                {
+                    final IntellijSourceFolderTrie trie = IntellijSourceFolderTrie.create();
+                    trie.addModule(
+                        IntellijModule.create()
+                            .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources"))
+                            .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources/"))
+                            .addSourceFolder(IntellijSourceFolder.create("http://example.com/sources")),
+                        Path.parse("/project"));
+                    test.assertEqual(1, trie.getSourceFolderCount());
+                });
+            });
+
+            runner.testGroup("getOwner(Path)", () ->
+            {
+                final IntellijModule a = IntellijModule.create()
+                    .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources"))
+                    .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/tests").setIsTestSource(true));
+                final IntellijModule b = IntellijModule.create()
+                    .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources"))
+                    .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources/generated"));
+                final IntellijSourceFolderTrie trie = IntellijSourceFolderTrie.create()
+                    .addModule(a, Path.parse("/project/a"))
+                    .addModule(b, Path.parse("/project/b"));
+
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> trie.getOwner(null),
+                        new PreConditionFailure("path cannot be null."));
+                });
+
+                final Action4<String,IntellijModule,String,Boolean> getOwnerTest = (String path, IntellijModule expectedModule, String expectedSourceFolderPath, Boolean expectedIsTestSource) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(path), (Test test) ->
+                    {
+                        final IntellijSourceFolderOwner owner = trie.getOwner(Path.parse(path)).await();
+                        test.assertSame(expectedModule, owner.getModule());
+                        test.assertEqual(expectedSourceFolderPath, owner.getSourceFolderPath().toString());
+                        test.assertEqual(expectedIsTestSource, owner.getIsTestSource());
+                    });
+                };
+
+                getOwnerTest.run("/project/a/sources", a, "/project/a/sources", false);
+                getOwnerTest.run("/project/a/sources/qub/A.java", a, "/project/a/sources", false);
+                getOwnerTest.run("/project/a/tests/qub/ATests.java", a, "/project/a/tests", true);
+                getOwnerTest.run("\\project\\a\\tests\\qub\\ATests.java", a, "/project/a/tests", true);
+                getOwnerTest.run("/project/b/sources/qub/B.java", b, "/project/b/sources", false);
+                getOwnerTest.run("/project/b/sources/generated/qub/C.java", b, "/project/b/sources/generated", false);
+
+                final Action1<String> notFoundTest = (String path) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(path), (Test test) ->
+                    {
+                        test.assertThrows(() -> trie.getOwner(Path.parse(path)).await(),
+                            new NotFoundException("Could not find a source folder that contains " + Strings.quote(path) + "."));
+                    });
+                };
+
+                notFoundTest.run("/project");
+                notFoundTest.run("/project/a/a.iml");
+                notFoundTest.run("/project/a/sourcesA/qub/A.java");
+                notFoundTest.run("/project/c/sources/qub/C.java");
+
+                runner.test("with source folder added after the module", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create();
+                    final IntellijSourceFolderTrie moduleTrie = IntellijSourceFolderTrie.create()
+                        .addModule(module, Path.parse("/project"));
+                    module.addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources"));
+
+                    test.assertEqual(1, moduleTrie.getSourceFolderCount());
+                    final IntellijSourceFolderOwner owner = moduleTrie.getOwner(Path.parse("/project/sources/A.java")).await();
+                    test.assertSame(module, owner.getModule());
+                    test.assertEqual("/project", owner.getModuleFolderPath().toString());
+                    test.assertEqual("file://$MODULE_DIR$/sources", owner.getSourceFolder().getUrl());
+                });
+
+                runner.test("with source folder added after the module is in two tries", (Test test) ->
+                {
+                    final IntellijModule module = IntellijModule.create();
+                    final IntellijSourceFolderTrie firstTrie = IntellijSourceFolderTrie.create()
+                        .addModule(module, Path.parse("/project"));
+                    final IntellijSourceFolderTrie secondTrie = IntellijSourceFolderTrie.create()
+                        .addModule(module, Path.parse("/other"));
+                    module.addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources"));
+
+                    test.assertEqual(1, firstTrie.getSourceFolderCount());
+                    test.assertSame(module, firstTrie.getOwner(Path.parse("/project/sources/A.java")).await().getModule());
+                    test.assertEqual(1, secondTrie.getSourceFolderCount());
+                    test.assertSame(module, secondTrie.getOwner(Path.parse("/other/sources/A.java")).await().getModule());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package qub;
+
+public interface IntellijUrlPoolTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijUrlPool.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final IntellijUrlPool pool = IntellijUrlPool.create();
+                test.assertEqual(0, pool.getCount());
+            });
+
+            runner.testGroup("intern(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijUrlPool pool = IntellijUrlPool.create();
+                    test.assertNull(pool.intern(null));
+                    test.assertEqual(0, pool.getCount());
+                });
+
+                runner.test("with new url", (Test test) ->
+                {
+                    final IntellijUrlPool pool = IntellijUrlPool.create();
+                    final String url = new String("file://$MODULE_DIR$/sources");
+                    test.assertSame(url, pool.intern(url));
+                    test.assertEqual(1, pool.getCount());
+                });
+
+                runner.test("with equal urls", (Test test) ->
+                {
+                    final IntellijUrlPool pool = IntellijUrlPool.create();
+                    final String url1 = new String("file://$MODULE_DIR$/sources");
+                    final String url2 = new String("file://$MODULE_DIR$/sources");
+                    test.assertSame(url1, pool.intern(url1));
+                    test.assertSame(url1, pool.intern(url2));
+                    test.assertEqual(1, pool.getCount());
+                });
+            });
+
+            runner.testGroup("setShared(IntellijUrlPool)", () ->
+            {
+                runner.test("with module libraries and source folders", (Test test) ->
+                {
+                    final IntellijUrlPool previousShared = IntellijUrlPool.getShared();
+                    final IntellijUrlPool pool = IntellijUrlPool.create();
+                    IntellijUrlPool.setShared(pool);
+                    try
+                    {
+                        final IntellijModuleLibrary moduleLibrary1 = IntellijModuleLibrary.create()
+                            .addClassesUrl(new String("a"))
+                            .addSourcesUrl(new String("b"));
+                        final IntellijModuleLibrary moduleLibrary2 = IntellijModuleLibrary.create()
+                            .addClassesUrl(new String("a"))
+                            .addSourcesUrl(new String("b"));
+                        test.assertSame(moduleLibrary1.getClassesUrls().first().await(), moduleLibrary2.getClassesUrls().first().await());
+                        test.assertSame(moduleLibrary1.getSourcesUrls().first().await(), moduleLibrary2.getSourcesUrls().first().await());
+
+                        final IntellijSourceFolder sourceFolder = IntellijSourceFolder.create(new String("a"));
+                        test.assertSame(moduleLibrary1.getClassesUrls().first().await(), sourceFolder.getUrl());
+                        test.assertEqual(2, pool.getCount());
+                    }
+                    finally
+                    {
+                        IntellijUrlPool.setShared(previousShared);
+                    }
+                });
+
+                runner.test("with parsed modules", (Test test) ->
+                {
+                    final IntellijUrlPool previousShared = IntellijUrlPool.getShared();
+                    IntellijUrlPool.setShared(IntellijUrlPool.create());
+                    try
+                    {
+                        final String text = IntellijModule.create()
+                            .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources"))
+                            .toString();
+                        final IntellijModule module1 = IntellijModule.parse(new StringBuilder(text)).await();
+                        final IntellijModule module2 = IntellijModule.parse(new StringBuilder(text)).await();
+                        test.assertSame(
+                            module1.getSourceFolder("file://$MODULE_DIR$/sources").await().getUrl(),
+                            module2.getSourceFolder("file://$MODULE_DIR$/sources").await().getUrl());
+                    }
+                    finally
+                    {
+                        IntellijUrlPool.setShared(previousShared);
+                    }
+                });
+
+                runner.test("with modules parsed from Strings and files", (Test test) ->
+                {
+                    final IntellijUrlPool previousShared = IntellijUrlPool.getShared();
+                    IntellijUrlPool.setShared(IntellijUrlPool.create());
+                    try
+                    {
+                        final String text = IntellijModule.create()
+                            .addSourceFolder(IntellijSourceFolder.create("file://$MODULE_DIR$/sources"))
+                            .toString();
+                        final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                        fileSystem.createRoot("/").await();
+                        final File file = fileSystem.getFile("/a.iml").await();
+                        file.setContentsAsString(text).await();
+
+                        final IntellijModule module1 = IntellijModule.parse(text).await();
+                        final IntellijModule module2 = IntellijModule.parse(file).await();
+                        test.assertSame(
+                            module1.getSourceFolder("file://$MODULE_DIR$/sources").await().getUrl(),
+                            module2.getSourceFolder("file://$MODULE_DIR$/sources").await().getUrl());
+                    }
+                    finally
+                    {
+                        IntellijUrlPool.setShared(previousShared);
+                    }
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package qub;
+
+public interface IntellijUrlsTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijUrls.class, () ->
+        {
+            runner.testGroup("toPath(String,String)", () ->
+            {
+                runner.test("with null url", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijUrls.toPath(null, "/project"),
+                        new PreConditionFailure("url cannot be null."));
+                });
+
+                runner.test("with empty moduleFolderPath", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijUrls.toPath("file://a", ""),
+                        new PreConditionFailure("moduleFolderPath cannot be empty."));
+                });
+
+                final Action3<String,String,String> toPathTest = (String url, String moduleFolderPath, String expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(url), Strings.escapeAndQuote(moduleFolderPath)), (Test test) ->
+                    {
+                        test.assertEqual(expected, IntellijUrls.toPath(url, moduleFolderPath));
+                    });
+                };
+
+                toPathTest.run("http://example.com/a.jar", "/project", null);
+                toPathTest.run("a.jar", "/project", null);
+                toPathTest.run("file:///outputs", "/project", "/outputs");
+                toPathTest.run("file://$MODULE_DIR$", "/project", "/project");
+                toPathTest.run("file://$MODULE_DIR$/outputs", "/project", "/project/outputs");
+                toPathTest.run("file://$MODULE_DIR$/outputs/", "/project/", "/project/outputs");
+                toPathTest.run("file://$MODULE_DIR$/outputs", "/", "/outputs");
+                toPathTest.run("jar://C:/qub/a.jar!/", "/project", "C:/qub/a.jar");
+                toPathTest.run("jar://C:/qub/a.jar!", "/project", "C:/qub/a.jar");
+                toPathTest.run("jar://C:/qub/a.jar!/qub/A.class", "/project", "C:/qub/a.jar");
+                toPathTest.run("jar://$MODULE_DIR$/libs/a.jar!/", "/project", "/project/libs/a.jar");
+            });
+        });
+    }
+}
@@ -0,0 +1,455 @@
+package qub;
+
+public interface IntellijWorkspaceTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijWorkspace.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final IntellijWorkspace workspace = IntellijWorkspace.create();
+                test.assertNotNull(workspace);
+                test.assertEqual(
+                    XMLDocument.create()
+                        .setRoot(XMLElement.create("project")
+                            .setAttribute("version", "4")),
+                    workspace.toXml());
+            });
+
+            runner.testGroup("parse(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijWorkspace.parse((String)null),
+                        new PreConditionFailure("text cannot be null."));
+                });
+
+                runner.test("with empty workspace", (Test test) ->
+                {
+                    test.assertEqual(IntellijWorkspace.create(), IntellijWorkspace.parse(IntellijWorkspace.create().toString()).await());
+                });
+
+                runner.test("with run configuration", (Test test) ->
+                {
+                    final IntellijWorkspace expected = IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"));
+                    test.assertEqual(expected, IntellijWorkspace.parse(expected.toString(XMLFormat.pretty)).await());
+                });
+            });
+
+            runner.testGroup("parse(String,Iterable<String>)", () ->
+            {
+                final String text =
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                    "<project version=\"4\">\n" +
+                    "  <component name=\"ChangeListManager\">\n" +
+                    "    <list default=\"true\" id=\"a\"   name=\"Default\" />\n" +
+                    "    <!-- comment -->\n" +
+                    "  </component>\n" +
+                    "  <component name=\"RunManager\">\n" +
+                    "    <configuration name=\"b\"/>\n" +
+                    "  </component>\n" +
+                    "  <component name=\"TaskManager\" />\n" +
+                    "</project>";
+
+                runner.test("with null text", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijWorkspace.parse((String)null, Iterable.create()),
+                        new PreConditionFailure("text cannot be null."));
+                });
+
+                runner.test("with null componentNames", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijWorkspace.parse(text, null),
+                        new PreConditionFailure("componentNames cannot be null."));
+                });
+
+                runner.test("with no componentNames", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.parse(text, Iterable.create()).await();
+                    test.assertEqual(
+                        Iterable.create("b"),
+                        workspace.getRunConfigurations().map(IntellijWorkspaceRunConfiguration::getName));
+                    test.assertEqual(text, workspace.toString(XMLFormat.pretty));
+                });
+
+                runner.test("with toXml()", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.parse(text, Iterable.create()).await();
+                    final XMLDocument document = workspace.toXml();
+                    test.assertEqual(
+                        XMLElement.create("component")
+                            .setAttribute("name", "ChangeListManager")
+                            .addChild(XMLElement.create("list")
+                                .setAttribute("default", "true")
+                                .setAttribute("id", "a")
+                                .setAttribute("name", "Default")),
+                        document.getRoot().getElementChildren().first().await());
+                    test.assertEqual(
+                        XMLElement.create("component")
+                            .setAttribute("name", "TaskManager"),
+                        document.getRoot().getElementChildren().last().await());
+                    test.assertEqual(IntellijWorkspace.parse(text).await().toString(XMLFormat.pretty), workspace.toString(XMLFormat.pretty));
+                });
+
+                runner.test("with componentNames", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.parse(text, Iterable.create("TaskManager")).await();
+                    test.assertEqual(
+                        text.replace("<component name=\"TaskManager\" />", "<component name=\"TaskManager\"/>"),
+                        workspace.toString(XMLFormat.pretty));
+                });
+
+                runner.test("with added run configuration", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.parse(text, Iterable.create()).await();
+                    workspace.addRunConfiguration(IntellijWorkspaceRunConfiguration.create(
+                        XMLElement.create("configuration")
+                            .setAttribute("name", "c")));
+                    test.assertEqual(
+                        text.replace("    <configuration name=\"b\"/>\n", "    <configuration name=\"b\"/>\n    <configuration name=\"c\"/>\n"),
+                        workspace.toString(XMLFormat.pretty));
+                });
+
+                runner.test("with saveIfChanged(File)", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/workspace.xml").await();
+                    file.setContentsAsString(text).await();
+
+                    final IntellijWorkspace workspace = IntellijWorkspace.parse(file, Iterable.create()).await();
+                    test.assertFalse(workspace.saveIfChanged(file).await());
+                    test.assertEqual(text, file.getContentsAsString().await());
+                });
+            });
+
+            runner.testGroup("saveIfChanged(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create();
+                    test.assertThrows(() -> workspace.saveIfChanged(null),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with non-existing file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/workspace.xml").await();
+                    final IntellijWorkspace workspace = IntellijWorkspace.create();
+
+                    test.assertTrue(workspace.saveIfChanged(file).await());
+                    test.assertEqual(workspace.toString(XMLFormat.pretty), file.getContentsAsString().await());
+                });
+
+                runner.test("with unchanged and then changed workspace", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/workspace.xml").await();
+                    final IntellijWorkspace workspace = IntellijWorkspace.create();
+                    test.assertTrue(workspace.saveIfChanged(file).await());
+                    test.assertFalse(workspace.saveIfChanged(file).await());
+
+                    workspace.addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"));
+                    test.assertTrue(workspace.saveIfChanged(file).await());
+                    test.assertEqual(workspace.toString(XMLFormat.pretty), file.getContentsAsString().await());
+                });
+            });
+
+            runner.testGroup("writeTo(OutputStream,XMLFormat)", () ->
+            {
+                runner.test("with null stream", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create();
+                    test.assertThrows(() -> workspace.writeTo((java.io.OutputStream)null, XMLFormat.pretty),
+                        new PreConditionFailure("stream cannot be null."));
+                });
+
+                runner.test("with null format", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create();
+                    test.assertThrows(() -> workspace.writeTo(new java.io.ByteArrayOutputStream(), null),
+                        new PreConditionFailure("format cannot be null."));
+                });
+
+                runner.test("with run configurations", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"))
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("b \u00E9"));
+                    for (final XMLFormat format : Iterable.create(XMLFormat.consise, XMLFormat.pretty))
+                    {
+                        final java.io.ByteArrayOutputStream stream = new java.io.ByteArrayOutputStream();
+                        workspace.writeTo(stream, format).await();
+                        test.assertEqual(
+                            workspace.toString(format),
+                            new String(stream.toByteArray(), java.nio.charset.StandardCharsets.UTF_8));
+                    }
+                });
+
+                runner.test("with skipped components", (Test test) ->
+                {
+                    final String text =
+                        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                        "<project version=\"4\">\n" +
+                        "  <component name=\"ChangeListManager\">\n" +
+                        "    <list default=\"true\" id=\"a\"   name=\"Default\" />\n" +
+                        "  </component>\n" +
+                        "  <component name=\"RunManager\">\n" +
+                        "    <configuration name=\"b\"/>\n" +
+                        "  </component>\n" +
+                        "</project>";
+                    final IntellijWorkspace workspace = IntellijWorkspace.parse(text, Iterable.create()).await();
+                    final java.io.ByteArrayOutputStream stream = new java.io.ByteArrayOutputStream();
+                    workspace.writeTo(stream, XMLFormat.pretty).await();
+                    test.assertEqual(text, new String(stream.toByteArray(), java.nio.charset.StandardCharsets.UTF_8));
+                });
+            });
+
+            runner.testGroup("writeTo(WritableByteChannel,XMLFormat)", () ->
+            {
+                runner.test("with null channel", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create();
+                    test.assertThrows(() -> workspace.writeTo((java.nio.channels.WritableByteChannel)null, XMLFormat.pretty),
+                        new PreConditionFailure("channel cannot be null."));
+                });
+            });
+
+            runner.testGroup("getRunConfiguration(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create();
+                    test.assertThrows(() -> workspace.getRunConfiguration(null),
+                        new PreConditionFailure("name cannot be null."));
+                });
+
+                runner.test("with non-existing name", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"));
+                    test.assertThrows(() -> workspace.getRunConfiguration("b").await(),
+                        new NotFoundException("Could not find a run configuration with the name \"b\"."));
+                });
+
+                runner.test("with existing name", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"))
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("b"));
+                    test.assertEqual(IntellijWorkspaceRunConfiguration.create().setName("b"), workspace.getRunConfiguration("b").await());
+                });
+
+                runner.test("with parsed workspace", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.parse(IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"))
+                        .toString()).await();
+                    test.assertEqual(IntellijWorkspaceRunConfiguration.create().setName("a"), workspace.getRunConfiguration("a").await());
+                });
+
+                runner.test("after renaming an added run configuration", (Test test) ->
+                {
+                    final IntellijWorkspaceRunConfiguration runConfiguration = IntellijWorkspaceRunConfiguration.create().setName("a");
+                    final IntellijWorkspace workspace = IntellijWorkspace.create()
+                        .addRunConfiguration(runConfiguration);
+                    test.assertNotNull(workspace.getRunConfiguration("a").await());
+
+                    runConfiguration.setName("b");
+                    test.assertThrows(() -> workspace.getRunConfiguration("a").await(),
+                        new NotFoundException("Could not find a run configuration with the name \"a\"."));
+                    test.assertEqual(runConfiguration, workspace.getRunConfiguration("b").await());
+                });
+
+                runner.test("after renaming a returned run configuration", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"));
+                    workspace.getRunConfiguration("a").await().setName("b");
+                    test.assertThrows(() -> workspace.getRunConfiguration("a").await(),
+                        new NotFoundException("Could not find a run configuration with the name \"a\"."));
+                    test.assertEqual(IntellijWorkspaceRunConfiguration.create().setName("b"), workspace.getRunConfiguration("b").await());
+                });
+
+                runner.test("after renaming the XML element directly", (Test test) ->
+                {
+                    final IntellijWorkspaceRunConfiguration runConfiguration = IntellijWorkspaceRunConfiguration.create().setName("a");
+                    final IntellijWorkspace workspace = IntellijWorkspace.create()
+                        .addRunConfiguration(runConfiguration);
+                    runConfiguration.toXml().setAttribute("name", "b");
+                    test.assertThrows(() -> workspace.getRunConfiguration("a").await(),
+                        new NotFoundException("Could not find a run configuration with the name \"a\"."));
+                    test.assertEqual(runConfiguration, workspace.getRunConfiguration("b").await());
+                });
+
+                runner.test("after removing the run configuration", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"));
+                    workspace.removeRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a")).await();
+                    test.assertThrows(() -> workspace.getRunConfiguration("a").await(),
+                        new NotFoundException("Could not find a run configuration with the name \"a\"."));
+                    test.assertEqual(Iterable.create(), workspace.getRunConfigurations());
+                });
+            });
+
+            runner.testGroup("getRunConfigurationsByMainClass(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create();
+                    test.assertThrows(() -> workspace.getRunConfigurationsByMainClass(null),
+                        new PreConditionFailure("mainClassFullName cannot be null."));
+                });
+
+                runner.test("with no matches", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a").setMainClassFullName("A"));
+                    test.assertEqual(Iterable.create(), workspace.getRunConfigurationsByMainClass("B"));
+                });
+
+                runner.test("with multiple matches", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a").setMainClassFullName("A"))
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("b").setMainClassFullName("B"))
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("c").setMainClassFullName("A"));
+                    test.assertEqual(
+                        Iterable.create("a", "c"),
+                        workspace.getRunConfigurationsByMainClass("A").map(IntellijWorkspaceRunConfiguration::getName));
+                });
+
+                runner.test("after changing the main class of a returned run configuration", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a").setMainClassFullName("A"));
+                    workspace.getRunConfiguration("a").await().setMainClassFullName("B");
+                    test.assertEqual(Iterable.create(), workspace.getRunConfigurationsByMainClass("A"));
+                    test.assertEqual(
+                        Iterable.create("a"),
+                        workspace.getRunConfigurationsByMainClass("B").map(IntellijWorkspaceRunConfiguration::getName));
+                });
+            });
+
+            runner.testGroup("removeRunConfigurations(Func1<IntellijWorkspaceRunConfiguration,Boolean>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create();
+                    test.assertThrows(() -> workspace.removeRunConfigurations(null),
+                        new PreConditionFailure("condition cannot be null."));
+                });
+
+                runner.test("with no matches", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"));
+                    test.assertEqual(0, workspace.removeRunConfigurations((IntellijWorkspaceRunConfiguration runConfiguration) -> false));
+                    test.assertEqual(
+                        Iterable.create("a"),
+                        workspace.getRunConfigurations().map(IntellijWorkspaceRunConfiguration::getName));
+                });
+
+                runner.test("with some matches", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a").setMainClassFullName("A"))
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("b").setMainClassFullName("B"))
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("c").setMainClassFullName("A"));
+                    test.assertEqual(2, workspace.removeRunConfigurations((IntellijWorkspaceRunConfiguration runConfiguration) -> runConfiguration.getMainClassFullName().equals("A")));
+                    test.assertEqual(
+                        Iterable.create("b"),
+                        workspace.getRunConfigurations().map(IntellijWorkspaceRunConfiguration::getName));
+                    test.assertEqual(Iterable.create(), workspace.getRunConfigurationsByMainClass("A"));
+                    test.assertThrows(() -> workspace.getRunConfiguration("a").await(),
+                        new NotFoundException("Could not find a run configuration with the name \"a\"."));
+                });
+
+                runner.test("with other RunManager children", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.parse(
+                        "<project version=\"4\">" +
+                            "<component name=\"RunManager\" selected=\"Application.b\">" +
+                                "<configuration name=\"a\"/>" +
+                                "<list><item itemvalue=\"Application.a\"/></list>" +
+                                "<configuration name=\"b\"/>" +
+                            "</component>" +
+                        "</project>").await();
+                    test.assertEqual(1, workspace.removeRunConfigurations((IntellijWorkspaceRunConfiguration runConfiguration) -> runConfiguration.getName().equals("a")));
+                    test.assertEqual(
+                        "<project version=\"4\">" +
+                            "<component name=\"RunManager\" selected=\"Application.b\">" +
+                                "<list><item itemvalue=\"Application.a\"/></list>" +
+                                "<configuration name=\"b\"/>" +
+                            "</component>" +
+                        "</project>",
+                        workspace.toString(XMLFormat.consise));
+                });
+            });
+
+            runner.testGroup("removeRunConfigurationsByName(Iterable<String>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create();
+                    test.assertThrows(() -> workspace.removeRunConfigurationsByName((Iterable<String>)null),
+                        new PreConditionFailure("names cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"));
+                    test.assertEqual(0, workspace.removeRunConfigurationsByName(Iterable.create()));
+                });
+
+                runner.test("with matching and non-matching names", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"))
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("b"))
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"))
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("c"));
+                    test.assertEqual(3, workspace.removeRunConfigurationsByName(Iterable.create("a", "c", "d")));
+                    test.assertEqual(
+                        Iterable.create("b"),
+                        workspace.getRunConfigurations().map(IntellijWorkspaceRunConfiguration::getName));
+                });
+            });
+
+            runner.testGroup("removeRunConfigurationsByName(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create();
+                    test.assertThrows(() -> workspace.removeRunConfigurationsByName((String)null),
+                        new PreConditionFailure("name cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create();
+                    test.assertThrows(() -> workspace.removeRunConfigurationsByName(""),
+                        new PreConditionFailure("name cannot be empty."));
+                });
+
+                runner.test("with matching name", (Test test) ->
+                {
+                    final IntellijWorkspace workspace = IntellijWorkspace.create()
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("a"))
+                        .addRunConfiguration(IntellijWorkspaceRunConfiguration.create().setName("b"));
+                    test.assertEqual(1, workspace.removeRunConfigurationsByName("b"));
+                    test.assertEqual(
+                        Iterable.create("a"),
+                        workspace.getRunConfigurations().map(IntellijWorkspaceRunConfiguration::getName));
+                });
+            });
+        });
+    }
+}
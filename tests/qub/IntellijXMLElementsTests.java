@@ -0,0 +1,83 @@
+package qub;
+
+public interface IntellijXMLElementsTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijXMLElements.class, () ->
+        {
+            runner.testGroup("getAttributeValue(XMLElement,String)", () ->
+            {
+                final Action3<XMLElement,String,String> getAttributeValueTest = (XMLElement element, String attributeName, String expected) ->
+                {
+                    runner.test("with " + English.andList(element, Strings.escapeAndQuote(attributeName)), (Test test) ->
+                    {
+                        test.assertEqual(expected, IntellijXMLElements.getAttributeValue(element, attributeName));
+                    });
+                };
+
+                getAttributeValueTest.run(XMLElement.create("a"), "b", null);
+                getAttributeValueTest.run(XMLElement.create("a").setAttribute("c", "d"), "b", null);
+                getAttributeValueTest.run(XMLElement.create("a").setAttribute("b", ""), "b", "");
+                getAttributeValueTest.run(XMLElement.create("a").setAttribute("c", "d").setAttribute("b", "e"), "b", "e");
+            });
+
+            runner.testGroup("hasAttributeValue(XMLElement,String,String)", () ->
+            {
+                final Action4<XMLElement,String,String,Boolean> hasAttributeValueTest = (XMLElement element, String attributeName, String attributeValue, Boolean expected) ->
+                {
+                    runner.test("with " + English.andList(element, Strings.escapeAndQuote(attributeName), Strings.escapeAndQuote(attributeValue)), (Test test) ->
+                    {
+                        test.assertEqual(expected, IntellijXMLElements.hasAttributeValue(element, attributeName, attributeValue));
+                    });
+                };
+
+                hasAttributeValueTest.run(XMLElement.create("a"), "b", null, true);
+                hasAttributeValueTest.run(XMLElement.create("a"), "b", "c", false);
+                hasAttributeValueTest.run(XMLElement.create("a").setAttribute("b", "d"), "b", "c", false);
+                hasAttributeValueTest.run(XMLElement.create("a").setAttribute("b", "c"), "b", "c", true);
+            });
+
+            runner.testGroup("getFirstElementChild(XMLElement,String)", () ->
+            {
+                final Action3<XMLElement,String,XMLElement> getFirstElementChildTest = (XMLElement element, String childElementName, XMLElement expected) ->
+                {
+                    runner.test("with " + English.andList(element, Strings.escapeAndQuote(childElementName)), (Test test) ->
+                    {
+                        test.assertEqual(expected, IntellijXMLElements.getFirstElementChild(element, childElementName));
+                    });
+                };
+
+                getFirstElementChildTest.run(XMLElement.create("a"), "b", null);
+                getFirstElementChildTest.run(XMLElement.create("a").addChild(XMLElement.create("c")), "b", null);
+                getFirstElementChildTest.run(
+                    XMLElement.create("a")
+                        .addChild(XMLElement.create("c"))
+                        .addChild(XMLElement.create("b").setAttribute("d", "1"))
+                        .addChild(XMLElement.create("b").setAttribute("d", "2")),
+                    "b",
+                    XMLElement.create("b").setAttribute("d", "1"));
+            });
+
+            runner.testGroup("getFirstElementChild(XMLElement,String,String,String)", () ->
+            {
+                final XMLElement element = XMLElement.create("a")
+                    .addChild(XMLElement.create("option").setAttribute("name", "A"))
+                    .addChild(XMLElement.create("other").setAttribute("name", "B"))
+                    .addChild(XMLElement.create("option").setAttribute("name", "B").setAttribute("value", "1"));
+
+                runner.test("with no matching child", (Test test) ->
+                {
+                    test.assertNull(IntellijXMLElements.getFirstElementChild(element, "option", "name", "C"));
+                });
+
+                runner.test("with matching child", (Test test) ->
+                {
+                    test.assertEqual(
+                        XMLElement.create("option").setAttribute("name", "B").setAttribute("value", "1"),
+                        IntellijXMLElements.getFirstElementChild(element, "option", "name", "B"));
+                });
+            });
+        });
+    }
+}
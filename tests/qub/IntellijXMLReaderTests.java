@@ -0,0 +1,171 @@
+package qub;
+
+public interface IntellijXMLReaderTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijXMLReader.class, () ->
+        {
+            runner.testGroup("next()", () ->
+            {
+                runner.test("with empty element", (Test test) ->
+                {
+                    final IntellijXMLReader reader = IntellijXMLReader.create("<a b=\"c\"/>");
+                    test.assertEqual(IntellijXMLReader.Token.StartElement, reader.next());
+                    test.assertEqual("a", reader.getName());
+                    test.assertEqual(1, reader.getDepth());
+                    test.assertTrue(reader.isEmptyElement());
+                    test.assertEqual("c", reader.getAttributeValue("b"));
+                    test.assertNull(reader.getAttributeValue("d"));
+                    test.assertEqual(IntellijXMLReader.Token.EndElement, reader.next());
+                    test.assertEqual("a", reader.getName());
+                    test.assertEqual(0, reader.getDepth());
+                    test.assertEqual(IntellijXMLReader.Token.EndOfDocument, reader.next());
+                });
+
+                runner.test("with declaration, comment, and text", (Test test) ->
+                {
+                    final IntellijXMLReader reader = IntellijXMLReader.create("\uFEFF<?xml version=\"1.0\"?><!-- hi --><a>x &amp; &lt;y&gt; &#65;</a>");
+                    test.assertEqual(IntellijXMLReader.Token.Declaration, reader.next());
+                    test.assertEqual("1.0", reader.getAttributeValue("version"));
+                    test.assertEqual(IntellijXMLReader.Token.StartElement, reader.next());
+                    test.assertFalse(reader.isEmptyElement());
+                    test.assertEqual(IntellijXMLReader.Token.Text, reader.next());
+                    test.assertEqual("x & <y> A", reader.getText());
+                    test.assertEqual(IntellijXMLReader.Token.EndElement, reader.next());
+                    test.assertEqual(IntellijXMLReader.Token.EndOfDocument, reader.next());
+                });
+
+                runner.test("with CDATA", (Test test) ->
+                {
+                    final IntellijXMLReader reader = IntellijXMLReader.create("<a><![CDATA[<b>]]></a>");
+                    reader.next();
+                    test.assertEqual(IntellijXMLReader.Token.Text, reader.next());
+                    test.assertEqual("<b>", reader.getText());
+                });
+
+                runner.test("with mismatched end tag", (Test test) ->
+                {
+                    final IntellijXMLReader reader = IntellijXMLReader.create("<a></b>");
+                    reader.next();
+                    test.assertThrows(() -> reader.next(),
+                        new ParseException("Unexpected end tag for element \"b\"."));
+                });
+
+                runner.test("with hexadecimal character reference outside the Basic Multilingual Plane", (Test test) ->
+                {
+                    final IntellijXMLReader reader = IntellijXMLReader.create("<a>&#x1F600;&#128512;</a>");
+                    reader.next();
+                    test.assertEqual(IntellijXMLReader.Token.Text, reader.next());
+                    test.assertEqual("\uD83D\uDE00\uD83D\uDE00", reader.getText());
+                });
+
+                final Action1<String> malformedCharacterReferenceTest = (String entity) ->
+                {
+                    runner.test("with malformed character reference " + Strings.escapeAndQuote(entity), (Test test) ->
+                    {
+                        final IntellijXMLReader reader = IntellijXMLReader.create("<a>" + entity + "</a>");
+                        reader.next();
+                        test.assertThrows(() -> reader.next(),
+                            new ParseException("Invalid character reference: " + Strings.quote(entity)));
+                    });
+                };
+
+                malformedCharacterReferenceTest.run("&#;");
+                malformedCharacterReferenceTest.run("&#x;");
+                malformedCharacterReferenceTest.run("&#xZZ;");
+                malformedCharacterReferenceTest.run("&#12a;");
+                malformedCharacterReferenceTest.run("&#-1;");
+                malformedCharacterReferenceTest.run("&#+65;");
+                malformedCharacterReferenceTest.run("&#0;");
+                malformedCharacterReferenceTest.run("&#xD800;");
+                malformedCharacterReferenceTest.run("&#x110000;");
+                malformedCharacterReferenceTest.run("&#99999999999;");
+                malformedCharacterReferenceTest.run("&#xFFFFFFFFF;");
+            });
+
+            runner.testGroup("skipElement()", () ->
+            {
+                runner.test("with nested elements", (Test test) ->
+                {
+                    final IntellijXMLReader reader = IntellijXMLReader.create("<a><b><c/><c></c></b><d/></a>");
+                    reader.next();
+                    reader.next();
+                    reader.skipElement();
+                    test.assertEqual(IntellijXMLReader.Token.EndElement, reader.getCurrent());
+                    test.assertEqual("b", reader.getName());
+                    test.assertEqual(IntellijXMLReader.Token.StartElement, reader.next());
+                    test.assertEqual("d", reader.getName());
+                });
+
+                runner.test("with empty element", (Test test) ->
+                {
+                    final IntellijXMLReader reader = IntellijXMLReader.create("<a><b/><c/></a>");
+                    reader.next();
+                    reader.next();
+                    reader.skipElement();
+                    test.assertEqual(IntellijXMLReader.Token.EndElement, reader.getCurrent());
+                    test.assertEqual("b", reader.getName());
+                    test.assertEqual(1, reader.getDepth());
+                    test.assertEqual(IntellijXMLReader.Token.StartElement, reader.next());
+                    test.assertEqual("c", reader.getName());
+                });
+
+                runner.test("with markup inside attributes, comments, and CDATA", (Test test) ->
+                {
+                    final String text = "<a><b x=\"</b>\" y='/>'><!-- </b> --><?p </b>?><![CDATA[</b>]]]><c/>text</b><d/></a>";
+                    final IntellijXMLReader reader = IntellijXMLReader.create(text);
+                    reader.next();
+                    reader.next();
+                    reader.skipElement();
+                    test.assertEqual(IntellijXMLReader.Token.EndElement, reader.getCurrent());
+                    test.assertEqual("b", reader.getName());
+                    test.assertEqual(text.indexOf("<d/>"), reader.getIndex());
+                    test.assertEqual(IntellijXMLReader.Token.StartElement, reader.next());
+                    test.assertEqual("d", reader.getName());
+                });
+
+                runner.test("with mismatched end tag", (Test test) ->
+                {
+                    final IntellijXMLReader reader = IntellijXMLReader.create("<a><b><c></c></d></a>");
+                    reader.next();
+                    reader.next();
+                    test.assertThrows(() -> reader.skipElement(),
+                        new ParseException("Unexpected end tag for element \"d\"."));
+                });
+
+                runner.test("with missing end tag", (Test test) ->
+                {
+                    final IntellijXMLReader reader = IntellijXMLReader.create("<a><b><c>");
+                    reader.next();
+                    reader.next();
+                    test.assertThrows(() -> reader.skipElement(),
+                        new ParseException("Unexpected end of document."));
+                });
+            });
+
+            runner.testGroup("readDocument()", () ->
+            {
+                final Action2<String,XMLDocument> readDocumentTest = (String text, XMLDocument expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        test.assertEqual(expected, IntellijXMLReader.create(text).readDocument());
+                    });
+                };
+
+                readDocumentTest.run("", XMLDocument.create());
+                readDocumentTest.run("<a/>", XMLDocument.create().setRoot(XMLElement.create("a")));
+                readDocumentTest.run("<a></a>", XMLDocument.create().setRoot(XMLElement.create("a", true)));
+                readDocumentTest.run(
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<a b=\"c\">\n  <d>e</d>\n</a>",
+                    XMLDocument.create()
+                        .setDeclaration(XMLDeclaration.create().setVersion("1.0").setEncoding("UTF-8"))
+                        .setRoot(XMLElement.create("a")
+                            .setAttribute("b", "c")
+                            .addChild(XMLElement.create("d")
+                                .addChild(XMLText.create("e")))));
+            });
+        });
+    }
+}
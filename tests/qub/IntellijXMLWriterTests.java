@@ -0,0 +1,66 @@
+package qub;
+
+public interface IntellijXMLWriterTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(IntellijXMLWriter.class, () ->
+        {
+            runner.testGroup("supports(XMLFormat)", () ->
+            {
+                runner.test("with consise", (Test test) ->
+                {
+                    test.assertTrue(IntellijXMLWriter.supports(XMLFormat.consise));
+                });
+
+                runner.test("with pretty", (Test test) ->
+                {
+                    test.assertTrue(IntellijXMLWriter.supports(XMLFormat.pretty));
+                });
+
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertFalse(IntellijXMLWriter.supports(null));
+                });
+            });
+
+            runner.testGroup("toString(XMLDocument,XMLFormat,Func1<XMLElement,CharSequence>)", () ->
+            {
+                runner.test("with null format", (Test test) ->
+                {
+                    test.assertThrows(() -> IntellijXMLWriter.toString(XMLDocument.create(), null, (XMLElement element) -> null),
+                        new PreConditionFailure("IntellijXMLWriter.supports(format) cannot be false."));
+                });
+
+                final Action1<XMLDocument> toStringTest = (XMLDocument document) ->
+                {
+                    for (final XMLFormat format : Iterable.create(XMLFormat.consise, XMLFormat.pretty))
+                    {
+                        runner.test("with " + document.toString(XMLFormat.consise) + " and " + (format == XMLFormat.pretty ? "pretty" : "consise"), (Test test) ->
+                        {
+                            test.assertEqual(
+                                document.toString(format),
+                                IntellijXMLWriter.toString(document, format, (XMLElement element) -> null));
+                        });
+                    }
+                };
+
+                toStringTest.run(XMLDocument.create());
+                toStringTest.run(XMLDocument.create()
+                    .setDeclaration(XMLDeclaration.create().setVersion("1.0").setEncoding("UTF-8"))
+                    .setRoot(XMLElement.create("module")));
+                toStringTest.run(XMLDocument.create()
+                    .setDeclaration(XMLDeclaration.create().setVersion("1.0").setEncoding("UTF-8"))
+                    .setRoot(XMLElement.create("module")
+                        .setAttribute("type", "JAVA_MODULE")
+                        .addChild(XMLElement.create("component")
+                            .setAttribute("name", "NewModuleRootManager")
+                            .addChild(XMLElement.create("content", true))
+                            .addChild(XMLElement.create("orderEntry")
+                                .setAttribute("url", "jar://C:/a & b/\"c\" <d>.jar!/")))
+                        .addChild(XMLElement.create("description")
+                            .addChild(XMLText.create("a < b & \"c\"")))));
+            });
+        });
+    }
+}